@@ -25,6 +25,7 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
 import org.elasticsearch.common.settings.Settings;
@@ -41,6 +42,7 @@ import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Fork(3)
@@ -106,7 +108,12 @@ public class AllocationBenchmark {
         "       10|     10|        2|    50",
         "      100|      1|        2|    50",
         "      100|      3|        2|    50",
-        "      100|     10|        2|    50"
+        "      100|     10|        2|    50",
+
+        // large clusters with 100k shards, mostly interesting for measureReroute
+        "     1000|     50|        1|   100",
+        "     5000|     10|        1|   200",
+        "    50000|      1|        1|   500"
     })
     public String indicesShardsReplicasNodes = "10|1|0|1";
 
@@ -114,6 +121,7 @@ public class AllocationBenchmark {
 
     private AllocationService strategy;
     private ClusterState initialClusterState;
+    private ClusterState allocatedClusterState;
 
     @Setup
     public void setUp() throws Exception {
@@ -149,6 +157,21 @@ public class AllocationBenchmark {
         initialClusterState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
             .metaData(metaData).routingTable(routingTable).nodes
                 (nb).build();
+
+        // allocate everything without recovery throttling, the resulting state is the starting point of measureReroute
+        AllocationService unthrottledStrategy = Allocators.createAllocationService(Settings.builder()
+                .put("cluster.routing.allocation.awareness.attributes", "tag")
+                .put("cluster.routing.allocation.node_concurrent_recoveries", Integer.MAX_VALUE)
+                .put("cluster.routing.allocation.node_initial_primaries_recoveries", Integer.MAX_VALUE)
+                .put("cluster.routing.allocation.cluster_concurrent_rebalance", -1)
+                .build());
+        ClusterState clusterState = unthrottledStrategy.reroute(initialClusterState, "reroute");
+        List<ShardRouting> initializingShards;
+        while ((initializingShards = clusterState.getRoutingNodes().shardsWithState(ShardRoutingState.INITIALIZING)).isEmpty() == false) {
+            clusterState = unthrottledStrategy.applyStartedShards(clusterState, initializingShards);
+            clusterState = unthrottledStrategy.reroute(clusterState, "reroute");
+        }
+        allocatedClusterState = clusterState;
     }
 
     private int toInt(String v) {
@@ -165,4 +188,13 @@ public class AllocationBenchmark {
         }
         return clusterState;
     }
+
+    /**
+     * Measures a single reroute of a cluster where all shards are already started, which is what the master does on most cluster
+     * state updates.
+     */
+    @Benchmark
+    public ClusterState measureReroute() {
+        return strategy.reroute(allocatedClusterState, "reroute");
+    }
 }
@@ -0,0 +1,602 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Counter;
+import org.elasticsearch.action.search.SearchTask;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ObjectMapper;
+import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.search.SearchExtBuilder;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.SearchContextAggregations;
+import org.elasticsearch.search.collapse.CollapseContext;
+import org.elasticsearch.search.dfs.DfsSearchResult;
+import org.elasticsearch.search.fetch.FetchPhase;
+import org.elasticsearch.search.fetch.FetchSearchResult;
+import org.elasticsearch.search.fetch.StoredFieldsContext;
+import org.elasticsearch.search.fetch.subphase.DocValueFieldsContext;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.fetch.subphase.ScriptFieldsContext;
+import org.elasticsearch.search.fetch.subphase.highlight.SearchContextHighlight;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.ScrollContext;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.internal.ShardSearchLocalRequest;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.search.profile.Profilers;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.rescore.RescoreContext;
+import org.elasticsearch.search.sort.SortAndFormats;
+import org.elasticsearch.search.suggest.SuggestionSearchContext;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The minimal {@link SearchContext} the query and fetch phases need to run against an {@link InMemoryShard} without an index
+ * service: a searcher, the shard's mapper service and query shard context, and the state the two phases read and write. Features
+ * that the benchmarks don't exercise, like aggregations, highlighting or scrolls, are reported as not requested.
+ */
+final class BenchmarkSearchContext extends SearchContext {
+
+    private final ShardSearchRequest request;
+    private final IndexShard indexShard;
+    private final QueryShardContext queryShardContext;
+    private final ContextIndexSearcher searcher;
+    private final Counter timeEstimateCounter = Counter.newCounter();
+    private final Map<Class<?>, Collector> queryCollectors = new HashMap<>();
+    private final QuerySearchResult queryResult = new QuerySearchResult();
+    private final FetchSearchResult fetchResult = new FetchSearchResult();
+    private final long originNanoTime = System.nanoTime();
+    private SearchTask task;
+    private ParsedQuery originalQuery;
+    private Query query;
+    private ParsedQuery postFilter;
+    private SortAndFormats sort;
+    private boolean trackScores = false;
+    private boolean trackTotalHits = true;
+    private int from;
+    private int size;
+    private FetchSourceContext fetchSourceContext;
+    private int[] docIdsToLoad = new int[0];
+    private int docIdsToLoadFrom;
+    private int docIdsToLoadSize;
+
+    BenchmarkSearchContext(IndexShard indexShard, QueryShardContext queryShardContext, ContextIndexSearcher searcher) {
+        this.request = new ShardSearchLocalRequest(indexShard.shardId(), new String[0], 0L, AliasFilter.EMPTY);
+        this.indexShard = indexShard;
+        this.queryShardContext = queryShardContext;
+        this.searcher = searcher;
+        setTask(new SearchTask(0L, "transport", "indices:data/read/search", "benchmark", null, Collections.emptyMap()));
+    }
+
+    @Override
+    public void setTask(SearchTask task) {
+        this.task = task;
+    }
+
+    @Override
+    public SearchTask getTask() {
+        return task;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    protected void doClose() {
+    }
+
+    @Override
+    public void preProcess(boolean rewrite) {
+    }
+
+    @Override
+    public Query buildFilteredQuery(Query query) {
+        return query;
+    }
+
+    @Override
+    public long id() {
+        return 0;
+    }
+
+    @Override
+    public String source() {
+        return "benchmark";
+    }
+
+    @Override
+    public ShardSearchRequest request() {
+        return request;
+    }
+
+    @Override
+    public SearchType searchType() {
+        return SearchType.QUERY_THEN_FETCH;
+    }
+
+    @Override
+    public SearchShardTarget shardTarget() {
+        return null;
+    }
+
+    @Override
+    public int numberOfShards() {
+        return 1;
+    }
+
+    @Override
+    public float queryBoost() {
+        return 1.0f;
+    }
+
+    @Override
+    public long getOriginNanoTime() {
+        return originNanoTime;
+    }
+
+    @Override
+    public ScrollContext scrollContext() {
+        return null;
+    }
+
+    @Override
+    public SearchContext scrollContext(ScrollContext scroll) {
+        throw new UnsupportedOperationException("scrolls are not supported in benchmarks");
+    }
+
+    @Override
+    public SearchContextAggregations aggregations() {
+        return null;
+    }
+
+    @Override
+    public SearchContext aggregations(SearchContextAggregations aggregations) {
+        // the aggregation phase unsets the aggregations once it ran, the benchmarks don't set any
+        if (aggregations != null) {
+            throw new UnsupportedOperationException("aggregations are not supported in benchmarks");
+        }
+        return this;
+    }
+
+    @Override
+    public void addSearchExt(SearchExtBuilder searchExtBuilder) {
+        throw new UnsupportedOperationException("search extensions are not supported in benchmarks");
+    }
+
+    @Override
+    public SearchExtBuilder getSearchExt(String name) {
+        return null;
+    }
+
+    @Override
+    public SearchContextHighlight highlight() {
+        return null;
+    }
+
+    @Override
+    public void highlight(SearchContextHighlight highlight) {
+        throw new UnsupportedOperationException("highlighting is not supported in benchmarks");
+    }
+
+    @Override
+    public SuggestionSearchContext suggest() {
+        return null;
+    }
+
+    @Override
+    public void suggest(SuggestionSearchContext suggest) {
+        throw new UnsupportedOperationException("suggestions are not supported in benchmarks");
+    }
+
+    @Override
+    public List<RescoreContext> rescore() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void addRescore(RescoreContext rescore) {
+        throw new UnsupportedOperationException("rescoring is not supported in benchmarks");
+    }
+
+    @Override
+    public boolean hasScriptFields() {
+        return false;
+    }
+
+    @Override
+    public ScriptFieldsContext scriptFields() {
+        return null;
+    }
+
+    @Override
+    public boolean sourceRequested() {
+        return fetchSourceContext != null && fetchSourceContext.fetchSource();
+    }
+
+    @Override
+    public boolean hasFetchSourceContext() {
+        return fetchSourceContext != null;
+    }
+
+    @Override
+    public FetchSourceContext fetchSourceContext() {
+        return fetchSourceContext;
+    }
+
+    @Override
+    public SearchContext fetchSourceContext(FetchSourceContext fetchSourceContext) {
+        this.fetchSourceContext = fetchSourceContext;
+        return this;
+    }
+
+    @Override
+    public DocValueFieldsContext docValueFieldsContext() {
+        return null;
+    }
+
+    @Override
+    public SearchContext docValueFieldsContext(DocValueFieldsContext docValueFieldsContext) {
+        throw new UnsupportedOperationException("doc value fields are not supported in benchmarks");
+    }
+
+    @Override
+    public ContextIndexSearcher searcher() {
+        return searcher;
+    }
+
+    @Override
+    public IndexShard indexShard() {
+        return indexShard;
+    }
+
+    @Override
+    public MapperService mapperService() {
+        return queryShardContext.getMapperService();
+    }
+
+    @Override
+    public SimilarityService similarityService() {
+        return null;
+    }
+
+    @Override
+    public BigArrays bigArrays() {
+        return BigArrays.NON_RECYCLING_INSTANCE;
+    }
+
+    @Override
+    public BitsetFilterCache bitsetFilterCache() {
+        return null;
+    }
+
+    @Override
+    public <IFD extends IndexFieldData<?>> IFD getForField(MappedFieldType fieldType) {
+        return queryShardContext.getForField(fieldType);
+    }
+
+    @Override
+    public TimeValue timeout() {
+        return SearchService.NO_TIMEOUT;
+    }
+
+    @Override
+    public void timeout(TimeValue timeout) {
+        throw new UnsupportedOperationException("timeouts are not supported in benchmarks");
+    }
+
+    @Override
+    public int terminateAfter() {
+        return DEFAULT_TERMINATE_AFTER;
+    }
+
+    @Override
+    public void terminateAfter(int terminateAfter) {
+        throw new UnsupportedOperationException("terminate_after is not supported in benchmarks");
+    }
+
+    @Override
+    public boolean lowLevelCancellation() {
+        return false;
+    }
+
+    @Override
+    public SearchContext minimumScore(float minimumScore) {
+        throw new UnsupportedOperationException("min_score is not supported in benchmarks");
+    }
+
+    @Override
+    public Float minimumScore() {
+        return null;
+    }
+
+    @Override
+    public SearchContext sort(SortAndFormats sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    @Override
+    public SortAndFormats sort() {
+        return sort;
+    }
+
+    @Override
+    public SearchContext trackScores(boolean trackScores) {
+        this.trackScores = trackScores;
+        return this;
+    }
+
+    @Override
+    public boolean trackScores() {
+        return trackScores;
+    }
+
+    @Override
+    public SearchContext trackTotalHits(boolean trackTotalHits) {
+        this.trackTotalHits = trackTotalHits;
+        return this;
+    }
+
+    @Override
+    public boolean trackTotalHits() {
+        return trackTotalHits;
+    }
+
+    @Override
+    public SearchContext searchAfter(FieldDoc searchAfter) {
+        throw new UnsupportedOperationException("search_after is not supported in benchmarks");
+    }
+
+    @Override
+    public FieldDoc searchAfter() {
+        return null;
+    }
+
+    @Override
+    public SearchContext collapse(CollapseContext collapse) {
+        throw new UnsupportedOperationException("field collapsing is not supported in benchmarks");
+    }
+
+    @Override
+    public CollapseContext collapse() {
+        return null;
+    }
+
+    @Override
+    public SearchContext parsedPostFilter(ParsedQuery postFilter) {
+        this.postFilter = postFilter;
+        return this;
+    }
+
+    @Override
+    public ParsedQuery parsedPostFilter() {
+        return postFilter;
+    }
+
+    @Override
+    public Query aliasFilter() {
+        return null;
+    }
+
+    @Override
+    public SearchContext parsedQuery(ParsedQuery query) {
+        this.originalQuery = query;
+        this.query = query.query();
+        return this;
+    }
+
+    @Override
+    public ParsedQuery parsedQuery() {
+        return originalQuery;
+    }
+
+    @Override
+    public Query query() {
+        return query;
+    }
+
+    @Override
+    public int from() {
+        return from;
+    }
+
+    @Override
+    public SearchContext from(int from) {
+        this.from = from;
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public SearchContext size(int size) {
+        this.size = size;
+        return this;
+    }
+
+    @Override
+    public boolean hasStoredFields() {
+        return false;
+    }
+
+    @Override
+    public boolean hasStoredFieldsContext() {
+        return false;
+    }
+
+    @Override
+    public boolean storedFieldsRequested() {
+        return false;
+    }
+
+    @Override
+    public StoredFieldsContext storedFieldsContext() {
+        return null;
+    }
+
+    @Override
+    public SearchContext storedFieldsContext(StoredFieldsContext storedFieldsContext) {
+        throw new UnsupportedOperationException("stored fields are not supported in benchmarks");
+    }
+
+    @Override
+    public boolean explain() {
+        return false;
+    }
+
+    @Override
+    public void explain(boolean explain) {
+        throw new UnsupportedOperationException("explain is not supported in benchmarks");
+    }
+
+    @Override
+    public List<String> groupStats() {
+        return null;
+    }
+
+    @Override
+    public void groupStats(List<String> groupStats) {
+        throw new UnsupportedOperationException("stats groups are not supported in benchmarks");
+    }
+
+    @Override
+    public boolean version() {
+        return false;
+    }
+
+    @Override
+    public void version(boolean version) {
+        throw new UnsupportedOperationException("versions are not supported in benchmarks");
+    }
+
+    @Override
+    public int[] docIdsToLoad() {
+        return docIdsToLoad;
+    }
+
+    @Override
+    public int docIdsToLoadFrom() {
+        return docIdsToLoadFrom;
+    }
+
+    @Override
+    public int docIdsToLoadSize() {
+        return docIdsToLoadSize;
+    }
+
+    @Override
+    public SearchContext docIdsToLoad(int[] docIdsToLoad, int docsIdsToLoadFrom, int docsIdsToLoadSize) {
+        this.docIdsToLoad = docIdsToLoad;
+        this.docIdsToLoadFrom = docsIdsToLoadFrom;
+        this.docIdsToLoadSize = docsIdsToLoadSize;
+        return this;
+    }
+
+    @Override
+    public void accessed(long accessTime) {
+    }
+
+    @Override
+    public long lastAccessTime() {
+        return 0;
+    }
+
+    @Override
+    public long keepAlive() {
+        return 0;
+    }
+
+    @Override
+    public void keepAlive(long keepAlive) {
+    }
+
+    @Override
+    public DfsSearchResult dfsResult() {
+        return null;
+    }
+
+    @Override
+    public QuerySearchResult queryResult() {
+        return queryResult;
+    }
+
+    @Override
+    public FetchPhase fetchPhase() {
+        return null;
+    }
+
+    @Override
+    public FetchSearchResult fetchResult() {
+        return fetchResult;
+    }
+
+    @Override
+    public Profilers getProfilers() {
+        return null;
+    }
+
+    @Override
+    public MappedFieldType smartNameFieldType(String name) {
+        return mapperService().fullName(name);
+    }
+
+    @Override
+    public ObjectMapper getObjectMapper(String name) {
+        return mapperService().getObjectMapper(name);
+    }
+
+    @Override
+    public Counter timeEstimateCounter() {
+        return timeEstimateCounter;
+    }
+
+    @Override
+    public Map<Class<?>, Collector> queryCollectors() {
+        return queryCollectors;
+    }
+
+    @Override
+    public QueryShardContext getQueryShardContext() {
+        return queryShardContext;
+    }
+}
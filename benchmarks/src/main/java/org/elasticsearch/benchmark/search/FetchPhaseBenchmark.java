@@ -0,0 +1,122 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.fetch.FetchPhase;
+import org.elasticsearch.search.fetch.subphase.FetchSourceSubPhase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the fetch phase of a shard, which loads the stored fields and the {@code _source} of the hits, and the serialization
+ * of the fetched hits to the transport and REST formats.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FetchPhaseBenchmark {
+
+    @Param({"10000"})
+    public int numDocs;
+
+    @Param({"10", "100", "1000"})
+    public int hits;
+
+    @Param({"100", "1000", "10000"})
+    public int sourceSize;
+
+    private InMemoryShard shard;
+    private int[] docIds;
+    private FetchPhase fetchPhase;
+    private SearchHits fetchedHits;
+
+    @Setup
+    public void setUp() throws IOException {
+        shard = new InMemoryShard(numDocs, sourceSize, 42L);
+        final Random random = new Random(42L);
+        docIds = new int[hits];
+        for (int i = 0; i < hits; i++) {
+            docIds[i] = random.nextInt(shard.numDocs());
+        }
+        // the fetch phase visits documents in doc id order
+        Arrays.sort(docIds);
+        fetchPhase = new FetchPhase(Collections.singletonList(new FetchSourceSubPhase()));
+        fetchedHits = fetch();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        shard.close();
+    }
+
+    @Benchmark
+    public SearchHits fetch() {
+        final BenchmarkSearchContext context = shard.newSearchContext();
+        context.queryResult().topDocs(new TopDocs(shard.numDocs(), new ScoreDoc[0], Float.NaN), null);
+        context.docIdsToLoad(docIds, 0, docIds.length);
+        fetchPhase.execute(context);
+        return context.fetchResult().hits();
+    }
+
+    @Benchmark
+    public int writeTo() throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            fetchedHits.writeTo(out);
+            return out.size();
+        }
+    }
+
+    @Benchmark
+    public int toXContent() throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput();
+             XContentBuilder builder = XContentFactory.jsonBuilder(out)) {
+            builder.startObject();
+            fetchedHits.toXContent(builder, ToXContent.EMPTY_PARAMS);
+            builder.endObject();
+            builder.flush();
+            return out.size();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.routing.RecoverySource;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.UnassignedInfo;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.env.ShardLock;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AnalyzerScope;
+import org.elasticsearch.index.analysis.IndexAnalyzers;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.cache.IndexCache;
+import org.elasticsearch.index.cache.query.DisabledQueryCache;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.engine.InternalEngineFactory;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.shard.IndexEventListener;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.shard.ShardPath;
+import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.indices.IndicesModule;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single shard worth of documents held in memory, together with the mapping that was used to index them. Every document
+ * has a {@code text} field made of words picked from a small, skewed vocabulary so that term queries produce varied scores,
+ * a numeric {@code rank} field to sort on and a {@code payload} field that pads the {@code _source} to the requested size.
+ */
+final class InMemoryShard implements Closeable {
+
+    static final String INDEX = "index";
+    static final String TYPE = "_doc";
+    static final int VOCABULARY_SIZE = 100;
+
+    private final ShardId shardId = new ShardId(INDEX, "_na_", 0);
+    private final IndexSettings indexSettings;
+    private final MapperService mapperService;
+    private final IndicesFieldDataCache indicesFieldDataCache;
+    private final IndexFieldDataService fieldDataService;
+    private final Directory directory;
+    private final DirectoryReader reader;
+    private final Path dataPath;
+    private final ThreadPool threadPool;
+    private final Store store;
+    private final IndexShard indexShard;
+
+    InMemoryShard(int numDocs, int sourceSize, long seed) throws IOException {
+        final Settings settings = Settings.builder()
+            .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+            .build();
+        this.indexSettings = new IndexSettings(IndexMetaData.builder(INDEX).settings(settings).build(), Settings.EMPTY);
+        this.mapperService = newMapperService(indexSettings);
+        this.indicesFieldDataCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {});
+        this.fieldDataService = new IndexFieldDataService(indexSettings, indicesFieldDataCache, new NoneCircuitBreakerService(),
+            mapperService);
+        this.directory = new RAMDirectory();
+        final Random random = new Random(seed);
+        final DocumentMapper documentMapper = mapperService.documentMapper(TYPE);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(mapperService.indexAnalyzer()))) {
+            for (int i = 0; i < numDocs; i++) {
+                final BytesReference source = newSource(random, sourceSize);
+                final ParsedDocument doc = documentMapper.parse(
+                    SourceToParse.source(INDEX, TYPE, Integer.toString(i), source, XContentType.JSON));
+                writer.addDocuments(doc.docs());
+            }
+            writer.forceMerge(1);
+        }
+        this.reader = DirectoryReader.open(directory);
+        this.dataPath = Files.createTempDirectory("search-benchmark");
+        this.threadPool = new ThreadPool(Settings.builder().put("node.name", "benchmark").build());
+        this.store = new Store(shardId, indexSettings, directory, new ShardLock(shardId) {
+            @Override
+            protected void closeInternal() {
+            }
+        });
+        this.indexShard = newIndexShard();
+    }
+
+    /**
+     * The query phase reads the search thread pool statistics from the shard, so the contexts need one. The shard is never
+     * started and does not own an engine, searches go straight to the reader built above.
+     */
+    private IndexShard newIndexShard() throws IOException {
+        final ShardRouting routing = ShardRouting.newUnassigned(shardId, true, RecoverySource.EmptyStoreRecoverySource.INSTANCE,
+            new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, null)).initialize("benchmark", null, -1);
+        final Path shardPath = dataPath.resolve(shardId.getIndex().getUUID()).resolve(Integer.toString(shardId.id()));
+        return new IndexShard(routing, indexSettings, new ShardPath(false, shardPath, shardPath, shardId), store, () -> null,
+            new IndexCache(indexSettings, new DisabledQueryCache(indexSettings), null), mapperService,
+            new SimilarityService(indexSettings, null, Collections.emptyMap()), new InternalEngineFactory(),
+            new IndexEventListener() {}, null, threadPool, BigArrays.NON_RECYCLING_INSTANCE, searcher -> {},
+            Collections.emptyList(), Collections.emptyList(), () -> {}, new NoneCircuitBreakerService(), null);
+    }
+
+    MapperService mapperService() {
+        return mapperService;
+    }
+
+    int numDocs() {
+        return reader.numDocs();
+    }
+
+    /**
+     * Creates a fresh search context over this shard. Contexts carry per-request state and must not be reused.
+     */
+    BenchmarkSearchContext newSearchContext() {
+        final Engine.Searcher engineSearcher = new Engine.Searcher("benchmark", new IndexSearcher(reader), () -> {});
+        // no query cache so that every invocation does the full amount of work
+        final ContextIndexSearcher searcher = new ContextIndexSearcher(engineSearcher, null,
+            IndexSearcher.getDefaultQueryCachingPolicy());
+        final QueryShardContext queryShardContext = new QueryShardContext(shardId.id(), indexSettings, null,
+            fieldDataService::getForField, mapperService, null, null, NamedXContentRegistry.EMPTY, null, null, reader,
+            System::currentTimeMillis, null);
+        return new BenchmarkSearchContext(indexShard, queryShardContext, searcher);
+    }
+
+    static String word(int index) {
+        return "w" + index;
+    }
+
+    private static BytesReference newSource(Random random, int sourceSize) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            // square the random value so that the first words of the vocabulary are much more frequent
+            final double r = random.nextDouble();
+            text.append(word((int) (r * r * VOCABULARY_SIZE)));
+        }
+        final StringBuilder payload = new StringBuilder(sourceSize);
+        while (payload.length() < sourceSize) {
+            payload.append((char) ('a' + random.nextInt(26)));
+        }
+        final XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+            .field("text", text.toString())
+            .field("rank", random.nextLong())
+            .field("payload", payload.toString())
+            .endObject();
+        return BytesReference.bytes(builder);
+    }
+
+    private static MapperService newMapperService(IndexSettings indexSettings) throws IOException {
+        final NamedAnalyzer standard = new NamedAnalyzer("default", AnalyzerScope.INDEX, new StandardAnalyzer());
+        final IndexAnalyzers indexAnalyzers = new IndexAnalyzers(indexSettings, standard, standard, standard,
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+        final SimilarityService similarityService = new SimilarityService(indexSettings, null, Collections.emptyMap());
+        final MapperService mapperService = new MapperService(indexSettings, indexAnalyzers, NamedXContentRegistry.EMPTY,
+            similarityService, new IndicesModule(Collections.emptyList()).getMapperRegistry(), () -> null);
+        final XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject(TYPE).startObject("properties")
+            .startObject("text").field("type", "text").endObject()
+            .startObject("rank").field("type", "long").endObject()
+            .startObject("payload").field("type", "keyword").field("index", false).field("doc_values", false).endObject()
+            .endObject().endObject().endObject();
+        mapperService.merge(TYPE, new CompressedXContent(BytesReference.bytes(mapping)), MapperService.MergeReason.MAPPING_UPDATE, false);
+        return mapperService;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // closing the store releases the directory
+            IOUtils.close(() -> indexShard.close("benchmark", false), reader, store, fieldDataService, indicesFieldDataCache,
+                mapperService);
+        } finally {
+            ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+            IOUtils.rm(dataPath);
+        }
+    }
+}
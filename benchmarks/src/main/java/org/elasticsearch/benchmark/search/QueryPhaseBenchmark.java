@@ -0,0 +1,117 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.TermQuery;
+import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.query.QueryPhase;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.sort.SortAndFormats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the query phase of a shard: collecting and sorting the top hits of a disjunction of two terms.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class QueryPhaseBenchmark {
+
+    @Param({"100000"})
+    public int numDocs;
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"score", "field", "doc"})
+    public String sort;
+
+    private InMemoryShard shard;
+    private Query query;
+    private SortAndFormats sortAndFormats;
+    private QueryPhase queryPhase;
+
+    @Setup
+    public void setUp() throws IOException {
+        shard = new InMemoryShard(numDocs, 64, 42L);
+        // one frequent and one rare word so that scores vary from document to document
+        query = new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("text", InMemoryShard.word(0))), BooleanClause.Occur.SHOULD)
+            .add(new TermQuery(new Term("text", InMemoryShard.word(InMemoryShard.VOCABULARY_SIZE / 2))), BooleanClause.Occur.SHOULD)
+            .build();
+        query = shard.newSearchContext().searcher().rewrite(query);
+        switch (sort) {
+            case "score":
+                sortAndFormats = null;
+                break;
+            case "field":
+                sortAndFormats = new SortAndFormats(new Sort(new SortedNumericSortField("rank", SortField.Type.LONG)),
+                    new DocValueFormat[] {DocValueFormat.RAW});
+                break;
+            case "doc":
+                sortAndFormats = new SortAndFormats(Sort.INDEXORDER, new DocValueFormat[] {DocValueFormat.RAW});
+                break;
+            default:
+                throw new IllegalArgumentException("unknown sort [" + sort + "]");
+        }
+        queryPhase = new QueryPhase();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        shard.close();
+    }
+
+    @Benchmark
+    public QuerySearchResult query() {
+        final BenchmarkSearchContext context = shard.newSearchContext();
+        context.parsedQuery(new ParsedQuery(query));
+        context.size(size);
+        if (sortAndFormats != null) {
+            context.sort(sortAndFormats);
+        }
+        queryPhase.execute(context);
+        return context.queryResult();
+    }
+}
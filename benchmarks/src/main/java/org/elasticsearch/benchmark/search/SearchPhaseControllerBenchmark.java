@@ -0,0 +1,174 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.elasticsearch.action.search.SearchPhaseController;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.fetch.FetchSearchResult;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reduces the top docs of many shards on the coordinating node and merges the fetched hits into the final response.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SearchPhaseControllerBenchmark {
+
+    @Param({"5", "20", "100"})
+    public int numShards;
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"score", "field"})
+    public String sort;
+
+    private SearchPhaseController controller;
+    private SearchShardTarget[] shardTargets;
+    private TopDocs[] shardTopDocs;
+    private DocValueFormat[] sortValueFormats;
+    private SearchHit[][] fetchedHits;
+
+    @Setup
+    public void setUp() {
+        controller = new SearchPhaseController(
+            isFinalReduce -> new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, isFinalReduce));
+        final Random random = new Random(42L);
+        final SortField[] sortFields = new SortField[] {new SortField("rank", SortField.Type.LONG)};
+        sortValueFormats = "field".equals(sort) ? new DocValueFormat[] {DocValueFormat.RAW} : null;
+        shardTargets = new SearchShardTarget[numShards];
+        shardTopDocs = new TopDocs[numShards];
+        for (int shard = 0; shard < numShards; shard++) {
+            shardTargets[shard] = new SearchShardTarget("node_" + shard, new Index("index", "_na_"), shard, null);
+            final long totalHits = size * 10L;
+            if ("field".equals(sort)) {
+                final long[] values = random.longs(size).toArray();
+                Arrays.sort(values);
+                final FieldDoc[] docs = new FieldDoc[size];
+                for (int i = 0; i < size; i++) {
+                    docs[i] = new FieldDoc(random.nextInt(1 << 20), Float.NaN, new Object[] {values[i]}, shard);
+                }
+                shardTopDocs[shard] = new TopFieldDocs(totalHits, docs, sortFields, Float.NaN);
+            } else {
+                float score = 100f;
+                final ScoreDoc[] docs = new ScoreDoc[size];
+                for (int i = 0; i < size; i++) {
+                    score -= random.nextFloat() / size;
+                    docs[i] = new ScoreDoc(random.nextInt(1 << 20), score, shard);
+                }
+                shardTopDocs[shard] = new TopDocs(totalHits, docs, docs[0].score);
+            }
+        }
+
+        // every shard fetches the prefix of its top docs that makes it into the global top docs
+        final TopDocs merged = "field".equals(sort)
+            ? TopDocs.merge(new Sort(sortFields), size, Arrays.copyOf(shardTopDocs, numShards, TopFieldDocs[].class))
+            : TopDocs.merge(size, shardTopDocs);
+        final int[] fetchedPerShard = new int[numShards];
+        for (ScoreDoc doc : merged.scoreDocs) {
+            fetchedPerShard[doc.shardIndex]++;
+        }
+        final BytesArray source = new BytesArray("{\"text\":\"w0 w1 w2\",\"rank\":42}");
+        fetchedHits = new SearchHit[numShards][];
+        for (int shard = 0; shard < numShards; shard++) {
+            fetchedHits[shard] = new SearchHit[fetchedPerShard[shard]];
+            for (int i = 0; i < fetchedPerShard[shard]; i++) {
+                final ScoreDoc doc = shardTopDocs[shard].scoreDocs[i];
+                fetchedHits[shard][i] = new SearchHit(doc.doc, Integer.toString(doc.doc), new Text("_doc"), Collections.emptyMap())
+                    .sourceRef(source);
+            }
+        }
+    }
+
+    @Benchmark
+    public SearchPhaseController.ReducedQueryPhase reduce() {
+        return controller.reducedQueryPhase(queryResults(), false, true);
+    }
+
+    @Benchmark
+    public InternalSearchResponse reduceAndMerge() {
+        final SearchPhaseController.ReducedQueryPhase reducedQueryPhase = controller.reducedQueryPhase(queryResults(), false, true);
+        final FetchSearchResult[] fetchResults = new FetchSearchResult[numShards];
+        final List<FetchSearchResult> nonEmptyFetchResults = new ArrayList<>();
+        for (int shard = 0; shard < numShards; shard++) {
+            if (fetchedHits[shard].length > 0) {
+                final FetchSearchResult fetchResult = new FetchSearchResult(shard, shardTargets[shard]);
+                fetchResult.hits(new SearchHits(fetchedHits[shard], shardTopDocs[shard].totalHits, Float.NaN));
+                fetchResult.setShardIndex(shard);
+                fetchResults[shard] = fetchResult;
+                nonEmptyFetchResults.add(fetchResult);
+            }
+        }
+        return controller.merge(false, reducedQueryPhase, nonEmptyFetchResults, shard -> fetchResults[shard]);
+    }
+
+    /**
+     * Query results are consumed by the reduction so they need to be rebuilt for every invocation.
+     */
+    private List<SearchPhaseResult> queryResults() {
+        final List<SearchPhaseResult> results = new ArrayList<>(numShards);
+        for (int shard = 0; shard < numShards; shard++) {
+            final QuerySearchResult result = new QuerySearchResult(shard, shardTargets[shard]);
+            result.topDocs(shardTopDocs[shard], sortValueFormats);
+            result.from(0);
+            result.size(size);
+            result.setShardIndex(shard);
+            results.add(result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.index.translog.Translog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the heap and the paged {@link LiveVersionMap} (see {@link EngineConfig#INDEX_PAGED_VERSION_MAP_SETTING}) on the lookups and
+ * updates the engine does for every indexing operation. This lives in the engine package since the version map is package private.
+ * Use {@code -t} to change the number of indexing threads and {@code -prof gc} to compare allocations.
+ */
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(3)
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LiveVersionMapBenchmark {
+
+    @Param({"heap", "paged"})
+    public String mapType;
+
+    @Param({"1000", "100000"})
+    public int numUids;
+
+    private LiveVersionMap map;
+
+    private BytesRef[] uids;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("paged".equals(mapType)) {
+            map = new LiveVersionMap(new BigArrays(new PageCacheRecycler(Settings.EMPTY), null, "version_map"));
+        } else {
+            map = new LiveVersionMap();
+        }
+        // start out in safe access mode like an update heavy index does
+        map.enforceSafeAccess();
+        map.beforeRefresh();
+        map.afterRefresh(true);
+        uids = new BytesRef[numUids];
+        for (int i = 0; i < numUids; i++) {
+            uids[i] = new BytesRef("uid-" + i);
+            try (Releasable ignored = map.acquireLock(uids[i])) {
+                map.putIndexUnderLock(uids[i], newValue(i));
+            }
+        }
+    }
+
+    private static IndexVersionValue newValue(long seqNo) {
+        return new IndexVersionValue(new Translog.Location(1, seqNo * 64, 64), 1, seqNo, 1);
+    }
+
+    @Benchmark
+    public VersionValue get() {
+        final BytesRef uid = uids[ThreadLocalRandom.current().nextInt(numUids)];
+        try (Releasable ignored = map.acquireLock(uid)) {
+            return map.getUnderLock(uid);
+        }
+    }
+
+    @Benchmark
+    public VersionValue getAndPut() {
+        final int i = ThreadLocalRandom.current().nextInt(numUids);
+        final BytesRef uid = uids[i];
+        try (Releasable ignored = map.acquireLock(uid)) {
+            final VersionValue previous = map.getUnderLock(uid);
+            map.putIndexUnderLock(uid, newValue(previous == null ? i : previous.seqNo + 1));
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.client;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the body of a request while it is being sent, see {@link RestClientBuilder#setCompressionEnabled(boolean)}.
+ * The async http client pulls the body from {@link #getContent()}, so the content is compressed as it is read rather than
+ * being compressed up front. Keeps the original entity around so that requests can still be traced in plain text.
+ */
+final class GzipRequestEntity extends HttpEntityWrapper {
+
+    private static final byte[] GZIP_HEADER = new byte[] {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    GzipRequestEntity(HttpEntity entity) {
+        super(entity);
+    }
+
+    HttpEntity getUncompressedEntity() {
+        return wrappedEntity;
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return new BasicHeader("Content-Encoding", "gzip");
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        final CRC32 crc = new CRC32();
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final InputStream deflated = new DeflaterInputStream(new CheckedInputStream(wrappedEntity.getContent(), crc), deflater);
+        // the trailer is only created once the deflated content was read entirely
+        Enumeration<InputStream> parts = new Enumeration<InputStream>() {
+            private int part = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return part < 3;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                switch (part++) {
+                    case 0:
+                        return new ByteArrayInputStream(GZIP_HEADER);
+                    case 1:
+                        return deflated;
+                    case 2:
+                        return new ByteArrayInputStream(trailer(crc.getValue(), deflater.getBytesRead()));
+                    default:
+                        throw new NoSuchElementException();
+                }
+            }
+        };
+        return new SequenceInputStream(parts) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(outStream);
+        wrappedEntity.writeTo(gzip);
+        // only flush the compressed content, the caller is in charge of the output stream
+        gzip.finish();
+    }
+
+    private static byte[] trailer(long crc, long size) {
+        byte[] trailer = new byte[8];
+        writeInt(trailer, 0, crc);
+        writeInt(trailer, 4, size);
+        return trailer;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, long value) {
+        // gzip stores the crc and the size modulo 2^32 in little endian order
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
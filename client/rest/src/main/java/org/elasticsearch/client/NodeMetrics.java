@@ -0,0 +1,161 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.client;
+
+import org.apache.http.HttpHost;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the requests that a {@link RestClient} sends to each host: how many of them are currently in flight, how
+ * many completed or failed and how long they took. Every client has its own metrics, see {@link RestClient#getNodeMetrics()},
+ * and hands them to its {@link NodeSorter} in order to spread requests according to the load of each node.
+ */
+public final class NodeMetrics {
+
+    private final ConcurrentMap<HttpHost, HostMetrics> metrics = new ConcurrentHashMap<>();
+
+    NodeMetrics() {}
+
+    /**
+     * Returns the metrics of the given host, or {@code null} if no request was sent to it yet.
+     */
+    public HostMetrics get(HttpHost host) {
+        return metrics.get(host);
+    }
+
+    /**
+     * Returns the metrics of all the hosts that requests were sent to. The map is unmodifiable but reflects later updates.
+     */
+    public Map<HttpHost, HostMetrics> getAll() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Returns the metrics of the given host, creating them if needed.
+     */
+    HostMetrics getOrCreate(HttpHost host) {
+        HostMetrics hostMetrics = metrics.get(host);
+        if (hostMetrics == null) {
+            HostMetrics newHostMetrics = new HostMetrics();
+            hostMetrics = metrics.putIfAbsent(host, newHostMetrics);
+            if (hostMetrics == null) {
+                hostMetrics = newHostMetrics;
+            }
+        }
+        return hostMetrics;
+    }
+
+    /**
+     * Drops the metrics of the hosts that are not part of the given ones, called when the nodes of the client are replaced.
+     * Requests that are still in flight to the dropped hosts keep updating their (no longer reachable) metrics.
+     */
+    void retainHosts(Collection<HttpHost> hosts) {
+        metrics.keySet().retainAll(hosts);
+    }
+
+    /**
+     * The metrics of the requests sent to a single host. Retried requests count as one request per attempt.
+     */
+    public static final class HostMetrics {
+        private final AtomicLong inFlightRequests = new AtomicLong();
+        private final AtomicLong completedRequests = new AtomicLong();
+        private final AtomicLong failedRequests = new AtomicLong();
+        private final AtomicLong totalTimeNanos = new AtomicLong();
+
+        HostMetrics() {}
+
+        void onRequestStarted() {
+            inFlightRequests.incrementAndGet();
+        }
+
+        /**
+         * Called once the request that was started last got a response, or failed if {@code failed} is {@code true}.
+         * A response with a status code that makes the client retry on another node counts as a failure.
+         */
+        void onRequestCompleted(long tookNanos, boolean failed) {
+            inFlightRequests.decrementAndGet();
+            completedRequests.incrementAndGet();
+            totalTimeNanos.addAndGet(tookNanos);
+            if (failed) {
+                failedRequests.incrementAndGet();
+            }
+        }
+
+        /**
+         * Called when a request was cancelled before it completed.
+         */
+        void onRequestCancelled() {
+            inFlightRequests.decrementAndGet();
+        }
+
+        /**
+         * The number of requests that were sent to the host but did not complete yet.
+         */
+        public long getInFlightRequests() {
+            return inFlightRequests.get();
+        }
+
+        /**
+         * The number of requests to the host that completed, either with a response or with a failure.
+         */
+        public long getCompletedRequests() {
+            return completedRequests.get();
+        }
+
+        /**
+         * The number of requests to the host that failed or got a response that made the client retry on another node.
+         */
+        public long getFailedRequests() {
+            return failedRequests.get();
+        }
+
+        /**
+         * The total time spent waiting for the completed requests, in milliseconds.
+         */
+        public long getTotalTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalTimeNanos.get());
+        }
+
+        /**
+         * The average time that the completed requests took, in milliseconds.
+         */
+        public double getAverageTimeMillis() {
+            long completed = completedRequests.get();
+            return completed == 0 ? 0 : totalTimeNanos.get() / (double) completed / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            return "HostMetrics{" +
+                    "inFlightRequests=" + inFlightRequests +
+                    ", completedRequests=" + completedRequests +
+                    ", failedRequests=" + failedRequests +
+                    ", totalTimeMillis=" + getTotalTimeMillis() +
+                    '}';
+        }
+    }
+}
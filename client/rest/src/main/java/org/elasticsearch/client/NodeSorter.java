@@ -0,0 +1,93 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.client;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders the nodes that a request is tried on. The client calls it with the
+ * living nodes that the {@link NodeSelector} accepted, after it rotated them
+ * so that subsequent requests start with a different node. Since it is
+ * configured separately from the {@link NodeSelector}, any selector can be
+ * combined with any ordering.
+ * Use with {@link RestClientBuilder#setNodeSorter(NodeSorter)}.
+ */
+public interface NodeSorter {
+    /**
+     * Sorts the given nodes into the order in which the request should try
+     * them. Implementers must not add or remove nodes, and should use a
+     * stable sort so that nodes they consider equal keep their rotated
+     * order and keep taking turns.
+     *
+     * @param nodes the nodes to sort, in the order that the client rotated them to
+     * @param nodeMetrics the metrics of the requests that the client sent to each node
+     */
+    void sort(List<Node> nodes, NodeMetrics nodeMetrics);
+
+    /**
+     * Sorter that keeps the rotated order, so requests are sent to the nodes
+     * in turns.
+     */
+    NodeSorter ROUND_ROBIN = new NodeSorter() {
+        @Override
+        public void sort(List<Node> nodes, NodeMetrics nodeMetrics) {
+            // Intentionally does nothing
+        }
+
+        @Override
+        public String toString() {
+            return "ROUND_ROBIN";
+        }
+    };
+
+    /**
+     * Sorter that tries the nodes with the fewest requests in flight first.
+     * Requests are still spread across nodes that are equally busy, and a
+     * node that is slow to respond receives fewer new requests until it
+     * caught up with the others. No node is left out, so a request is still
+     * retried on the busier nodes if the less busy ones fail.
+     */
+    NodeSorter LEAST_OUTSTANDING_REQUESTS = new NodeSorter() {
+        @Override
+        public void sort(List<Node> nodes, NodeMetrics nodeMetrics) {
+            // take a snapshot of the counts, they keep changing while we sort
+            final Map<Node, Long> inFlightRequests = new IdentityHashMap<>(nodes.size());
+            for (Node node : nodes) {
+                NodeMetrics.HostMetrics hostMetrics = nodeMetrics.get(node.getHost());
+                inFlightRequests.put(node, hostMetrics == null ? 0 : hostMetrics.getInFlightRequests());
+            }
+            Collections.sort(nodes, new Comparator<Node>() {
+                @Override
+                public int compare(Node o1, Node o2) {
+                    return Long.compare(inFlightRequests.get(o1), inFlightRequests.get(o2));
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "LEAST_OUTSTANDING_REQUESTS";
+        }
+    };
+}
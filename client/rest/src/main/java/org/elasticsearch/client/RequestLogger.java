@@ -125,9 +125,14 @@ final class RequestLogger {
             if (enclosingRequest.getEntity() != null) {
                 requestLine += " -d '";
                 HttpEntity entity = enclosingRequest.getEntity();
+                //compressed bodies are traced uncompressed
+                boolean compressed = entity instanceof GzipRequestEntity;
+                if (compressed) {
+                    entity = ((GzipRequestEntity) entity).getUncompressedEntity();
+                }
                 if (entity.isRepeatable() == false) {
-                    entity = new BufferedHttpEntity(enclosingRequest.getEntity());
-                    enclosingRequest.setEntity(entity);
+                    entity = new BufferedHttpEntity(entity);
+                    enclosingRequest.setEntity(compressed ? new GzipRequestEntity(entity) : entity);
                 }
                 requestLine += EntityUtils.toString(entity, StandardCharsets.UTF_8) + "'";
             }
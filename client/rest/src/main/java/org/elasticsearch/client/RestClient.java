@@ -109,18 +109,25 @@ public class RestClient implements Closeable {
     private final ConcurrentMap<HttpHost, DeadHostState> blacklist = new ConcurrentHashMap<>();
     private final FailureListener failureListener;
     private final NodeSelector nodeSelector;
+    private final NodeSorter nodeSorter;
     private volatile NodeTuple<List<Node>> nodeTuple;
     private final WarningsHandler warningsHandler;
+    private final NodeMetrics nodeMetrics;
+    private final boolean compressionEnabled;
 
     RestClient(CloseableHttpAsyncClient client, long maxRetryTimeoutMillis, Header[] defaultHeaders, List<Node> nodes, String pathPrefix,
-            FailureListener failureListener, NodeSelector nodeSelector, boolean strictDeprecationMode) {
+            FailureListener failureListener, NodeSelector nodeSelector, NodeSorter nodeSorter, boolean strictDeprecationMode,
+            boolean compressionEnabled) {
         this.client = client;
         this.maxRetryTimeoutMillis = maxRetryTimeoutMillis;
         this.defaultHeaders = Collections.unmodifiableList(Arrays.asList(defaultHeaders));
         this.failureListener = failureListener;
         this.pathPrefix = pathPrefix;
         this.nodeSelector = nodeSelector;
+        this.nodeSorter = nodeSorter;
         this.warningsHandler = strictDeprecationMode ? WarningsHandler.STRICT : WarningsHandler.PERMISSIVE;
+        this.nodeMetrics = new NodeMetrics();
+        this.compressionEnabled = compressionEnabled;
         setNodes(nodes);
     }
 
@@ -177,6 +184,7 @@ public class RestClient implements Closeable {
         this.nodeTuple = new NodeTuple<>(
                 Collections.unmodifiableList(new ArrayList<>(nodesByHost.values())), authCache);
         this.blacklist.clear();
+        this.nodeMetrics.retainHosts(nodesByHost.keySet());
     }
 
     private static List<Node> hostsToNodes(HttpHost[] hosts) {
@@ -198,6 +206,13 @@ public class RestClient implements Closeable {
         return nodeTuple.nodes;
     }
 
+    /**
+     * Get the metrics of the requests that the client sent to each of its nodes.
+     */
+    public NodeMetrics getNodeMetrics() {
+        return nodeMetrics;
+    }
+
     /**
      * Sends a request to the Elasticsearch cluster that the client points to.
      * Blocks until the request is completed and returns its response or fails
@@ -509,7 +524,11 @@ public class RestClient implements Closeable {
             }
         }
         URI uri = buildUri(pathPrefix, request.getEndpoint(), requestParams);
-        HttpRequestBase httpRequest = createHttpRequest(request.getMethod(), uri, request.getEntity());
+        HttpEntity entity = request.getEntity();
+        if (compressionEnabled && entity != null) {
+            entity = new GzipRequestEntity(entity);
+        }
+        HttpRequestBase httpRequest = createHttpRequest(request.getMethod(), uri, entity);
         setHeaders(httpRequest, request.getOptions().getHeaders());
         FailureTrackingResponseListener failureTrackingResponseListener = new FailureTrackingResponseListener(listener);
         long startTime = System.nanoTime();
@@ -530,9 +549,14 @@ public class RestClient implements Closeable {
             httpAsyncResponseConsumerFactory.createHttpAsyncResponseConsumer();
         final HttpClientContext context = HttpClientContext.create();
         context.setAuthCache(nodeTuple.authCache);
+        final NodeMetrics.HostMetrics hostMetrics = nodeMetrics.getOrCreate(node.getHost());
+        final long attemptStartTime = System.nanoTime();
+        hostMetrics.onRequestStarted();
         client.execute(requestProducer, asyncResponseConsumer, context, new FutureCallback<HttpResponse>() {
             @Override
             public void completed(HttpResponse httpResponse) {
+                hostMetrics.onRequestCompleted(System.nanoTime() - attemptStartTime,
+                        isRetryStatus(httpResponse.getStatusLine().getStatusCode()));
                 try {
                     RequestLogger.logResponse(logger, request, node.getHost(), httpResponse);
                     int statusCode = httpResponse.getStatusLine().getStatusCode();
@@ -563,6 +587,7 @@ public class RestClient implements Closeable {
 
             @Override
             public void failed(Exception failure) {
+                hostMetrics.onRequestCompleted(System.nanoTime() - attemptStartTime, true);
                 try {
                     RequestLogger.logFailedRequest(logger, request, node, failure);
                     onFailure(node);
@@ -594,6 +619,7 @@ public class RestClient implements Closeable {
 
             @Override
             public void cancelled() {
+                hostMetrics.onRequestCancelled();
                 listener.onDefinitiveFailure(new ExecutionException("request was cancelled", null));
             }
         });
@@ -624,7 +650,7 @@ public class RestClient implements Closeable {
      */
     private NodeTuple<Iterator<Node>> nextNode() throws IOException {
         NodeTuple<List<Node>> nodeTuple = this.nodeTuple;
-        Iterable<Node> hosts = selectNodes(nodeTuple, blacklist, lastNodeIndex, nodeSelector);
+        Iterable<Node> hosts = selectNodes(nodeTuple, blacklist, lastNodeIndex, nodeSelector, nodeSorter, nodeMetrics);
         return new NodeTuple<>(hosts.iterator(), nodeTuple.authCache);
     }
 
@@ -633,7 +659,8 @@ public class RestClient implements Closeable {
      * if the previous attempt failed and so on. Package private for testing.
      */
     static Iterable<Node> selectNodes(NodeTuple<List<Node>> nodeTuple, Map<HttpHost, DeadHostState> blacklist,
-                                      AtomicInteger lastNodeIndex, NodeSelector nodeSelector) throws IOException {
+                                      AtomicInteger lastNodeIndex, NodeSelector nodeSelector, NodeSorter nodeSorter,
+                                      NodeMetrics nodeMetrics) throws IOException {
         /*
          * Sort the nodes into living and dead lists.
          */
@@ -666,6 +693,7 @@ public class RestClient implements Closeable {
                  * requests will try the nodes in a different order.
                  */
                 Collections.rotate(selectedLivingNodes, lastNodeIndex.getAndIncrement());
+                nodeSorter.sort(selectedLivingNodes, nodeMetrics);
                 return selectedLivingNodes;
             }
         }
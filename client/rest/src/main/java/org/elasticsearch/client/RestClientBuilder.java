@@ -56,7 +56,9 @@ public final class RestClientBuilder {
     private RequestConfigCallback requestConfigCallback;
     private String pathPrefix;
     private NodeSelector nodeSelector = NodeSelector.ANY;
+    private NodeSorter nodeSorter = NodeSorter.ROUND_ROBIN;
     private boolean strictDeprecationMode = false;
+    private boolean compressionEnabled = false;
 
     /**
      * Creates a new builder instance and sets the hosts that the client will send requests to.
@@ -186,6 +188,17 @@ public final class RestClientBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link NodeSorter} that orders the nodes that the {@link NodeSelector} accepted,
+     * like {@link NodeSorter#LEAST_OUTSTANDING_REQUESTS}. Defaults to {@link NodeSorter#ROUND_ROBIN}.
+     * @throws NullPointerException if the provided nodeSorter is null
+     */
+    public RestClientBuilder setNodeSorter(NodeSorter nodeSorter) {
+        Objects.requireNonNull(nodeSorter, "nodeSorter must not be null");
+        this.nodeSorter = nodeSorter;
+        return this;
+    }
+
     /**
      * Whether the REST client should return any response containing at least
      * one warning header as a failure.
@@ -195,6 +208,15 @@ public final class RestClientBuilder {
         return this;
     }
 
+    /**
+     * Whether the REST client should gzip the body of its requests. The body is compressed while it is being sent, so large
+     * bodies like the ones of bulk requests are not buffered to be compressed. Defaults to {@code false}.
+     */
+    public RestClientBuilder setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+        return this;
+    }
+
     /**
      * Creates a new {@link RestClient} based on the provided configuration.
      */
@@ -209,7 +231,7 @@ public final class RestClientBuilder {
             }
         });
         RestClient restClient = new RestClient(httpClient, maxRetryTimeout, defaultHeaders, nodes,
-                pathPrefix, failureListener, nodeSelector, strictDeprecationMode);
+                pathPrefix, failureListener, nodeSelector, nodeSorter, strictDeprecationMode, compressionEnabled);
         httpClient.start();
         return restClient;
     }
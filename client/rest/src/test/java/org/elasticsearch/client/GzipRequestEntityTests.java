@@ -0,0 +1,83 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.client;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.nio.entity.NStringEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GzipRequestEntityTests extends RestClientTestCase {
+    public void testGetContent() throws IOException {
+        String body = randomAsciiLettersOfLengthBetween(0, 100000);
+        GzipRequestEntity entity = new GzipRequestEntity(new NStringEntity(body, ContentType.APPLICATION_JSON));
+        assertEquals("gzip", entity.getContentEncoding().getValue());
+        assertEquals(-1, entity.getContentLength());
+        assertTrue(entity.isChunked());
+        try (InputStream content = entity.getContent()) {
+            assertEquals(body, decompress(readFully(content)));
+        }
+        // the content can be read multiple times if the wrapped entity is repeatable, as requests may be retried
+        try (InputStream content = entity.getContent()) {
+            assertEquals(body, decompress(readFully(content)));
+        }
+    }
+
+    public void testWriteTo() throws IOException {
+        String body = randomAsciiLettersOfLengthBetween(0, 100000);
+        GzipRequestEntity entity = new GzipRequestEntity(new InputStreamEntity(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ContentType.APPLICATION_JSON));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        assertEquals(body, decompress(out.toByteArray()));
+    }
+
+    public void testUncompressedEntity() {
+        StringEntity uncompressed = new StringEntity(randomAsciiLettersOfLengthBetween(1, 100), ContentType.APPLICATION_JSON);
+        assertSame(uncompressed, new GzipRequestEntity(uncompressed).getUncompressedEntity());
+    }
+
+    private static String decompress(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(readFully(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[randomIntBetween(1, 8192)];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
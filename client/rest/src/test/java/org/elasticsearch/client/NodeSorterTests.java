@@ -0,0 +1,97 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.client;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient.NodeTuple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class NodeSorterTests extends RestClientTestCase {
+    public void testRoundRobinKeepsOrder() {
+        List<Node> nodes = new ArrayList<>();
+        int numNodes = randomIntBetween(1, 10);
+        for (int i = 0; i < numNodes; i++) {
+            nodes.add(new Node(new HttpHost("node" + i)));
+        }
+        List<Node> expected = new ArrayList<>(nodes);
+        NodeSorter.ROUND_ROBIN.sort(nodes, new NodeMetrics());
+        assertEquals(expected, nodes);
+    }
+
+    public void testLeastOutstandingRequestsSortsByInFlightRequests() {
+        NodeMetrics nodeMetrics = new NodeMetrics();
+        Node idle = new Node(new HttpHost("idle"));
+        Node busy = new Node(new HttpHost("busy"));
+        Node alsoIdle = new Node(new HttpHost("also_idle"));
+        Node unknown = new Node(new HttpHost("unknown"));
+        int busyRequests = randomIntBetween(1, 10);
+        for (int i = 0; i < busyRequests; i++) {
+            nodeMetrics.getOrCreate(busy.getHost()).onRequestStarted();
+        }
+        nodeMetrics.getOrCreate(idle.getHost()).onRequestStarted();
+        nodeMetrics.getOrCreate(idle.getHost()).onRequestCompleted(randomLongBetween(0, 1_000_000), randomBoolean());
+        nodeMetrics.getOrCreate(alsoIdle.getHost()).onRequestStarted();
+        nodeMetrics.getOrCreate(alsoIdle.getHost()).onRequestCancelled();
+
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(idle);
+        nodes.add(busy);
+        nodes.add(alsoIdle);
+        nodes.add(unknown);
+        // nodes that are equally busy keep their order
+        NodeSorter.LEAST_OUTSTANDING_REQUESTS.sort(nodes, nodeMetrics);
+        assertEquals(Arrays.asList(idle, alsoIdle, unknown, busy), nodes);
+        assertEquals(busyRequests, nodeMetrics.get(busy.getHost()).getInFlightRequests());
+    }
+
+    public void testClientTriesLeastBusyNodesFirst() throws IOException {
+        NodeMetrics nodeMetrics = new NodeMetrics();
+        Node n1 = new Node(new HttpHost("1"));
+        Node n2 = new Node(new HttpHost("2"));
+        Node n3 = new Node(new HttpHost("3"));
+        Node master = new Node(new HttpHost("master"), null, null, null, new Node.Roles(true, false, false), null);
+        nodeMetrics.getOrCreate(n2.getHost()).onRequestStarted();
+        NodeTuple<List<Node>> nodeTuple = new NodeTuple<>(Arrays.asList(n1, n2, n3, master), null);
+        AtomicInteger lastNodeIndex = new AtomicInteger(0);
+        // the selector still filters the nodes, the busy node is always tried last and the others take turns
+        Set<Node> triedFirst = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            List<Node> selected = new ArrayList<>();
+            for (Node node : RestClient.selectNodes(nodeTuple, Collections.<HttpHost, DeadHostState>emptyMap(), lastNodeIndex,
+                    NodeSelector.SKIP_DEDICATED_MASTERS, NodeSorter.LEAST_OUTSTANDING_REQUESTS, nodeMetrics)) {
+                selected.add(node);
+            }
+            assertEquals(3, selected.size());
+            assertEquals(n2, selected.get(2));
+            triedFirst.add(selected.get(0));
+        }
+        assertEquals(new HashSet<>(Arrays.asList(n1, n3)), triedFirst);
+    }
+}
@@ -125,6 +125,13 @@ public class RestClientBuilderTests extends RestClientTestCase {
             assertEquals("requestConfigCallback must not be null", e.getMessage());
         }
 
+        try {
+            RestClient.builder(new HttpHost("localhost", 9200)).setNodeSorter(null);
+            fail("should have failed");
+        } catch(NullPointerException e) {
+            assertEquals("nodeSorter must not be null", e.getMessage());
+        }
+
         int numNodes = randomIntBetween(1, 5);
         HttpHost[] hosts = new HttpHost[numNodes];
         for (int i = 0; i < numNodes; i++) {
@@ -165,8 +172,15 @@ public class RestClientBuilderTests extends RestClientTestCase {
             }
             builder.setPathPrefix(pathPrefix + (randomBoolean() ? "/" : ""));
         }
+        if (randomBoolean()) {
+            builder.setCompressionEnabled(randomBoolean());
+        }
+        if (randomBoolean()) {
+            builder.setNodeSorter(randomFrom(NodeSorter.ROUND_ROBIN, NodeSorter.LEAST_OUTSTANDING_REQUESTS));
+        }
         try (RestClient restClient = builder.build()) {
             assertNotNull(restClient);
+            assertNotNull(restClient.getNodeMetrics());
         }
     }
 
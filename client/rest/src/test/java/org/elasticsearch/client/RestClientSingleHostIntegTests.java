@@ -40,6 +40,7 @@ import org.junit.After;
 import org.junit.Before;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.InetAddress;
@@ -53,6 +54,7 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 import static org.elasticsearch.client.RestClientTestUtil.getAllStatusCodes;
 import static org.elasticsearch.client.RestClientTestUtil.getHttpMethods;
@@ -104,7 +106,11 @@ public class RestClientSingleHostIntegTests extends RestClientTestCase {
         public void handle(HttpExchange httpExchange) throws IOException {
             //copy request body to response body so we can verify it was sent
             StringBuilder body = new StringBuilder();
-            try (InputStreamReader reader = new InputStreamReader(httpExchange.getRequestBody(), Consts.UTF_8)) {
+            InputStream requestBody = httpExchange.getRequestBody();
+            if ("gzip".equals(httpExchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                requestBody = new GZIPInputStream(requestBody);
+            }
+            try (InputStreamReader reader = new InputStreamReader(requestBody, Consts.UTF_8)) {
                 char[] buffer = new char[256];
                 int read;
                 while ((read = reader.read(buffer)) != -1) {
@@ -115,7 +121,10 @@ public class RestClientSingleHostIntegTests extends RestClientTestCase {
             Headers requestHeaders = httpExchange.getRequestHeaders();
             Headers responseHeaders = httpExchange.getResponseHeaders();
             for (Map.Entry<String, List<String>> header : requestHeaders.entrySet()) {
-                responseHeaders.put(header.getKey(), header.getValue());
+                //the response is never chunked, only the request body may be
+                if (header.getKey().equalsIgnoreCase("Transfer-Encoding") == false) {
+                    responseHeaders.put(header.getKey(), header.getValue());
+                }
             }
             httpExchange.getRequestBody().close();
             httpExchange.sendResponseHeaders(statusCode, body.length() == 0 ? -1 : body.length());
@@ -200,6 +209,10 @@ public class RestClientSingleHostIntegTests extends RestClientTestCase {
             }
             throw error;
         }
+        NodeMetrics.HostMetrics hostMetrics = restClient.getNodeMetrics().get(restClient.getNodes().get(0).getHost());
+        assertEquals(0, hostMetrics.getInFlightRequests());
+        assertEquals(iters, hostMetrics.getCompletedRequests());
+        assertEquals(0, hostMetrics.getFailedRequests());
     }
 
     /**
@@ -254,6 +267,25 @@ public class RestClientSingleHostIntegTests extends RestClientTestCase {
         bodyTest("GET");
     }
 
+    /**
+     * End to end test for compressed request bodies, the test http server decompresses the body before sending it back.
+     */
+    public void testCompressedBody() throws IOException {
+        RestClientBuilder restClientBuilder = RestClient.builder(
+            new HttpHost(httpServer.getAddress().getHostString(), httpServer.getAddress().getPort())).setCompressionEnabled(true);
+        if (pathPrefix.length() > 0) {
+            restClientBuilder.setPathPrefix(pathPrefix);
+        }
+        try (RestClient compressingClient = restClientBuilder.build()) {
+            String requestBody = randomAsciiLettersOfLengthBetween(1, 100000);
+            Request request = new Request(randomBoolean() ? "POST" : "PUT", "/200");
+            request.setEntity(new NStringEntity(requestBody, ContentType.APPLICATION_JSON));
+            Response response = compressingClient.performRequest(request);
+            assertEquals("gzip", response.getHeader("Content-Encoding"));
+            assertEquals(requestBody, EntityUtils.toString(response.getEntity()));
+        }
+    }
+
     public void testEncodeParams() throws IOException {
         {
             Request request = new Request("PUT", "/200");
@@ -58,7 +58,8 @@ public class RestClientTests extends RestClientTestCase {
     public void testCloseIsIdempotent() throws IOException {
         List<Node> nodes = singletonList(new Node(new HttpHost("localhost", 9200)));
         CloseableHttpAsyncClient closeableHttpAsyncClient = mock(CloseableHttpAsyncClient.class);
-        RestClient restClient = new RestClient(closeableHttpAsyncClient, 1_000, new Header[0], nodes, null, null, null, false);
+        RestClient restClient = new RestClient(closeableHttpAsyncClient, 1_000, new Header[0], nodes, null, null, null,
+            NodeSorter.ROUND_ROBIN, false, false);
         restClient.close();
         verify(closeableHttpAsyncClient, times(1)).close();
         restClient.close();
@@ -432,8 +433,8 @@ public class RestClientTests extends RestClientTestCase {
              * blacklist time. It'll revive the node that is closest
              * to being revived that the NodeSelector is ok with.
              */
-            assertEquals(singletonList(n1), RestClient.selectNodes(nodeTuple, blacklist, new AtomicInteger(), NodeSelector.ANY));
-            assertEquals(singletonList(n2), RestClient.selectNodes(nodeTuple, blacklist, new AtomicInteger(), not1));
+            assertEquals(singletonList(n1), selectNodes(nodeTuple, blacklist, new AtomicInteger(), NodeSelector.ANY));
+            assertEquals(singletonList(n2), selectNodes(nodeTuple, blacklist, new AtomicInteger(), not1));
 
             /*
              * Try a NodeSelector that excludes all nodes. This should
@@ -474,12 +475,12 @@ public class RestClientTests extends RestClientTestCase {
             Map<HttpHost, DeadHostState> blacklist, NodeSelector nodeSelector) throws IOException {
         int iterations = 1000;
         AtomicInteger lastNodeIndex = new AtomicInteger(0);
-        assertEquals(expectedNodes, RestClient.selectNodes(nodeTuple, blacklist, lastNodeIndex, nodeSelector));
+        assertEquals(expectedNodes, selectNodes(nodeTuple, blacklist, lastNodeIndex, nodeSelector));
         // Calling it again rotates the set of results
         for (int i = 1; i < iterations; i++) {
             Collections.rotate(expectedNodes, 1);
             assertEquals("iteration " + i, expectedNodes,
-                    RestClient.selectNodes(nodeTuple, blacklist, lastNodeIndex, nodeSelector));
+                    selectNodes(nodeTuple, blacklist, lastNodeIndex, nodeSelector));
         }
     }
 
@@ -490,17 +491,22 @@ public class RestClientTests extends RestClientTestCase {
     private static String assertSelectAllRejected( NodeTuple<List<Node>> nodeTuple,
             Map<HttpHost, DeadHostState> blacklist, NodeSelector nodeSelector) {
         try {
-            RestClient.selectNodes(nodeTuple, blacklist, new AtomicInteger(0), nodeSelector);
+            selectNodes(nodeTuple, blacklist, new AtomicInteger(0), nodeSelector);
             throw new AssertionError("expected selectHosts to fail");
         } catch (IOException e) {
             return e.getMessage();
         }
     }
 
+    private static Iterable<Node> selectNodes(NodeTuple<List<Node>> nodeTuple, Map<HttpHost, DeadHostState> blacklist,
+            AtomicInteger lastNodeIndex, NodeSelector nodeSelector) throws IOException {
+        return RestClient.selectNodes(nodeTuple, blacklist, lastNodeIndex, nodeSelector, NodeSorter.ROUND_ROBIN, new NodeMetrics());
+    }
+
     private static RestClient createRestClient() {
         List<Node> nodes = Collections.singletonList(new Node(new HttpHost("localhost", 9200)));
         return new RestClient(mock(CloseableHttpAsyncClient.class), randomLongBetween(1_000, 30_000),
-                new Header[] {}, nodes, null, null, null, false);
+                new Header[] {}, nodes, null, null, null, NodeSorter.ROUND_ROBIN, false, false);
     }
 
     public void testRoundRobin() throws IOException {
@@ -540,7 +546,7 @@ public class RestClientTests extends RestClientTestCase {
          */
         int expectedOffset = distance > 0 ? nodeTuple.nodes.size() - distance : Math.abs(distance);
         for (int i = 0; i < runs; i++) {
-            Iterable<Node> selectedNodes = RestClient.selectNodes(nodeTuple, Collections.<HttpHost, DeadHostState>emptyMap(),
+            Iterable<Node> selectedNodes = selectNodes(nodeTuple, Collections.<HttpHost, DeadHostState>emptyMap(),
                     lastNodeIndex, NodeSelector.ANY);
             List<Node> expectedNodes = nodeTuple.nodes;
             int index = 0;
@@ -0,0 +1,123 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+
+/**
+ * Writes responses with large bodies as a sequence of chunks rather than as a single message. The chunks are written by a
+ * {@link ChunkedWriteHandler} further down the pipeline, which only writes the next chunk once the channel is writable again. This
+ * way a response is compressed and handed to the socket piece by piece as the client reads it, instead of the whole (compressed)
+ * response piling up in the outbound buffer of the channel.
+ * <p>
+ * Note that this only bounds what is held on top of the response body: the body itself is still serialized completely on the heap by
+ * the REST action before it reaches the channel, and is only released once its last chunk was written. Serializing the body as it is
+ * written would require REST actions to produce their responses incrementally, which they do not.
+ */
+class Netty4HttpResponseChunker extends ChannelOutboundHandlerAdapter {
+
+    private final int chunkSize;
+
+    Netty4HttpResponseChunker(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof FullHttpResponse && ((FullHttpResponse) msg).content().readableBytes() > chunkSize) {
+            ctx.write(new ChunkedHttpResponse((FullHttpResponse) msg, chunkSize), promise);
+        } else {
+            ctx.write(msg, promise);
+        }
+    }
+
+    /**
+     * Produces the head of the wrapped response, followed by slices of its body and the last (empty) content. The body is released
+     * once the response is written, or when writing it failed.
+     */
+    static final class ChunkedHttpResponse implements ChunkedInput<HttpObject> {
+
+        private final FullHttpResponse response;
+        private final ByteBuf content;
+        private final int chunkSize;
+        private final long length;
+        private boolean headWritten;
+        private boolean lastContentWritten;
+
+        ChunkedHttpResponse(FullHttpResponse response, int chunkSize) {
+            this.response = response;
+            this.content = response.content();
+            this.chunkSize = chunkSize;
+            this.length = content.readableBytes();
+        }
+
+        @Override
+        public boolean isEndOfInput() {
+            return lastContentWritten;
+        }
+
+        @Override
+        public void close() {
+            response.release();
+        }
+
+        @Override
+        @Deprecated
+        public HttpObject readChunk(ChannelHandlerContext ctx) {
+            return readChunk(ctx.alloc());
+        }
+
+        @Override
+        public HttpObject readChunk(ByteBufAllocator allocator) {
+            if (headWritten == false) {
+                headWritten = true;
+                return new DefaultHttpResponse(response.protocolVersion(), response.status(), response.headers());
+            } else if (content.isReadable()) {
+                return new DefaultHttpContent(content.readRetainedSlice(Math.min(chunkSize, content.readableBytes())));
+            } else if (lastContentWritten == false) {
+                lastContentWritten = true;
+                return LastHttpContent.EMPTY_LAST_CONTENT;
+            } else {
+                return null;
+            }
+        }
+
+        @Override
+        public long length() {
+            return length;
+        }
+
+        @Override
+        public long progress() {
+            return length - content.readableBytes();
+        }
+    }
+}
@@ -40,6 +40,7 @@ import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.apache.logging.log4j.LogManager;
@@ -170,6 +171,10 @@ public class Netty4HttpServerTransport extends AbstractLifecycleComponent implem
             // Netty's CompositeByteBuf implementation does not allow less than two components.
         }, s -> Setting.parseInt(s, 2, Integer.MAX_VALUE, SETTING_KEY_HTTP_NETTY_MAX_COMPOSITE_BUFFER_COMPONENTS), Property.NodeScope);
 
+    // responses with larger bodies are written to the channel (and compressed) in chunks of this size, their body is still built in
+    // full on the heap, see Netty4HttpResponseChunker
+    private static final int RESPONSE_CHUNK_SIZE = Math.toIntExact(new ByteSizeValue(64, ByteSizeUnit.KB).getBytes());
+
     public static final Setting<Integer> SETTING_HTTP_WORKER_COUNT = new Setting<>("http.netty.worker_count",
         (s) -> Integer.toString(EsExecutors.numberOfProcessors(s) * 2),
         (s) -> Setting.parseInt(s, 1, "http.netty.worker_count"), Property.NodeScope);
@@ -621,6 +626,8 @@ public class Netty4HttpServerTransport extends AbstractLifecycleComponent implem
             if (transport.compression) {
                 ch.pipeline().addLast("encoder_compress", new HttpContentCompressor(transport.compressionLevel));
             }
+            ch.pipeline().addLast("chunked_writer", new ChunkedWriteHandler());
+            ch.pipeline().addLast("response_chunker", new Netty4HttpResponseChunker(RESPONSE_CHUNK_SIZE));
             if (SETTING_CORS_ENABLED.get(transport.settings())) {
                 ch.pipeline().addLast("cors", new Netty4CorsHandler(transport.getCorsConfig()));
             }
@@ -45,6 +45,15 @@ final class ByteBufBytesReference extends BytesReference {
         return buffer.getByte(offset + index);
     }
 
+    @Override
+    public int indexOf(byte marker, int from) {
+        if (from >= length) {
+            return -1;
+        }
+        final int index = buffer.indexOf(offset + from, offset + length, marker);
+        return index == -1 ? -1 : index - offset;
+    }
+
     @Override
     public int length() {
         return length;
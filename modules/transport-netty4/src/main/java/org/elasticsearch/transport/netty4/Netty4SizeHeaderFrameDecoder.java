@@ -32,6 +32,25 @@ final class Netty4SizeHeaderFrameDecoder extends ByteToMessageDecoder {
 
     private static final int HEADER_SIZE = TcpHeader.MARKER_BYTES_SIZE + TcpHeader.MESSAGE_LENGTH_SIZE;
 
+    /**
+     * Frames of at least this size are accumulated as a composite of the received buffers rather than by copying the received
+     * buffers into a single, growing buffer.
+     */
+    static final int COMPOSITE_CUMULATION_THRESHOLD = 1 << 16;
+
+    // the length of the frame that is currently being received, or -1 if its header was not received yet
+    private int incompleteFrameLength = -1;
+
+    Netty4SizeHeaderFrameDecoder() {
+        // Small frames are best merged into a single buffer, which is cheap to copy and to read from. Copying large frames however
+        // means expanding the cumulation buffer (and copying everything received so far) again and again while the frame arrives,
+        // so these are accumulated as a composite buffer that the message is then read from without any further copies.
+        setCumulator((alloc, cumulation, in) -> {
+            final Cumulator cumulator = incompleteFrameLength >= COMPOSITE_CUMULATION_THRESHOLD ? COMPOSITE_CUMULATOR : MERGE_CUMULATOR;
+            return cumulator.cumulate(alloc, cumulation, in);
+        });
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
         try {
@@ -39,11 +58,13 @@ final class Netty4SizeHeaderFrameDecoder extends ByteToMessageDecoder {
             while (continueDecode) {
                 int messageLength = TcpTransport.readMessageLength(Netty4Utils.toBytesReference(in));
                 if (messageLength == -1) {
+                    incompleteFrameLength = -1;
                     continueDecode = false;
                 } else {
                     int messageLengthWithHeader = messageLength + HEADER_SIZE;
                     // If the message length is greater than the network bytes available, we have not read a complete frame.
                     if (messageLengthWithHeader > in.readableBytes()) {
+                        incompleteFrameLength = messageLengthWithHeader;
                         continueDecode = false;
                     } else {
                         final ByteBuf message = in.retainedSlice(in.readerIndex() + HEADER_SIZE, messageLength);
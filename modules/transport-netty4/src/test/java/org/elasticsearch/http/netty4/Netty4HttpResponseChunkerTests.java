@@ -0,0 +1,86 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+public class Netty4HttpResponseChunkerTests extends ESTestCase {
+
+    public void testSmallResponseIsWrittenAsIs() {
+        final int chunkSize = randomIntBetween(16, 1024);
+        final EmbeddedChannel channel = new EmbeddedChannel(new ChunkedWriteHandler(), new Netty4HttpResponseChunker(chunkSize));
+        final FullHttpResponse response = newResponse(randomByteArrayOfLength(randomIntBetween(0, chunkSize)));
+        channel.writeAndFlush(response);
+        assertSame(response, channel.readOutbound());
+        assertNull(channel.readOutbound());
+        response.release();
+        assertFalse(channel.finish());
+    }
+
+    public void testLargeResponseIsWrittenInChunks() {
+        final int chunkSize = randomIntBetween(16, 1024);
+        final EmbeddedChannel channel = new EmbeddedChannel(new ChunkedWriteHandler(), new Netty4HttpResponseChunker(chunkSize));
+        final byte[] body = randomByteArrayOfLength(randomIntBetween(chunkSize + 1, chunkSize * 10));
+        final FullHttpResponse response = newResponse(body);
+        final ChannelFuture future = channel.writeAndFlush(response);
+
+        final HttpResponse head = channel.readOutbound();
+        assertThat(head, not(instanceOf(HttpContent.class)));
+        assertEquals(HttpResponseStatus.OK, head.status());
+        assertEquals(String.valueOf(body.length), head.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+
+        final ByteBuf received = Unpooled.buffer(body.length);
+        HttpContent content;
+        while ((content = channel.readOutbound()) instanceof LastHttpContent == false) {
+            assertThat(content.content().readableBytes(), lessThanOrEqualTo(chunkSize));
+            received.writeBytes(content.content());
+            content.release();
+        }
+        assertEquals(Unpooled.wrappedBuffer(body), received);
+        assertNull(channel.readOutbound());
+        assertTrue(future.isSuccess());
+        assertEquals(0, response.refCnt());
+        assertFalse(channel.finish());
+    }
+
+    private static FullHttpResponse newResponse(byte[] body) {
+        final FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+            Unpooled.wrappedBuffer(body));
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, body.length);
+        return response;
+    }
+}
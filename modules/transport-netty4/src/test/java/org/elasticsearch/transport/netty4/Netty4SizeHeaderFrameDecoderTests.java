@@ -19,6 +19,10 @@
 
 package org.elasticsearch.transport.netty4;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.network.NetworkService;
@@ -39,8 +43,11 @@ import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
 /**
@@ -106,4 +113,34 @@ public class Netty4SizeHeaderFrameDecoderTests extends ESTestCase {
         }
     }
 
+    public void testFramesSplitAcrossReads() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new Netty4SizeHeaderFrameDecoder());
+        final int numFrames = randomIntBetween(1, 10);
+        final List<byte[]> payloads = new ArrayList<>();
+        final ByteBuf frames = Unpooled.buffer();
+        for (int i = 0; i < numFrames; i++) {
+            final byte[] payload = randomByteArrayOfLength(randomBoolean()
+                ? randomIntBetween(1, 128)
+                : randomIntBetween(Netty4SizeHeaderFrameDecoder.COMPOSITE_CUMULATION_THRESHOLD, 1 << 18));
+            payloads.add(payload);
+            frames.writeByte('E').writeByte('S').writeInt(payload.length).writeBytes(payload);
+        }
+
+        while (frames.isReadable()) {
+            channel.writeInbound(frames.readRetainedSlice(Math.min(frames.readableBytes(), randomIntBetween(1, 1 << 15))));
+        }
+        frames.release();
+
+        for (byte[] payload : payloads) {
+            final ByteBuf message = channel.readInbound();
+            try {
+                assertThat(ByteBufUtil.getBytes(message), equalTo(payload));
+            } finally {
+                message.release();
+            }
+        }
+        assertNull(channel.readInbound());
+        assertFalse(channel.finish());
+    }
+
 }
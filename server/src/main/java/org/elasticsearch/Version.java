@@ -206,8 +206,10 @@ public class Version implements Comparable<Version>, ToXContentFragment {
     public static final Version V_6_6_1 = new Version(V_6_6_1_ID, org.apache.lucene.util.Version.LUCENE_7_6_0);
     public static final int V_6_6_2_ID = 6060299;
     public static final Version V_6_6_2 = new Version(V_6_6_2_ID, org.apache.lucene.util.Version.LUCENE_7_6_0);
+    public static final int V_6_7_0_ID = 6070099;
+    public static final Version V_6_7_0 = new Version(V_6_7_0_ID, org.apache.lucene.util.Version.LUCENE_7_6_0);
 
-    public static final Version CURRENT = V_6_6_2;
+    public static final Version CURRENT = V_6_7_0;
 
     static {
         assert CURRENT.luceneVersion.equals(org.apache.lucene.util.Version.LATEST) : "Version must be upgraded to ["
@@ -220,6 +222,8 @@ public class Version implements Comparable<Version>, ToXContentFragment {
 
     public static Version fromId(int id) {
         switch (id) {
+            case V_6_7_0_ID:
+                return V_6_7_0;
             case V_6_6_2_ID:
                 return V_6_6_2;
             case V_6_6_1_ID:
@@ -0,0 +1,133 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+
+/**
+ * Adjusts the batch size and the number of in-flight requests of a {@link BulkProcessor} using an
+ * additive-increase/multiplicative-decrease scheme. Every bulk attempt, including the ones issued by {@link Retry}, is fed
+ * back to the controller:
+ * <ul>
+ *     <li>if any item was rejected (or the whole request was) the number of in-flight requests is halved, since rejections
+ *     mean the write queues on the nodes are full</li>
+ *     <li>if the request took longer than the target took time the batch size is halved</li>
+ *     <li>otherwise the batch size grows by a tenth of its maximum and one more in-flight request is allowed</li>
+ * </ul>
+ * The values configured on the {@link BulkProcessor.Builder} act as upper bounds. The controller starts with a single
+ * in-flight request and the full batch size.
+ */
+final class AdaptiveBulkController {
+
+    static final double MIN_BATCH_RATIO = 1d / 64;
+    static final double BATCH_RATIO_STEP = 0.1d;
+
+    private final int maxConcurrentRequests;
+    private final int maxBulkActions;
+    private final long maxBulkSize;
+    private final long targetTookInMillis;
+
+    private int concurrentRequests;
+    private double batchRatio = 1d;
+    private volatile int bulkActions;
+    private volatile long bulkSize;
+
+    AdaptiveBulkController(int maxConcurrentRequests, int maxBulkActions, long maxBulkSize, TimeValue targetTook) {
+        if (targetTook.millis() <= 0) {
+            throw new IllegalArgumentException("target took time must be positive but was [" + targetTook + "]");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxBulkActions = maxBulkActions;
+        this.maxBulkSize = maxBulkSize;
+        this.targetTookInMillis = targetTook.millis();
+        this.concurrentRequests = Math.min(1, maxConcurrentRequests);
+        updateBatchLimits();
+    }
+
+    /**
+     * The number of actions that triggers a flush, or {@code -1} if flushing on the number of actions is disabled.
+     */
+    int bulkActions() {
+        return bulkActions;
+    }
+
+    /**
+     * The size in bytes that triggers a flush, or {@code -1} if flushing on the size is disabled.
+     */
+    long bulkSize() {
+        return bulkSize;
+    }
+
+    /**
+     * The number of bulk requests that may currently be in flight while accumulating new actions. {@code 0} means bulk
+     * requests are executed synchronously, in which case the controller only adjusts the batch size.
+     */
+    synchronized int concurrentRequests() {
+        return concurrentRequests;
+    }
+
+    /**
+     * Records the response of a single bulk attempt and returns the number of concurrent requests to allow from now on.
+     */
+    synchronized int onResponse(BulkResponse response) {
+        boolean rejected = false;
+        for (BulkItemResponse item : response) {
+            if (item.isFailed() && item.status() == RestStatus.TOO_MANY_REQUESTS) {
+                rejected = true;
+                break;
+            }
+        }
+        if (rejected) {
+            decreaseConcurrency();
+        } else if (response.getTook().millis() > targetTookInMillis) {
+            batchRatio = Math.max(MIN_BATCH_RATIO, batchRatio / 2);
+            updateBatchLimits();
+        } else {
+            batchRatio = Math.min(1d, batchRatio + BATCH_RATIO_STEP);
+            updateBatchLimits();
+            if (maxConcurrentRequests > 0) {
+                concurrentRequests = Math.min(maxConcurrentRequests, concurrentRequests + 1);
+            }
+        }
+        return concurrentRequests;
+    }
+
+    /**
+     * Records a failed bulk attempt and returns the number of concurrent requests to allow from now on.
+     */
+    synchronized int onFailure(Exception e) {
+        if (ExceptionsHelper.status(e) == RestStatus.TOO_MANY_REQUESTS) {
+            decreaseConcurrency();
+        }
+        return concurrentRequests;
+    }
+
+    private void decreaseConcurrency() {
+        if (maxConcurrentRequests > 0) {
+            concurrentRequests = Math.max(1, concurrentRequests / 2);
+        }
+    }
+
+    private void updateBatchLimits() {
+        bulkActions = maxBulkActions == -1 ? -1 : (int) Math.max(1, Math.round(maxBulkActions * batchRatio));
+        bulkSize = maxBulkSize == -1 ? -1 : Math.max(1, Math.round(maxBulkSize * batchRatio));
+    }
+}
@@ -89,6 +89,7 @@ public class BulkProcessor implements Closeable {
         private ByteSizeValue bulkSize = new ByteSizeValue(5, ByteSizeUnit.MB);
         private TimeValue flushInterval = null;
         private BackoffPolicy backoffPolicy = BackoffPolicy.exponentialBackoff();
+        private TimeValue adaptiveTargetTook = null;
         private String globalIndex;
         private String globalType;
         private String globalRouting;
@@ -177,12 +178,25 @@ public class BulkProcessor implements Closeable {
             return this;
         }
 
+        /**
+         * Enables adaptive mode. Instead of flushing on fixed limits, the bulk processor shrinks and grows the batch size and the
+         * number of concurrent requests based on the feedback it gets from every executed bulk request: rejections halve the
+         * number of concurrent requests, bulk requests that take longer than {@code targetTook} halve the batch size, and
+         * healthy responses grow both again. The values set with {@link #setConcurrentRequests(int)},
+         * {@link #setBulkActions(int)} and {@link #setBulkSize(ByteSizeValue)} become upper bounds. Defaults to not set,
+         * which disables adaptive mode.
+         */
+        public Builder setAdaptiveTargetTook(TimeValue targetTook) {
+            this.adaptiveTargetTook = targetTook;
+            return this;
+        }
+
         /**
          * Builds a new bulk processor.
          */
         public BulkProcessor build() {
             return new BulkProcessor(consumer, backoffPolicy, listener, concurrentRequests, bulkActions,
-                bulkSize, flushInterval, scheduler, onClose, createBulkRequestWithGlobalDefaults());
+                bulkSize, flushInterval, scheduler, onClose, createBulkRequestWithGlobalDefaults(), adaptiveTargetTook);
         }
 
         private Supplier<BulkRequest> createBulkRequestWithGlobalDefaults() {
@@ -209,6 +223,8 @@ public class BulkProcessor implements Closeable {
 
     private final int bulkActions;
     private final long bulkSize;
+    @Nullable
+    private final AdaptiveBulkController adaptiveController;
 
     private final Scheduler.Cancellable cancellableFlushTask;
 
@@ -225,12 +241,23 @@ public class BulkProcessor implements Closeable {
     BulkProcessor(BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer, BackoffPolicy backoffPolicy, Listener listener,
                   int concurrentRequests, int bulkActions, ByteSizeValue bulkSize, @Nullable TimeValue flushInterval,
                   Scheduler scheduler, Runnable onClose, Supplier<BulkRequest> bulkRequestSupplier) {
+        this(consumer, backoffPolicy, listener, concurrentRequests, bulkActions, bulkSize, flushInterval, scheduler, onClose,
+            bulkRequestSupplier, null);
+    }
+
+    BulkProcessor(BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer, BackoffPolicy backoffPolicy, Listener listener,
+                  int concurrentRequests, int bulkActions, ByteSizeValue bulkSize, @Nullable TimeValue flushInterval,
+                  Scheduler scheduler, Runnable onClose, Supplier<BulkRequest> bulkRequestSupplier,
+                  @Nullable TimeValue adaptiveTargetTook) {
         this.bulkActions = bulkActions;
         this.bulkSize = bulkSize.getBytes();
+        this.adaptiveController = adaptiveTargetTook == null ? null
+            : new AdaptiveBulkController(concurrentRequests, bulkActions, this.bulkSize, adaptiveTargetTook);
         this.scheduler = scheduler;
         this.bulkRequest = bulkRequestSupplier.get();
         this.bulkRequestSupplier = bulkRequestSupplier;
-        this.bulkRequestHandler = new BulkRequestHandler(consumer, backoffPolicy, listener, scheduler, concurrentRequests);
+        this.bulkRequestHandler = new BulkRequestHandler(consumer, backoffPolicy, listener, scheduler, concurrentRequests,
+            adaptiveController);
         // Start period flushing task after everything is setup
         this.cancellableFlushTask = startFlushTask(flushInterval, scheduler);
         this.onClose = onClose;
@@ -375,6 +402,8 @@ public class BulkProcessor implements Closeable {
     }
 
     private boolean isOverTheLimit() {
+        final int bulkActions = adaptiveController == null ? this.bulkActions : adaptiveController.bulkActions();
+        final long bulkSize = adaptiveController == null ? this.bulkSize : adaptiveController.bulkSize();
         if (bulkActions != -1 && bulkRequest.numberOfActions() >= bulkActions) {
             return true;
         }
@@ -308,6 +308,10 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
         return add(data, defaultIndex, defaultType, null, null, null, null, null, allowExplicitIndex, xContentType);
     }
 
+    /**
+     * Adds a framed data in binary format. The body must be complete: items are parsed and added up front rather than streamed to
+     * the shards while the body arrives, but the sources of index requests are slices of {@code data} rather than copies of it.
+     */
     public BulkRequest add(BytesReference data, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable String
         defaultRouting, @Nullable String[] defaultFields, @Nullable FetchSourceContext defaultFetchSourceContext, @Nullable String
         defaultPipeline, @Nullable Object payload, boolean allowExplicitIndex, XContentType xContentType) throws IOException {
@@ -583,10 +587,9 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
     }
 
     private int findNextMarker(byte marker, int from, BytesReference data, int length) {
-        for (int i = from; i < length; i++) {
-            if (data.get(i) == marker) {
-                return i;
-            }
+        final int res = data.indexOf(marker, from);
+        if (res != -1) {
+            return res;
         }
         if (from != length) {
             throw new IllegalArgumentException("The bulk request must be terminated by a newline [\n]");
@@ -22,6 +22,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.threadpool.Scheduler;
 
 import java.util.concurrent.CountDownLatch;
@@ -36,19 +37,62 @@ public final class BulkRequestHandler {
     private final Logger logger;
     private final BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer;
     private final BulkProcessor.Listener listener;
-    private final Semaphore semaphore;
+    private final ResizableSemaphore semaphore;
     private final Retry retry;
     private final int concurrentRequests;
+    // guarded by this, the number of permits the semaphore hands out when no request is in flight
+    private int permits;
+    private boolean closed;
 
     BulkRequestHandler(BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer, BackoffPolicy backoffPolicy,
                        BulkProcessor.Listener listener, Scheduler scheduler, int concurrentRequests) {
+        this(consumer, backoffPolicy, listener, scheduler, concurrentRequests, null);
+    }
+
+    BulkRequestHandler(BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer, BackoffPolicy backoffPolicy,
+                       BulkProcessor.Listener listener, Scheduler scheduler, int concurrentRequests,
+                       @Nullable AdaptiveBulkController controller) {
         assert concurrentRequests >= 0;
         this.logger = LogManager.getLogger(getClass());
-        this.consumer = consumer;
+        this.consumer = controller == null ? consumer : observingConsumer(consumer, controller);
         this.listener = listener;
         this.concurrentRequests = concurrentRequests;
         this.retry = new Retry(backoffPolicy, scheduler);
-        this.semaphore = new Semaphore(concurrentRequests > 0 ? concurrentRequests : 1);
+        this.permits = controller == null ? concurrentRequests : controller.concurrentRequests();
+        this.semaphore = new ResizableSemaphore(permits > 0 ? permits : 1);
+    }
+
+    /**
+     * Wraps the consumer so that every attempt, including retries, is reported to the controller before it reaches
+     * {@link Retry}.
+     */
+    private BiConsumer<BulkRequest, ActionListener<BulkResponse>> observingConsumer(
+            BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer, AdaptiveBulkController controller) {
+        return (request, actionListener) -> consumer.accept(request, new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                updatePermits(controller.onResponse(response));
+                actionListener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                updatePermits(controller.onFailure(e));
+                actionListener.onFailure(e);
+            }
+        });
+    }
+
+    private synchronized void updatePermits(int newPermits) {
+        if (closed || concurrentRequests == 0 || newPermits == permits) {
+            return;
+        }
+        if (newPermits > permits) {
+            semaphore.release(newPermits - permits);
+        } else {
+            semaphore.reducePermits(permits - newPermits);
+        }
+        permits = newPermits;
     }
 
     public void execute(BulkRequest bulkRequest, long executionId) {
@@ -99,10 +143,28 @@ public final class BulkRequestHandler {
     }
 
     boolean awaitClose(long timeout, TimeUnit unit) throws InterruptedException {
-        if (semaphore.tryAcquire(this.concurrentRequests, timeout, unit)) {
-            semaphore.release(this.concurrentRequests);
+        final int toAcquire;
+        synchronized (this) {
+            // stop resizing the semaphore so that the permits we wait for stay the same
+            closed = true;
+            toAcquire = permits;
+        }
+        if (semaphore.tryAcquire(toAcquire, timeout, unit)) {
+            semaphore.release(toAcquire);
             return true;
         }
         return false;
     }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
 }
@@ -38,6 +38,37 @@ public interface ClusterStateTaskExecutor<T> {
         return true;
     }
 
+    /**
+     * The maximum number of tasks that are executed together in a single batch. Tasks over this limit stay queued in the order they
+     * were submitted in and are executed in a later batch, so tasks of other executors that were submitted before them run first.
+     * Tasks that are submitted together are never split across batches. Executors that take long to execute large batches can use
+     * this to avoid holding up the master service.
+     */
+    default int maxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * The name under which the master service reports the stats of this executor. Defaults to the simple name of the executor's
+     * class. Anonymous, local and lambda executors, like the many {@link ClusterStateUpdateTask}s that are their own executor, are
+     * reported under the simple name of the class that declares them. Executors can override this to be reported under a name of
+     * their own, which must not depend on the tasks since every name is kept in the stats.
+     */
+    default String statsName() {
+        Class<?> executorClass = getClass();
+        while (executorClass.isAnonymousClass() || executorClass.isLocalClass()) {
+            executorClass = executorClass.getEnclosingClass();
+        }
+        if (executorClass.isSynthetic()) {
+            // lambdas are named after the class that declares them, e.g. MetaDataMappingService$$Lambda$123/456
+            final String name = executorClass.getName();
+            final int lambda = name.indexOf("$$Lambda");
+            final String declaringClass = lambda == -1 ? name : name.substring(0, lambda);
+            return declaringClass.substring(Math.max(declaringClass.lastIndexOf('.'), declaringClass.lastIndexOf('$')) + 1);
+        }
+        return executorClass.getSimpleName();
+    }
+
     /**
      * Callback invoked after new cluster state is published. Note that
      * this method is not invoked if the cluster state was not updated.
@@ -63,6 +63,7 @@ import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.MergePolicyConfig;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.MapperService.MergeReason;
@@ -275,6 +276,12 @@ public class MetaDataCreateIndexService {
             this.indexScopedSettings = indexScopedSettings;
         }
 
+        @Override
+        public int maxBatchSize() {
+            // every task is its own executor and so its own batch already, creating an index parses all its mappings
+            return 1;
+        }
+
         @Override
         protected ClusterStateUpdateResponse newResponse(boolean acknowledged) {
             return new ClusterStateUpdateResponse(acknowledged);
@@ -461,6 +468,7 @@ public class MetaDataCreateIndexService {
                     // at this point. The validation will take place later in the process
                     // (when all shards are copied in a single place).
                     indexService.getIndexSortSupplier().get();
+                    MergePolicyConfig.validateTimestampField(indexService.getIndexSettings(), mapperService::fullName);
                 }
 
                 // the context is only used for validation so it's fine to pass fake values for the shard id and the current
@@ -19,7 +19,6 @@
 
 package org.elasticsearch.cluster.metadata;
 
-import com.carrotsearch.hppc.cursors.ObjectCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
@@ -48,10 +47,13 @@ import org.elasticsearch.indices.InvalidTypeNameException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.elasticsearch.indices.cluster.IndicesClusterStateService.AllocatedIndices.IndexRemovalReason.NO_LONGER_ASSIGNED;
 
@@ -210,14 +212,36 @@ public class MetaDataMappingService {
     }
 
     class PutMappingExecutor implements ClusterStateTaskExecutor<PutMappingClusterStateUpdateRequest> {
+
+        /**
+         * Mapping updates are parsed and merged one by one, so a flood of them (e.g. dynamic updates sent by many nodes) is split into
+         * batches that do not hold up the master service for too long.
+         */
+        static final int MAX_BATCH_SIZE = 100;
+
+        @Override
+        public int maxBatchSize() {
+            return MAX_BATCH_SIZE;
+        }
+
         @Override
         public ClusterTasksResult<PutMappingClusterStateUpdateRequest>
         execute(ClusterState currentState, List<PutMappingClusterStateUpdateRequest> tasks) throws Exception {
             Map<Index, MapperService> indexMapperServices = new HashMap<>();
+            // the indices whose mappings changed, their metadata is built once all tasks of the batch were merged
+            Set<Index> updatedIndices = new HashSet<>();
             ClusterTasksResult.Builder<PutMappingClusterStateUpdateRequest> builder = ClusterTasksResult.builder();
+            // many nodes often send the very same dynamic mapping update at once, applying it again is a no-op
+            Set<List<Object>> appliedRequests = new HashSet<>();
             try {
                 for (PutMappingClusterStateUpdateRequest request : tasks) {
                     try {
+                        final List<Object> requestKey = Arrays.asList(Arrays.asList(request.indices()), request.type(),
+                            request.source(), request.updateAllTypes());
+                        if (appliedRequests.contains(requestKey)) {
+                            builder.success(request);
+                            continue;
+                        }
                         for (Index index : request.indices()) {
                             final IndexMetaData indexMetaData = currentState.metaData().getIndexSafe(index);
                             if (indexMapperServices.containsKey(indexMetaData.getIndex()) == false) {
@@ -227,33 +251,29 @@ public class MetaDataMappingService {
                                 mapperService.merge(indexMetaData, MergeReason.MAPPING_RECOVERY, request.updateAllTypes());
                             }
                         }
-                        currentState = applyRequest(currentState, request, indexMapperServices);
+                        mergeRequest(request, indexMapperServices, updatedIndices);
+                        appliedRequests.add(requestKey);
                         builder.success(request);
                     } catch (Exception e) {
                         builder.failure(request, e);
                     }
                 }
-                return builder.build(currentState);
+                return builder.build(updateMetaData(currentState, updatedIndices, indexMapperServices));
             } finally {
                 IOUtils.close(indexMapperServices.values());
             }
         }
 
-        private ClusterState applyRequest(ClusterState currentState, PutMappingClusterStateUpdateRequest request,
-                                          Map<Index, MapperService> indexMapperServices) throws IOException {
+        /**
+         * Merges the mapping update of the given request into the mapper services of its indices and adds the indices whose mappings
+         * changed to the given set.
+         */
+        private void mergeRequest(PutMappingClusterStateUpdateRequest request, Map<Index, MapperService> indexMapperServices,
+                                  Set<Index> updatedIndices) throws IOException {
             String mappingType = request.type();
             CompressedXContent mappingUpdateSource = new CompressedXContent(request.source());
-            final MetaData metaData = currentState.metaData();
-            final List<IndexMetaData> updateList = new ArrayList<>();
             for (Index index : request.indices()) {
                 MapperService mapperService = indexMapperServices.get(index);
-                // IMPORTANT: always get the metadata from the state since it get's batched
-                // and if we pull it from the indexService we might miss an update etc.
-                final IndexMetaData indexMetaData = currentState.getMetaData().getIndexSafe(index);
-
-                // this is paranoia... just to be sure we use the exact same metadata tuple on the update that
-                // we used for the validation, it makes this mechanism little less scary (a little)
-                updateList.add(indexMetaData);
                 // try and parse it (no need to add it here) so we can bail early in case of parsing exception
                 DocumentMapper newMapper;
                 DocumentMapper existingMapper = mapperService.documentMapper(request.type());
@@ -274,9 +294,10 @@ public class MetaDataMappingService {
                         // and a put mapping api call, so we don't which type did exist before.
                         // Also the order of the mappings may be backwards.
                         if (newMapper.parentFieldMapper().active()) {
-                            for (ObjectCursor<MappingMetaData> mapping : indexMetaData.getMappings().values()) {
+                            // the mapper service holds the types of the index metadata and the ones added earlier in this batch
+                            for (String type : mapperService.types()) {
                                 String parentType = newMapper.parentFieldMapper().type();
-                                if (parentType.equals(mapping.value.type()) &&
+                                if (parentType.equals(type) &&
                                         mapperService.getParentTypes().contains(parentType) == false) {
                                     throw new IllegalArgumentException("can't add a _parent field that points to an " +
                                         "already existing type, that isn't already a parent");
@@ -298,13 +319,10 @@ public class MetaDataMappingService {
                     && mappingType.charAt(0) == '_') {
                 throw new InvalidTypeNameException("Document mapping type name can't start with '_', found: [" + mappingType + "]");
             }
-            MetaData.Builder builder = MetaData.builder(metaData);
-            boolean updated = false;
-            for (IndexMetaData indexMetaData : updateList) {
+            for (Index index : request.indices()) {
                 boolean updatedMapping = false;
                 // do the actual merge here on the master, and update the mapping source
-                // we use the exact same indexService and metadata we used to validate above here to actually apply the update
-                final Index index = indexMetaData.getIndex();
+                // we use the exact same mapper service we used to validate above here to actually apply the update
                 final MapperService mapperService = indexMapperServices.get(index);
                 CompressedXContent existingSource = null;
                 DocumentMapper existingMapper = mapperService.documentMapper(mappingType);
@@ -337,28 +355,37 @@ public class MetaDataMappingService {
                     }
                 }
 
-                IndexMetaData.Builder indexMetaDataBuilder = IndexMetaData.builder(indexMetaData);
+                if (updatedMapping) {
+                    updatedIndices.add(index);
+                }
+            }
+        }
+
+        /**
+         * Builds the metadata of every updated index once from its mapper service, however many tasks of the batch updated it.
+         */
+        private ClusterState updateMetaData(ClusterState currentState, Set<Index> updatedIndices,
+                                            Map<Index, MapperService> indexMapperServices) throws IOException {
+            if (updatedIndices.isEmpty()) {
+                return currentState;
+            }
+            MetaData.Builder builder = MetaData.builder(currentState.metaData());
+            for (Index index : updatedIndices) {
+                final MapperService mapperService = indexMapperServices.get(index);
+                IndexMetaData.Builder indexMetaDataBuilder = IndexMetaData.builder(currentState.metaData().getIndexSafe(index));
                 // Mapping updates on a single type may have side-effects on other types so we need to
                 // update mapping metadata on all types
                 for (DocumentMapper mapper : mapperService.docMappers(true)) {
                     indexMetaDataBuilder.putMapping(new MappingMetaData(mapper.mappingSource()));
                 }
-                if (updatedMapping) {
-                    indexMetaDataBuilder.mappingVersion(1 + indexMetaDataBuilder.mappingVersion());
-                }
+                indexMetaDataBuilder.mappingVersion(1 + indexMetaDataBuilder.mappingVersion());
                 /*
                  * This implicitly increments the index metadata version and builds the index metadata. This means that we need to have
-                 * already incremented the mapping version if necessary. Therefore, the mapping version increment must remain before this
-                 * statement.
+                 * already incremented the mapping version. Therefore, the mapping version increment must remain before this statement.
                  */
                 builder.put(indexMetaDataBuilder);
-                updated |= updatedMapping;
-            }
-            if (updated) {
-                return ClusterState.builder(currentState).metaData(builder).build();
-            } else {
-                return currentState;
             }
+            return ClusterState.builder(currentState).metaData(builder).build();
         }
 
         @Override
@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
@@ -41,6 +42,13 @@ public class RoutingNode implements Iterable<ShardRouting> {
 
     private final LinkedHashMap<ShardId, ShardRouting> shards; // LinkedHashMap to preserve order
 
+    // initializing and relocating shards are tracked separately so that allocation deciders, which ask for them for every
+    // shard they decide on, do not have to scan all the shards of the node
+
+    private final LinkedHashSet<ShardRouting> initializingShards;
+
+    private final LinkedHashSet<ShardRouting> relocatingShards;
+
     public RoutingNode(String nodeId, DiscoveryNode node, ShardRouting... shards) {
         this(nodeId, node, buildShardRoutingMap(shards));
     }
@@ -49,6 +57,12 @@ public class RoutingNode implements Iterable<ShardRouting> {
         this.nodeId = nodeId;
         this.node = node;
         this.shards = shards;
+        this.initializingShards = new LinkedHashSet<>();
+        this.relocatingShards = new LinkedHashSet<>();
+        for (ShardRouting shardRouting : shards.values()) {
+            addToTrackedShards(shardRouting);
+            assert invariant(shardRouting);
+        }
     }
 
     private static LinkedHashMap<ShardId, ShardRouting> buildShardRoutingMap(ShardRouting... shardRoutings) {
@@ -104,6 +118,8 @@ public class RoutingNode implements Iterable<ShardRouting> {
                 + "] where it already exists. current [" + shards.get(shard.shardId()) + "]. new [" + shard + "]");
         }
         shards.put(shard.shardId(), shard);
+        addToTrackedShards(shard);
+        assert invariant(shard);
     }
 
     void update(ShardRouting oldShard, ShardRouting newShard) {
@@ -114,11 +130,50 @@ public class RoutingNode implements Iterable<ShardRouting> {
         }
         ShardRouting previousValue = shards.put(newShard.shardId(), newShard);
         assert previousValue == oldShard : "expected shard " + previousValue + " but was " + oldShard;
+        removeFromTrackedShards(oldShard);
+        addToTrackedShards(newShard);
+        // the tracked sets compare shards by equality, an equal old shard is still tracked through the new one
+        assert (oldShard.equals(newShard) || invariant(oldShard)) && invariant(newShard);
     }
 
     void remove(ShardRouting shard) {
         ShardRouting previousValue = shards.remove(shard.shardId());
         assert previousValue == shard : "expected shard " + previousValue + " but was " + shard;
+        removeFromTrackedShards(shard);
+        assert invariant(shard);
+    }
+
+    private void addToTrackedShards(ShardRouting shard) {
+        if (shard.initializing()) {
+            initializingShards.add(shard);
+        } else if (shard.relocating()) {
+            relocatingShards.add(shard);
+        }
+    }
+
+    private void removeFromTrackedShards(ShardRouting shard) {
+        if (shard.initializing()) {
+            initializingShards.remove(shard);
+        } else if (shard.relocating()) {
+            relocatingShards.remove(shard);
+        }
+    }
+
+    /**
+     * Returns the shards with the given states, or {@code null} if the states are not all tracked separately.
+     */
+    @Nullable
+    private List<ShardRouting> trackedShardsWithState(ShardRoutingState... states) {
+        for (ShardRoutingState state : states) {
+            if (state != ShardRoutingState.INITIALIZING && state != ShardRoutingState.RELOCATING) {
+                return null;
+            }
+        }
+        final List<ShardRouting> result = new ArrayList<>();
+        for (ShardRoutingState state : states) {
+            result.addAll(state == ShardRoutingState.INITIALIZING ? initializingShards : relocatingShards);
+        }
+        return result;
     }
 
     /**
@@ -127,6 +182,13 @@ public class RoutingNode implements Iterable<ShardRouting> {
      * @return number of shards
      */
     public int numberOfShardsWithState(ShardRoutingState... states) {
+        if (states.length == 1) {
+            if (states[0] == ShardRoutingState.INITIALIZING) {
+                return initializingShards.size();
+            } else if (states[0] == ShardRoutingState.RELOCATING) {
+                return relocatingShards.size();
+            }
+        }
         int count = 0;
         for (ShardRouting shardEntry : this) {
             for (ShardRoutingState state : states) {
@@ -144,6 +206,10 @@ public class RoutingNode implements Iterable<ShardRouting> {
      * @return List of shards
      */
     public List<ShardRouting> shardsWithState(ShardRoutingState... states) {
+        final List<ShardRouting> trackedShards = trackedShardsWithState(states);
+        if (trackedShards != null) {
+            return trackedShards;
+        }
         List<ShardRouting> shards = new ArrayList<>();
         for (ShardRouting shardEntry : this) {
             for (ShardRoutingState state : states) {
@@ -181,14 +247,7 @@ public class RoutingNode implements Iterable<ShardRouting> {
      * The number of shards on this node that will not be eventually relocated.
      */
     public int numberOfOwningShards() {
-        int count = 0;
-        for (ShardRouting shardEntry : this) {
-            if (shardEntry.state() != ShardRoutingState.RELOCATING) {
-                count++;
-            }
-        }
-
-        return count;
+        return shards.size() - relocatingShards.size();
     }
 
     public String prettyPrint() {
@@ -223,4 +282,20 @@ public class RoutingNode implements Iterable<ShardRouting> {
     public boolean isEmpty() {
         return shards.isEmpty();
     }
+
+    /**
+     * Checks that the given shard, which was just added, updated or removed, is tracked according to its state. Only the shard that
+     * changed is checked so that the invariant stays cheap on nodes with many shards.
+     */
+    private boolean invariant(ShardRouting shard) {
+        final boolean assigned = shards.get(shard.shardId()) == shard;
+        assert initializingShards.contains(shard) == (assigned && shard.initializing())
+            : "initializing shard " + shard + " is tracked incorrectly, tracked " + initializingShards;
+        assert relocatingShards.contains(shard) == (assigned && shard.relocating())
+            : "relocating shard " + shard + " is tracked incorrectly, tracked " + relocatingShards;
+        assert initializingShards.size() + relocatingShards.size() <= shards.size()
+            : "tracking " + initializingShards.size() + " initializing and " + relocatingShards.size() + " relocating shards but only "
+            + shards.size() + " shards are assigned";
+        return true;
+    }
 }
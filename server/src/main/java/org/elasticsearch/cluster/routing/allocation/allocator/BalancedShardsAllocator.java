@@ -220,8 +220,16 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         }
 
         private float weight(Balancer balancer, ModelNode node, String index, int numAdditionalShards) {
+            return weight(balancer, node, index, balancer.avgShardsPerNode(index), numAdditionalShards);
+        }
+
+        /**
+         * Same as {@link #weight(Balancer, ModelNode, String)} but with the average number of shards per node of the index resolved up
+         * front, which avoids looking up the index metadata for every node when weighing all nodes against the same index.
+         */
+        float weight(Balancer balancer, ModelNode node, String index, float avgShardsPerNodeForIndex, int numAdditionalShards) {
             final float weightShard = node.numShards() + numAdditionalShards - balancer.avgShardsPerNode();
-            final float weightIndex = node.numShards(index) + numAdditionalShards - balancer.avgShardsPerNode(index);
+            final float weightIndex = node.numShards(index) + numAdditionalShards - avgShardsPerNodeForIndex;
             return theta0 * weightShard + theta1 * weightIndex;
         }
     }
@@ -596,8 +604,8 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
             final float[] deltas = new float[indices.length];
             for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+                // only the spread between the lightest and the heaviest node matters here, no need to sort the nodes
+                deltas[i] = sorter.weighAll(indices[i]);
             }
             new IntroSorter() {
 
@@ -912,6 +920,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
              * iteration order is different for each run and makes testing hard */
             Map<String, NodeAllocationResult> nodeExplanationMap = explain ? new HashMap<>() : null;
             List<Tuple<String, Float>> nodeWeights = explain ? new ArrayList<>() : null;
+            final float avgShardsPerNodeForIndex = avgShardsPerNode(shard.getIndexName());
             for (ModelNode node : nodes.values()) {
                 if ((throttledNodes.contains(node) || node.containsShard(shard)) && explain == false) {
                     // decision is NO without needing to check anything further, so short circuit
@@ -919,7 +928,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                 }
 
                 // simulate weight if we would add shard to node
-                float currentWeight = weight.weightShardAdded(this, node, shard.getIndexName());
+                float currentWeight = weight.weight(this, node, shard.getIndexName(), avgShardsPerNodeForIndex, 1);
                 // moving the shard would not improve the balance, and we are not in explain mode, so short circuit
                 if (currentWeight > minWeight && explain == false) {
                     continue;
@@ -1190,6 +1199,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         final float[] weights;
         private final WeightFunction function;
         private String index;
+        private float avgShardsPerNodeForIndex;
         private final Balancer balancer;
         private float pivotWeight;
 
@@ -1205,7 +1215,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
          * nodes by weight, with minimal weight first.
          */
         public void reset(String index, int from, int to) {
-            this.index = index;
+            setIndex(index);
             for (int i = from; i < to; i++) {
                 weights[i] = weight(modelNodes[i]);
             }
@@ -1216,8 +1226,30 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             reset(index, 0, modelNodes.length);
         }
 
+        /**
+         * Recalculates the weights of all nodes for the given index without sorting them and returns the delta between the
+         * maximum and the minimum weight.
+         */
+        public float weighAll(String index) {
+            setIndex(index);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < modelNodes.length; i++) {
+                final float weight = weight(modelNodes[i]);
+                weights[i] = weight;
+                min = Math.min(min, weight);
+                max = Math.max(max, weight);
+            }
+            return modelNodes.length == 0 ? 0.0f : max - min;
+        }
+
+        private void setIndex(String index) {
+            this.index = index;
+            this.avgShardsPerNodeForIndex = balancer.avgShardsPerNode(index);
+        }
+
         public float weight(ModelNode node) {
-            return function.weight(balancer, node, index);
+            return function.weight(balancer, node, index, avgShardsPerNodeForIndex, 0);
         }
 
         @Override
@@ -1244,9 +1276,5 @@ public class BalancedShardsAllocator implements ShardsAllocator {
         protected int comparePivot(int j) {
             return Float.compare(pivotWeight, weights[j]);
         }
-
-        public float delta() {
-            return weights[weights.length - 1] - weights[0];
-        }
     }
 }
@@ -73,10 +73,11 @@ public class ShardsLimitAllocationDecider extends AllocationDecider {
         Setting.intSetting("cluster.routing.allocation.total_shards_per_node", -1,  -1,
             Property.Dynamic, Property.NodeScope);
 
-    private final Settings settings;
+    // the index shard limit to apply to indices that do not set it, node settings do not change so this is resolved only once
+    private final int defaultIndexShardLimit;
 
     public ShardsLimitAllocationDecider(Settings settings, ClusterSettings clusterSettings) {
-        this.settings = settings;
+        this.defaultIndexShardLimit = INDEX_TOTAL_SHARDS_PER_NODE_SETTING.get(settings);
         this.clusterShardLimit = CLUSTER_TOTAL_SHARDS_PER_NODE_SETTING.get(settings);
         clusterSettings.addSettingsUpdateConsumer(CLUSTER_TOTAL_SHARDS_PER_NODE_SETTING, this::setClusterShardLimit);
     }
@@ -99,7 +100,8 @@ public class ShardsLimitAllocationDecider extends AllocationDecider {
     private Decision doDecide(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation,
                               BiPredicate<Integer, Integer> decider) {
         IndexMetaData indexMd = allocation.metaData().getIndexSafe(shardRouting.index());
-        final int indexShardLimit = INDEX_TOTAL_SHARDS_PER_NODE_SETTING.get(indexMd.getSettings(), settings);
+        final int indexShardLimit = INDEX_TOTAL_SHARDS_PER_NODE_SETTING.exists(indexMd.getSettings()) ?
+            INDEX_TOTAL_SHARDS_PER_NODE_SETTING.get(indexMd.getSettings()) : defaultIndexShardLimit;
         // Capture the limit here in case it changes during this method's
         // execution
         final int clusterShardLimit = this.clusterShardLimit;
@@ -109,16 +111,14 @@ public class ShardsLimitAllocationDecider extends AllocationDecider {
                     indexShardLimit, clusterShardLimit);
         }
 
+        // don't count relocating shards...
+        final int nodeShardCount = node.numberOfOwningShards();
         int indexShardCount = 0;
-        int nodeShardCount = 0;
-        for (ShardRouting nodeShard : node) {
-            // don't count relocating shards...
-            if (nodeShard.relocating()) {
-                continue;
-            }
-            nodeShardCount++;
-            if (nodeShard.index().equals(shardRouting.index())) {
-                indexShardCount++;
+        if (indexShardLimit > 0) {
+            for (ShardRouting nodeShard : node) {
+                if (nodeShard.relocating() == false && nodeShard.index().equals(shardRouting.index())) {
+                    indexShardCount++;
+                }
             }
         }
 
@@ -149,14 +149,8 @@ public class ShardsLimitAllocationDecider extends AllocationDecider {
                     clusterShardLimit);
         }
 
-        int nodeShardCount = 0;
-        for (ShardRouting nodeShard : node) {
-            // don't count relocating shards...
-            if (nodeShard.relocating()) {
-                continue;
-            }
-            nodeShardCount++;
-        }
+        // don't count relocating shards...
+        final int nodeShardCount = node.numberOfOwningShards();
         if (clusterShardLimit >= 0 && nodeShardCount >= clusterShardLimit) {
             return allocation.decision(Decision.NO, NAME,
                 "too many shards [%d] allocated to this node, cluster setting [%s=%d]",
@@ -0,0 +1,154 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stats about the cluster state update tasks that the {@link MasterService} of a node executed, per task executor.
+ */
+public class ClusterStateUpdateStats implements Writeable, ToXContentFragment {
+
+    private final Map<String, ExecutorStats> executorStats;
+
+    public ClusterStateUpdateStats(Map<String, ExecutorStats> executorStats) {
+        this.executorStats = Collections.unmodifiableMap(new TreeMap<>(executorStats));
+    }
+
+    public ClusterStateUpdateStats(StreamInput in) throws IOException {
+        this(in.readMap(StreamInput::readString, ExecutorStats::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeMap(executorStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("cluster_state_update");
+        for (Map.Entry<String, ExecutorStats> entry : executorStats.entrySet()) {
+            builder.field(entry.getKey());
+            entry.getValue().toXContent(builder, params);
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    /**
+     * Returns the stats per task executor, keyed by {@link org.elasticsearch.cluster.ClusterStateTaskExecutor#statsName()}.
+     */
+    public Map<String, ExecutorStats> getExecutorStats() {
+        return executorStats;
+    }
+
+    public static class ExecutorStats implements Writeable, ToXContentObject {
+
+        private final long batchCount;
+        private final long taskCount;
+        private final long maxBatchSize;
+        private final long queueTimeInMillis;
+        private final long computeTimeInMillis;
+        private final long publishedCount;
+        private final long publishTimeInMillis;
+
+        /**
+         * @param batchCount the number of batches of tasks that were executed.
+         * @param taskCount the total number of tasks in these batches.
+         * @param maxBatchSize the number of tasks in the largest batch.
+         * @param queueTimeInMillis the total time the tasks waited in the queue before their batch was executed.
+         * @param computeTimeInMillis the total time spent computing the new cluster states.
+         * @param publishedCount the number of batches that resulted in a new cluster state that was published.
+         * @param publishTimeInMillis the total time spent publishing these cluster states.
+         */
+        public ExecutorStats(long batchCount, long taskCount, long maxBatchSize, long queueTimeInMillis, long computeTimeInMillis,
+                             long publishedCount, long publishTimeInMillis) {
+            this.batchCount = batchCount;
+            this.taskCount = taskCount;
+            this.maxBatchSize = maxBatchSize;
+            this.queueTimeInMillis = queueTimeInMillis;
+            this.computeTimeInMillis = computeTimeInMillis;
+            this.publishedCount = publishedCount;
+            this.publishTimeInMillis = publishTimeInMillis;
+        }
+
+        public ExecutorStats(StreamInput in) throws IOException {
+            batchCount = in.readVLong();
+            taskCount = in.readVLong();
+            maxBatchSize = in.readVLong();
+            queueTimeInMillis = in.readVLong();
+            computeTimeInMillis = in.readVLong();
+            publishedCount = in.readVLong();
+            publishTimeInMillis = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(batchCount);
+            out.writeVLong(taskCount);
+            out.writeVLong(maxBatchSize);
+            out.writeVLong(queueTimeInMillis);
+            out.writeVLong(computeTimeInMillis);
+            out.writeVLong(publishedCount);
+            out.writeVLong(publishTimeInMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            {
+                builder.field("batches", batchCount);
+                builder.field("tasks", taskCount);
+                builder.field("max_batch_size", maxBatchSize);
+                builder.humanReadableField("queue_time_in_millis", "queue_time", new TimeValue(queueTimeInMillis));
+                builder.humanReadableField("compute_time_in_millis", "compute_time", new TimeValue(computeTimeInMillis));
+                builder.field("published", publishedCount);
+                builder.humanReadableField("publish_time_in_millis", "publish_time", new TimeValue(publishTimeInMillis));
+            }
+            builder.endObject();
+            return builder;
+        }
+
+        public long getBatchCount() { return batchCount; }
+
+        public long getTaskCount() { return taskCount; }
+
+        public long getMaxBatchSize() { return maxBatchSize; }
+
+        public long getQueueTimeInMillis() { return queueTimeInMillis; }
+
+        public long getComputeTimeInMillis() { return computeTimeInMillis; }
+
+        public long getPublishedCount() { return publishedCount; }
+
+        public long getPublishTimeInMillis() { return publishTimeInMillis; }
+    }
+}
@@ -39,9 +39,12 @@ import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -53,12 +56,14 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -84,6 +89,8 @@ public class MasterService extends AbstractLifecycleComponent {
     private volatile PrioritizedEsThreadPoolExecutor threadPoolExecutor;
     private volatile Batcher taskBatcher;
 
+    private final Map<String, ExecutorStatsTracker> executorStats = ConcurrentCollections.newConcurrentMap();
+
     public MasterService(String nodeName, Settings settings, ThreadPool threadPool) {
         super(settings);
         this.nodeName = nodeName;
@@ -130,6 +137,11 @@ public class MasterService extends AbstractLifecycleComponent {
                         new ProcessClusterEventTimeoutException(timeout, task.source))));
         }
 
+        @Override
+        protected int maxBatchSize(Object batchingKey) {
+            return ((ClusterStateTaskExecutor<?>) batchingKey).maxBatchSize();
+        }
+
         @Override
         protected void run(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary) {
             ClusterStateTaskExecutor<Object> taskExecutor = (ClusterStateTaskExecutor<Object>) batchingKey;
@@ -198,8 +210,14 @@ public class MasterService extends AbstractLifecycleComponent {
             return;
         }
 
+        final ExecutorStatsTracker stats = executorStats.computeIfAbsent(taskInputs.executor.statsName(), k -> new ExecutorStatsTracker());
+        long queueTimeInMillis = 0;
+        for (Batcher.UpdateTask updateTask : taskInputs.updateTasks) {
+            queueTimeInMillis += updateTask.getAgeInMillis();
+        }
         long startTimeNS = currentTimeInNanos();
         TaskOutputs taskOutputs = calculateTaskOutputs(taskInputs, previousClusterState, startTimeNS);
+        stats.onBatchComputed(taskInputs.updateTasks.size(), queueTimeInMillis, currentTimeInNanos() - startTimeNS);
         taskOutputs.notifyFailedTasks();
 
         if (taskOutputs.clusterStateUnchanged()) {
@@ -227,7 +245,9 @@ public class MasterService extends AbstractLifecycleComponent {
 
                 logger.debug("publishing cluster state version [{}]", newClusterState.version());
                 try {
+                    final long publishStartTimeNS = currentTimeInNanos();
                     clusterStatePublisher.accept(clusterChangedEvent, taskOutputs.createAckListener(threadPool, newClusterState));
+                    stats.onPublished(currentTimeInNanos() - publishStartTimeNS);
                 } catch (Discovery.FailedToCommitClusterStateException t) {
                     final long version = newClusterState.version();
                     logger.warn(() -> new ParameterizedMessage(
@@ -403,6 +423,42 @@ public class MasterService extends AbstractLifecycleComponent {
         }
     }
 
+    /**
+     * Returns stats about the tasks this master service executed, per task executor.
+     */
+    public ClusterStateUpdateStats stats() {
+        final Map<String, ClusterStateUpdateStats.ExecutorStats> stats = new HashMap<>(executorStats.size());
+        executorStats.forEach((executor, tracker) -> stats.put(executor, tracker.stats()));
+        return new ClusterStateUpdateStats(stats);
+    }
+
+    private static class ExecutorStatsTracker {
+        // counts the batches and sums up their sizes
+        private final MeanMetric batches = new MeanMetric();
+        private final AtomicLong maxBatchSize = new AtomicLong();
+        private final CounterMetric queueTimeInMillis = new CounterMetric();
+        private final CounterMetric computeTimeInNanos = new CounterMetric();
+        // counts the publications and sums up their durations
+        private final MeanMetric publishTimeInNanos = new MeanMetric();
+
+        void onBatchComputed(int batchSize, long queueTimeInMillis, long computeTimeInNanos) {
+            batches.inc(batchSize);
+            maxBatchSize.accumulateAndGet(batchSize, Math::max);
+            this.queueTimeInMillis.inc(queueTimeInMillis);
+            this.computeTimeInNanos.inc(Math.max(0, computeTimeInNanos));
+        }
+
+        void onPublished(long publishTimeInNanos) {
+            this.publishTimeInNanos.inc(Math.max(0, publishTimeInNanos));
+        }
+
+        ClusterStateUpdateStats.ExecutorStats stats() {
+            return new ClusterStateUpdateStats.ExecutorStats(batches.count(), batches.sum(), maxBatchSize.get(),
+                queueTimeInMillis.count(), TimeUnit.NANOSECONDS.toMillis(computeTimeInNanos.count()), publishTimeInNanos.count(),
+                TimeUnit.NANOSECONDS.toMillis(publishTimeInNanos.sum()));
+        }
+    }
+
     /**
      * Returns the tasks that are pending.
      */
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -79,6 +80,7 @@ public abstract class TaskBatcher {
                 }
             }
             existingTasks.addAll(tasks);
+            firstTask.hasRunnable = true;
         }
 
         if (timeout != null) {
@@ -120,6 +122,15 @@ public abstract class TaskBatcher {
      */
     protected abstract void onTimeout(List<? extends BatchedTask> tasks, TimeValue timeout);
 
+    /**
+     * Returns the maximum number of tasks with the given batching key that are executed in a single batch. Tasks over this limit
+     * stay queued and are executed by the runnable that was queued when they were submitted, which keeps its place in the queue.
+     * Tasks that were submitted together are not split, so a batch exceeds this limit if a single submission does.
+     */
+    protected int maxBatchSize(Object batchingKey) {
+        return Integer.MAX_VALUE;
+    }
+
     void runIfNotProcessed(BatchedTask updateTask) {
         // if this task is already processed, it shouldn't execute other tasks with same batching key that arrived later,
         // to give other tasks with different batching key a chance to execute.
@@ -129,7 +140,17 @@ public abstract class TaskBatcher {
             synchronized (tasksPerBatchingKey) {
                 LinkedHashSet<BatchedTask> pending = tasksPerBatchingKey.remove(updateTask.batchingKey);
                 if (pending != null) {
-                    for (BatchedTask task : pending) {
+                    final int maxBatchSize = maxBatchSize(updateTask.batchingKey);
+                    // the runnable of this task is consumed, so the batch must at least include the tasks submitted with it
+                    boolean reachedUpdateTask = pending.contains(updateTask) == false;
+                    for (Iterator<BatchedTask> iterator = pending.iterator(); iterator.hasNext(); ) {
+                        final BatchedTask task = iterator.next();
+                        if (toExecute.size() >= maxBatchSize && reachedUpdateTask && task.hasRunnable && task.processed.get() == false) {
+                            // the remaining tasks are executed by the runnable of this task, which is still queued
+                            break;
+                        }
+                        iterator.remove();
+                        reachedUpdateTask |= task == updateTask;
                         if (task.processed.getAndSet(true) == false) {
                             logger.trace("will process {}", task);
                             toExecute.add(task);
@@ -138,6 +159,9 @@ public abstract class TaskBatcher {
                             logger.trace("skipping {}, already processed", task);
                         }
                     }
+                    if (pending.isEmpty() == false) {
+                        tasksPerBatchingKey.put(updateTask.batchingKey, pending);
+                    }
                 }
             }
 
@@ -176,6 +200,10 @@ public abstract class TaskBatcher {
          * the task object that is wrapped
          */
         protected final Object task;
+        /**
+         * whether this task was handed to the executor, the tasks that were submitted together with it are executed by its runnable
+         */
+        private boolean hasRunnable;
 
         protected BatchedTask(Priority priority, String source, Object batchingKey, Object task) {
             super(priority, source);
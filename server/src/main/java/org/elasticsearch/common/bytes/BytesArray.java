@@ -60,6 +60,17 @@ public final class BytesArray extends BytesReference {
         return bytes[offset + index];
     }
 
+    @Override
+    public int indexOf(byte marker, int from) {
+        final int to = offset + length;
+        for (int i = offset + from; i < to; i++) {
+            if (bytes[i] == marker) {
+                return i - offset;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public int length() {
         return length;
@@ -58,6 +58,21 @@ public abstract class BytesReference implements Comparable<BytesReference>, ToXC
      */
     public abstract byte get(int index);
 
+    /**
+     * Returns the index of the first occurrence of the given marker between the given index and the end of this reference, or
+     * <code>-1</code> if the marker is not found. Implementations should override this to scan their underlying pages or buffers
+     * directly rather than going through {@link #get(int)} for every byte.
+     */
+    public int indexOf(byte marker, int from) {
+        final int to = length();
+        for (int i = from; i < to; i++) {
+            if (get(i) == marker) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * The length.
      */
@@ -71,6 +71,21 @@ public final class CompositeBytesReference extends BytesReference {
         return references[i].get(index - offsets[i]);
     }
 
+    @Override
+    public int indexOf(byte marker, int from) {
+        if (from >= length) {
+            return -1;
+        }
+        for (int i = getOffsetIndex(from); i < references.length; i++) {
+            final int start = Math.max(0, from - offsets[i]);
+            final int index = references[i].indexOf(marker, start);
+            if (index != -1) {
+                return offsets[i] + index;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public int length() {
         return length;
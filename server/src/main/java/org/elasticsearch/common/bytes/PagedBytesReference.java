@@ -56,6 +56,25 @@ public class PagedBytesReference extends BytesReference {
         return byteArray.get(offset + index);
     }
 
+    @Override
+    public int indexOf(byte marker, int from) {
+        final BytesRef page = new BytesRef();
+        int pageStart = from;
+        while (pageStart < length) {
+            // scan page by page, BigArrays returns a view on the page as long as we don't read across page boundaries
+            final int pageLength = Math.min(length - pageStart, PAGE_SIZE - ((offset + pageStart) % PAGE_SIZE));
+            byteArray.get(offset + pageStart, pageLength, page);
+            final int end = page.offset + page.length;
+            for (int i = page.offset; i < end; i++) {
+                if (page.bytes[i] == marker) {
+                    return pageStart + (i - page.offset);
+                }
+            }
+            pageStart += pageLength;
+        }
+        return -1;
+    }
+
     @Override
     public int length() {
         return length;
@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -52,17 +54,16 @@ import java.util.function.ToLongBiFunction;
  * if they are reading a segment that a writer is writing to).
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
- * here if write throughput is a concern.
- * <ol>
- * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
- * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
- * <li>Locks on the list could be taken per node being modified instead of globally.</li>
- * </ol>
+ * LRU list is protected by a lock that serializes all writes to it. In order to keep cache hits from contending on
+ * this lock, the promotions of entries that are read from the cache are deferred: they are recorded in small
+ * striped read buffers and applied to the LRU list in batches by whichever thread holds the lock next. A thread
+ * that finds its read buffer full drains the buffers if the lock is free, and otherwise drops the promotion, which
+ * only makes the LRU order approximate under contention. The read buffers are always drained before the LRU list is
+ * used to evict entries or to iterate over the cache.
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
- * invalidation) or an explicit call to {@link #refresh()}.
+ * invalidation) or an explicit call to {@link #refresh()}. Cache hits evict expired entries whenever they find the LRU
+ * lock free, and, if entries never expire, only when they find their read buffer full since reads don't add weight.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -350,6 +351,65 @@ public class Cache<K, V> {
     // lock protecting mutations to the LRU list
     private final ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
 
+    // the read buffers are striped by thread, both sizes must be powers of two
+    static final int READ_BUFFER_SIZE = 16;
+    static final int NUMBER_OF_READ_BUFFERS =
+        Math.min(64, Integer.highestOneBit(4 * Runtime.getRuntime().availableProcessors() - 1) << 1);
+    @SuppressWarnings("unchecked") private final ReadBuffer<K, V>[] readBuffers = new ReadBuffer[NUMBER_OF_READ_BUFFERS];
+
+    {
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
+    /**
+     * A bounded buffer of entries that were read from the cache and still need to be promoted in the LRU list. Any thread can add
+     * entries, entries are only consumed by the thread that holds the LRU lock.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    static final class ReadBuffer<K, V> {
+        private final AtomicReferenceArray<Entry<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        // only modified while holding the LRU lock
+        private volatile long readCounter;
+
+        /**
+         * Records a read of the given entry.
+         *
+         * @return false if the buffer is full or if another thread concurrently recorded a read in this buffer
+         */
+        boolean offer(Entry<K, V> entry) {
+            final long writeCount = writeCounter.get();
+            if (writeCount - readCounter >= READ_BUFFER_SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(writeCount, writeCount + 1)) {
+                buffer.lazySet((int) (writeCount & (READ_BUFFER_SIZE - 1)), entry);
+                return true;
+            }
+            return false;
+        }
+
+        void drain(Consumer<Entry<K, V>> consumer) {
+            final long writeCount = writeCounter.get();
+            long readCount = readCounter;
+            for (; readCount < writeCount; readCount++) {
+                final int index = (int) (readCount & (READ_BUFFER_SIZE - 1));
+                final Entry<K, V> entry = buffer.get(index);
+                if (entry == null) {
+                    // the slot was claimed but the entry is not published yet, it will be consumed on the next drain
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(entry);
+            }
+            readCounter = readCount;
+        }
+    }
+
     /**
      * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key.
      *
@@ -366,11 +426,48 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            final boolean buffered = getReadBuffer().offer(entry);
+            // reads don't add weight but entries might have expired in the meantime, so evict whenever the LRU lock is free
+            if (buffered == false || entriesExpireAfterAccess || entriesExpireAfterWrite) {
+                // never wait for the LRU lock, another thread that is mutating the LRU list drains the buffers and evicts
+                try (ReleasableLock locked = lruLock.tryAcquire()) {
+                    if (locked != null) {
+                        drainReadBuffers();
+                        if (buffered == false) {
+                            promoteRead(entry);
+                        }
+                        evict(now);
+                    }
+                }
+            }
             return entry.value;
         }
     }
 
+    private ReadBuffer<K, V> getReadBuffer() {
+        return readBuffers[(int) Thread.currentThread().getId() & (NUMBER_OF_READ_BUFFERS - 1)];
+    }
+
+    /**
+     * Applies the promotions of the entries that were read since the last drain to the LRU list.
+     */
+    private void drainReadBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        for (ReadBuffer<K, V> readBuffer : readBuffers) {
+            readBuffer.drain(this::promoteRead);
+        }
+    }
+
+    private void promoteRead(Entry<K, V> entry) {
+        assert lruLock.isHeldByCurrentThread();
+
+        // new entries are linked by the thread that inserts them and deleted entries must not come back
+        if (entry.state == State.EXISTING) {
+            relinkAtHead(entry);
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -541,6 +638,7 @@ public class Cache<K, V> {
                 haveSegmentLock[i] = true;
             }
             try (ReleasableLock ignored = lruLock.acquire()) {
+                drainReadBuffers();
                 h = head;
                 Arrays.stream(segments).forEach(segment -> segment.map = new HashMap<>());
                 Entry<K, V> current = head;
@@ -571,6 +669,7 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffers();
             evict(now);
         }
     }
@@ -602,7 +701,7 @@ public class Cache<K, V> {
      */
     public Iterable<K> keys() {
         return () -> new Iterator<K>() {
-            private CacheIterator iterator = new CacheIterator(head);
+            private CacheIterator iterator = new CacheIterator(lruHead());
 
             @Override
             public boolean hasNext() {
@@ -630,7 +729,7 @@ public class Cache<K, V> {
      */
     public Iterable<V> values() {
         return () -> new Iterator<V>() {
-            private CacheIterator iterator = new CacheIterator(head);
+            private CacheIterator iterator = new CacheIterator(lruHead());
 
             @Override
             public boolean hasNext() {
@@ -649,6 +748,13 @@ public class Cache<K, V> {
         };
     }
 
+    private Entry<K, V> lruHead() {
+        try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffers();
+            return head;
+        }
+    }
+
     private class CacheIterator implements Iterator<Entry<K, V>> {
         private Entry<K, V> current;
         private Entry<K, V> next;
@@ -729,6 +835,7 @@ public class Cache<K, V> {
     private boolean promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffers();
             switch (entry.state) {
                 case DELETED:
                     promoted = false;
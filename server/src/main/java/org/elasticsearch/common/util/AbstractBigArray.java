@@ -25,6 +25,7 @@ import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.recycler.Recycler;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /** Common implementation for array lists that slice data into fixed-size blocks. */
@@ -105,12 +106,16 @@ abstract class AbstractBigArray extends AbstractArray {
     }
 
     private <T> T registerNewPage(Recycler.V<T> v, int page, int expectedSize) {
+        assert Array.getLength(v.v()) == expectedSize;
+        return registerNewPage(v, page);
+    }
+
+    private <T> T registerNewPage(Recycler.V<T> v, int page) {
         cache = grow(cache, page + 1);
         assert cache[page] == null;
         cache[page] = v;
-        assert Array.getLength(v.v()) == expectedSize;
         return v.v();
-      }
+    }
 
     protected final byte[] newBytePage(int page) {
         if (recycler != null) {
@@ -148,6 +153,13 @@ abstract class AbstractBigArray extends AbstractArray {
         }
     }
 
+    protected final ByteBuffer newDirectPage(int page) {
+        assert recycler != null && recycler.hasDirectPages();
+        final Recycler.V<ByteBuffer> v = recycler.directPage(clearOnResize);
+        assert v.v().capacity() == PageCacheRecycler.PAGE_SIZE_IN_BYTES;
+        return registerNewPage(v, page);
+    }
+
     protected final void releasePage(int page) {
         if (recycler != null) {
             cache[page].close();
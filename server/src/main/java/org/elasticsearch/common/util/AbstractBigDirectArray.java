@@ -0,0 +1,96 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.RamUsageEstimator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.elasticsearch.common.util.PageCacheRecycler.PAGE_SIZE_IN_BYTES;
+
+/**
+ * Common implementation for big arrays whose pages are {@link PageCacheRecycler#directPage(boolean) direct pages}, so that
+ * their content does not live on the heap. Values are read and written through the absolute accessors of the page
+ * buffers, which use the native byte order.
+ */
+abstract class AbstractBigDirectArray extends AbstractBigArray {
+
+    protected ByteBuffer[] pages;
+
+    protected AbstractBigDirectArray(long size, int bytesPerElement, BigArrays bigArrays, boolean clearOnResize) {
+        super(PAGE_SIZE_IN_BYTES / bytesPerElement, bigArrays, clearOnResize);
+        this.size = size;
+        pages = new ByteBuffer[numPages(size)];
+        for (int i = 0; i < pages.length; ++i) {
+            pages[i] = newDirectPage(i);
+        }
+    }
+
+    /** Change the size of this array. Content between indexes <code>0</code> and <code>min(size(), newSize)</code> will be preserved. */
+    @Override
+    public final void resize(long newSize) {
+        final int numPages = numPages(newSize);
+        if (numPages > pages.length) {
+            pages = Arrays.copyOf(pages, ArrayUtil.oversize(numPages, RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+        }
+        for (int i = numPages - 1; i >= 0 && pages[i] == null; --i) {
+            pages[i] = newDirectPage(i);
+        }
+        for (int i = numPages; i < pages.length && pages[i] != null; ++i) {
+            pages[i] = null;
+            releasePage(i);
+        }
+        this.size = newSize;
+    }
+
+    /** Return the offset in bytes of the given index in its page. */
+    final int byteOffsetInPage(long index) {
+        return indexInPage(index) * numBytesPerElement();
+    }
+
+    /** Call {@code filler} for every page with the range of byte offsets in that page to fill, the end being exclusive. */
+    final void fillPages(long fromIndex, long toIndex, PageFiller filler) {
+        if (fromIndex > toIndex) {
+            throw new IllegalArgumentException();
+        }
+        if (fromIndex == toIndex) {
+            return; // empty range
+        }
+        final int fromPage = pageIndex(fromIndex);
+        final int toPage = pageIndex(toIndex - 1);
+        final int pageSizeInBytes = pageSize() * numBytesPerElement();
+        if (fromPage == toPage) {
+            filler.fill(pages[fromPage], byteOffsetInPage(fromIndex), byteOffsetInPage(toIndex - 1) + numBytesPerElement());
+        } else {
+            filler.fill(pages[fromPage], byteOffsetInPage(fromIndex), pageSizeInBytes);
+            for (int i = fromPage + 1; i < toPage; ++i) {
+                filler.fill(pages[i], 0, pageSizeInBytes);
+            }
+            filler.fill(pages[toPage], 0, byteOffsetInPage(toIndex - 1) + numBytesPerElement());
+        }
+    }
+
+    @FunctionalInterface
+    interface PageFiller {
+        void fill(ByteBuffer page, int fromOffset, int toOffset);
+    }
+}
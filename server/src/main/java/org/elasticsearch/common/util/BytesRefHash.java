@@ -88,6 +88,36 @@ public final class BytesRefHash extends AbstractHash {
         return find(key, key.hashCode());
     }
 
+    /**
+     * Get the id associated with <code>key</code> like {@link #find(BytesRef)} does, but without writing any state of this hash table.
+     * Keys are compared in place and at most {@link #capacity()} slots are probed, so this can be used by optimistic reads that race
+     * with modifications and validate the result afterwards. The result is undefined if the hash table is modified concurrently.
+     */
+    public long findReadOnly(BytesRef key) {
+        final long mask = this.mask;
+        long index = slot(rehash(key.hashCode()), mask);
+        for (long probes = 0; probes <= mask; probes++, index = nextSlot(index, mask)) {
+            final long id = id(index);
+            if (id == -1L || keyEquals(id, key)) {
+                return id;
+            }
+        }
+        return -1L;
+    }
+
+    private boolean keyEquals(long id, BytesRef key) {
+        final long startOffset = startOffsets.get(id);
+        if (startOffsets.get(id + 1) - startOffset != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (bytes.get(startOffset + i) != key.bytes[key.offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private long set(BytesRef key, int code, long id) {
         assert rehash(key.hashCode()) == code;
         assert size < maxSize;
@@ -159,6 +189,13 @@ public final class BytesRefHash extends AbstractHash {
         reset(code, id);
     }
 
+    /**
+     * Returns the number of bytes used by the pages backing this hash table.
+     */
+    public long ramBytesUsed() {
+        return ids.ramBytesUsed() + startOffsets.ramBytesUsed() + bytes.ramBytesUsed() + hashes.ramBytesUsed();
+    }
+
     @Override
     public void close() {
         try (Releasable releasable = Releasables.wrap(bytes, hashes, startOffsets)) {
@@ -28,10 +28,17 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.RatioValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.monitor.jvm.JvmInfo;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.common.recycler.Recyclers.concurrent;
 import static org.elasticsearch.common.recycler.Recyclers.concurrentDeque;
@@ -43,8 +50,20 @@ public class PageCacheRecycler implements Releasable {
 
     public static final Setting<Type> TYPE_SETTING =
         new Setting<>("cache.recycler.page.type", Type.CONCURRENT.name(), Type::parse, Property.NodeScope);
+    /**
+     * Whether int, long and double pages of big arrays should be allocated outside of the heap, see {@link #directPage(boolean)}.
+     */
+    public static final Setting<Boolean> DIRECT_SETTING =
+        Setting.boolSetting("cache.recycler.page.direct", false, Property.NodeScope);
     public static final Setting<ByteSizeValue> LIMIT_HEAP_SETTING  =
         Setting.memorySizeSetting("cache.recycler.page.limit.heap", "10%", Property.NodeScope);
+    /**
+     * How much direct memory the pages of big arrays may take if {@link #DIRECT_SETTING} is enabled, either as a size or as a
+     * percentage of the maximum direct memory of the JVM. Pages beyond this limit are allocated on the heap.
+     */
+    private static final String LIMIT_DIRECT_SETTING_KEY = "cache.recycler.page.limit.direct";
+    public static final Setting<ByteSizeValue> LIMIT_DIRECT_SETTING =
+        new Setting<>(LIMIT_DIRECT_SETTING_KEY, "10%", PageCacheRecycler::parseDirectLimit, Property.NodeScope);
     public static final Setting<Double> WEIGHT_BYTES_SETTING  =
         Setting.doubleSetting("cache.recycler.page.weight.bytes", 1d, 0d, Property.NodeScope);
     public static final Setting<Double> WEIGHT_LONG_SETTING  =
@@ -66,6 +85,11 @@ public class PageCacheRecycler implements Releasable {
     private final Recycler<int[]> intPage;
     private final Recycler<long[]> longPage;
     private final Recycler<Object[]> objectPage;
+    // direct pages are pooled separately: they must never be dropped by a full recycler since their memory would then only be
+    // released once the garbage collector runs their cleaner, so we never allocate more of them than the pool can hold
+    private final Queue<ByteBuffer> directPages;
+    private final AtomicInteger directPageCount = new AtomicInteger();
+    private final int maxDirectPageCount;
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
@@ -76,12 +100,16 @@ public class PageCacheRecycler implements Releasable {
     @Override
     public void close() {
         Releasables.close(true, bytePage, intPage, longPage, objectPage);
+        if (directPages != null) {
+            directPages.clear();
+        }
     }
 
     public PageCacheRecycler(Settings settings) {
         final Type type = TYPE_SETTING.get(settings);
         final long limit = LIMIT_HEAP_SETTING.get(settings).getBytes();
         final int availableProcessors = EsExecutors.numberOfProcessors(settings);
+        final boolean direct = DIRECT_SETTING.get(settings);
 
         // We have a global amount of memory that we need to divide across data types.
         // Since some types are more useful than other ones we give them different weights.
@@ -95,7 +123,9 @@ public class PageCacheRecycler implements Releasable {
         // ability to interpret it either as a source of bytes, doubles, longs, etc. eg. thanks
         // to direct ByteBuffers or sun.misc.Unsafe on a byte[] but this would have other issues
         // that would need to be addressed such as garbage collection of native memory or safety
-        // of Unsafe writes.
+        // of Unsafe writes. Direct pages (see DIRECT_SETTING) do exactly that for ints and longs:
+        // they share a single pool that is sized with the direct memory limit, so no heap is set
+        // aside for int and long pages when they are enabled.
         final double bytesWeight = WEIGHT_BYTES_SETTING .get(settings);
         final double intsWeight = WEIGHT_INT_SETTING .get(settings);
         final double longsWeight = WEIGHT_LONG_SETTING .get(settings);
@@ -116,7 +146,7 @@ public class PageCacheRecycler implements Releasable {
             }
         });
 
-        final int maxIntPageCount = (int) (intsWeight * maxPageCount / totalWeight);
+        final int maxIntPageCount = direct ? 0 : (int) (intsWeight * maxPageCount / totalWeight);
         intPage = build(type, maxIntPageCount, availableProcessors, new AbstractRecyclerC<int[]>() {
             @Override
             public int[] newInstance(int sizing) {
@@ -128,7 +158,7 @@ public class PageCacheRecycler implements Releasable {
             }
         });
 
-        final int maxLongPageCount = (int) (longsWeight * maxPageCount / totalWeight);
+        final int maxLongPageCount = direct ? 0 : (int) (longsWeight * maxPageCount / totalWeight);
         longPage = build(type, maxLongPageCount, availableProcessors, new AbstractRecyclerC<long[]>() {
             @Override
             public long[] newInstance(int sizing) {
@@ -152,7 +182,24 @@ public class PageCacheRecycler implements Releasable {
             }
         });
 
-        assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxIntPageCount + maxLongPageCount + maxObjectPageCount) <= limit;
+        if (direct) {
+            directPages = new ConcurrentLinkedQueue<>();
+            // without recycling direct pages would only be freed by the garbage collector, use heap pages instead
+            maxDirectPageCount = type == Type.NONE ? 0
+                : (int) Math.min(Integer.MAX_VALUE, LIMIT_DIRECT_SETTING.get(settings).getBytes() / PAGE_SIZE_IN_BYTES);
+        } else {
+            directPages = null;
+            maxDirectPageCount = 0;
+        }
+
+        assert PAGE_SIZE_IN_BYTES * ((long) maxBytePageCount + maxIntPageCount + maxLongPageCount + maxObjectPageCount) <= limit;
+    }
+
+    /**
+     * Whether big int, long and double arrays should be backed by {@link #directPage(boolean) direct pages}.
+     */
+    public boolean hasDirectPages() {
+        return directPages != null;
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
@@ -184,6 +231,88 @@ public class PageCacheRecycler implements Releasable {
         return objectPage.obtain();
     }
 
+    /**
+     * Obtain a page of {@link #PAGE_SIZE_IN_BYTES} bytes that lives outside of the heap, or on the heap if
+     * {@link #LIMIT_DIRECT_SETTING} worth of direct pages are in use already. Pages use the native byte order and their position
+     * and limit must be left untouched: only absolute accessors should be used.
+     */
+    public Recycler.V<ByteBuffer> directPage(boolean clear) {
+        if (directPages == null) {
+            throw new IllegalStateException("direct pages are disabled, see [" + DIRECT_SETTING.getKey() + "]");
+        }
+        ByteBuffer page = directPages.poll();
+        if (page != null) {
+            if (clear) {
+                for (int i = 0; i < PAGE_SIZE_IN_BYTES; i += Long.BYTES) {
+                    page.putLong(i, 0L);
+                }
+            }
+            return new DirectPage(page, true);
+        }
+        if (directPageCount.incrementAndGet() <= maxDirectPageCount) {
+            return new DirectPage(ByteBuffer.allocateDirect(PAGE_SIZE_IN_BYTES).order(ByteOrder.nativeOrder()), false);
+        }
+        directPageCount.decrementAndGet();
+        final ByteBuffer heapPage = ByteBuffer.allocate(PAGE_SIZE_IN_BYTES).order(ByteOrder.nativeOrder());
+        return new Recycler.V<ByteBuffer>() {
+            @Override
+            public ByteBuffer v() {
+                return heapPage;
+            }
+
+            @Override
+            public boolean isRecycled() {
+                return false;
+            }
+
+            @Override
+            public void close() {
+                // heap pages are left to the garbage collector
+            }
+        };
+    }
+
+    private final class DirectPage implements Recycler.V<ByteBuffer> {
+        private final ByteBuffer page;
+        private final boolean recycled;
+        private boolean released;
+
+        DirectPage(ByteBuffer page, boolean recycled) {
+            this.page = page;
+            this.recycled = recycled;
+        }
+
+        @Override
+        public ByteBuffer v() {
+            return page;
+        }
+
+        @Override
+        public boolean isRecycled() {
+            return recycled;
+        }
+
+        @Override
+        public void close() {
+            assert released == false : "page released twice";
+            released = true;
+            directPages.offer(page);
+        }
+    }
+
+    private static ByteSizeValue parseDirectLimit(String value) {
+        if (value.endsWith("%")) {
+            long maxDirectMemory = JvmInfo.jvmInfo().getMem().getDirectMemoryMax().getBytes();
+            if (maxDirectMemory <= 0) {
+                // the JVM defaults the maximum direct memory to the maximum heap size
+                maxDirectMemory = JvmInfo.jvmInfo().getMem().getHeapMax().getBytes();
+            }
+            final double percent = RatioValue.parseRatioValue(value).getAsPercent();
+            return new ByteSizeValue((long) (percent / 100 * maxDirectMemory));
+        }
+        return ByteSizeValue.parseBytesSizeValue(value, LIMIT_DIRECT_SETTING_KEY);
+    }
+
     private static <T> Recycler<T> build(Type type, int limit, int availableProcessors, Recycler.C<T> c) {
         final Recycler<T> recycler;
         if (limit == 0) {
@@ -20,6 +20,7 @@
 package org.elasticsearch.discovery;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.service.ClusterStateUpdateStats;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -34,10 +35,13 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
 
     private final PendingClusterStateStats queueStats;
     private final PublishClusterStateStats publishStats;
+    private final ClusterStateUpdateStats clusterStateUpdateStats;
 
-    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats) {
+    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats,
+                          ClusterStateUpdateStats clusterStateUpdateStats) {
         this.queueStats = queueStats;
         this.publishStats = publishStats;
+        this.clusterStateUpdateStats = clusterStateUpdateStats;
     }
 
     public DiscoveryStats(StreamInput in) throws IOException {
@@ -48,6 +52,11 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         } else {
             publishStats = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_6_7_0)) {
+            clusterStateUpdateStats = in.readOptionalWriteable(ClusterStateUpdateStats::new);
+        } else {
+            clusterStateUpdateStats = null;
+        }
     }
 
     @Override
@@ -57,6 +66,9 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (out.getVersion().onOrAfter(Version.V_6_1_0)) {
             out.writeOptionalWriteable(publishStats);
         }
+        if (out.getVersion().onOrAfter(Version.V_6_7_0)) {
+            out.writeOptionalWriteable(clusterStateUpdateStats);
+        }
     }
 
     @Override
@@ -68,6 +80,9 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (publishStats != null) {
             publishStats.toXContent(builder, params);
         }
+        if (clusterStateUpdateStats != null) {
+            clusterStateUpdateStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -83,4 +98,8 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
     public PublishClusterStateStats getPublishStats() {
         return publishStats;
     }
+
+    public ClusterStateUpdateStats getClusterStateUpdateStats() {
+        return clusterStateUpdateStats;
+    }
 }
@@ -53,6 +53,7 @@ public class SingleNodeDiscovery extends AbstractLifecycleComponent implements D
     private final ClusterName clusterName;
     protected final TransportService transportService;
     private final ClusterApplier clusterApplier;
+    private final MasterService masterService;
     private volatile ClusterState clusterState;
 
     public SingleNodeDiscovery(final Settings settings, final TransportService transportService,
@@ -61,6 +62,7 @@ public class SingleNodeDiscovery extends AbstractLifecycleComponent implements D
         this.clusterName = ClusterName.CLUSTER_NAME_SETTING.get(settings);
         this.transportService = Objects.requireNonNull(transportService);
         masterService.setClusterStateSupplier(() -> clusterState);
+        this.masterService = masterService;
         this.clusterApplier = clusterApplier;
     }
 
@@ -96,7 +98,7 @@ public class SingleNodeDiscovery extends AbstractLifecycleComponent implements D
 
     @Override
     public DiscoveryStats stats() {
-        return new DiscoveryStats(null, null);
+        return new DiscoveryStats(null, null, masterService.stats());
     }
 
     @Override
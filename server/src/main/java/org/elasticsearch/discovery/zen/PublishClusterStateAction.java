@@ -57,11 +57,13 @@ import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -102,6 +104,15 @@ public class PublishClusterStateAction {
     private final AtomicLong incompatibleClusterStateDiffReceivedCount = new AtomicLong();
     private final AtomicLong compatibleClusterStateDiffReceivedCount = new AtomicLong();
 
+    private final AtomicLong publishedClusterStateCount = new AtomicLong();
+    private final AtomicLong serializationTimeInNanos = new AtomicLong();
+    // sends and applies complete for a subset of the committed cluster states only, so they are counted separately
+    private final AtomicLong sentClusterStateCount = new AtomicLong();
+    private final AtomicLong sendTimeInNanos = new AtomicLong();
+    private final AtomicLong commitTimeInNanos = new AtomicLong();
+    private final AtomicLong appliedClusterStateCount = new AtomicLong();
+    private final AtomicLong applyTimeInNanos = new AtomicLong();
+
     public PublishClusterStateAction(
             TransportService transportService,
             NamedWriteableRegistry namedWriteableRegistry,
@@ -144,7 +155,8 @@ public class PublishClusterStateAction {
                 }
             }
             sendFullVersion = !discoverySettings.getPublishDiff() || clusterChangedEvent.previousState() == null;
-            serializedStates = new HashMap<>();
+            // full states might be serialized concurrently by transport threads after a node rejected a diff
+            serializedStates = new ConcurrentHashMap<>();
             serializedDiffs = new HashMap<>();
 
             // we build these early as a best effort not to commit in the case of error.
@@ -157,7 +169,7 @@ public class PublishClusterStateAction {
             final BlockingClusterStatePublishResponseHandler publishResponseHandler =
                 new AckClusterStatePublishResponseHandler(nodesToPublishTo, ackListener);
             sendingController = new SendingController(clusterChangedEvent.state(), minMasterNodes,
-                totalMasterNodes, publishResponseHandler);
+                totalMasterNodes, nodesToPublishTo.size(), publishResponseHandler);
         } catch (Exception e) {
             throw new Discovery.FailedToCommitClusterStateException("unexpected error while preparing to publish", e);
         }
@@ -187,7 +199,7 @@ public class PublishClusterStateAction {
         final ClusterState previousState = clusterChangedEvent.previousState();
         final TimeValue publishTimeout = discoverySettings.getPublishTimeout();
 
-        final long publishingStartInNanos = System.nanoTime();
+        final long publishingStartInNanos = sendingController.publishingStartInNanos;
 
         for (final DiscoveryNode node : nodesToPublishTo) {
             // try and serialize the cluster state once (or per version), so we don't serialize it
@@ -203,6 +215,8 @@ public class PublishClusterStateAction {
         sendingController.waitForCommit(discoverySettings.getCommitTimeout());
 
         final long commitTime = System.nanoTime() - publishingStartInNanos;
+        publishedClusterStateCount.incrementAndGet();
+        commitTimeInNanos.addAndGet(commitTime);
 
         ackListener.onCommit(TimeValue.timeValueNanos(commitTime));
 
@@ -210,6 +224,10 @@ public class PublishClusterStateAction {
             long timeLeftInNanos = Math.max(0, publishTimeout.nanos() - commitTime);
             final BlockingClusterStatePublishResponseHandler publishResponseHandler = sendingController.getPublishResponseHandler();
             sendingController.setPublishingTimedOut(!publishResponseHandler.awaitAllNodes(TimeValue.timeValueNanos(timeLeftInNanos)));
+            if (sendingController.getPublishingTimedOut() == false) {
+                appliedClusterStateCount.incrementAndGet();
+                applyTimeInNanos.addAndGet(System.nanoTime() - publishingStartInNanos - commitTime);
+            }
             if (sendingController.getPublishingTimedOut()) {
                 DiscoveryNode[] pendingNodes = publishResponseHandler.pendingNodes();
                 // everyone may have just responded
@@ -233,6 +251,7 @@ public class PublishClusterStateAction {
     private void buildDiffAndSerializeStates(ClusterState clusterState, ClusterState previousState, Set<DiscoveryNode> nodesToPublishTo,
                                              boolean sendFullVersion, Map<Version, BytesReference> serializedStates,
                                              Map<Version, BytesReference> serializedDiffs) {
+        final long startTimeInNanos = System.nanoTime();
         Diff<ClusterState> diff = null;
         for (final DiscoveryNode node : nodesToPublishTo) {
             try {
@@ -254,6 +273,7 @@ public class PublishClusterStateAction {
                 throw new ElasticsearchException("failed to serialize cluster_state for publishing to node {}", e, node);
             }
         }
+        serializationTimeInNanos.addAndGet(System.nanoTime() - startTimeInNanos);
     }
 
     private void sendFullClusterState(ClusterState clusterState, Map<Version, BytesReference> serializedStates,
@@ -261,8 +281,17 @@ public class PublishClusterStateAction {
         BytesReference bytes = serializedStates.get(node.getVersion());
         if (bytes == null) {
             try {
-                bytes = serializeFullClusterState(clusterState, node.getVersion());
-                serializedStates.put(node.getVersion(), bytes);
+                // nodes of the same version that rejected the diff concurrently share the serialized state
+                bytes = serializedStates.computeIfAbsent(node.getVersion(), version -> {
+                    final long startTimeInNanos = System.nanoTime();
+                    try {
+                        return serializeFullClusterState(clusterState, version);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        serializationTimeInNanos.addAndGet(System.nanoTime() - startTimeInNanos);
+                    }
+                });
             } catch (Exception e) {
                 logger.warn(() -> new ParameterizedMessage("failed to serialize cluster_state before publishing it to node {}", node), e);
                 sendingController.onNodeSendFailed(node, e);
@@ -503,14 +532,19 @@ public class PublishClusterStateAction {
         boolean committed;  // true if cluster state was committed
         int neededMastersToCommit; // number of master nodes acks still needed before committing
         int pendingMasterNodes; // how many master node still need to respond
+        int pendingSends; // how many nodes still need to ack or fail the sent cluster state
+
+        final long publishingStartInNanos;
 
         // an external marker to note that the publishing process is timed out. This is useful for proper logging.
         final AtomicBoolean publishingTimedOut = new AtomicBoolean();
 
-        private SendingController(ClusterState clusterState, int minMasterNodes, int totalMasterNodes,
+        private SendingController(ClusterState clusterState, int minMasterNodes, int totalMasterNodes, int totalNodes,
                                   BlockingClusterStatePublishResponseHandler publishResponseHandler) {
             this.clusterState = clusterState;
             this.publishResponseHandler = publishResponseHandler;
+            this.pendingSends = totalNodes;
+            this.publishingStartInNanos = System.nanoTime();
             this.neededMastersToCommit = Math.max(0, minMasterNodes - 1); // we are one of the master nodes
             this.pendingMasterNodes = totalMasterNodes - 1;
             if (this.neededMastersToCommit > this.pendingMasterNodes) {
@@ -543,6 +577,7 @@ public class PublishClusterStateAction {
         }
 
         public synchronized void onNodeSendAck(DiscoveryNode node) {
+            decrementPendingSends();
             if (committed) {
                 assert sendAckedBeforeCommit.isEmpty();
                 sendCommitToNode(node, clusterState, this);
@@ -557,6 +592,14 @@ public class PublishClusterStateAction {
             }
         }
 
+        private synchronized void decrementPendingSends() {
+            assert pendingSends > 0 : "more send responses than nodes for cluster state version [" + clusterState.version() + "]";
+            if (--pendingSends == 0) {
+                sentClusterStateCount.incrementAndGet();
+                sendTimeInNanos.addAndGet(System.nanoTime() - publishingStartInNanos);
+            }
+        }
+
         private synchronized boolean committedOrFailed() {
             return committedOrFailedLatch.getCount() == 0;
         }
@@ -588,6 +631,7 @@ public class PublishClusterStateAction {
         }
 
         public synchronized void onNodeSendFailed(DiscoveryNode node, Exception e) {
+            decrementPendingSends();
             if (node.isMasterNode()) {
                 logger.trace("master node {} failed to ack cluster state version [{}]. " +
                         "processing ... (current pending [{}], needed [{}])",
@@ -656,6 +700,13 @@ public class PublishClusterStateAction {
         return new PublishClusterStateStats(
             fullClusterStateReceivedCount.get(),
             incompatibleClusterStateDiffReceivedCount.get(),
-            compatibleClusterStateDiffReceivedCount.get());
+            compatibleClusterStateDiffReceivedCount.get(),
+            publishedClusterStateCount.get(),
+            TimeUnit.NANOSECONDS.toMillis(serializationTimeInNanos.get()),
+            sentClusterStateCount.get(),
+            TimeUnit.NANOSECONDS.toMillis(sendTimeInNanos.get()),
+            TimeUnit.NANOSECONDS.toMillis(commitTimeInNanos.get()),
+            appliedClusterStateCount.get(),
+            TimeUnit.NANOSECONDS.toMillis(applyTimeInNanos.get()));
     }
 }
@@ -19,9 +19,11 @@
 
 package org.elasticsearch.discovery.zen;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
@@ -36,23 +38,69 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
     private final long incompatibleClusterStateDiffReceivedCount;
     private final long compatibleClusterStateDiffReceivedCount;
 
+    private final long publishedCount;
+    private final long serializationTimeInMillis;
+    private final long sentCount;
+    private final long sendTimeInMillis;
+    private final long commitTimeInMillis;
+    private final long appliedCount;
+    private final long applyTimeInMillis;
+
     /**
      * @param fullClusterStateReceivedCount the number of times this node has received a full copy of the cluster state from the master.
      * @param incompatibleClusterStateDiffReceivedCount the number of times this node has received a cluster-state diff from the master.
      * @param compatibleClusterStateDiffReceivedCount the number of times that received cluster-state diffs were compatible with
+     * @param publishedCount the number of cluster states this node committed as the master.
+     * @param serializationTimeInMillis the total time this node spent computing and serializing the cluster states it published.
+     * @param sentCount the number of published cluster states that all nodes acknowledged or failed to receive.
+     * @param sendTimeInMillis the total time until all nodes acknowledged or failed to receive these cluster states.
+     * @param commitTimeInMillis the total time until enough master nodes received the published cluster states to commit them.
+     * @param appliedCount the number of committed cluster states that all nodes applied within the publish timeout.
+     * @param applyTimeInMillis the total time between committing these cluster states and all nodes having applied them.
      */
     public PublishClusterStateStats(long fullClusterStateReceivedCount,
                                     long incompatibleClusterStateDiffReceivedCount,
-                                    long compatibleClusterStateDiffReceivedCount) {
+                                    long compatibleClusterStateDiffReceivedCount,
+                                    long publishedCount,
+                                    long serializationTimeInMillis,
+                                    long sentCount,
+                                    long sendTimeInMillis,
+                                    long commitTimeInMillis,
+                                    long appliedCount,
+                                    long applyTimeInMillis) {
         this.fullClusterStateReceivedCount = fullClusterStateReceivedCount;
         this.incompatibleClusterStateDiffReceivedCount = incompatibleClusterStateDiffReceivedCount;
         this.compatibleClusterStateDiffReceivedCount = compatibleClusterStateDiffReceivedCount;
+        this.publishedCount = publishedCount;
+        this.serializationTimeInMillis = serializationTimeInMillis;
+        this.sentCount = sentCount;
+        this.sendTimeInMillis = sendTimeInMillis;
+        this.commitTimeInMillis = commitTimeInMillis;
+        this.appliedCount = appliedCount;
+        this.applyTimeInMillis = applyTimeInMillis;
     }
 
     public PublishClusterStateStats(StreamInput in) throws IOException {
         fullClusterStateReceivedCount = in.readVLong();
         incompatibleClusterStateDiffReceivedCount = in.readVLong();
         compatibleClusterStateDiffReceivedCount = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_6_7_0)) {
+            publishedCount = in.readVLong();
+            serializationTimeInMillis = in.readVLong();
+            sentCount = in.readVLong();
+            sendTimeInMillis = in.readVLong();
+            commitTimeInMillis = in.readVLong();
+            appliedCount = in.readVLong();
+            applyTimeInMillis = in.readVLong();
+        } else {
+            publishedCount = 0;
+            serializationTimeInMillis = 0;
+            sentCount = 0;
+            sendTimeInMillis = 0;
+            commitTimeInMillis = 0;
+            appliedCount = 0;
+            applyTimeInMillis = 0;
+        }
     }
 
     @Override
@@ -60,6 +108,15 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
         out.writeVLong(fullClusterStateReceivedCount);
         out.writeVLong(incompatibleClusterStateDiffReceivedCount);
         out.writeVLong(compatibleClusterStateDiffReceivedCount);
+        if (out.getVersion().onOrAfter(Version.V_6_7_0)) {
+            out.writeVLong(publishedCount);
+            out.writeVLong(serializationTimeInMillis);
+            out.writeVLong(sentCount);
+            out.writeVLong(sendTimeInMillis);
+            out.writeVLong(commitTimeInMillis);
+            out.writeVLong(appliedCount);
+            out.writeVLong(applyTimeInMillis);
+        }
     }
 
     @Override
@@ -69,6 +126,18 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
             builder.field("full_states", fullClusterStateReceivedCount);
             builder.field("incompatible_diffs", incompatibleClusterStateDiffReceivedCount);
             builder.field("compatible_diffs", compatibleClusterStateDiffReceivedCount);
+            builder.startObject("publications");
+            {
+                builder.field("count", publishedCount);
+                builder.humanReadableField("serialization_time_in_millis", "serialization_time",
+                    new TimeValue(serializationTimeInMillis));
+                builder.humanReadableField("commit_time_in_millis", "commit_time", new TimeValue(commitTimeInMillis));
+                builder.field("sent_count", sentCount);
+                builder.humanReadableField("send_time_in_millis", "send_time", new TimeValue(sendTimeInMillis));
+                builder.field("applied_count", appliedCount);
+                builder.humanReadableField("apply_time_in_millis", "apply_time", new TimeValue(applyTimeInMillis));
+            }
+            builder.endObject();
         }
         builder.endObject();
         return builder;
@@ -80,11 +149,26 @@ public class PublishClusterStateStats implements Writeable, ToXContentObject {
 
     long getCompatibleClusterStateDiffReceivedCount() { return compatibleClusterStateDiffReceivedCount; }
 
+    public long getPublishedCount() { return publishedCount; }
+
+    public long getSerializationTimeInMillis() { return serializationTimeInMillis; }
+
+    public long getSentCount() { return sentCount; }
+
+    public long getSendTimeInMillis() { return sendTimeInMillis; }
+
+    public long getCommitTimeInMillis() { return commitTimeInMillis; }
+
+    public long getAppliedCount() { return appliedCount; }
+
+    public long getApplyTimeInMillis() { return applyTimeInMillis; }
+
     @Override
     public String toString() {
         return "PublishClusterStateStats(full=" + fullClusterStateReceivedCount
             + ", incompatible=" + incompatibleClusterStateDiffReceivedCount
             + ", compatible=" + compatibleClusterStateDiffReceivedCount
+            + ", published=" + publishedCount
             + ")";
     }
 }
@@ -28,6 +28,13 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 /**
  * A shard in elasticsearch is a Lucene index, and a Lucene index is broken
@@ -89,9 +96,30 @@ import org.elasticsearch.common.unit.ByteSizeValue;
  *     the index. Lower values make the index more space efficient at the
  *     expense of increased CPU and I/O activity. Values must be between <code>20</code> and
  *     <code>50</code>. Default value is <code>33</code>.
+ *
+ * <li><code>index.merge.policy.time_series.bucket</code>:
+ *
+ *     The time range of the buckets that segments are grouped into by the
+ *     <code>time_series</code> merge policy. Default is <code>1d</code>.
  * </ul>
  *
  * <p>
+ * The <code>index.merge.policy.type</code> setting can only be set on index
+ * creation. It defaults to <code>tiered</code>, which is described below. The
+ * <code>time_series</code> merge policy is meant for append-only indices like
+ * logs: it only merges segments whose smallest timestamp falls into the same
+ * bucket, in time order, so that range queries on the timestamp can skip most
+ * segments. The timestamp is read from the points of the
+ * <code>index.merge.policy.time_series.timestamp_field</code> field, which
+ * defaults to the first field of <code>index.sort.field</code> if that is a
+ * <code>date</code> field. It uses the
+ * <code>max_merge_at_once</code>, <code>max_merge_at_once_explicit</code>,
+ * <code>max_merged_segment</code>, <code>deletes_pct_allowed</code> and
+ * <code>expunge_deletes_allowed</code> settings like the tiered merge policy,
+ * and <code>segments_per_tier</code> is the number of segments that are
+ * allowed per bucket.
+ *
+ * <p>
  * For normal merging, the policy first computes a "budget" of how many
  * segments are allowed to be in the index. If the index is over-budget,
  * then the policy sorts segments by decreasing size (proportionally considering percent
@@ -118,6 +146,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 
 public final class MergePolicyConfig {
     private final EsTieredMergePolicy mergePolicy = new EsTieredMergePolicy();
+    private final TimeSeriesMergePolicy timeSeriesMergePolicy;
     private final Logger logger;
     private final boolean mergesEnabled;
 
@@ -157,6 +186,14 @@ public final class MergePolicyConfig {
     public static final Setting<Double> INDEX_MERGE_POLICY_DELETES_PCT_ALLOWED_SETTING =
         Setting.doubleSetting("index.merge.policy.deletes_pct_allowed", DEFAULT_DELETES_PCT_ALLOWED, 20.0d, 50.0d,
             Property.Dynamic, Property.IndexScope);
+    public static final Setting<String> INDEX_MERGE_POLICY_TYPE_SETTING =
+        new Setting<>("index.merge.policy.type", "tiered", MergePolicyConfig::parseMergePolicyType,
+            Property.IndexScope, Property.Final);
+    public static final Setting<String> INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING =
+        Setting.simpleString("index.merge.policy.time_series.timestamp_field", Property.IndexScope, Property.Final);
+    public static final Setting<TimeValue> INDEX_MERGE_POLICY_TIME_SERIES_BUCKET_SETTING =
+        Setting.positiveTimeSetting("index.merge.policy.time_series.bucket", TimeValue.timeValueHours(24),
+            Property.Dynamic, Property.IndexScope);
     // don't convert to Setting<> and register... we only set this in tests and register via a plugin
     public static final String INDEX_MERGE_ENABLED = "index.merge.enabled";
 
@@ -187,6 +224,21 @@ public final class MergePolicyConfig {
         mergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
         mergePolicy.setSegmentsPerTier(segmentsPerTier);
         mergePolicy.setDeletesPctAllowed(deletesPctAllowed);
+        if ("time_series".equals(indexSettings.getValue(INDEX_MERGE_POLICY_TYPE_SETTING))) {
+            timeSeriesMergePolicy = new TimeSeriesMergePolicy(timestampField(indexSettings),
+                indexSettings.getValue(INDEX_MERGE_POLICY_TIME_SERIES_BUCKET_SETTING).millis());
+            timeSeriesMergePolicy.setNoCFSRatio(indexSettings.getValue(INDEX_COMPOUND_FORMAT_SETTING));
+            timeSeriesMergePolicy.setForceMergeDeletesPctAllowed(forceMergeDeletesPctAllowed);
+            timeSeriesMergePolicy.setMaxMergeAtOnce(maxMergeAtOnce);
+            timeSeriesMergePolicy.setMaxMergeAtOnceExplicit(maxMergeAtOnceExplicit);
+            timeSeriesMergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
+            timeSeriesMergePolicy.setSegmentsPerBucket(segmentsPerTier);
+            timeSeriesMergePolicy.setDeletesPctAllowed(deletesPctAllowed);
+            logger.debug("using [time_series] merge policy on [{}] with bucket [{}]", timeSeriesMergePolicy.getTimestampField(),
+                indexSettings.getValue(INDEX_MERGE_POLICY_TIME_SERIES_BUCKET_SETTING));
+        } else {
+            timeSeriesMergePolicy = null;
+        }
         if (logger.isTraceEnabled()) {
             logger.trace("using [tiered] merge mergePolicy with expunge_deletes_allowed[{}], floor_segment[{}]," +
                     " max_merge_at_once[{}], max_merge_at_once_explicit[{}], max_merged_segment[{}], segments_per_tier[{}]," +
@@ -196,20 +248,70 @@ public final class MergePolicyConfig {
         }
     }
 
+    private static String timestampField(IndexSettings indexSettings) {
+        final String timestampField = indexSettings.getValue(INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING);
+        if (timestampField.isEmpty() == false) {
+            return timestampField;
+        }
+        final List<String> sortFields = IndexSortConfig.INDEX_SORT_FIELD_SETTING.get(indexSettings.getSettings());
+        if (sortFields.isEmpty()) {
+            throw new IllegalArgumentException("the [time_series] merge policy requires [" +
+                INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING.getKey() + "] or [" +
+                IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey() + "] to be set");
+        }
+        return sortFields.get(0);
+    }
+
+    /**
+     * Checks that the [time_series] merge policy reads its timestamps from a date field. The first index sort field is only used
+     * if it is a date field, other sort fields require [index.merge.policy.time_series.timestamp_field] to be set. An explicit
+     * timestamp field that isn't mapped yet is accepted since it might be added by a later mapping update.
+     */
+    public static void validateTimestampField(IndexSettings indexSettings, Function<String, MappedFieldType> fieldTypeLookup) {
+        if ("time_series".equals(indexSettings.getValue(INDEX_MERGE_POLICY_TYPE_SETTING)) == false) {
+            return;
+        }
+        final String timestampField = timestampField(indexSettings);
+        final MappedFieldType fieldType = fieldTypeLookup.apply(timestampField);
+        if (fieldType == null || DateFieldMapper.CONTENT_TYPE.equals(fieldType.typeName())) {
+            return;
+        }
+        if (indexSettings.getValue(INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING).isEmpty()) {
+            throw new IllegalArgumentException("the [time_series] merge policy requires [" +
+                INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING.getKey() + "] to be set since the first field of [" +
+                IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey() + "] is not a date field: [" + timestampField + "] is of type [" +
+                fieldType.typeName() + "]");
+        }
+        throw new IllegalArgumentException("[" + INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING.getKey() +
+            "] must be a date field but [" + timestampField + "] is of type [" + fieldType.typeName() + "]");
+    }
+
     void setSegmentsPerTier(Double segmentsPerTier) {
         mergePolicy.setSegmentsPerTier(segmentsPerTier);
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setSegmentsPerBucket(segmentsPerTier);
+        }
     }
 
     void setMaxMergedSegment(ByteSizeValue maxMergedSegment) {
         mergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
+        }
     }
 
     void setMaxMergesAtOnceExplicit(Integer maxMergeAtOnceExplicit) {
         mergePolicy.setMaxMergeAtOnceExplicit(maxMergeAtOnceExplicit);
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setMaxMergeAtOnceExplicit(maxMergeAtOnceExplicit);
+        }
     }
 
     void setMaxMergesAtOnce(Integer maxMergeAtOnce) {
         mergePolicy.setMaxMergeAtOnce(maxMergeAtOnce);
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setMaxMergeAtOnce(maxMergeAtOnce);
+        }
     }
 
     void setFloorSegmentSetting(ByteSizeValue floorSegementSetting) {
@@ -218,14 +320,29 @@ public final class MergePolicyConfig {
 
     void setExpungeDeletesAllowed(Double value) {
         mergePolicy.setForceMergeDeletesPctAllowed(value);
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setForceMergeDeletesPctAllowed(value);
+        }
     }
 
     void setNoCFSRatio(Double noCFSRatio) {
         mergePolicy.setNoCFSRatio(noCFSRatio);
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setNoCFSRatio(noCFSRatio);
+        }
     }
 
     void setDeletesPctAllowed(Double deletesPctAllowed) {
         mergePolicy.setDeletesPctAllowed(deletesPctAllowed);
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setDeletesPctAllowed(deletesPctAllowed);
+        }
+    }
+
+    void setTimeSeriesBucket(TimeValue bucket) {
+        if (timeSeriesMergePolicy != null) {
+            timeSeriesMergePolicy.setBucketMillis(bucket.millis());
+        }
     }
 
     private int adjustMaxMergeAtOnceIfNeeded(int maxMergeAtOnce, double segmentsPerTier) {
@@ -245,7 +362,18 @@ public final class MergePolicyConfig {
     }
 
     MergePolicy getMergePolicy() {
-        return mergesEnabled ? mergePolicy : NoMergePolicy.INSTANCE;
+        if (mergesEnabled == false) {
+            return NoMergePolicy.INSTANCE;
+        }
+        return timeSeriesMergePolicy == null ? mergePolicy : timeSeriesMergePolicy;
+    }
+
+    private static String parseMergePolicyType(String type) {
+        final String value = type.trim().toLowerCase(Locale.ROOT);
+        if (value.equals("tiered") || value.equals("time_series")) {
+            return value;
+        }
+        throw new IllegalArgumentException("unknown merge policy type [" + type + "], must be one of [tiered, time_series]");
     }
 
     private static double parseNoCFSRatio(String noCFSRatio) {
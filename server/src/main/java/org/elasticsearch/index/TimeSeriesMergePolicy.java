@@ -0,0 +1,357 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.PointsReader;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.MergeTrigger;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.elasticsearch.core.internal.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+/**
+ * A merge policy for append-only time-series indices, such as logs. Segments are grouped into buckets of
+ * {@code index.merge.policy.time_series.bucket} by the smallest value of the timestamp field that they contain, and only segments of
+ * the same bucket that are adjacent in time are merged together. This keeps the time ranges of segments disjoint, so that range
+ * queries on the timestamp field can skip most segments based on the minimum and maximum values of their points, and it avoids
+ * rewriting old data together with new data.
+ *
+ * <p>
+ * Within a bucket, segments are merged once there are more than {@code index.merge.policy.segments_per_tier} segments that are
+ * smaller than half of {@code index.merge.policy.max_merged_segment}. The policy then merges the run of adjacent segments that
+ * contains the most segments, up to {@code index.merge.policy.max_merge_at_once}, whose merged size still fits into
+ * {@code index.merge.policy.max_merged_segment}, and the run with the smallest total size among those of the same length. Segments
+ * that have no points for the timestamp field are merged with each other in index order.
+ */
+final class TimeSeriesMergePolicy extends MergePolicy {
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final String timestampField;
+    // the merge policy is shared by all shards of an index, segments are never merged again once they are gone from all writers
+    private final Map<SegmentInfo, TimeRange> timeRanges = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private volatile long bucketMillis;
+    private volatile double maxMergedSegmentBytes = MergePolicyConfig.DEFAULT_MAX_MERGED_SEGMENT.getBytes();
+    private volatile int maxMergeAtOnce = MergePolicyConfig.DEFAULT_MAX_MERGE_AT_ONCE;
+    private volatile int maxMergeAtOnceExplicit = MergePolicyConfig.DEFAULT_MAX_MERGE_AT_ONCE_EXPLICIT;
+    private volatile double segmentsPerBucket = MergePolicyConfig.DEFAULT_SEGMENTS_PER_TIER;
+    private volatile double deletesPctAllowed = MergePolicyConfig.DEFAULT_DELETES_PCT_ALLOWED;
+    private volatile double forceMergeDeletesPctAllowed = MergePolicyConfig.DEFAULT_EXPUNGE_DELETES_ALLOWED;
+
+    TimeSeriesMergePolicy(String timestampField, long bucketMillis) {
+        this.timestampField = timestampField;
+        this.bucketMillis = bucketMillis;
+    }
+
+    @Override
+    public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos infos, MergeContext mergeContext) throws IOException {
+        final Set<SegmentCommitInfo> merging = mergeContext.getMergingSegments();
+        final Map<Long, List<SegmentAndRange>> buckets = new TreeMap<>();
+        MergeSpecification spec = null;
+        for (SegmentCommitInfo info : infos) {
+            final long size = size(info, mergeContext);
+            final SegmentAndRange segment = new SegmentAndRange(info, timeRange(info), size);
+            final boolean notMerging = merging.contains(info) == false;
+            if (notMerging && 100d * mergeContext.numDeletesToMerge(info) / info.info.maxDoc() > deletesPctAllowed) {
+                // reclaim deletes by rewriting the segment on its own, which keeps its time range, even if the segment is too large
+                // to be merged with others like TieredMergePolicy does
+                spec = add(spec, Collections.singletonList(info));
+                segment.mergeable = false;
+            } else {
+                // segments that are merging or too large stay in their bucket, so that merges do not skip over them
+                segment.mergeable = notMerging && size < maxMergedSegmentBytes / 2;
+            }
+            final long bucket = segment.range == null ? NO_TIMESTAMP : Math.floorDiv(segment.range.min, bucketMillis);
+            buckets.computeIfAbsent(bucket, k -> new ArrayList<>()).add(segment);
+        }
+        for (List<SegmentAndRange> bucket : buckets.values()) {
+            bucket.sort(TIME_ORDER);
+            long mergeable = bucket.stream().filter(segment -> segment.mergeable).count();
+            while (mergeable > segmentsPerBucket) {
+                final List<SegmentAndRange> run = findLongestRun(bucket, maxMergeAtOnce, maxMergedSegmentBytes);
+                if (run == null) {
+                    break;
+                }
+                final List<SegmentCommitInfo> segments = new ArrayList<>(run.size());
+                for (SegmentAndRange segment : run) {
+                    segments.add(segment.info);
+                    // the merged segment is not eligible again until this merge completed
+                    segment.mergeable = false;
+                }
+                spec = add(spec, segments);
+                mergeable -= run.size();
+            }
+        }
+        return spec;
+    }
+
+    @Override
+    public MergeSpecification findForcedMerges(SegmentInfos infos, int maxSegmentCount, Map<SegmentCommitInfo, Boolean> segmentsToMerge,
+                                               MergeContext mergeContext) throws IOException {
+        final Set<SegmentCommitInfo> merging = mergeContext.getMergingSegments();
+        final List<SegmentAndRange> eligible = new ArrayList<>();
+        boolean forceMergeRunning = false;
+        for (SegmentCommitInfo info : infos) {
+            if (segmentsToMerge.get(info) == null) {
+                continue;
+            }
+            if (merging.contains(info)) {
+                forceMergeRunning = true;
+                continue;
+            }
+            eligible.add(new SegmentAndRange(info, timeRange(info), size(info, mergeContext)));
+        }
+        if (eligible.size() <= maxSegmentCount) {
+            if (forceMergeRunning == false && eligible.size() == 1 && maxSegmentCount == 1
+                && isMerged(infos, eligible.get(0).info, mergeContext) == false) {
+                return add(null, Collections.singletonList(eligible.get(0).info));
+            }
+            return null;
+        }
+        eligible.sort(TIME_ORDER);
+        // merge runs of adjacent segments, the writer calls us again once these merges completed until we are down to the
+        // requested number of segments
+        final int segmentsPerMerge = Math.min(maxMergeAtOnceExplicit, (eligible.size() + maxSegmentCount - 1) / maxSegmentCount);
+        int segmentsToRemove = eligible.size() - maxSegmentCount;
+        MergeSpecification spec = null;
+        for (int start = 0; segmentsToRemove > 0 && start + 1 < eligible.size(); ) {
+            final int end = Math.min(eligible.size(), start + Math.min(segmentsPerMerge, segmentsToRemove + 1));
+            final List<SegmentCommitInfo> segments = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                segments.add(eligible.get(i).info);
+            }
+            spec = add(spec, segments);
+            segmentsToRemove -= segments.size() - 1;
+            start = end;
+        }
+        return spec;
+    }
+
+    @Override
+    public MergeSpecification findForcedDeletesMerges(SegmentInfos infos, MergeContext mergeContext) throws IOException {
+        final Set<SegmentCommitInfo> merging = mergeContext.getMergingSegments();
+        MergeSpecification spec = null;
+        for (SegmentCommitInfo info : infos) {
+            if (merging.contains(info) == false
+                && 100d * mergeContext.numDeletesToMerge(info) / info.info.maxDoc() > forceMergeDeletesPctAllowed) {
+                spec = add(spec, Collections.singletonList(info));
+            }
+        }
+        return spec;
+    }
+
+    /**
+     * Returns the longest run of adjacent mergeable segments that fits into a merged segment, breaking ties on the smallest total
+     * size, or {@code null} if no two adjacent segments fit into a merged segment. Merging as many segments as possible at once
+     * keeps the number of times that a document is rewritten low.
+     */
+    private static List<SegmentAndRange> findLongestRun(List<SegmentAndRange> segments, int maxMergeAtOnce,
+                                                        double maxMergedSegmentBytes) {
+        List<SegmentAndRange> best = null;
+        long bestSize = Long.MAX_VALUE;
+        for (int start = 0; start < segments.size(); start++) {
+            long size = 0;
+            int end = start;
+            while (end < segments.size() && end - start < maxMergeAtOnce && segments.get(end).mergeable
+                && size + segments.get(end).sizeInBytes <= maxMergedSegmentBytes) {
+                size += segments.get(end).sizeInBytes;
+                end++;
+            }
+            final int count = end - start;
+            // prefer merging more segments at once, and then smaller merges
+            if (count > 1 && (best == null || count > best.size() || (count == best.size() && size < bestSize))) {
+                best = segments.subList(start, end);
+                bestSize = size;
+            }
+        }
+        return best == null ? null : new ArrayList<>(best);
+    }
+
+    private static MergeSpecification add(MergeSpecification spec, List<SegmentCommitInfo> segments) {
+        if (spec == null) {
+            spec = new MergeSpecification();
+        }
+        spec.add(new OneMerge(segments));
+        return spec;
+    }
+
+    /**
+     * Returns the smallest and largest value of the timestamp field in the given segment, or {@code null} if the segment has no
+     * 64 bits points for it.
+     */
+    private TimeRange timeRange(SegmentCommitInfo info) throws IOException {
+        synchronized (timeRanges) {
+            if (timeRanges.containsKey(info.info)) {
+                return timeRanges.get(info.info);
+            }
+        }
+        final TimeRange range = readTimeRange(info.info, timestampField);
+        timeRanges.put(info.info, range);
+        return range;
+    }
+
+    static TimeRange readTimeRange(SegmentInfo segmentInfo, String field) throws IOException {
+        final Codec codec = segmentInfo.getCodec();
+        final List<Closeable> toClose = new ArrayList<>(2);
+        try {
+            final Directory directory;
+            if (segmentInfo.getUseCompoundFile()) {
+                directory = codec.compoundFormat().getCompoundReader(segmentInfo.dir, segmentInfo, IOContext.READONCE);
+                toClose.add(directory);
+            } else {
+                directory = segmentInfo.dir;
+            }
+            // points are never updated, so the field infos of the segment itself are enough
+            final FieldInfos fieldInfos = codec.fieldInfosFormat().read(directory, segmentInfo, "", IOContext.READONCE);
+            final FieldInfo fieldInfo = fieldInfos.fieldInfo(field);
+            if (fieldInfo == null || fieldInfo.getPointDataDimensionCount() != 1 || fieldInfo.getPointNumBytes() != Long.BYTES) {
+                return null;
+            }
+            final PointsReader pointsReader =
+                codec.pointsFormat().fieldsReader(new SegmentReadState(directory, segmentInfo, fieldInfos, IOContext.READONCE));
+            toClose.add(pointsReader);
+            final PointValues values = pointsReader.getValues(field);
+            if (values == null || values.size() == 0) {
+                return null;
+            }
+            return new TimeRange(LongPoint.decodeDimension(values.getMinPackedValue(), 0),
+                LongPoint.decodeDimension(values.getMaxPackedValue(), 0));
+        } finally {
+            IOUtils.close(toClose);
+        }
+    }
+
+    String getTimestampField() {
+        return timestampField;
+    }
+
+    void setBucketMillis(long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+    }
+
+    long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    void setMaxMergedSegmentMB(double mbFrac) {
+        this.maxMergedSegmentBytes = mbFrac * 1024 * 1024;
+    }
+
+    double getMaxMergedSegmentMB() {
+        return maxMergedSegmentBytes / 1024 / 1024;
+    }
+
+    void setMaxMergeAtOnce(int maxMergeAtOnce) {
+        this.maxMergeAtOnce = maxMergeAtOnce;
+    }
+
+    int getMaxMergeAtOnce() {
+        return maxMergeAtOnce;
+    }
+
+    void setMaxMergeAtOnceExplicit(int maxMergeAtOnceExplicit) {
+        this.maxMergeAtOnceExplicit = maxMergeAtOnceExplicit;
+    }
+
+    int getMaxMergeAtOnceExplicit() {
+        return maxMergeAtOnceExplicit;
+    }
+
+    void setSegmentsPerBucket(double segmentsPerBucket) {
+        this.segmentsPerBucket = segmentsPerBucket;
+    }
+
+    double getSegmentsPerBucket() {
+        return segmentsPerBucket;
+    }
+
+    void setDeletesPctAllowed(double deletesPctAllowed) {
+        this.deletesPctAllowed = deletesPctAllowed;
+    }
+
+    double getDeletesPctAllowed() {
+        return deletesPctAllowed;
+    }
+
+    void setForceMergeDeletesPctAllowed(double forceMergeDeletesPctAllowed) {
+        this.forceMergeDeletesPctAllowed = forceMergeDeletesPctAllowed;
+    }
+
+    double getForceMergeDeletesPctAllowed() {
+        return forceMergeDeletesPctAllowed;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getClass().getSimpleName() + ": timestampField=" + timestampField + ", bucketMillis=" + bucketMillis
+            + ", maxMergedSegmentMB=" + getMaxMergedSegmentMB() + ", maxMergeAtOnce=" + maxMergeAtOnce + ", maxMergeAtOnceExplicit="
+            + maxMergeAtOnceExplicit + ", segmentsPerBucket=" + segmentsPerBucket + ", deletesPctAllowed=" + deletesPctAllowed
+            + ", forceMergeDeletesPctAllowed=" + forceMergeDeletesPctAllowed + ", noCFSRatio=" + noCFSRatio + "]";
+    }
+
+    static final class TimeRange {
+        final long min;
+        final long max;
+
+        TimeRange(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    // segments without a time range sort by their position in the index, which is the order in which they were written
+    private static final Comparator<SegmentAndRange> TIME_ORDER = Comparator
+        .comparingLong((SegmentAndRange segment) -> segment.range == null ? NO_TIMESTAMP : segment.range.min)
+        .thenComparingLong(segment -> segment.range == null ? NO_TIMESTAMP : segment.range.max);
+
+    private static final class SegmentAndRange {
+        final SegmentCommitInfo info;
+        final TimeRange range;
+        final long sizeInBytes;
+        boolean mergeable = true;
+
+        SegmentAndRange(SegmentCommitInfo info, TimeRange range, long sizeInBytes) {
+            this.info = info;
+            this.range = range;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+}
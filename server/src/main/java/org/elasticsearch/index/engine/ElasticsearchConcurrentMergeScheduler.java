@@ -25,6 +25,9 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
 import org.apache.lucene.index.OneMergeHelper;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
@@ -38,11 +41,13 @@ import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.merge.MergeStats;
 import org.elasticsearch.index.merge.OnGoingMerge;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.MergeCoordinator;
 
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 /**
  * An extension to the {@link ConcurrentMergeScheduler} that provides tracking on merge times, total
@@ -62,13 +67,28 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
     private final CounterMetric currentMergesSizeInBytes = new CounterMetric();
     private final CounterMetric totalMergeStoppedTime = new CounterMetric();
     private final CounterMetric totalMergeThrottledTime = new CounterMetric();
+    private final CounterMetric totalThrottledMergesSizeInBytes = new CounterMetric();
+    private final CounterMetric currentQueuedMerges = new CounterMetric();
+    private final CounterMetric currentQueuedMergesSizeInBytes = new CounterMetric();
+    private final CounterMetric totalMergeQueuedTime = new CounterMetric();
 
     private final Set<OnGoingMerge> onGoingMerges = ConcurrentCollections.newConcurrentSet();
     private final Set<OnGoingMerge> readOnlyOnGoingMerges = Collections.unmodifiableSet(onGoingMerges);
     private final MergeSchedulerConfig config;
+    @Nullable
+    private final MergeCoordinator.DataPathBudget mergeBudget;
+    private final BooleanSupplier activelyIndexing;
 
-    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
+    /**
+     * @param mergeBudget the budget that merges share with the other shards on the same data path, or {@code null} if merges are
+     *                    not coordinated across shards
+     * @param activelyIndexing whether the shard is currently indexing, the merges of such shards go first if the budget is exhausted
+     */
+    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings,
+                                          @Nullable MergeCoordinator.DataPathBudget mergeBudget, BooleanSupplier activelyIndexing) {
         this.config = indexSettings.getMergeSchedulerConfig();
+        this.mergeBudget = mergeBudget;
+        this.activelyIndexing = activelyIndexing;
         this.shardId = shardId;
         this.indexSettings = indexSettings.getSettings();
         this.logger = Loggers.getLogger(getClass(), shardId);
@@ -81,6 +101,13 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
 
     @Override
     protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+        // queued merges are reported separately, only the time the merge actually runs counts towards the merge stats
+        try (Releasable ignored = acquireMergeBudget(merge)) {
+            runMerge(writer, merge);
+        }
+    }
+
+    private void runMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
         int totalNumDocs = merge.totalNumDocs();
         long totalSizeInBytes = merge.totalBytesSize();
         long timeNS = System.nanoTime();
@@ -123,6 +150,9 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
             double mbPerSec = OneMergeHelper.getMbPerSec(thread, merge);
             totalMergeStoppedTime.inc(stoppedMS);
             totalMergeThrottledTime.inc(throttledMS);
+            if (throttledMS > 0) {
+                totalThrottledMergesSizeInBytes.inc(totalBytesWritten);
+            }
 
             String message = String.format(Locale.ROOT,
                                            "merge segment [%s] done: took [%s], [%,.1f MB], [%,d docs], [%s stopped], " +
@@ -144,6 +174,28 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         }
     }
 
+    /**
+     * Waits until the merge fits into the budget of the data path, if merges are coordinated across shards.
+     */
+    private Releasable acquireMergeBudget(MergePolicy.OneMerge merge) {
+        if (mergeBudget == null) {
+            return () -> {};
+        }
+        final long sizeInBytes = merge.totalBytesSize();
+        final long startNS = System.nanoTime();
+        currentQueuedMerges.inc();
+        currentQueuedMergesSizeInBytes.inc(sizeInBytes);
+        try {
+            return mergeBudget.acquire(sizeInBytes, activelyIndexing.getAsBoolean(), merge::isAborted);
+        } catch (InterruptedException e) {
+            throw new ThreadInterruptedException(e);
+        } finally {
+            currentQueuedMerges.dec();
+            currentQueuedMergesSizeInBytes.dec(sizeInBytes);
+            totalMergeQueuedTime.inc(TimeValue.nsecToMSec(System.nanoTime() - startNS));
+        }
+    }
+
     /**
      * A callback allowing for custom logic before an actual merge starts.
      */
@@ -182,6 +234,8 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
                 totalMergeStoppedTime.count(),
                 totalMergeThrottledTime.count(),
                 config.isAutoThrottle() ? getIORateLimitMBPerSec() : Double.POSITIVE_INFINITY);
+        mergeStats.addQueuedAndThrottled(currentQueuedMerges.count(), currentQueuedMergesSizeInBytes.count(),
+                totalMergeQueuedTime.count(), totalThrottledMergesSizeInBytes.count());
         return mergeStats;
     }
 
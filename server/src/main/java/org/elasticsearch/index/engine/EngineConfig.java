@@ -32,6 +32,7 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.MemorySizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.mapper.ParsedDocument;
@@ -39,6 +40,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.indices.IndexingMemoryController;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 
@@ -79,6 +81,8 @@ public final class EngineConfig {
     private final LongSupplier globalCheckpointSupplier;
     private final LongSupplier primaryTermSupplier;
     private final TombstoneDocSupplier tombstoneDocSupplier;
+    @Nullable
+    private final MergeCoordinator.DataPathBudget mergeBudget;
 
     /**
      * Index setting to change the low level lucene codec used for writing new segments.
@@ -111,6 +115,14 @@ public final class EngineConfig {
     public static final Setting<Boolean> INDEX_OPTIMIZE_AUTO_GENERATED_IDS = Setting.boolSetting("index.optimize_auto_generated_id", true,
         Property.IndexScope, Property.Dynamic, Property.Deprecated);
 
+    /**
+     * Configures the engine to store the live versions of recently indexed documents in recycled {@link BigArrays} pages instead of
+     * heap maps. This reduces the garbage produced by update heavy workloads with many distinct ids. This setting is <b>not</b> realtime
+     * updateable. The default is <code>false</code>
+     */
+    public static final Setting<Boolean> INDEX_PAGED_VERSION_MAP_SETTING = Setting.boolSetting("index.paged_version_map", false,
+        Property.IndexScope);
+
     private final TranslogConfig translogConfig;
 
     /**
@@ -125,7 +137,8 @@ public final class EngineConfig {
                         List<ReferenceManager.RefreshListener> externalRefreshListener,
                         List<ReferenceManager.RefreshListener> internalRefreshListener, Sort indexSort,
                         CircuitBreakerService circuitBreakerService, LongSupplier globalCheckpointSupplier,
-                        LongSupplier primaryTermSupplier, TombstoneDocSupplier tombstoneDocSupplier) {
+                        LongSupplier primaryTermSupplier, TombstoneDocSupplier tombstoneDocSupplier,
+                        @Nullable MergeCoordinator.DataPathBudget mergeBudget) {
         this.shardId = shardId;
         this.allocationId = allocationId;
         this.indexSettings = indexSettings;
@@ -163,6 +176,7 @@ public final class EngineConfig {
         this.globalCheckpointSupplier = globalCheckpointSupplier;
         this.primaryTermSupplier = primaryTermSupplier;
         this.tombstoneDocSupplier = tombstoneDocSupplier;
+        this.mergeBudget = mergeBudget;
     }
 
     /**
@@ -339,6 +353,13 @@ public final class EngineConfig {
         return indexSettings.getValue(INDEX_OPTIMIZE_AUTO_GENERATED_IDS);
     }
 
+    /**
+     * Returns <code>true</code> iff the live version map should be backed by {@link BigArrays} pages.
+     */
+    public boolean isPagedVersionMapEnabled() {
+        return indexSettings.getValue(INDEX_PAGED_VERSION_MAP_SETTING);
+    }
+
     /**
      * Return the sort order of this index, or null if the index has no sort.
      */
@@ -354,6 +375,15 @@ public final class EngineConfig {
         return this.circuitBreakerService;
     }
 
+    /**
+     * Returns the budget that the merges of this engine share with the other shards on the same data path, or {@code null} if merges
+     * are not coordinated across shards.
+     */
+    @Nullable
+    public MergeCoordinator.DataPathBudget getMergeBudget() {
+        return mergeBudget;
+    }
+
     /**
      * Returns a supplier that supplies the latest primary term value of the associated shard.
      */
@@ -84,6 +84,7 @@ import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogCorruptedException;
 import org.elasticsearch.index.translog.TranslogDeletionPolicy;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.indices.MergeCoordinator;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
@@ -127,7 +128,7 @@ public class InternalEngine extends Engine {
 
     // A uid (in the form of BytesRef) to the version map
     // we use the hashed variant since we iterate over it and check removal and additions on existing keys
-    private final LiveVersionMap versionMap = new LiveVersionMap();
+    private final LiveVersionMap versionMap;
 
     private volatile SegmentInfos lastCommittedSegmentInfos;
 
@@ -172,6 +173,13 @@ public class InternalEngine extends Engine {
             final EngineConfig engineConfig,
             final BiFunction<Long, Long, LocalCheckpointTracker> localCheckpointTrackerSupplier) {
         super(engineConfig);
+        if (engineConfig.isPagedVersionMapEnabled()) {
+            // the version map is part of the indexing buffer which is bounded by the indexing memory controller, accounting its pages
+            // on the request breaker would let heavy indexing trip unrelated searches
+            versionMap = new LiveVersionMap(engineConfig.getTranslogConfig().getBigArrays().withoutBreakerAccounting());
+        } else {
+            versionMap = new LiveVersionMap();
+        }
         if (engineConfig.isAutoGeneratedIDsOptimizationEnabled() == false) {
             updateAutoIdTimestamp(Long.MAX_VALUE, true);
         }
@@ -190,7 +198,8 @@ public class InternalEngine extends Engine {
         try {
             this.lastDeleteVersionPruneTimeMSec = engineConfig.getThreadPool().relativeTimeInMillis();
 
-            mergeScheduler = scheduler = new EngineMergeScheduler(engineConfig.getShardId(), engineConfig.getIndexSettings());
+            mergeScheduler = scheduler = new EngineMergeScheduler(engineConfig.getShardId(), engineConfig.getIndexSettings(),
+                engineConfig.getMergeBudget());
             throttle = new IndexThrottle();
             try {
                 translog = openTranslog(engineConfig, translogDeletionPolicy, engineConfig.getGlobalCheckpointSupplier());
@@ -2310,8 +2319,9 @@ public class InternalEngine extends Engine {
         private final AtomicInteger numMergesInFlight = new AtomicInteger(0);
         private final AtomicBoolean isThrottling = new AtomicBoolean();
 
-        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
-            super(shardId, indexSettings);
+        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable MergeCoordinator.DataPathBudget mergeBudget) {
+            super(shardId, indexSettings, mergeBudget,
+                () -> System.nanoTime() - lastWriteNanos < engineConfig.getFlushMergesAfter().nanos());
         }
 
         @Override
@@ -23,7 +23,9 @@ import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
 
@@ -38,15 +40,9 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
     private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
 
-    private static final class VersionLookup {
+    private abstract static class VersionLookup {
 
-        /** Tracks bytes used by current map, i.e. what is freed on refresh. For deletes, which are also added to tombstones,
-         *  we only account for the CHM entry here, and account for BytesRef/VersionValue against the tombstones, since refresh would not
-         *  clear this RAM. */
-        final AtomicLong ramBytesUsed = new AtomicLong();
-
-        private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
-        private final Map<BytesRef, VersionValue> map;
+        private static final VersionLookup EMPTY = new HeapVersionLookup(Collections.emptyMap());
 
         // each version map has a notion of safe / unsafe which allows us to apply certain optimization in the auto-generated ID usecase
         // where we know that documents can't have any duplicates so we can skip the version map entirely. This reduces
@@ -64,43 +60,173 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         // the tombstone
         private final AtomicLong minDeleteTimestamp = new AtomicLong(Long.MAX_VALUE);
 
-        private VersionLookup(Map<BytesRef, VersionValue> map) {
+        abstract VersionValue get(BytesRef key);
+
+        /** Adds or replaces the value for the given uid and accounts for the RAM it uses. */
+        abstract void put(BytesRef key, IndexVersionValue value);
+
+        /** Removes the given uid and deducts the RAM it used. */
+        abstract void remove(BytesRef uid);
+
+        abstract int size();
+
+        boolean isEmpty() {
+            return size() == 0;
+        }
+
+        /**
+         * Tracks bytes used by this map, i.e. what is freed on refresh. For deletes, which are also added to tombstones, we only account
+         * for the map entry here, and account for BytesRef/VersionValue against the tombstones, since refresh would not clear this RAM.
+         */
+        abstract long ramBytesUsed();
+
+        /** Creates an empty map of the same kind, sized for the current number of entries. Used for the refresh transition. */
+        abstract VersionLookup newTransitionLookup();
+
+        /** Returns the entries of this map. Depending on the implementation this might be a point in time copy. */
+        abstract Map<BytesRef, VersionValue> asMap();
+
+        /** Releases the resources held by this map once it has been dropped from the version map. */
+        abstract void close();
+
+        boolean isUnsafe() {
+            return unsafe;
+        }
+
+        void markAsUnsafe() {
+            unsafe = true;
+        }
+
+        public void updateMinDeletedTimestamp(DeleteVersionValue delete) {
+            long time = delete.time;
+            minDeleteTimestamp.updateAndGet(prev -> Math.min(time, prev));
+        }
+
+    }
+
+    /** A {@link VersionLookup} that holds its entries in a concurrent hash map on the heap. */
+    private static final class HeapVersionLookup extends VersionLookup {
+
+        private final AtomicLong ramBytesUsed = new AtomicLong();
+        private final Map<BytesRef, VersionValue> map;
+
+        private HeapVersionLookup(Map<BytesRef, VersionValue> map) {
             this.map = map;
         }
 
+        @Override
         VersionValue get(BytesRef key) {
             return map.get(key);
         }
 
-        VersionValue put(BytesRef key, VersionValue value) {
-            return map.put(key, value);
+        @Override
+        void put(BytesRef uid, IndexVersionValue version) {
+            long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
+            long ramAccounting = BASE_BYTES_PER_CHM_ENTRY + version.ramBytesUsed() + uidRAMBytesUsed;
+            VersionValue previousValue = map.put(uid, version);
+            ramAccounting += previousValue == null ? 0 : -(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed);
+            adjustRam(ramAccounting);
         }
 
+        @Override
+        void remove(BytesRef uid) {
+            VersionValue previousValue = map.remove(uid);
+            if (previousValue != null) {
+                long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
+                adjustRam(-(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed));
+            }
+        }
+
+        private void adjustRam(long value) {
+            if (value != 0) {
+                long v = ramBytesUsed.addAndGet(value);
+                assert v >= 0 : "bytes=" + v;
+            }
+        }
+
+        @Override
         boolean isEmpty() {
             return map.isEmpty();
         }
 
+        @Override
         int size() {
             return map.size();
         }
 
-        boolean isUnsafe() {
-            return unsafe;
+        @Override
+        long ramBytesUsed() {
+            return ramBytesUsed.get();
         }
 
-        void markAsUnsafe() {
-            unsafe = true;
+        @Override
+        VersionLookup newTransitionLookup() {
+            return new HeapVersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(size()));
         }
 
-        public VersionValue remove(BytesRef uid) {
-            return map.remove(uid);
+        @Override
+        Map<BytesRef, VersionValue> asMap() {
+            return map;
         }
 
-        public void updateMinDeletedTimestamp(DeleteVersionValue delete) {
-            long time = delete.time;
-            minDeleteTimestamp.updateAndGet(prev -> Math.min(time, prev));
+        @Override
+        void close() {
+        }
+    }
+
+    /**
+     * A {@link VersionLookup} that stores its entries in recycled {@link BigArrays} pages. Its RAM usage is the size of the pages it holds
+     * plus the values they point to. The pages are released once the map is dropped after a refresh.
+     */
+    private static final class PagedVersionLookup extends VersionLookup {
+
+        private final BigArrays bigArrays;
+        private final PagedVersionMap map;
+
+        private PagedVersionLookup(long expectedSize, BigArrays bigArrays) {
+            this.bigArrays = bigArrays;
+            this.map = new PagedVersionMap(expectedSize, bigArrays);
+        }
+
+        @Override
+        VersionValue get(BytesRef key) {
+            return map.get(key);
+        }
+
+        @Override
+        void put(BytesRef key, IndexVersionValue value) {
+            map.put(key, value);
         }
 
+        @Override
+        void remove(BytesRef uid) {
+            map.remove(uid);
+        }
+
+        @Override
+        int size() {
+            return map.size();
+        }
+
+        @Override
+        long ramBytesUsed() {
+            return map.ramBytesUsed();
+        }
+
+        @Override
+        VersionLookup newTransitionLookup() {
+            return new PagedVersionLookup(size(), bigArrays);
+        }
+
+        @Override
+        Map<BytesRef, VersionValue> asMap() {
+            return map.toMap();
+        }
+
+        @Override
+        void close() {
+            map.close();
+        }
     }
 
     private static final class Maps {
@@ -123,9 +249,8 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()),
-                VersionLookup.EMPTY, false);
+        Maps(VersionLookup current) {
+            this(current, VersionLookup.EMPTY, false);
         }
 
         boolean isSafeAccessMode() {
@@ -143,8 +268,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())), current,
-                shouldInheritSafeAccess());
+            return new Maps(current.newTransitionLookup(), current, shouldInheritSafeAccess());
         }
 
         /**
@@ -154,28 +278,13 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
             return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
         }
 
-        void put(BytesRef uid, VersionValue version) {
-            long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-            long ramAccounting = BASE_BYTES_PER_CHM_ENTRY + version.ramBytesUsed() + uidRAMBytesUsed;
-            VersionValue previousValue = current.put(uid, version);
-            ramAccounting += previousValue == null ? 0 : -(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed);
-            adjustRam(ramAccounting);
-        }
-
-        void adjustRam(long value) {
-            if (value != 0) {
-                long v = current.ramBytesUsed.addAndGet(value);
-                assert v >= 0 : "bytes=" + v;
-            }
+        void put(BytesRef uid, IndexVersionValue version) {
+            current.put(uid, version);
         }
 
         void remove(BytesRef uid, DeleteVersionValue deleted) {
-            VersionValue previousValue = current.remove(uid);
+            current.remove(uid);
             current.updateMinDeletedTimestamp(deleted);
-            if (previousValue != null) {
-                long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
-                adjustRam(-(BASE_BYTES_PER_CHM_ENTRY + previousValue.ramBytesUsed() + uidRAMBytesUsed));
-            }
             if (old != VersionLookup.EMPTY) {
                 // we also need to remove it from the old map here to make sure we don't read this stale value while
                 // we are in the middle of a refresh. Most of the time the old map is an empty map so we can skip it there.
@@ -191,10 +300,42 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    // if non-null the live versions are stored in pages of these big arrays instead of heap maps
+    @Nullable
+    private final BigArrays bigArrays;
+
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap = new Maps(newHeapVersionLookup());
+
+    /**
+     * Creates a version map that holds its live versions in heap maps.
+     */
+    LiveVersionMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a version map.
+     *
+     * @param bigArrays if not <code>null</code> the live versions are stored in pages of the given big arrays which are recycled on
+     *                  refresh. This reduces the number of objects allocated per indexed document for update heavy workloads. Tombstones
+     *                  are always held on the heap since they outlive refreshes. The pages are reported through {@link #ramBytesUsed()}
+     *                  so the given big arrays should not account them on a circuit breaker as well.
+     */
+    LiveVersionMap(@Nullable BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+        this.maps = new Maps(newVersionLookup());
+    }
+
+    private VersionLookup newVersionLookup() {
+        return bigArrays == null ? newHeapVersionLookup() : new PagedVersionLookup(0, bigArrays);
+    }
+
+    private static VersionLookup newHeapVersionLookup() {
+        return new HeapVersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency());
+    }
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -257,7 +398,11 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
         // reopen, and so any concurrent indexing requests can still sneak in a few additions to that current map that are in fact
         // reflected in the previous reader.   We don't touch tombstones here: they expire on their own index.gc_deletes timeframe:
 
-        maps = maps.invalidateOldMap();
+        final Maps refreshedMaps = maps;
+        maps = refreshedMaps.invalidateOldMap();
+        // concurrent readers that still see the old map get null back once it is closed, just like they would not find the operations
+        // in a new map instance, and fall back to the refreshed searcher
+        refreshedMaps.old.close();
         assert (unsafeKeysMap = unsafeKeysMap.invalidateOldMap()) != null;
 
     }
@@ -415,7 +560,11 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        final Maps clearedMaps = maps;
+        // the index is closed so we don't allocate new pages for a map that won't be used anymore
+        maps = new Maps(newHeapVersionLookup());
+        clearedMaps.current.close();
+        clearedMaps.old.close();
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip.  Presumably it's fine if our ramBytesUsedTombstones is non-zero after clear since the
@@ -425,7 +574,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
 
     @Override
     public long ramBytesUsed() {
-        return maps.current.ramBytesUsed.get() + ramBytesUsedTombstones.get();
+        return maps.current.ramBytesUsed() + ramBytesUsedTombstones.get();
     }
 
     /**
@@ -433,7 +582,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * don't clear on refresh.
      */
     long ramBytesUsedForRefresh() {
-        return maps.current.ramBytesUsed.get();
+        return maps.current.ramBytesUsed();
     }
 
     /**
@@ -441,7 +590,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * except does not include tombstones because they don't clear on refresh.
      */
     long getRefreshingBytes() {
-        return maps.old.ramBytesUsed.get();
+        return maps.old.ramBytesUsed();
     }
 
     @Override
@@ -454,7 +603,7 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
      * Returns the current internal versions as a point in time snapshot
      */
     Map<BytesRef, VersionValue> getAllCurrent() {
-        return maps.current.map;
+        return maps.current.asMap();
     }
 
     /** Iterates over all deleted versions, including new ones (not yet exposed via reader) and old ones
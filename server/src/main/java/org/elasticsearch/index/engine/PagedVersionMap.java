@@ -0,0 +1,297 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import com.carrotsearch.hppc.BitMixer;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.ObjectArray;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread-safe map from _uid to {@link IndexVersionValue} that stores the uid bytes in {@link BigArrays} pages and the values in
+ * recycled object pages instead of allocating a {@link BytesRef} copy and a hash table entry per document. Pages are recycled once the
+ * map is {@link #close() closed}, which {@link LiveVersionMap} does when the map is dropped after a refresh.
+ *
+ * The map is split into a fixed number of stripes. Modifications take the write lock of their stripe while lookups are optimistic reads
+ * that don't block and don't allocate. A lookup only falls back to the read lock of a stripe if the stripe was modified concurrently.
+ * Removed entries are only marked as such since the map only lives until the next refresh.
+ *
+ * Once closed, lookups return <code>null</code> and modifications are ignored, which is equivalent to the behavior of a heap map that
+ * has been dropped from the {@link LiveVersionMap}: the operations it held are visible through the refreshed searcher.
+ */
+final class PagedVersionMap implements Releasable {
+
+    private static final int NUM_STRIPES = 16;
+    private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(NUM_STRIPES);
+
+    private final Stripe[] stripes = new Stripe[NUM_STRIPES];
+    private final AtomicLong ramBytesUsed = new AtomicLong();
+
+    PagedVersionMap(long expectedSize, BigArrays bigArrays) {
+        final long stripeCapacity = Math.max(16, expectedSize / NUM_STRIPES);
+        boolean success = false;
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe(stripeCapacity, bigArrays);
+                ramBytesUsed.addAndGet(stripes[i].pagesRamBytesUsed());
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                close();
+            }
+        }
+    }
+
+    private Stripe stripe(BytesRef uid) {
+        // BytesRefHash picks slots from the low bits of the mixed hash so we use the high bits of a differently mixed one here
+        return stripes[BitMixer.mix32(uid.hashCode() ^ 0x9E3779B9) >>> STRIPE_SHIFT];
+    }
+
+    /**
+     * Returns the value for the given uid, or <code>null</code> if it is not in the map.
+     */
+    IndexVersionValue get(BytesRef uid) {
+        return stripe(uid).get(uid);
+    }
+
+    void put(BytesRef uid, IndexVersionValue value) {
+        adjustRam(stripe(uid).put(uid, value));
+    }
+
+    /**
+     * Removes the given uid and returns <code>true</code> iff it was in the map.
+     */
+    boolean remove(BytesRef uid) {
+        final long freed = stripe(uid).remove(uid);
+        adjustRam(-freed);
+        return freed > 0;
+    }
+
+    /** the number of uids in this map */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.live;
+        }
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * The bytes held by this map: the pages, including the unused capacity of the hash tables, and the values they point to. This is
+     * reported through {@link LiveVersionMap#ramBytesUsed()} like the heap map and is not accounted on a circuit breaker.
+     */
+    long ramBytesUsed() {
+        return ramBytesUsed.get();
+    }
+
+    private void adjustRam(long delta) {
+        if (delta != 0) {
+            final long v = ramBytesUsed.addAndGet(delta);
+            assert v >= 0 : "bytes=" + v;
+        }
+    }
+
+    /**
+     * Returns a point in time copy of the entries of this map. This is costly and is meant for tests and assertions only.
+     */
+    Map<BytesRef, VersionValue> toMap() {
+        final Map<BytesRef, VersionValue> map = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.copyTo(map);
+        }
+        return map;
+    }
+
+    @Override
+    public void close() {
+        for (Stripe stripe : stripes) {
+            if (stripe != null) {
+                adjustRam(-stripe.close());
+            }
+        }
+    }
+
+    private static final class Stripe {
+
+        private final BigArrays bigArrays;
+        private final StampedLock lock = new StampedLock();
+        // the fields below are only modified under the write lock, lookups may read them optimistically
+        private BytesRefHash uids;
+        private ObjectArray<IndexVersionValue> values;
+        private long valuesRamBytesUsed;
+        private boolean closed;
+        private volatile int live;
+
+        Stripe(long capacity, BigArrays bigArrays) {
+            this.bigArrays = bigArrays;
+            boolean success = false;
+            try {
+                uids = new BytesRefHash(capacity, bigArrays);
+                values = bigArrays.newObjectArray(capacity);
+                success = true;
+            } finally {
+                if (success == false) {
+                    Releasables.close(uids, values);
+                }
+            }
+        }
+
+        IndexVersionValue get(BytesRef uid) {
+            final long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Object value = null;
+                RuntimeException failure = null;
+                try {
+                    value = find(uid);
+                } catch (RuntimeException e) {
+                    // a concurrent modification can grow, rehash or release the pages we read from
+                    failure = e;
+                }
+                if (lock.validate(stamp)) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    return (IndexVersionValue) value;
+                }
+            }
+            final long readStamp = lock.readLock();
+            try {
+                return (IndexVersionValue) find(uid);
+            } finally {
+                lock.unlockRead(readStamp);
+            }
+        }
+
+        // may run concurrently with modifications when called optimistically, so it must not write any state nor trust what it reads
+        private Object find(BytesRef uid) {
+            if (closed) {
+                return null;
+            }
+            final long id = uids.findReadOnly(uid);
+            if (id < 0) {
+                return null;
+            }
+            // don't let the compiler cast before the read was validated, a recycled page might hold an object of another type
+            final ObjectArray<?> values = this.values;
+            return values.get(id);
+        }
+
+        /** Adds or replaces the value for the given uid and returns by how many bytes the RAM usage of this stripe changed. */
+        long put(BytesRef uid, IndexVersionValue value) {
+            final long stamp = lock.writeLock();
+            try {
+                if (closed) {
+                    return 0;
+                }
+                final long pagesBefore = pagesRamBytesUsed();
+                long id = uids.add(uid);
+                if (id < 0) {
+                    id = -1 - id;
+                } else {
+                    values = bigArrays.grow(values, id + 1);
+                }
+                final IndexVersionValue previous = values.set(id, value);
+                if (previous == null) {
+                    live++;
+                }
+                final long valueDelta = value.ramBytesUsed() - (previous == null ? 0 : previous.ramBytesUsed());
+                valuesRamBytesUsed += valueDelta;
+                return pagesRamBytesUsed() - pagesBefore + valueDelta;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /** Removes the given uid and returns the bytes its value used, or <code>0</code> if it wasn't in this stripe. */
+        long remove(BytesRef uid) {
+            final long stamp = lock.writeLock();
+            try {
+                if (closed) {
+                    return 0;
+                }
+                final long id = uids.find(uid);
+                if (id < 0) {
+                    return 0;
+                }
+                final IndexVersionValue previous = values.set(id, null);
+                if (previous == null) {
+                    return 0;
+                }
+                live--;
+                valuesRamBytesUsed -= previous.ramBytesUsed();
+                return previous.ramBytesUsed();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyTo(Map<BytesRef, VersionValue> map) {
+            final long stamp = lock.readLock();
+            try {
+                if (closed) {
+                    return;
+                }
+                for (long id = 0; id < uids.size(); id++) {
+                    final IndexVersionValue value = values.get(id);
+                    if (value != null) {
+                        map.put(BytesRef.deepCopyOf(uids.get(id, new BytesRef())), value);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // must be called while holding the write lock, or before the stripe is published
+        private long pagesRamBytesUsed() {
+            return uids.ramBytesUsed() + values.ramBytesUsed();
+        }
+
+        /** Releases the pages of this stripe and returns the bytes it held. */
+        long close() {
+            final long stamp = lock.writeLock();
+            try {
+                if (closed) {
+                    return 0;
+                }
+                final long bytes = pagesRamBytesUsed() + valuesRamBytesUsed;
+                closed = true;
+                live = 0;
+                Releasables.close(uids, values);
+                return bytes;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.merge;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -47,6 +48,16 @@ public class MergeStats implements Streamable, ToXContentFragment {
 
     private long totalBytesPerSecAutoThrottle;
 
+    /** Merges that wait for the merge budget of their data path, and their size. */
+    private long currentQueued;
+    private long currentQueuedSizeInBytes;
+
+    /** Total millis that merges waited for the merge budget of their data path. */
+    private long totalQueuedTimeInMillis;
+
+    /** Total bytes written by merges that were throttled at any point, including the bytes they wrote while not throttled. */
+    private long totalThrottledMergesSizeInBytes;
+
     public MergeStats() {
 
     }
@@ -71,6 +82,14 @@ public class MergeStats implements Streamable, ToXContentFragment {
         }
     }
 
+    public void addQueuedAndThrottled(long currentQueued, long currentQueuedSizeInBytes, long queuedTimeMillis,
+                                     long throttledMergesSizeInBytes) {
+        this.currentQueued += currentQueued;
+        this.currentQueuedSizeInBytes += currentQueuedSizeInBytes;
+        this.totalQueuedTimeInMillis += queuedTimeMillis;
+        this.totalThrottledMergesSizeInBytes += throttledMergesSizeInBytes;
+    }
+
     public void add(MergeStats mergeStats) {
         if (mergeStats == null) {
             return;
@@ -78,6 +97,8 @@ public class MergeStats implements Streamable, ToXContentFragment {
         this.current += mergeStats.current;
         this.currentNumDocs += mergeStats.currentNumDocs;
         this.currentSizeInBytes += mergeStats.currentSizeInBytes;
+        this.currentQueued += mergeStats.currentQueued;
+        this.currentQueuedSizeInBytes += mergeStats.currentQueuedSizeInBytes;
 
         addTotals(mergeStats);
     }
@@ -92,6 +113,8 @@ public class MergeStats implements Streamable, ToXContentFragment {
         this.totalSizeInBytes += mergeStats.totalSizeInBytes;
         this.totalStoppedTimeInMillis += mergeStats.totalStoppedTimeInMillis;
         this.totalThrottledTimeInMillis += mergeStats.totalThrottledTimeInMillis;
+        this.totalQueuedTimeInMillis += mergeStats.totalQueuedTimeInMillis;
+        this.totalThrottledMergesSizeInBytes += mergeStats.totalThrottledMergesSizeInBytes;
         if (this.totalBytesPerSecAutoThrottle == Long.MAX_VALUE || mergeStats.totalBytesPerSecAutoThrottle == Long.MAX_VALUE) {
             this.totalBytesPerSecAutoThrottle = Long.MAX_VALUE;
         } else {
@@ -183,18 +206,64 @@ public class MergeStats implements Streamable, ToXContentFragment {
         return new ByteSizeValue(currentSizeInBytes);
     }
 
+    /**
+     * The current number of merges that wait for the merge budget of their data path. These are included in {@link #getCurrent()}.
+     */
+    public long getCurrentQueued() {
+        return this.currentQueued;
+    }
+
+    public long getCurrentQueuedSizeInBytes() {
+        return this.currentQueuedSizeInBytes;
+    }
+
+    public ByteSizeValue getCurrentQueuedSize() {
+        return new ByteSizeValue(currentQueuedSizeInBytes);
+    }
+
+    /**
+     * The total time merges waited for the merge budget of their data path.
+     */
+    public long getTotalQueuedTimeInMillis() {
+        return this.totalQueuedTimeInMillis;
+    }
+
+    /**
+     * The total time merges waited for the merge budget of their data path.
+     */
+    public TimeValue getTotalQueuedTime() {
+        return new TimeValue(totalQueuedTimeInMillis);
+    }
+
+    /**
+     * The total number of bytes written by merges that were throttled at any point, not just the bytes that they wrote while they
+     * were throttled.
+     */
+    public long getTotalThrottledMergesSizeInBytes() {
+        return this.totalThrottledMergesSizeInBytes;
+    }
+
+    public ByteSizeValue getTotalThrottledMergesSize() {
+        return new ByteSizeValue(totalThrottledMergesSizeInBytes);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.MERGES);
         builder.field(Fields.CURRENT, current);
         builder.field(Fields.CURRENT_DOCS, currentNumDocs);
         builder.humanReadableField(Fields.CURRENT_SIZE_IN_BYTES, Fields.CURRENT_SIZE, getCurrentSize());
+        builder.field(Fields.CURRENT_QUEUED, currentQueued);
+        builder.humanReadableField(Fields.CURRENT_QUEUED_SIZE_IN_BYTES, Fields.CURRENT_QUEUED_SIZE, getCurrentQueuedSize());
         builder.field(Fields.TOTAL, total);
         builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, getTotalTime());
         builder.field(Fields.TOTAL_DOCS, totalNumDocs);
         builder.humanReadableField(Fields.TOTAL_SIZE_IN_BYTES, Fields.TOTAL_SIZE, getTotalSize());
         builder.humanReadableField(Fields.TOTAL_STOPPED_TIME_IN_MILLIS, Fields.TOTAL_STOPPED_TIME, getTotalStoppedTime());
         builder.humanReadableField(Fields.TOTAL_THROTTLED_TIME_IN_MILLIS, Fields.TOTAL_THROTTLED_TIME, getTotalThrottledTime());
+        builder.humanReadableField(Fields.TOTAL_THROTTLED_MERGES_SIZE_IN_BYTES, Fields.TOTAL_THROTTLED_MERGES_SIZE,
+            getTotalThrottledMergesSize());
+        builder.humanReadableField(Fields.TOTAL_QUEUED_TIME_IN_MILLIS, Fields.TOTAL_QUEUED_TIME, getTotalQueuedTime());
         if (builder.humanReadable() && totalBytesPerSecAutoThrottle != -1) {
             builder.field(Fields.TOTAL_THROTTLE_BYTES_PER_SEC).value(new ByteSizeValue(totalBytesPerSecAutoThrottle).toString());
         }
@@ -209,6 +278,9 @@ public class MergeStats implements Streamable, ToXContentFragment {
         static final String CURRENT_DOCS = "current_docs";
         static final String CURRENT_SIZE = "current_size";
         static final String CURRENT_SIZE_IN_BYTES = "current_size_in_bytes";
+        static final String CURRENT_QUEUED = "current_queued";
+        static final String CURRENT_QUEUED_SIZE = "current_queued_size";
+        static final String CURRENT_QUEUED_SIZE_IN_BYTES = "current_queued_size_in_bytes";
         static final String TOTAL = "total";
         static final String TOTAL_TIME = "total_time";
         static final String TOTAL_TIME_IN_MILLIS = "total_time_in_millis";
@@ -216,6 +288,10 @@ public class MergeStats implements Streamable, ToXContentFragment {
         static final String TOTAL_STOPPED_TIME_IN_MILLIS = "total_stopped_time_in_millis";
         static final String TOTAL_THROTTLED_TIME = "total_throttled_time";
         static final String TOTAL_THROTTLED_TIME_IN_MILLIS = "total_throttled_time_in_millis";
+        static final String TOTAL_THROTTLED_MERGES_SIZE = "total_throttled_merges_size";
+        static final String TOTAL_THROTTLED_MERGES_SIZE_IN_BYTES = "total_throttled_merges_size_in_bytes";
+        static final String TOTAL_QUEUED_TIME = "total_queued_time";
+        static final String TOTAL_QUEUED_TIME_IN_MILLIS = "total_queued_time_in_millis";
         static final String TOTAL_DOCS = "total_docs";
         static final String TOTAL_SIZE = "total_size";
         static final String TOTAL_SIZE_IN_BYTES = "total_size_in_bytes";
@@ -236,6 +312,12 @@ public class MergeStats implements Streamable, ToXContentFragment {
         totalStoppedTimeInMillis = in.readVLong();
         totalThrottledTimeInMillis = in.readVLong();
         totalBytesPerSecAutoThrottle = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_6_7_0)) {
+            currentQueued = in.readVLong();
+            currentQueuedSizeInBytes = in.readVLong();
+            totalQueuedTimeInMillis = in.readVLong();
+            totalThrottledMergesSizeInBytes = in.readVLong();
+        }
     }
 
     @Override
@@ -251,5 +333,11 @@ public class MergeStats implements Streamable, ToXContentFragment {
         out.writeVLong(totalStoppedTimeInMillis);
         out.writeVLong(totalThrottledTimeInMillis);
         out.writeVLong(totalBytesPerSecAutoThrottle);
+        if (out.getVersion().onOrAfter(Version.V_6_7_0)) {
+            out.writeVLong(currentQueued);
+            out.writeVLong(currentQueuedSizeInBytes);
+            out.writeVLong(totalQueuedTimeInMillis);
+            out.writeVLong(totalThrottledMergesSizeInBytes);
+        }
     }
 }
@@ -34,6 +34,8 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
@@ -61,8 +63,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -132,6 +134,9 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     private final LongSupplier primaryTermSupplier;
     private final String translogUUID;
     private final TranslogDeletionPolicy deletionPolicy;
+    // fsyncs performed by this translog and the time they took; concurrent sync requests are grouped into a single fsync
+    private final MeanMetric syncMetric = new MeanMetric();
+    private final CounterMetric syncedLocations = new CounterMetric();
 
     /**
      * Creates a new Translog instance. This method will create a new transaction log unless the given {@link TranslogGeneration} is
@@ -724,7 +729,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     public void sync() throws IOException {
         try (ReleasableLock lock = readLock.acquire()) {
             if (closed.get() == false) {
-                current.sync();
+                timedSyncUpTo(Long.MAX_VALUE);
             }
         } catch (final Exception ex) {
             closeOnTragicEvent(ex);
@@ -793,10 +798,19 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
      * @return Returns <code>true</code> iff this call caused an actual sync operation otherwise <code>false</code>
      */
     public boolean ensureSynced(Location location) throws IOException {
+        return ensureSynced(location, 1);
+    }
+
+    private boolean ensureSynced(Location location, int numLocations) throws IOException {
         try (ReleasableLock lock = readLock.acquire()) {
             if (location.generation == current.getGeneration()) { // if we have a new one it's already synced
                 ensureOpen();
-                return current.syncUpTo(location.translogLocation + location.size);
+                final boolean synced = timedSyncUpTo(location.translogLocation + location.size);
+                if (synced) {
+                    // only count the locations that were made durable by this fsync, already synced ones don't belong to the group
+                    syncedLocations.inc(numLocations);
+                }
+                return synced;
             }
         } catch (final Exception ex) {
             closeOnTragicEvent(ex);
@@ -805,6 +819,19 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         return false;
     }
 
+    /**
+     * Syncs the current writer up to the given offset and records the time taken if this call caused an actual fsync.
+     * Must be called under the read lock.
+     */
+    private boolean timedSyncUpTo(long offset) throws IOException {
+        final long startTime = System.nanoTime();
+        final boolean synced = current.syncUpTo(offset);
+        if (synced) {
+            syncMetric.inc(System.nanoTime() - startTime);
+        }
+        return synced;
+    }
+
     /**
      * Ensures that all locations in the given stream have been synced / written to the underlying storage.
      * This method allows for internal optimization to minimize the amount of fsync operations if multiple
@@ -813,11 +840,18 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
      * @return Returns <code>true</code> iff this call caused an actual sync operation otherwise <code>false</code>
      */
     public boolean ensureSynced(Stream<Location> locations) throws IOException {
-        final Optional<Location> max = locations.max(Location::compareTo);
+        Location max = null;
+        int numLocations = 0;
+        for (Iterator<Location> iterator = locations.iterator(); iterator.hasNext(); numLocations++) {
+            final Location location = iterator.next();
+            if (max == null || location.compareTo(max) > 0) {
+                max = location;
+            }
+        }
         // we only need to sync the max location since it will sync all other
         // locations implicitly
-        if (max.isPresent()) {
-            return ensureSynced(max.get());
+        if (max != null) {
+            return ensureSynced(max, numLocations);
         } else {
             return false;
         }
@@ -858,7 +892,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         try (ReleasableLock lock = readLock.acquire()) {
             final long uncommittedGen = deletionPolicy.getTranslogGenerationOfLastCommit();
             return new TranslogStats(totalOperations(), sizeInBytes(), totalOperationsByMinGen(uncommittedGen),
-                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge());
+                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge(), syncMetric.count(),
+                TimeUnit.NANOSECONDS.toMillis(syncMetric.sum()), syncedLocations.count());
         }
     }
 
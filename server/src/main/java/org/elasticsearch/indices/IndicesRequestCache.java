@@ -25,6 +25,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -33,6 +34,8 @@ import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.cache.CacheLoader;
 import org.elasticsearch.common.cache.RemovalListener;
 import org.elasticsearch.common.cache.RemovalNotification;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -48,6 +51,7 @@ import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -73,6 +77,21 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
      */
     public static final Setting<Boolean> INDEX_CACHE_REQUEST_ENABLED_SETTING =
         Setting.boolSetting("index.requests.cache.enable", true, Property.Dynamic, Property.IndexScope);
+    /**
+     * Whether requests with {@code size > 0} are cached when the request does not set {@code request_cache} explicitly. The
+     * cached shard result holds the top docs (doc ids, scores and sort values) but not the fetched hits, so the fetch phase
+     * still runs on every request. The top docs of queries sorted by field values don't depend on shard-wide statistics, so
+     * they are cached per segment and merged, and a refresh only recomputes the segments that changed. Top docs sorted by score
+     * are keyed on the reader of the shard like all other entries, so they are invalidated by any refresh that changes the shard.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_TOP_DOCS_SETTING =
+        Setting.boolSetting("index.requests.cache.top_docs", false, Property.Dynamic, Property.IndexScope);
+    /**
+     * Whether size=0 requests are cached per segment, so that a refresh only recomputes the segments that changed. Only requests
+     * whose results can be computed segment by segment and merged back together are cached this way.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_PER_SEGMENT_SETTING =
+        Setting.boolSetting("index.requests.cache.per_segment", false, Property.Dynamic, Property.IndexScope);
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE =
         Setting.memorySizeSetting("indices.requests.cache.size", "1%", Property.NodeScope);
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE =
@@ -114,17 +133,35 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
     BytesReference getOrCompute(CacheEntity cacheEntity, Supplier<BytesReference> loader,
             DirectoryReader reader, BytesReference cacheKey) throws Exception {
         assert reader.getReaderCacheHelper() != null;
-        final Key key =  new Key(cacheEntity, reader.getReaderCacheHelper().getKey(), cacheKey);
+        return getOrCompute(cacheEntity, loader, reader.getReaderCacheHelper().getKey(), cacheKey,
+            cleanupKey -> ElasticsearchDirectoryReader.addReaderCloseListener(reader, cleanupKey));
+    }
+
+    /**
+     * Same as {@link #getOrCompute(CacheEntity, Supplier, DirectoryReader, BytesReference)} for a result that was computed on a
+     * single segment. The entry outlives refreshes that leave the segment and its deletes untouched, and is cleaned up once the
+     * segment reader is closed.
+     */
+    BytesReference getOrCompute(CacheEntity cacheEntity, Supplier<BytesReference> loader,
+            LeafReader reader, BytesReference cacheKey) throws Exception {
+        final IndexReader.CacheHelper cacheHelper = reader.getReaderCacheHelper();
+        assert cacheHelper != null;
+        return getOrCompute(cacheEntity, loader, cacheHelper.getKey(), cacheKey, cacheHelper::addClosedListener);
+    }
+
+    private BytesReference getOrCompute(CacheEntity cacheEntity, Supplier<BytesReference> loader, IndexReader.CacheKey readerCacheKey,
+            BytesReference cacheKey, Consumer<CleanupKey> closeListenerRegistration) throws Exception {
+        final Key key =  new Key(cacheEntity, readerCacheKey, cacheKey);
         Loader cacheLoader = new Loader(cacheEntity, loader);
         BytesReference value = cache.computeIfAbsent(key, cacheLoader);
         if (cacheLoader.isLoaded()) {
             key.entity.onMiss();
             // see if its the first time we see this reader, and make sure to register a cleanup key
-            CleanupKey cleanupKey = new CleanupKey(cacheEntity, reader.getReaderCacheHelper().getKey());
+            CleanupKey cleanupKey = new CleanupKey(cacheEntity, readerCacheKey);
             if (!registeredClosedListeners.containsKey(cleanupKey)) {
                 Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
                 if (previous == null) {
-                    ElasticsearchDirectoryReader.addReaderCloseListener(reader, cleanupKey);
+                    closeListenerRegistration.accept(cleanupKey);
                 }
             }
         } else {
@@ -133,6 +170,28 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         return value;
     }
 
+    /**
+     * Creates a cache loader that serializes whatever the given writer writes into the cache entry.
+     */
+    static Supplier<BytesReference> serializingLoader(Consumer<StreamOutput> writer) {
+        return () -> {
+            /* BytesStreamOutput allows to pass the expected size but by default uses
+             * BigArrays.PAGE_SIZE_IN_BYTES which is 16k. A common cached result ie.
+             * a date histogram with 3 buckets is ~100byte so 16k might be very wasteful
+             * since we don't shrink to the actual size once we are done serializing.
+             * By passing 512 as the expected size we will resize the byte array in the stream
+             * slowly until we hit the page size and don't waste too much memory for small query
+             * results.*/
+            final int expectedSizeInBytes = 512;
+            try (BytesStreamOutput out = new BytesStreamOutput(expectedSizeInBytes)) {
+                writer.accept(out);
+                // for now, keep the paged data structure, which might have unused bytes to fill a page, but better to keep
+                // the memory properly paged instead of having varied sized bytes
+                return out.bytes();
+            }
+        };
+    }
+
     /**
      * Invalidates the given the cache entry for the given key and it's context
      * @param cacheEntity the cache entity to invalidate for
@@ -144,6 +203,14 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         cache.invalidate(new Key(cacheEntity, reader.getReaderCacheHelper().getKey(), cacheKey));
     }
 
+    /**
+     * Invalidates the cache entry that was computed on a single segment for the given key.
+     */
+    void invalidate(CacheEntity cacheEntity, LeafReader reader, BytesReference cacheKey) {
+        assert reader.getReaderCacheHelper() != null;
+        cache.invalidate(new Key(cacheEntity, reader.getReaderCacheHelper().getKey(), cacheKey));
+    }
+
     private static class Loader implements CacheLoader<Key, BytesReference> {
 
         private final CacheEntity entity;
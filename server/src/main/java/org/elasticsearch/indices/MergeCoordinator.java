@@ -0,0 +1,348 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.Constants;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.monitor.fs.FsInfo;
+import org.elasticsearch.monitor.fs.FsProbe;
+import org.elasticsearch.threadpool.Scheduler.Cancellable;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPool.Names;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Shares a budget of concurrently running merges between all shards that are allocated on the same data path of this node. Every
+ * shard has its own merge scheduler, so without a shared budget the number of concurrent merges on a disk grows with the number of
+ * shards on it. Merges that exceed the budget wait for a running merge to finish, small merges of shards that are actively indexing
+ * first, unless a merge waited longer than {@code indices.merge.coordinator.max_queued_time}. The budget of a data path shrinks while
+ * its device writes more than {@code indices.merge.coordinator.max_disk_write_rate} according to {@link FsProbe}, and grows back
+ * otherwise.
+ */
+public class MergeCoordinator implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(MergeCoordinator.class);
+
+    /** Whether merges of all shards on a data path share a budget (default: false). */
+    public static final Setting<Boolean> MERGE_COORDINATOR_ENABLED_SETTING =
+        Setting.boolSetting("indices.merge.coordinator.enabled", false, Property.NodeScope);
+
+    /** How many merges may run concurrently on a data path (default: half the number of processors, between 1 and 4). */
+    public static final Setting<Integer> MAX_CONCURRENT_MERGES_SETTING = new Setting<>("indices.merge.coordinator.max_concurrent_merges",
+        (s) -> Integer.toString(Math.max(1, Math.min(4, EsExecutors.numberOfProcessors(s) / 2))),
+        (s) -> Setting.parseInt(s, 1, "indices.merge.coordinator.max_concurrent_merges"), Property.NodeScope);
+
+    /** The write rate of a device above which the merge budget of its data paths shrinks (default: not set, the budget is fixed). */
+    public static final Setting<ByteSizeValue> MAX_DISK_WRITE_RATE_SETTING =
+        Setting.byteSizeSetting("indices.merge.coordinator.max_disk_write_rate", new ByteSizeValue(0), Property.NodeScope);
+
+    /** How long a merge may wait before it goes ahead of merges with a higher priority (default: 1 minute). */
+    public static final Setting<TimeValue> MAX_QUEUED_TIME_SETTING =
+        Setting.positiveTimeSetting("indices.merge.coordinator.max_queued_time", TimeValue.timeValueMinutes(1), Property.NodeScope);
+
+    /** How frequently we check the disk write rates (default: 5 seconds). */
+    public static final Setting<TimeValue> INTERVAL_SETTING =
+        Setting.positiveTimeSetting("indices.merge.coordinator.interval", TimeValue.timeValueSeconds(5), Property.NodeScope);
+
+    private final boolean enabled;
+    private final int maxConcurrentMerges;
+    private final long maxDiskWriteBytesPerSec;
+    private final TimeValue maxQueuedTime;
+    private final NodeEnvironment nodeEnv;
+    private final ConcurrentMap<Path, DataPathBudget> budgets = ConcurrentCollections.newConcurrentMap();
+    private final FsProbe fsProbe;
+    private final Cancellable scheduler;
+    private FsInfo previousFsInfo;
+
+    MergeCoordinator(Settings settings, ThreadPool threadPool, NodeEnvironment nodeEnv) {
+        this.enabled = MERGE_COORDINATOR_ENABLED_SETTING.get(settings);
+        this.maxConcurrentMerges = MAX_CONCURRENT_MERGES_SETTING.get(settings);
+        this.maxDiskWriteBytesPerSec = MAX_DISK_WRITE_RATE_SETTING.get(settings).getBytes();
+        this.maxQueuedTime = MAX_QUEUED_TIME_SETTING.get(settings);
+        this.nodeEnv = nodeEnv;
+        if (enabled && maxDiskWriteBytesPerSec > 0 && Constants.LINUX && nodeEnv.hasNodeFile()) {
+            this.fsProbe = new FsProbe(nodeEnv);
+            // the probe also queries the file stores of the data paths, which blocks on a hung mount
+            this.scheduler = threadPool.scheduleWithFixedDelay(this::adjustBudgets, INTERVAL_SETTING.get(settings), Names.GENERIC);
+        } else {
+            this.fsProbe = null;
+            this.scheduler = null;
+        }
+        logger.debug("merge coordination enabled [{}], {} [{}], {} [{}], {} [{}]", enabled,
+            MAX_CONCURRENT_MERGES_SETTING.getKey(), maxConcurrentMerges, MAX_DISK_WRITE_RATE_SETTING.getKey(),
+            MAX_DISK_WRITE_RATE_SETTING.get(settings), MAX_QUEUED_TIME_SETTING.getKey(), maxQueuedTime);
+    }
+
+    /**
+     * Returns the merge budget of the given data path, or {@code null} if merges are not coordinated.
+     */
+    public DataPathBudget budget(Path dataPath) {
+        if (enabled == false) {
+            return null;
+        }
+        return budgets.computeIfAbsent(dataPath, path -> {
+            int majorDeviceNumber = -1;
+            int minorDeviceNumber = -1;
+            if (nodeEnv.hasNodeFile()) {
+                for (NodeEnvironment.NodePath nodePath : nodeEnv.nodePaths()) {
+                    if (nodePath.path.equals(path)) {
+                        majorDeviceNumber = nodePath.majorDeviceNumber;
+                        minorDeviceNumber = nodePath.minorDeviceNumber;
+                    }
+                }
+            }
+            return new DataPathBudget(path, majorDeviceNumber, minorDeviceNumber, maxConcurrentMerges, maxQueuedTime, System::nanoTime);
+        });
+    }
+
+    private void adjustBudgets() {
+        try {
+            final FsInfo fsInfo = fsProbe.stats(previousFsInfo, null);
+            final FsInfo previous = previousFsInfo;
+            previousFsInfo = fsInfo;
+            if (previous == null || fsInfo.getIoStats() == null || fsInfo.getTimestamp() <= previous.getTimestamp()) {
+                return;
+            }
+            final long elapsedMillis = fsInfo.getTimestamp() - previous.getTimestamp();
+            for (DataPathBudget budget : budgets.values()) {
+                for (FsInfo.DeviceStats deviceStats : fsInfo.getIoStats().getDevicesStats()) {
+                    if (deviceStats.getMajorDeviceNumber() == budget.majorDeviceNumber
+                        && deviceStats.getMinorDeviceNumber() == budget.minorDeviceNumber) {
+                        budget.adjust(deviceStats.writeKilobytes() * 1024 * 1000 / elapsedMillis, maxDiskWriteBytesPerSec);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("failed to adjust merge budgets", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.cancel();
+        }
+    }
+
+    /**
+     * The merges that may run concurrently on a data path. Merges that exceed the budget are queued until a running merge finishes.
+     * Merges of shards that are actively indexing go first, and smaller merges go before larger ones. So that large merges are not
+     * starved by a steady stream of smaller ones, a merge that has been queued for longer than the maximum queued time goes first,
+     * oldest first. Whenever a slot frees up, it is handed to the merge that goes next and only that merge is woken up.
+     */
+    public static final class DataPathBudget {
+
+        private static final Comparator<QueuedMerge> QUEUE_ORDER =
+            Comparator.comparing((QueuedMerge merge) -> merge.activelyIndexing == false)
+                .thenComparingLong(merge -> merge.sizeInBytes)
+                .thenComparingLong(merge -> merge.order);
+
+        /** How often a queued merge checks whether it was aborted, there is no notification for that. */
+        private static final TimeValue ABORTED_CHECK_INTERVAL = TimeValue.timeValueSeconds(1);
+
+        private final Path path;
+        private final int majorDeviceNumber;
+        private final int minorDeviceNumber;
+        private final int maxConcurrentMerges;
+        private final long maxQueuedNanos;
+        private final LongSupplier relativeNanos;
+        private final ReentrantLock lock = new ReentrantLock();
+        // queued merges in the order they go next, and in the order they were queued
+        private final NavigableSet<QueuedMerge> queue = new TreeSet<>(QUEUE_ORDER);
+        private final Set<QueuedMerge> queuedInOrder = new LinkedHashSet<>();
+        private int concurrentMerges;
+        private int runningMerges;
+        private long order;
+
+        DataPathBudget(Path path, int majorDeviceNumber, int minorDeviceNumber, int maxConcurrentMerges, TimeValue maxQueuedTime,
+                       LongSupplier relativeNanos) {
+            this.path = path;
+            this.majorDeviceNumber = majorDeviceNumber;
+            this.minorDeviceNumber = minorDeviceNumber;
+            this.maxConcurrentMerges = maxConcurrentMerges;
+            this.maxQueuedNanos = maxQueuedTime.nanos();
+            this.relativeNanos = relativeNanos;
+            this.concurrentMerges = maxConcurrentMerges;
+        }
+
+        /**
+         * Blocks until the merge of the given size may run, or until it was aborted. The returned releasable must be closed once the
+         * merge finished.
+         */
+        public Releasable acquire(long sizeInBytes, boolean activelyIndexing, BooleanSupplier aborted) throws InterruptedException {
+            lock.lock();
+            try {
+                if (queue.isEmpty() && runningMerges < concurrentMerges) {
+                    runningMerges++;
+                    return this::release;
+                }
+                final QueuedMerge merge = new QueuedMerge(sizeInBytes, activelyIndexing, order++, relativeNanos.getAsLong(),
+                    lock.newCondition());
+                queue.add(merge);
+                queuedInOrder.add(merge);
+                try {
+                    while (merge.admitted == false) {
+                        if (aborted.getAsBoolean()) {
+                            // an aborted merge returns right away, there is no need to hold back other merges for it
+                            dequeue(merge);
+                            return () -> {};
+                        }
+                        merge.admission.await(ABORTED_CHECK_INTERVAL.millis(), TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    if (merge.admitted) {
+                        // the slot was handed to us already, pass it on
+                        release();
+                    } else {
+                        dequeue(merge);
+                    }
+                    throw e;
+                }
+                return this::release;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void dequeue(QueuedMerge merge) {
+            assert lock.isHeldByCurrentThread();
+            queue.remove(merge);
+            queuedInOrder.remove(merge);
+        }
+
+        /**
+         * Hands the free slots of the budget to the merges that go next: the oldest merge if it has been queued for too long, the head
+         * of the queue otherwise.
+         */
+        private void admitQueuedMerges() {
+            assert lock.isHeldByCurrentThread();
+            while (runningMerges < concurrentMerges && queue.isEmpty() == false) {
+                final QueuedMerge oldest = queuedInOrder.iterator().next();
+                final QueuedMerge next = relativeNanos.getAsLong() - oldest.queuedNanos >= maxQueuedNanos ? oldest : queue.first();
+                dequeue(next);
+                next.admitted = true;
+                runningMerges++;
+                next.admission.signal();
+            }
+        }
+
+        private void release() {
+            lock.lock();
+            try {
+                assert runningMerges > 0 : "no merge is running on [" + path + "]";
+                runningMerges--;
+                admitQueuedMerges();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Halves the budget if the device of this data path writes at least the given maximum rate, and grows it by one merge
+         * otherwise.
+         */
+        void adjust(long writeBytesPerSec, long maxWriteBytesPerSec) {
+            lock.lock();
+            try {
+                final int previous = concurrentMerges;
+                if (writeBytesPerSec >= maxWriteBytesPerSec) {
+                    concurrentMerges = Math.max(1, concurrentMerges / 2);
+                } else {
+                    concurrentMerges = Math.min(maxConcurrentMerges, concurrentMerges + 1);
+                }
+                if (concurrentMerges != previous) {
+                    logger.debug("adjusted merge budget of [{}] from [{}] to [{}] concurrent merges, device writes [{}/s]", path,
+                        previous, concurrentMerges, new ByteSizeValue(writeBytesPerSec));
+                    admitQueuedMerges();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getConcurrentMerges() {
+            lock.lock();
+            try {
+                return concurrentMerges;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getRunningMerges() {
+            lock.lock();
+            try {
+                return runningMerges;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getQueuedMerges() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class QueuedMerge {
+        private final long sizeInBytes;
+        private final boolean activelyIndexing;
+        private final long order;
+        private final long queuedNanos;
+        // signalled once the merge was admitted
+        private final Condition admission;
+        private boolean admitted;
+
+        QueuedMerge(long sizeInBytes, boolean activelyIndexing, long order, long queuedNanos, Condition admission) {
+            this.sizeInBytes = sizeInBytes;
+            this.activelyIndexing = activelyIndexing;
+            this.order = order;
+            this.queuedNanos = queuedNanos;
+            this.admission = admission;
+        }
+    }
+}
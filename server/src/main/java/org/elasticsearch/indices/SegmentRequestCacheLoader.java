@@ -0,0 +1,247 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.SearchContextAggregations;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.search.query.QueryPhase;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.GeoDistanceSortBuilder;
+import org.elasticsearch.search.sort.SortBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loads the result of a request from the {@link IndicesRequestCache} segment by segment instead of for the whole shard, so that
+ * segments that survive a refresh keep their cache entries and only new segments, or segments with new deletes, are searched
+ * again. The per-segment results are reduced into the shard result, and the per-segment top docs of field-sorted requests are
+ * merged into the top docs of the shard.
+ */
+final class SegmentRequestCacheLoader {
+
+    private final IndicesRequestCache requestCache;
+    private final NamedWriteableRegistry namedWriteableRegistry;
+    private final BigArrays bigArrays;
+    private final ScriptService scriptService;
+
+    SegmentRequestCacheLoader(IndicesRequestCache requestCache, NamedWriteableRegistry namedWriteableRegistry,
+                              BigArrays bigArrays, ScriptService scriptService) {
+        this.requestCache = requestCache;
+        this.namedWriteableRegistry = namedWriteableRegistry;
+        this.bigArrays = bigArrays;
+        this.scriptService = scriptService;
+    }
+
+    /**
+     * Can the shard request, which must be cacheable, be cached segment by segment? This is only the case if all its aggregations
+     * {@link AggregationBuilder#canReducePerSegment() can be reduced} from their per-segment results, and if the request either
+     * doesn't return hits or returns hits that are sorted by field, since the top docs of a shard are then the merge of the top
+     * docs of its segments.
+     */
+    static boolean canCache(ShardSearchRequest request, SearchContext context) {
+        final IndexSettings indexSettings = context.indexShard().indexSettings();
+        if (context.size() == 0) {
+            if (indexSettings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_PER_SEGMENT_SETTING) == false) {
+                return false;
+            }
+        } else if (indexSettings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_TOP_DOCS_SETTING) == false
+                || canMergeTopDocs(request, context) == false) {
+            return false;
+        }
+        if (context.minimumScore() != null
+                || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+                || context.suggest() != null
+                || context.getProfilers() != null
+                || context.collapse() != null
+                || context.rescore().isEmpty() == false) {
+            return false;
+        }
+        if (request.source() != null && request.source().aggregations() != null
+                && canReducePerSegment(request.source().aggregations().getAggregatorFactories()) == false) {
+            return false;
+        }
+        final List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+        if (leaves.isEmpty()) {
+            return false;
+        }
+        for (LeafReaderContext leaf : leaves) {
+            // the segment reader cache key is part of the cache key, wrapped readers might not expose one
+            if (leaf.reader().getReaderCacheHelper() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scores depend on shard-wide statistics, and doc ids and search_after tie breakers on the position of the segment in the
+     * shard, so only top docs that are sorted by the values of fields can be merged from the top docs of each segment.
+     */
+    private static boolean canMergeTopDocs(ShardSearchRequest request, SearchContext context) {
+        if (context.sort() == null || context.trackScores() || context.searchAfter() != null
+                || request.source() == null || request.source().sorts() == null) {
+            return false;
+        }
+        for (SortBuilder<?> sort : request.source().sorts()) {
+            if (sort instanceof FieldSortBuilder) {
+                if (FieldSortBuilder.DOC_FIELD_NAME.equals(((FieldSortBuilder) sort).getFieldName())) {
+                    return false;
+                }
+            } else if (sort instanceof GeoDistanceSortBuilder == false) {
+                // script sorts might access the score
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canReducePerSegment(Collection<AggregationBuilder> aggregations) {
+        for (AggregationBuilder aggregation : aggregations) {
+            if (aggregation.canReducePerSegment() == false || canReducePerSegment(aggregation.getSubAggregations()) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads the result of each segment from the cache, computing it if needed by executing the query phase on that segment
+     * only, and reduces them into the {@link SearchContext#queryResult() context's query result}.
+     */
+    void loadIntoContext(IndicesRequestCache.CacheEntity cacheEntity, ShardSearchRequest request, SearchContext context,
+                         QueryPhase queryPhase) throws Exception {
+        final ContextIndexSearcher searcher = context.searcher();
+        // the aggregation phase unsets the aggregations once it ran
+        final SearchContextAggregations aggregations = context.aggregations();
+        final List<QuerySearchResult> results = new ArrayList<>();
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            boolean[] loadedFromCache = new boolean[] { true };
+            BytesReference bytesReference = requestCache.getOrCompute(cacheEntity, IndicesRequestCache.serializingLoader(out -> {
+                context.aggregations(aggregations);
+                context.queryResult().aggregations(null);
+                searcher.setRestrictedLeaf(leaf);
+                try {
+                    queryPhase.execute(context);
+                } finally {
+                    searcher.setRestrictedLeaf(null);
+                }
+                // cached doc ids are relative to the segment, whose position in the shard changes when other segments are merged
+                shiftDocIds(context.queryResult(), -leaf.docBase);
+                try {
+                    context.queryResult().writeToNoId(out);
+                } catch (IOException e) {
+                    throw new AssertionError("Could not serialize response", e);
+                }
+                loadedFromCache[0] = false;
+            }), leaf.reader(), request.cacheKey());
+            final QuerySearchResult result = new QuerySearchResult();
+            StreamInput in = new NamedWriteableAwareStreamInput(bytesReference.streamInput(), namedWriteableRegistry);
+            result.readFromWithId(context.id(), in);
+            shiftDocIds(result, leaf.docBase);
+            if (loadedFromCache[0] == false && result.searchTimedOut()) {
+                // see IndicesService#loadIntoContext, only the segment that timed out is invalidated
+                requestCache.invalidate(cacheEntity, leaf.reader(), request.cacheKey());
+            }
+            results.add(result);
+        }
+        reduce(results, context);
+    }
+
+    private static void shiftDocIds(QuerySearchResult result, int delta) {
+        if (result.hasConsumedTopDocs() == false) {
+            for (ScoreDoc scoreDoc : result.topDocs().scoreDocs) {
+                scoreDoc.doc += delta;
+            }
+        }
+    }
+
+    private void reduce(List<QuerySearchResult> results, SearchContext context) {
+        long totalHits = 0;
+        float maxScore = Float.NaN;
+        boolean timedOut = false;
+        Boolean terminatedEarly = null;
+        final List<InternalAggregations> aggregationsList = new ArrayList<>(results.size());
+        final TopFieldDocs[] segmentTopDocs = context.size() == 0 ? null : new TopFieldDocs[results.size()];
+        for (int i = 0; i < results.size(); i++) {
+            final QuerySearchResult result = results.get(i);
+            if (totalHits != -1) {
+                totalHits = result.getTotalHits() == -1 ? -1 : totalHits + result.getTotalHits();
+            }
+            if (Float.isNaN(result.getMaxScore()) == false) {
+                maxScore = Float.isNaN(maxScore) ? result.getMaxScore() : Math.max(maxScore, result.getMaxScore());
+            }
+            timedOut |= result.searchTimedOut();
+            if (result.terminatedEarly() != null) {
+                terminatedEarly = result.terminatedEarly() || Boolean.TRUE.equals(terminatedEarly);
+            }
+            if (result.hasAggs()) {
+                aggregationsList.add((InternalAggregations) result.consumeAggs());
+            }
+            if (segmentTopDocs != null) {
+                final TopDocs topDocs = result.consumeTopDocs();
+                segmentTopDocs[i] = topDocs instanceof TopFieldDocs ? (TopFieldDocs) topDocs
+                    : new TopFieldDocs(topDocs.totalHits, topDocs.scoreDocs, context.sort().sort.getSort(), topDocs.getMaxScore());
+            }
+        }
+        final TopDocs topDocs;
+        if (segmentTopDocs == null) {
+            topDocs = new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS, maxScore);
+        } else {
+            // ties are broken by segment and then by position in the segment, which is the doc id order of a shard-level search
+            final TopFieldDocs merged = TopDocs.merge(context.sort().sort, 0, context.from() + context.size(), segmentTopDocs, true);
+            for (ScoreDoc scoreDoc : merged.scoreDocs) {
+                scoreDoc.shardIndex = -1;
+            }
+            topDocs = new TopFieldDocs(totalHits, merged.scoreDocs, merged.fields, maxScore);
+        }
+        final QuerySearchResult queryResult = context.queryResult();
+        queryResult.from(context.from());
+        queryResult.size(context.size());
+        queryResult.topDocs(topDocs, results.get(0).sortValueFormats());
+        queryResult.aggregations(InternalAggregations.reduce(aggregationsList, new ReduceContext(bigArrays, scriptService, false)));
+        queryResult.pipelineAggregators(results.get(0).pipelineAggregators());
+        queryResult.searchTimedOut(timedOut);
+        if (terminatedEarly != null) {
+            queryResult.terminatedEarly(terminatedEarly);
+        }
+        queryResult.setSearchShardTarget(context.shardTarget());
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.store.LockObtainFailedException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
@@ -48,6 +49,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.env.ShardLockObtainFailedException;
 import org.elasticsearch.gateway.GatewayService;
 import org.elasticsearch.index.Index;
@@ -78,6 +80,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -85,7 +88,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -122,6 +128,11 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
     private final PrimaryReplicaSyncer primaryReplicaSyncer;
     private final Consumer<ShardId> globalCheckpointSyncer;
 
+    // runs the per-index work of a cluster state update, null if it runs on the applier thread. Note that IndicesService creates
+    // index services one at a time, so only the mapping updates of new indices and the updates of existing ones run in parallel
+    @Nullable
+    private final ExecutorService indicesApplyExecutor;
+
     @Inject
     public IndicesClusterStateService(Settings settings,
                                       IndicesService indicesService,
@@ -177,6 +188,12 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         this.primaryReplicaSyncer = primaryReplicaSyncer;
         this.globalCheckpointSyncer = globalCheckpointSyncer;
         this.sendRefreshMapping = settings.getAsBoolean("indices.cluster.send_refresh_mapping", true);
+        // the per-index work runs on the applier thread unless the pool may run several indices at once
+        if (threadPool.info(ThreadPool.Names.INDICES_CLUSTER_APPLY).getMax() > 1) {
+            this.indicesApplyExecutor = threadPool.executor(ThreadPool.Names.INDICES_CLUSTER_APPLY);
+        } else {
+            this.indicesApplyExecutor = null;
+        }
     }
 
     @Override
@@ -452,7 +469,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             }
         }
 
-        for (Map.Entry<Index, List<ShardRouting>> entry : indicesToCreate.entrySet()) {
+        forEachConcurrently(indicesToCreate.entrySet(), entry -> {
             final Index index = entry.getKey();
             final IndexMetaData indexMetaData = state.metaData().index(index);
             logger.debug("[{}] creating index", index);
@@ -478,7 +495,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                     sendFailShard(shardRouting, failShardReason, e, state);
                 }
             }
-        }
+        });
     }
 
     private void updateIndices(ClusterChangedEvent event) {
@@ -486,34 +503,96 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
             return;
         }
         final ClusterState state = event.state();
+        final List<AllocatedIndex<? extends Shard>> indicesToUpdate = new ArrayList<>();
         for (AllocatedIndex<? extends Shard> indexService : indicesService) {
+            final IndexMetaData currentIndexMetaData = indexService.getIndexSettings().getIndexMetaData();
+            final IndexMetaData newIndexMetaData = state.metaData().index(indexService.index());
+            assert newIndexMetaData != null : "index " + indexService.index() + " should have been removed by deleteIndices";
+            if (ClusterChangedEvent.indexMetaDataChanged(currentIndexMetaData, newIndexMetaData)) {
+                indicesToUpdate.add(indexService);
+            }
+        }
+        forEachConcurrently(indicesToUpdate, indexService -> {
             final Index index = indexService.index();
             final IndexMetaData currentIndexMetaData = indexService.getIndexSettings().getIndexMetaData();
             final IndexMetaData newIndexMetaData = state.metaData().index(index);
-            assert newIndexMetaData != null : "index " + index + " should have been removed by deleteIndices";
-            if (ClusterChangedEvent.indexMetaDataChanged(currentIndexMetaData, newIndexMetaData)) {
-                indexService.updateMetaData(currentIndexMetaData, newIndexMetaData);
-                try {
-                    if (indexService.updateMapping(currentIndexMetaData, newIndexMetaData) && sendRefreshMapping) {
-                        nodeMappingRefreshAction.nodeMappingRefresh(state.nodes().getMasterNode(),
-                            new NodeMappingRefreshAction.NodeMappingRefreshRequest(newIndexMetaData.getIndex().getName(),
-                                newIndexMetaData.getIndexUUID(), state.nodes().getLocalNodeId())
-                        );
-                    }
-                } catch (Exception e) {
-                    indicesService.removeIndex(indexService.index(), FAILURE, "removing index (mapping update failed)");
-
-                    // fail shards that would be created or updated by createOrUpdateShards
-                    RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
-                    if (localRoutingNode != null) {
-                        for (final ShardRouting shardRouting : localRoutingNode) {
-                            if (shardRouting.index().equals(index) && failedShardsCache.containsKey(shardRouting.shardId()) == false) {
-                                sendFailShard(shardRouting, "failed to update mapping for index", e, state);
-                            }
+            indexService.updateMetaData(currentIndexMetaData, newIndexMetaData);
+            try {
+                if (indexService.updateMapping(currentIndexMetaData, newIndexMetaData) && sendRefreshMapping) {
+                    nodeMappingRefreshAction.nodeMappingRefresh(state.nodes().getMasterNode(),
+                        new NodeMappingRefreshAction.NodeMappingRefreshRequest(newIndexMetaData.getIndex().getName(),
+                            newIndexMetaData.getIndexUUID(), state.nodes().getLocalNodeId())
+                    );
+                }
+            } catch (Exception e) {
+                indicesService.removeIndex(indexService.index(), FAILURE, "removing index (mapping update failed)");
+
+                // fail shards that would be created or updated by createOrUpdateShards
+                RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
+                if (localRoutingNode != null) {
+                    for (final ShardRouting shardRouting : localRoutingNode) {
+                        if (shardRouting.index().equals(index) && failedShardsCache.containsKey(shardRouting.shardId()) == false) {
+                            sendFailShard(shardRouting, "failed to update mapping for index", e, state);
                         }
                     }
                 }
             }
+        });
+    }
+
+    /**
+     * Runs the given consumer for each of the given items on the indices apply executor and waits for all of them to complete, or
+     * runs them one by one on the calling thread if no concurrency is configured. Failures are rethrown once every item is processed.
+     */
+    private <T> void forEachConcurrently(final Collection<T> items, final Consumer<T> consumer) {
+        if (indicesApplyExecutor == null || items.size() <= 1) {
+            items.forEach(consumer);
+            return;
+        }
+        final CountDownLatch latch = new CountDownLatch(items.size());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Consumer<Exception> onFailure = e -> {
+            if (failure.compareAndSet(null, e) == false) {
+                failure.get().addSuppressed(e);
+            }
+        };
+        for (T item : items) {
+            try {
+                indicesApplyExecutor.execute(new AbstractRunnable() {
+                    @Override
+                    public void onFailure(Exception e) {
+                        onFailure.accept(e);
+                    }
+
+                    @Override
+                    protected void doRun() {
+                        consumer.accept(item);
+                    }
+
+                    @Override
+                    public void onAfter() {
+                        latch.countDown();
+                    }
+                });
+            } catch (EsRejectedExecutionException e) {
+                onFailure.accept(e);
+                latch.countDown();
+            }
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw ExceptionsHelper.convertToRuntime(failure.get());
         }
     }
 
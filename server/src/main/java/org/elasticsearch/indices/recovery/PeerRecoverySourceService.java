@@ -22,6 +22,7 @@ package org.elasticsearch.indices.recovery;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
@@ -178,7 +179,12 @@ public class PeerRecoverySourceService implements IndexEventListener {
                 final RemoteRecoveryTargetHandler recoveryTarget =
                     new RemoteRecoveryTargetHandler(request.recoveryId(), request.shardId(), transportService,
                         request.targetNode(), recoverySettings, throttleTime -> shard.recoveryStats().addThrottleTime(throttleTime));
-                handler = new RecoverySourceHandler(shard, recoveryTarget, request, recoverySettings.getChunkSize().bytesAsInt());
+                // older targets expect the requests of a recovery one at a time, e.g. they write the chunks of a file as they come in
+                final boolean concurrentRequests = request.targetNode().getVersion().onOrAfter(Version.V_6_7_0);
+                final int maxConcurrentFileChunks = concurrentRequests ? recoverySettings.getMaxConcurrentFileChunks() : 1;
+                final int maxConcurrentOperations = concurrentRequests ? recoverySettings.getMaxConcurrentOperations() : 1;
+                handler = new RecoverySourceHandler(shard, recoveryTarget, request, recoverySettings.getChunkSize().bytesAsInt(),
+                    maxConcurrentFileChunks, maxConcurrentOperations);
                 return handler;
             }
         }
@@ -38,6 +38,7 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
     private BytesReference content;
     private StoreFileMetaData metaData;
     private long sourceThrottleTimeInNanos;
+    private long roundTripTimeInNanos = RecoveryState.Index.UNKNOWN;
 
     private int totalTranslogOps;
 
@@ -45,7 +46,7 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
     }
 
     public RecoveryFileChunkRequest(long recoveryId, ShardId shardId, StoreFileMetaData metaData, long position, BytesReference content,
-                                    boolean lastChunk, int totalTranslogOps, long sourceThrottleTimeInNanos) {
+                                    boolean lastChunk, int totalTranslogOps, long sourceThrottleTimeInNanos, long roundTripTimeInNanos) {
         this.recoveryId = recoveryId;
         this.shardId = shardId;
         this.metaData = metaData;
@@ -54,6 +55,7 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         this.lastChunk = lastChunk;
         this.totalTranslogOps = totalTranslogOps;
         this.sourceThrottleTimeInNanos = sourceThrottleTimeInNanos;
+        this.roundTripTimeInNanos = roundTripTimeInNanos;
     }
 
     public long recoveryId() {
@@ -92,6 +94,14 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         return sourceThrottleTimeInNanos;
     }
 
+    /**
+     * The time it took the source node to get the response to the previous file chunk request of the recovery, or
+     * {@link RecoveryState.Index#UNKNOWN} if there was none.
+     */
+    public long roundTripTimeInNanos() {
+        return roundTripTimeInNanos;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -108,6 +118,9 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         lastChunk = in.readBoolean();
         totalTranslogOps = in.readVInt();
         sourceThrottleTimeInNanos = in.readLong();
+        if (in.getVersion().onOrAfter(org.elasticsearch.Version.V_6_7_0)) {
+            roundTripTimeInNanos = in.readLong();
+        }
     }
 
     @Override
@@ -124,6 +137,9 @@ public final class RecoveryFileChunkRequest extends TransportRequest {
         out.writeBoolean(lastChunk);
         out.writeVInt(totalTranslogOps);
         out.writeLong(sourceThrottleTimeInNanos);
+        if (out.getVersion().onOrAfter(org.elasticsearch.Version.V_6_7_0)) {
+            out.writeLong(roundTripTimeInNanos);
+        }
     }
 
     @Override
@@ -37,14 +37,16 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.core.internal.io.IOUtils;
-import org.elasticsearch.core.internal.io.Streams;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.RecoveryEngineException;
 import org.elasticsearch.index.seqno.LocalCheckpointTracker;
@@ -59,17 +61,16 @@ import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.RemoteTransportException;
 
-import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.StreamSupport;
 
@@ -93,6 +94,8 @@ public class RecoverySourceHandler {
     // Request containing source and target node information
     private final StartRecoveryRequest request;
     private final int chunkSizeInBytes;
+    private final int maxConcurrentFileChunks;
+    private final int maxConcurrentOperations;
     private final RecoveryTargetHandler recoveryTarget;
 
     protected final RecoveryResponse response;
@@ -115,13 +118,16 @@ public class RecoverySourceHandler {
 
     public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget,
                                  final StartRecoveryRequest request,
-                                 final int fileChunkSizeInBytes) {
+                                 final int fileChunkSizeInBytes, final int maxConcurrentFileChunks,
+                                 final int maxConcurrentOperations) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.request = request;
         this.shardId = this.request.shardId().id();
         this.logger = Loggers.getLogger(getClass(), request.shardId(), "recover to " + request.targetNode().getName());
         this.chunkSizeInBytes = fileChunkSizeInBytes;
+        this.maxConcurrentFileChunks = maxConcurrentFileChunks;
+        this.maxConcurrentOperations = maxConcurrentOperations;
         this.response = new RecoveryResponse();
     }
 
@@ -364,10 +370,7 @@ public class RecoverySourceHandler {
                 cancellableThreads.execute(() ->
                         recoveryTarget.receiveFileInfo(response.phase1FileNames, response.phase1FileSizes, response.phase1ExistingFileNames,
                                 response.phase1ExistingFileSizes, translogOps.get()));
-                // How many bytes we've copied since we last called RateLimiter.pause
-                final Function<StoreFileMetaData, OutputStream> outputStreamFactories =
-                        md -> new BufferedOutputStream(new RecoveryOutputStream(md, translogOps), chunkSizeInBytes);
-                sendFiles(store, phase1Files.toArray(new StoreFileMetaData[phase1Files.size()]), outputStreamFactories);
+                sendFiles(store, phase1Files.toArray(new StoreFileMetaData[phase1Files.size()]), translogOps);
                 // Send the CLEAN_FILES request, which takes all of the files that
                 // were transferred and renames them from their temporary file
                 // names to the actual file names. It also writes checksums for
@@ -555,7 +558,7 @@ public class RecoverySourceHandler {
         int skippedOps = 0;
         int totalSentOps = 0;
         final AtomicLong targetLocalCheckpoint = new AtomicLong(SequenceNumbers.UNASSIGNED_SEQ_NO);
-        final List<Translog.Operation> operations = new ArrayList<>();
+        List<Translog.Operation> operations = new ArrayList<>();
         final LocalCheckpointTracker requiredOpsTracker = new LocalCheckpointTracker(endingSeqNo, requiredSeqNoRangeStart - 1);
 
         final int expectedTotalOps = snapshot.totalOperations();
@@ -563,11 +566,10 @@ public class RecoverySourceHandler {
             logger.trace("no translog operations to send");
         }
 
-        final CancellableThreads.IOInterruptable sendBatch = () -> {
-            final long targetCheckpoint = recoveryTarget.indexTranslogOperations(
-                operations, expectedTotalOps, maxSeenAutoIdTimestamp, maxSeqNoOfUpdatesOrDeletes);
-            targetLocalCheckpoint.set(targetCheckpoint);
-        };
+        // keeps track of the batches that are in flight, see sendBatch
+        final LocalCheckpointTracker requestSeqIdTracker =
+            new LocalCheckpointTracker(SequenceNumbers.NO_OPS_PERFORMED, SequenceNumbers.NO_OPS_PERFORMED);
+        final AtomicReference<Exception> error = new AtomicReference<>();
 
         // send operations in batches
         Translog.Operation operation;
@@ -590,18 +592,23 @@ public class RecoverySourceHandler {
 
             // check if this request is past bytes threshold, and if so, send it off
             if (size >= chunkSizeInBytes) {
-                cancellableThreads.executeIO(sendBatch);
+                sendBatch(operations, expectedTotalOps, maxSeenAutoIdTimestamp, maxSeqNoOfUpdatesOrDeletes, targetLocalCheckpoint,
+                    requestSeqIdTracker, error);
                 logger.trace("sent batch of [{}][{}] (total: [{}]) translog operations", ops, new ByteSizeValue(size), expectedTotalOps);
                 ops = 0;
                 size = 0;
-                operations.clear();
+                operations = new ArrayList<>();
             }
         }
 
         if (!operations.isEmpty() || totalSentOps == 0) {
             // send the leftover operations or if no operations were sent, request the target to respond with its local checkpoint
-            cancellableThreads.executeIO(sendBatch);
+            sendBatch(operations, expectedTotalOps, maxSeenAutoIdTimestamp, maxSeqNoOfUpdatesOrDeletes, targetLocalCheckpoint,
+                requestSeqIdTracker, error);
         }
+        // the local checkpoint of the target is only accurate once all batches have been applied
+        cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqIdTracker.getMaxSeqNo()));
+        rethrowBatchFailure(error);
 
         assert expectedTotalOps == snapshot.skippedOperations() + skippedOps + totalSentOps
             : String.format(Locale.ROOT, "expected total [%d], overridden [%d], skipped [%d], total sent [%d]",
@@ -618,6 +625,57 @@ public class RecoverySourceHandler {
         return new SendSnapshotResult(targetLocalCheckpoint.get(), totalSentOps);
     }
 
+    /**
+     * Sends the given batch of operations to the target. Up to {@link #maxConcurrentOperations} batches are sent without waiting for
+     * the previous ones to be applied, in which case the batch is sent from the generic thread pool. The target may then apply the
+     * operations of different batches concurrently, which is fine as operations on the same document are ordered by sequence number
+     * on the target, just like during replication.
+     */
+    private void sendBatch(List<Translog.Operation> operations, int totalTranslogOps, long maxSeenAutoIdTimestamp,
+                           long maxSeqNoOfUpdatesOrDeletes, AtomicLong targetLocalCheckpoint, LocalCheckpointTracker requestSeqIdTracker,
+                           AtomicReference<Exception> error) throws IOException {
+        // the local checkpoint of the target only advances, but the responses to concurrent batches may arrive in any order
+        final CancellableThreads.IOInterruptable send = () -> targetLocalCheckpoint.accumulateAndGet(
+            recoveryTarget.indexTranslogOperations(operations, totalTranslogOps, maxSeenAutoIdTimestamp, maxSeqNoOfUpdatesOrDeletes),
+            Math::max);
+        final long requestSeqId = requestSeqIdTracker.generateSeqNo();
+        if (maxConcurrentOperations <= 1) {
+            try {
+                cancellableThreads.executeIO(send);
+            } finally {
+                requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+            }
+            return;
+        }
+        cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqId - maxConcurrentOperations));
+        rethrowBatchFailure(error);
+        shard.getThreadPool().generic().execute(new AbstractRunnable() {
+            @Override
+            public void onFailure(Exception e) {
+                error.compareAndSet(null, e);
+            }
+
+            @Override
+            protected void doRun() throws Exception {
+                cancellableThreads.executeIO(send);
+            }
+
+            @Override
+            public void onAfter() {
+                requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+            }
+        });
+    }
+
+    private static void rethrowBatchFailure(AtomicReference<Exception> error) throws IOException {
+        final Exception e = error.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e != null) {
+            throw ExceptionsHelper.convertToRuntime(e);
+        }
+    }
+
     /**
      * Cancels the recovery and interrupts all eligible threads.
      */
@@ -635,75 +693,86 @@ public class RecoverySourceHandler {
     }
 
 
-    final class RecoveryOutputStream extends OutputStream {
-        private final StoreFileMetaData md;
-        private final Supplier<Integer> translogOps;
-        private long position = 0;
-
-        RecoveryOutputStream(StoreFileMetaData md, Supplier<Integer> translogOps) {
-            this.md = md;
-            this.translogOps = translogOps;
-        }
-
-        @Override
-        public void write(int b) throws IOException {
-            throw new UnsupportedOperationException("we can't send single bytes over the wire");
-        }
-
-        @Override
-        public void write(byte[] b, int offset, int length) throws IOException {
-            sendNextChunk(position, new BytesArray(b, offset, length), md.length() == position + length);
-            position += length;
-            assert md.length() >= position : "length: " + md.length() + " but positions was: " + position;
-        }
-
-        private void sendNextChunk(long position, BytesArray content, boolean lastChunk) throws IOException {
-            // Actually send the file chunk to the target node, waiting for it to complete
-            cancellableThreads.executeIO(() ->
-                    recoveryTarget.writeFileChunk(md, position, content, lastChunk, translogOps.get())
-            );
-            if (shard.state() == IndexShardState.CLOSED) { // check if the shard got closed on us
-                throw new IndexShardClosedException(request.shardId());
-            }
-        }
-    }
-
-    void sendFiles(Store store, StoreFileMetaData[] files, Function<StoreFileMetaData, OutputStream> outputStreamFactory) throws Exception {
+    void sendFiles(Store store, StoreFileMetaData[] files, Supplier<Integer> translogOps) throws Exception {
         store.incRef();
         try {
             ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetaData::length)); // send smallest first
-            for (int i = 0; i < files.length; i++) {
-                final StoreFileMetaData md = files[i];
-                try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE)) {
-                    // it's fine that we are only having the indexInput in the try/with block. The copy methods handles
-                    // exceptions during close correctly and doesn't hide the original exception.
-                    Streams.copy(new InputStreamIndexInput(indexInput, md.length()), outputStreamFactory.apply(md));
-                } catch (Exception e) {
-                    final IOException corruptIndexException;
-                    if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(e)) != null) {
-                        if (store.checkIntegrityNoException(md) == false) { // we are corrupted on the primary -- fail!
-                            logger.warn("{} Corrupted file detected {} checksum mismatch", shardId, md);
-                            failEngine(corruptIndexException);
-                            throw corruptIndexException;
-                        } else { // corruption has happened on the way to replica
-                            RemoteTransportException exception = new RemoteTransportException("File corruption occurred on recovery but " +
-                                    "checksums are ok", null);
-                            exception.addSuppressed(e);
-                            logger.warn(() -> new ParameterizedMessage(
-                                    "{} Remote file corruption on node {}, recovering {}. local checksum OK",
-                                    shardId, request.targetNode(), md), corruptIndexException);
-                            throw exception;
+            // keeps track of the file chunk requests that are in flight, chunks are sent without waiting for the responses to
+            // the previous ones as long as there are less than maxConcurrentFileChunks of them
+            final LocalCheckpointTracker requestSeqIdTracker =
+                new LocalCheckpointTracker(SequenceNumbers.NO_OPS_PERFORMED, SequenceNumbers.NO_OPS_PERFORMED);
+            final AtomicReference<Tuple<StoreFileMetaData, Exception>> error = new AtomicReference<>();
+            for (final StoreFileMetaData md : files) {
+                if (error.get() != null) {
+                    break;
+                }
+                try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE);
+                     InputStream in = new InputStreamIndexInput(indexInput, md.length())) {
+                    long position = 0;
+                    int bytesRead;
+                    // every chunk needs its own buffer as it is only released once its request completed
+                    byte[] buffer = new byte[chunkSizeInBytes];
+                    while ((bytesRead = Streams.readFully(in, buffer)) > 0) {
+                        final BytesArray content = new BytesArray(buffer, 0, bytesRead);
+                        final boolean lastChunk = position + content.length() == md.length();
+                        final long requestSeqId = requestSeqIdTracker.generateSeqNo();
+                        cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqId - maxConcurrentFileChunks));
+                        if (error.get() != null) {
+                            break;
                         }
-                    } else {
-                        throw e;
+                        if (shard.state() == IndexShardState.CLOSED) { // check if the shard got closed on us
+                            throw new IndexShardClosedException(request.shardId());
+                        }
+                        final long requestFilePosition = position;
+                        cancellableThreads.execute(() ->
+                            recoveryTarget.writeFileChunk(md, requestFilePosition, content, lastChunk, translogOps.get(),
+                                ActionListener.wrap(
+                                    r -> requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId),
+                                    e -> {
+                                        error.compareAndSet(null, Tuple.tuple(md, e));
+                                        requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+                                    })));
+                        position += content.length();
+                        buffer = new byte[chunkSizeInBytes];
                     }
+                } catch (Exception e) {
+                    error.compareAndSet(null, Tuple.tuple(md, e));
+                    break;
                 }
             }
+            // when a request failed we don't wait for the outstanding ones, their results are not used anyway
+            if (error.get() == null) {
+                cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqIdTracker.getMaxSeqNo()));
+            }
+            if (error.get() != null) {
+                handleErrorOnSendFiles(store, error.get().v1(), error.get().v2());
+            }
         } finally {
             store.decRef();
         }
     }
 
+    private void handleErrorOnSendFiles(Store store, StoreFileMetaData md, Exception e) throws Exception {
+        final IOException corruptIndexException;
+        if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(e)) != null) {
+            if (store.checkIntegrityNoException(md) == false) { // we are corrupted on the primary -- fail!
+                logger.warn("{} Corrupted file detected {} checksum mismatch", shardId, md);
+                failEngine(corruptIndexException);
+                throw corruptIndexException;
+            } else { // corruption has happened on the way to replica
+                RemoteTransportException exception = new RemoteTransportException("File corruption occurred on recovery but " +
+                        "checksums are ok", null);
+                exception.addSuppressed(e);
+                logger.warn(() -> new ParameterizedMessage(
+                        "{} Remote file corruption on node {}, recovering {}. local checksum OK",
+                        shardId, request.targetNode(), md), corruptIndexException);
+                throw exception;
+            }
+        } else {
+            throw e;
+        }
+    }
+
     protected void failEngine(IOException cause) {
         shard.failShard("recovery", cause);
     }
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -345,6 +346,10 @@ public class RecoveryState implements ToXContentFragment, Streamable {
         static final String SOURCE_THROTTLE_TIME_IN_MILLIS = "source_throttle_time_in_millis";
         static final String TARGET_THROTTLE_TIME = "target_throttle_time";
         static final String TARGET_THROTTLE_TIME_IN_MILLIS = "target_throttle_time_in_millis";
+        static final String FILE_CHUNK_ROUND_TRIP_TIME = "file_chunk_round_trip_time";
+        static final String FILE_CHUNK_ROUND_TRIP_TIME_IN_MILLIS = "file_chunk_round_trip_time_in_millis";
+        static final String THROUGHPUT_PER_SEC = "throughput_per_sec";
+        static final String THROUGHPUT_IN_BYTES_PER_SEC = "throughput_in_bytes_per_sec";
     }
 
     public static class Timer implements Streamable {
@@ -680,6 +685,8 @@ public class RecoveryState implements ToXContentFragment, Streamable {
         private long version = UNKNOWN;
         private long sourceThrottlingInNanos = UNKNOWN;
         private long targetThrottleTimeInNanos = UNKNOWN;
+        private long fileChunkRoundTripTimeInNanos = 0;
+        private long fileChunkRoundTrips = 0;
 
         public synchronized List<File> fileDetails() {
             return Collections.unmodifiableList(new ArrayList<>(fileDetails.values()));
@@ -691,6 +698,8 @@ public class RecoveryState implements ToXContentFragment, Streamable {
             fileDetails.clear();
             sourceThrottlingInNanos = UNKNOWN;
             targetThrottleTimeInNanos = UNKNOWN;
+            fileChunkRoundTripTimeInNanos = 0;
+            fileChunkRoundTrips = 0;
         }
 
         public synchronized void addFileDetail(String name, long length, boolean reused) {
@@ -724,6 +733,35 @@ public class RecoveryState implements ToXContentFragment, Streamable {
             }
         }
 
+        /**
+         * Records the time it took the source node to get the response to a file chunk request.
+         */
+        public synchronized void addFileChunkRoundTrip(long timeInNanos) {
+            fileChunkRoundTripTimeInNanos += timeInNanos;
+            fileChunkRoundTrips++;
+        }
+
+        /**
+         * the average time it took the source node to get the response to a file chunk request, or -1 if unknown
+         */
+        public synchronized TimeValue fileChunkRoundTripTime() {
+            if (fileChunkRoundTrips == 0) {
+                return TimeValue.timeValueNanos(UNKNOWN);
+            }
+            return TimeValue.timeValueNanos(fileChunkRoundTripTimeInNanos / fileChunkRoundTrips);
+        }
+
+        /**
+         * the number of bytes recovered per second since the recovery of the files started
+         */
+        public synchronized long throughputInBytesPerSecond() {
+            final long timeInMillis = time();
+            if (timeInMillis <= 0) {
+                return 0;
+            }
+            return recoveredBytes() * 1000 / timeInMillis;
+        }
+
         public synchronized TimeValue sourceThrottling() {
             return TimeValue.timeValueNanos(sourceThrottlingInNanos);
         }
@@ -893,6 +931,10 @@ public class RecoveryState implements ToXContentFragment, Streamable {
             }
             sourceThrottlingInNanos = in.readLong();
             targetThrottleTimeInNanos = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_6_7_0)) {
+                fileChunkRoundTripTimeInNanos = in.readVLong();
+                fileChunkRoundTrips = in.readVLong();
+            }
         }
 
         @Override
@@ -905,6 +947,10 @@ public class RecoveryState implements ToXContentFragment, Streamable {
             }
             out.writeLong(sourceThrottlingInNanos);
             out.writeLong(targetThrottleTimeInNanos);
+            if (out.getVersion().onOrAfter(Version.V_6_7_0)) {
+                out.writeVLong(fileChunkRoundTripTimeInNanos);
+                out.writeVLong(fileChunkRoundTrips);
+            }
         }
 
         @Override
@@ -933,6 +979,10 @@ public class RecoveryState implements ToXContentFragment, Streamable {
             builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, new TimeValue(time()));
             builder.humanReadableField(Fields.SOURCE_THROTTLE_TIME_IN_MILLIS, Fields.SOURCE_THROTTLE_TIME, sourceThrottling());
             builder.humanReadableField(Fields.TARGET_THROTTLE_TIME_IN_MILLIS, Fields.TARGET_THROTTLE_TIME, targetThrottling());
+            builder.humanReadableField(Fields.FILE_CHUNK_ROUND_TRIP_TIME_IN_MILLIS, Fields.FILE_CHUNK_ROUND_TRIP_TIME,
+                fileChunkRoundTripTime());
+            builder.humanReadableField(Fields.THROUGHPUT_IN_BYTES_PER_SEC, Fields.THROUGHPUT_PER_SEC,
+                new ByteSizeValue(throughputInBytesPerSecond()));
             return builder;
         }
 
@@ -31,6 +31,7 @@ import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -38,6 +39,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.util.CancellableThreads;
 import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.mapper.MapperException;
@@ -53,16 +55,20 @@ import org.elasticsearch.index.translog.Translog;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.LongConsumer;
 
 /**
@@ -99,6 +105,8 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
 
     private final Map<String, String> tempFileNames = ConcurrentCollections.newConcurrentMap();
 
+    private final Map<String, FileChunkWriter> fileChunkWriters = ConcurrentCollections.newConcurrentMap();
+
     /**
      * Creates a new recovery target object that represents a recovery to the provided shard.
      *
@@ -333,6 +341,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
                 }
                 iterator.remove();
             }
+            fileChunkWriters.clear();
             // trash temporary files
             for (String file : tempFileNames.keySet()) {
                 logger.trace("cleaning temporary file [{}]", file);
@@ -391,6 +400,17 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     @Override
     public long indexTranslogOperations(List<Translog.Operation> operations, int totalTranslogOps, long maxSeenAutoIdTimestampOnPrimary,
                                         long maxSeqNoOfDeletesOrUpdatesOnPrimary) throws IOException {
+        return indexTranslogOperations(operations, totalTranslogOps, maxSeenAutoIdTimestampOnPrimary,
+            maxSeqNoOfDeletesOrUpdatesOnPrimary, 1);
+    }
+
+    /**
+     * Same as {@link #indexTranslogOperations(List, int, long, long)} but applies the operations with up to the given number of
+     * threads. The operations are partitioned by the hash of their id so that the operations on the same document are still applied
+     * in the order they were sent in.
+     */
+    public long indexTranslogOperations(List<Translog.Operation> operations, int totalTranslogOps, long maxSeenAutoIdTimestampOnPrimary,
+                                        long maxSeqNoOfDeletesOrUpdatesOnPrimary, int concurrency) throws IOException {
         final RecoveryState.Translog translog = state().getTranslog();
         translog.totalOperations(totalTranslogOps);
         assert indexShard().recoveryState() == state();
@@ -409,6 +429,20 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
          * replaying any of these operations will be at least the max_seq_no_of_updates on the primary when that operation was executed on.
          */
         indexShard().advanceMaxSeqNoOfUpdatesOrDeletes(maxSeqNoOfDeletesOrUpdatesOnPrimary);
+        if (Math.min(concurrency, operations.size()) <= 1) {
+            applyTranslogOperations(operations);
+        } else {
+            applyTranslogOperationsConcurrently(partitionById(operations, Math.min(concurrency, operations.size())));
+        }
+        // update stats only after all operations completed (to ensure that mapping updates don't mess with stats)
+        translog.incrementRecoveredOperations(operations.size());
+        indexShard().sync();
+        // roll over / flush / trim if needed
+        indexShard().afterWriteOperation();
+        return indexShard().getLocalCheckpoint();
+    }
+
+    private void applyTranslogOperations(List<Translog.Operation> operations) throws IOException {
         for (Translog.Operation operation : operations) {
             Engine.Result result = indexShard().applyTranslogOperation(operation, Engine.Operation.Origin.PEER_RECOVERY);
             if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
@@ -417,12 +451,100 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
             assert result.getFailure() == null: "unexpected failure while replicating translog entry: " + result.getFailure();
             ExceptionsHelper.reThrowIfNotNull(result.getFailure());
         }
-        // update stats only after all operations completed (to ensure that mapping updates don't mess with stats)
-        translog.incrementRecoveredOperations(operations.size());
-        indexShard().sync();
-        // roll over / flush / trim if needed
-        indexShard().afterWriteOperation();
-        return indexShard().getLocalCheckpoint();
+    }
+
+    /**
+     * Applies the given partitions of operations in parallel, the first one on the current thread and the others on the generic
+     * thread pool, and waits for all of them to be applied. A failure is rethrown once all partitions are done, see
+     * {@link #onPartitionFailure}.
+     */
+    private void applyTranslogOperationsConcurrently(List<List<Translog.Operation>> partitions) throws IOException {
+        final CountDownLatch latch = new CountDownLatch(partitions.size() - 1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        for (List<Translog.Operation> partition : partitions.subList(1, partitions.size())) {
+            indexShard().getThreadPool().generic().execute(new AbstractRunnable() {
+                @Override
+                public void onFailure(Exception e) {
+                    onPartitionFailure(failure, e);
+                }
+
+                @Override
+                protected void doRun() throws Exception {
+                    applyTranslogOperations(partition);
+                }
+
+                @Override
+                public void onAfter() {
+                    latch.countDown();
+                }
+            });
+        }
+        try {
+            applyTranslogOperations(partitions.get(0));
+        } catch (Exception e) {
+            onPartitionFailure(failure, e);
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchException("interrupted while applying translog operations", e);
+        }
+        final Exception e = failure.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e != null) {
+            throw ExceptionsHelper.convertToRuntime(e);
+        }
+    }
+
+    /**
+     * Records the failure of a partition. A {@link MapperException} makes the caller wait for the mapping update and retry, so it is
+     * rethrown in favour of any other failure, which is then suppressed by it.
+     */
+    static void onPartitionFailure(AtomicReference<Exception> failure, Exception e) {
+        synchronized (failure) {
+            final Exception first = failure.get();
+            if (first == null) {
+                failure.set(e);
+            } else if (e instanceof MapperException && first instanceof MapperException == false) {
+                e.addSuppressed(first);
+                failure.set(e);
+            } else {
+                first.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Splits the given operations into the given number of partitions by the hash of their id, keeping the order of the operations
+     * within each partition. No-ops have no id and are spread by sequence number instead.
+     */
+    static List<List<Translog.Operation>> partitionById(List<Translog.Operation> operations, int numPartitions) {
+        final List<List<Translog.Operation>> partitions = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            partitions.add(new ArrayList<>(operations.size() / numPartitions + 1));
+        }
+        for (Translog.Operation operation : operations) {
+            final int hash;
+            switch (operation.opType()) {
+                case CREATE:
+                case INDEX:
+                    hash = ((Translog.Index) operation).id().hashCode();
+                    break;
+                case DELETE:
+                    hash = ((Translog.Delete) operation).id().hashCode();
+                    break;
+                case NO_OP:
+                    hash = Long.hashCode(operation.seqNo());
+                    break;
+                default:
+                    throw new IllegalStateException("unexpected operation type [" + operation.opType() + "]");
+            }
+            partitions.get(Math.floorMod(hash, numPartitions)).add(operation);
+        }
+        partitions.removeIf(List::isEmpty);
+        return partitions;
     }
 
     @Override
@@ -489,10 +611,21 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
 
     @Override
     public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
-                               boolean lastChunk, int totalTranslogOps) throws IOException {
+                               boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener) {
+        try {
+            state().getTranslog().totalOperations(totalTranslogOps);
+            final FileChunkWriter writer = fileChunkWriters.computeIfAbsent(fileMetaData.name(), name -> new FileChunkWriter());
+            writer.writeChunk(new FileChunk(fileMetaData, content, position, lastChunk));
+            listener.onResponse(null);
+        } catch (Exception e) {
+            listener.onFailure(e);
+        }
+    }
+
+    private void innerWriteFileChunk(StoreFileMetaData fileMetaData, long position,
+                                     BytesReference content, boolean lastChunk) throws IOException {
         final Store store = store();
         final String name = fileMetaData.name();
-        state().getTranslog().totalOperations(totalTranslogOps);
         final RecoveryState.Index indexState = state().getIndex();
         IndexOutput indexOutput;
         if (position == 0) {
@@ -522,6 +655,55 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
         }
     }
 
+    private static final class FileChunk {
+        final StoreFileMetaData md;
+        final BytesReference content;
+        final long position;
+        final boolean lastChunk;
+
+        FileChunk(StoreFileMetaData md, BytesReference content, long position, boolean lastChunk) {
+            this.md = md;
+            this.content = content;
+            this.position = position;
+            this.lastChunk = lastChunk;
+        }
+    }
+
+    /**
+     * Writes the chunks of a single file in order. The source node sends several chunks concurrently, so chunks can arrive out of
+     * order and are buffered until the chunks before them were written.
+     */
+    private final class FileChunkWriter {
+        final PriorityQueue<FileChunk> pendingChunks = new PriorityQueue<>(Comparator.comparingLong(fc -> fc.position));
+        long lastPosition = 0;
+
+        void writeChunk(FileChunk newChunk) throws IOException {
+            synchronized (this) {
+                pendingChunks.add(newChunk);
+            }
+            while (true) {
+                final FileChunk chunk;
+                synchronized (this) {
+                    chunk = pendingChunks.peek();
+                    if (chunk == null || chunk.position != lastPosition) {
+                        return;
+                    }
+                    pendingChunks.remove();
+                }
+                innerWriteFileChunk(chunk.md, chunk.position, chunk.content, chunk.lastChunk);
+                synchronized (this) {
+                    assert lastPosition == chunk.position : "last_position " + lastPosition + " != chunk_position " + chunk.position;
+                    lastPosition += chunk.content.length();
+                    if (chunk.lastChunk) {
+                        assert pendingChunks.isEmpty() : "still have pending chunks [" + pendingChunks + "]";
+                        fileChunkWriters.remove(chunk.md.name());
+                        assert fileChunkWriters.containsValue(this) == false : "writer has not been removed";
+                    }
+                }
+            }
+        }
+    }
+
     Path translogLocation() {
         return indexShard().shardPath().resolveTranslog();
     }
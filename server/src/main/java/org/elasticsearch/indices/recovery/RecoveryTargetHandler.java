@@ -18,6 +18,7 @@
  */
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.store.Store;
@@ -89,8 +90,13 @@ public interface RecoveryTargetHandler {
      */
     void cleanFiles(int totalTranslogOps, Store.MetadataSnapshot sourceMetaData) throws IOException;
 
-    /** writes a partial file chunk to the target store */
+    /**
+     * Writes a partial file chunk to the target store. Chunks may be sent concurrently, so the chunks of a file can arrive in any
+     * order. A chunk that arrives before the chunks preceding it is buffered and written once they arrived, so the given listener is
+     * notified once the chunk was accepted, which does not mean it was written. A failure to write a buffered chunk is reported to
+     * the listener of the chunk whose arrival triggered the write.
+     */
     void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
-                        boolean lastChunk, int totalTranslogOps) throws IOException;
+                        boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener);
 
 }
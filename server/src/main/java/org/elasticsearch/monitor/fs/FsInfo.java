@@ -270,6 +270,14 @@ public class FsInfo implements Iterable<FsInfo.Path>, Writeable, ToXContentFragm
             out.writeLong(previousSectorsWritten);
         }
 
+        public int getMajorDeviceNumber() {
+            return majorDeviceNumber;
+        }
+
+        public int getMinorDeviceNumber() {
+            return minorDeviceNumber;
+        }
+
         public long operations() {
             if (previousReadsCompleted == -1 || previousWritesCompleted == -1) return -1;
 
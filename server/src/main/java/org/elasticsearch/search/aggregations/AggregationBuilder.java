@@ -88,6 +88,15 @@ public abstract class AggregationBuilder
         return factoriesBuilder.getPipelineAggregatorFactories();
     }
 
+    /**
+     * Return whether reducing the results this aggregation computed on each segment of a shard yields the same result as
+     * running it on the whole shard, which allows the request cache to cache it per segment. Aggregations that truncate their
+     * buckets, rely on shard-wide statistics or use scores must return {@code false}. Sub-aggregations are checked separately.
+     */
+    public boolean canReducePerSegment() {
+        return false;
+    }
+
     /**
      * Internal: Registers sub-factories with this factory. The sub-factory will
      * be responsible for the creation of sub-aggregators under the aggregator
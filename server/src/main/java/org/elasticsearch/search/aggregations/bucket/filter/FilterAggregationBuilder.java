@@ -127,6 +127,11 @@ public class FilterAggregationBuilder extends AbstractAggregationBuilder<FilterA
         return NAME;
     }
 
+    @Override
+    public boolean canReducePerSegment() {
+        return true;
+    }
+
     public QueryBuilder getFilter() {
         return filter;
     }
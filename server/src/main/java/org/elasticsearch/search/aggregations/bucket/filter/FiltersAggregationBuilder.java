@@ -347,4 +347,9 @@ public class FiltersAggregationBuilder extends AbstractAggregationBuilder<Filter
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        return true;
+    }
 }
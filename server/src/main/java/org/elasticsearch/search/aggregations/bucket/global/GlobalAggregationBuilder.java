@@ -92,4 +92,9 @@ public class GlobalAggregationBuilder extends AbstractAggregationBuilder<GlobalA
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        return true;
+    }
 }
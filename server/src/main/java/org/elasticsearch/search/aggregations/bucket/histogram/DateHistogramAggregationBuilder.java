@@ -364,6 +364,12 @@ public class DateHistogramAggregationBuilder extends ValuesSourceAggregationBuil
         return NAME;
     }
 
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
+
     /*
      * NOTE: this can't be done in rewrite() because the timezone is then also used on the
      * coordinating node in order to generate missing buckets, which may cross a transition
@@ -294,6 +294,12 @@ public class HistogramAggregationBuilder extends ValuesSourceAggregationBuilder<
         return NAME;
     }
 
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
+
     @Override
     protected ValuesSourceAggregatorFactory<Numeric, ?> innerBuild(SearchContext context, ValuesSourceConfig<Numeric> config,
             AggregatorFactory<?> parent, Builder subFactoriesBuilder) throws IOException {
@@ -107,4 +107,10 @@ public class MissingAggregationBuilder extends ValuesSourceAggregationBuilder<Va
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
 }
@@ -159,4 +159,9 @@ public class NestedAggregationBuilder extends AbstractAggregationBuilder<NestedA
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        return true;
+    }
 }
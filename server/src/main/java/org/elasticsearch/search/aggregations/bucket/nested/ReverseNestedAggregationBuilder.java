@@ -184,4 +184,9 @@ public class ReverseNestedAggregationBuilder extends AbstractAggregationBuilder<
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        return true;
+    }
 }
@@ -84,6 +84,12 @@ public class DateRangeAggregationBuilder extends AbstractRangeBuilder<DateRangeA
         return NAME;
     }
 
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
+
     /**
      * Add a new range to this aggregation.
      *
@@ -239,6 +239,12 @@ public final class IpRangeAggregationBuilder
         return NAME;
     }
 
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
+
     public IpRangeAggregationBuilder keyed(boolean keyed) {
         this.keyed = keyed;
         return this;
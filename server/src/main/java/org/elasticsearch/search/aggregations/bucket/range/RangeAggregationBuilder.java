@@ -173,4 +173,10 @@ public class RangeAggregationBuilder extends AbstractRangeBuilder<RangeAggregati
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
 }
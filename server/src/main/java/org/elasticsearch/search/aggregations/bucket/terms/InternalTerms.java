@@ -21,6 +21,7 @@ package org.elasticsearch.search.aggregations.bucket.terms;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationExecutionException;
@@ -36,7 +37,6 @@ import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -218,7 +218,13 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
 
     @Override
     public InternalAggregation doReduce(List<InternalAggregation> aggregations, ReduceContext reduceContext) {
-        Map<Object, List<B>> buckets = new HashMap<>();
+        try (ReduceBucketOrds<B> buckets = newReduceBucketOrds(reduceContext.bigArrays().withCircuitBreaking())) {
+            return doReduce(aggregations, reduceContext, buckets);
+        }
+    }
+
+    private InternalAggregation doReduce(List<InternalAggregation> aggregations, ReduceContext reduceContext,
+                                         ReduceBucketOrds<B> buckets) {
         long sumDocCountError = 0;
         long otherDocCount = 0;
         InternalTerms<A, B> referenceTerms = null;
@@ -271,18 +277,16 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
                 // Note that if the error is unbounded (-1) this will be fixed
                 // later in this method.
                 bucket.docCountError -= thisAggDocCountError;
-                List<B> bucketList = buckets.get(bucket.getKey());
-                if (bucketList == null) {
-                    bucketList = new ArrayList<>();
-                    buckets.put(bucket.getKey(), bucketList);
-                }
-                bucketList.add(bucket);
+                buckets.add(bucket);
             }
         }
+        buckets.flush();
 
-        final int size = reduceContext.isFinalReduce() == false ? buckets.size() : Math.min(requiredSize, buckets.size());
+        final int numBuckets = Math.toIntExact(buckets.size());
+        final int size = reduceContext.isFinalReduce() == false ? numBuckets : Math.min(requiredSize, numBuckets);
         final BucketPriorityQueue<B> ordered = new BucketPriorityQueue<>(size, order.comparator(null));
-        for (List<B> sameTermBuckets : buckets.values()) {
+        for (long ord = 0; ord < numBuckets; ord++) {
+            final List<B> sameTermBuckets = buckets.buckets(ord);
             final B b = sameTermBuckets.get(0).reduce(sameTermBuckets, reduceContext);
             if (sumDocCountError == -1) {
                 b.docCountError = -1;
@@ -318,6 +322,14 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
 
     protected abstract int getShardSize();
 
+    /**
+     * Creates the structure that groups the buckets sharing a key while reducing. Implementations that can hash their raw keys
+     * should override this, the default groups buckets on {@link Bucket#getKey()}.
+     */
+    ReduceBucketOrds<B> newReduceBucketOrds(BigArrays bigArrays) {
+        return new ReduceBucketOrds.ObjectKeys<>(bigArrays);
+    }
+
     protected abstract A create(String name, List<B> buckets, long docCountError, long otherDocCount);
 
     /**
@@ -0,0 +1,224 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.common.util.ObjectArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Groups the buckets that share the same key while terms aggregations are reduced. Keys are mapped to dense ordinals and
+ * the buckets of every ordinal are kept in an {@link ObjectArray}. Mapped terms hash their raw keys in {@link BigArrays}
+ * rather than boxing or formatting them into a {@link HashMap}. The hash, the per-ordinal lists and the shallow size of the
+ * buckets and of their keys are accounted for on the request circuit breaker until this is closed. The latter are charged
+ * in blocks of {@link #FLUSH_BYTES} rather than for every bucket, and {@link #flush()} charges what is left once all buckets
+ * have been added. The sub-aggregations of the buckets are not accounted for.
+ */
+abstract class ReduceBucketOrds<B extends InternalTerms.Bucket<B>> implements Releasable {
+
+    // lists get room for 10 buckets when the first one is added
+    private static final long LIST_BYTES = RamUsageEstimator.shallowSizeOfInstance(ArrayList.class)
+        + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + 10 * RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+
+    // the buckets and lists that are added are charged on the breaker once they take that many bytes
+    static final long FLUSH_BYTES = 32 * 1024;
+
+    private final BigArrays bigArrays;
+    private final CircuitBreaker breaker;
+    private ObjectArray<List<B>> buckets;
+    private long bucketShallowBytes = -1;
+    private long accountedBytes;
+    private long flushBuffer;
+
+    ReduceBucketOrds(BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+        this.breaker = bigArrays.breakerService() == null ? null : bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        this.buckets = bigArrays.newObjectArray(1);
+    }
+
+    /**
+     * Adds the key of the bucket to the hash and returns its ordinal if the key is new or {@code -1 - ordinal} if it already
+     * exists.
+     */
+    abstract long addKey(B bucket);
+
+    /**
+     * The number of distinct keys.
+     */
+    abstract long size();
+
+    /**
+     * The number of bytes that a new key takes in the hash, on top of what is allocated from {@link BigArrays}.
+     */
+    long keyBytes(B bucket) {
+        return 0;
+    }
+
+    final void add(B bucket) {
+        long ord = addKey(bucket);
+        if (bucketShallowBytes < 0) {
+            bucketShallowBytes = RamUsageEstimator.shallowSizeOfInstance(bucket.getClass());
+        }
+        flushBuffer += bucketShallowBytes + (ord >= 0 ? LIST_BYTES + keyBytes(bucket) : RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+        if (flushBuffer >= FLUSH_BYTES) {
+            flush();
+        }
+        if (ord >= 0) {
+            buckets = bigArrays.grow(buckets, ord + 1);
+            List<B> sameKeyBuckets = new ArrayList<>();
+            sameKeyBuckets.add(bucket);
+            buckets.set(ord, sameKeyBuckets);
+        } else {
+            buckets.get(-1 - ord).add(bucket);
+        }
+    }
+
+    /**
+     * Charges the buckets and lists that were added since the last flush on the breaker.
+     */
+    final void flush() {
+        if (breaker != null && flushBuffer > 0) {
+            breaker.addEstimateBytesAndMaybeBreak(flushBuffer, "<reduce_aggs>");
+            accountedBytes += flushBuffer;
+        }
+        flushBuffer = 0;
+    }
+
+    /**
+     * The buckets that share the key of the given ordinal.
+     */
+    final List<B> buckets(long ord) {
+        return buckets.get(ord);
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(buckets, () -> {
+            if (breaker != null) {
+                breaker.addWithoutBreaking(-accountedBytes);
+            }
+        });
+        accountedBytes = 0;
+        flushBuffer = 0;
+    }
+
+    static final class LongKeys<B extends InternalTerms.Bucket<B>> extends ReduceBucketOrds<B> {
+        private final ToLongFunction<B> key;
+        private final LongHash hash;
+
+        LongKeys(BigArrays bigArrays, ToLongFunction<B> key) {
+            super(bigArrays);
+            this.key = key;
+            this.hash = new LongHash(1, bigArrays);
+        }
+
+        @Override
+        long addKey(B bucket) {
+            return hash.add(key.applyAsLong(bucket));
+        }
+
+        @Override
+        long size() {
+            return hash.size();
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(super::close, hash);
+        }
+    }
+
+    static final class BytesRefKeys<B extends InternalTerms.Bucket<B>> extends ReduceBucketOrds<B> {
+        private final Function<B, BytesRef> key;
+        private final BytesRefHash hash;
+
+        BytesRefKeys(BigArrays bigArrays, Function<B, BytesRef> key) {
+            super(bigArrays);
+            this.key = key;
+            this.hash = new BytesRefHash(1, bigArrays);
+        }
+
+        @Override
+        long addKey(B bucket) {
+            return hash.add(key.apply(bucket));
+        }
+
+        @Override
+        long keyBytes(B bucket) {
+            // the hash copies the key into its own pages, this accounts for the copy that the bucket holds
+            return RamUsageEstimator.shallowSizeOfInstance(BytesRef.class)
+                + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + key.apply(bucket).length);
+        }
+
+        @Override
+        long size() {
+            return hash.size();
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(super::close, hash);
+        }
+    }
+
+    /**
+     * Fallback for terms implementations that only expose their keys through {@link InternalTerms.Bucket#getKey()}.
+     */
+    static final class ObjectKeys<B extends InternalTerms.Bucket<B>> extends ReduceBucketOrds<B> {
+        // a hash map entry, its boxed ordinal and a slot and a half in the table of the map
+        private static final long ENTRY_BYTES =
+            RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + 3 * RamUsageEstimator.NUM_BYTES_OBJECT_REF
+                + Integer.BYTES) + RamUsageEstimator.shallowSizeOfInstance(Long.class) + 2 * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+
+        private final Map<Object, Long> ords = new HashMap<>();
+
+        ObjectKeys(BigArrays bigArrays) {
+            super(bigArrays);
+        }
+
+        @Override
+        long addKey(B bucket) {
+            Long ord = ords.putIfAbsent(bucket.getKey(), (long) ords.size());
+            return ord == null ? ords.size() - 1 : -1 - ord;
+        }
+
+        @Override
+        long keyBytes(B bucket) {
+            return ENTRY_BYTES;
+        }
+
+        @Override
+        long size() {
+            return ords.size();
+        }
+    }
+}
@@ -159,4 +159,10 @@ public final class CardinalityAggregationBuilder
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
 }
@@ -124,4 +124,10 @@ public class GeoBoundsAggregationBuilder extends ValuesSourceAggregationBuilder<
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
 }
@@ -102,4 +102,10 @@ public class GeoCentroidAggregationBuilder
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
 }
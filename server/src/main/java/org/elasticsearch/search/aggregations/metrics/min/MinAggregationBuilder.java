@@ -103,4 +103,10 @@ public class MinAggregationBuilder extends ValuesSourceAggregationBuilder.LeafOn
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
 }
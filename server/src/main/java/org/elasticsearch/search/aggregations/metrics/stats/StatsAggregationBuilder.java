@@ -103,4 +103,10 @@ public class StatsAggregationBuilder extends ValuesSourceAggregationBuilder.Leaf
     public String getType() {
         return NAME;
     }
+
+    @Override
+    public boolean canReducePerSegment() {
+        // scripts might access the score or other segments
+        return script() == null;
+    }
 }
@@ -20,6 +20,7 @@
 package org.elasticsearch.search.internal;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermContext;
@@ -34,6 +35,7 @@ import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -44,6 +46,7 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -66,6 +69,8 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     private Runnable checkCancelled;
 
+    private LeafReaderContext restrictedLeaf;
+
     public ContextIndexSearcher(Engine.Searcher searcher,
             QueryCache queryCache, QueryCachingPolicy queryCachingPolicy) {
         super(searcher.reader());
@@ -96,6 +101,23 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         this.aggregatedDfs = aggregatedDfs;
     }
 
+    /**
+     * Restricts all searches to the given segment of the top-level reader, or lifts the restriction if {@code null}. Statistics
+     * and rewrites still see the whole reader so that the results match the ones of an unrestricted search on that segment.
+     */
+    public void setRestrictedLeaf(@Nullable LeafReaderContext leaf) {
+        assert leaf == null || leafContexts.contains(leaf) : "not a segment of this searcher's reader";
+        this.restrictedLeaf = leaf;
+    }
+
+    /**
+     * Returns the reader that searches are executed on: the restricted segment if any, the whole reader otherwise. Optimizations
+     * that derive hit counts from the index statistics must use this reader.
+     */
+    public IndexReader getSearchedReader() {
+        return restrictedLeaf == null ? getIndexReader() : restrictedLeaf.reader();
+    }
+
     @Override
     public Query rewrite(Query original) throws IOException {
         if (profiler != null) {
@@ -151,6 +173,9 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     @Override
     protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
+        if (restrictedLeaf != null) {
+            leaves = leaves.contains(restrictedLeaf) ? Collections.singletonList(restrictedLeaf) : Collections.emptyList();
+        }
         final Weight cancellableWeight;
         if (checkCancelled != null) {
             cancellableWeight = new Weight(weight.getQuery()) {
@@ -134,7 +134,8 @@ public class QueryPhase implements SearchPhase {
     static boolean execute(SearchContext searchContext,
                            final IndexSearcher searcher,
                            Consumer<Runnable> checkCancellationSetter) throws QueryPhaseExecutionException {
-        final IndexReader reader = searcher.getIndexReader();
+        final IndexReader reader = searcher instanceof ContextIndexSearcher
+            ? ((ContextIndexSearcher) searcher).getSearchedReader() : searcher.getIndexReader();
         QuerySearchResult queryResult = searchContext.queryResult();
         queryResult.searchTimedOut(false);
         try {
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
 
 /**
  * A connection profile describes how many connection are established to specific node for each of the available request types.
@@ -348,6 +349,32 @@ public final class ConnectionProfile {
             return channels.get(offset + Math.floorMod(counter.incrementAndGet(), length));
         }
 
+        /**
+         * Returns one of the channels out configured for this handle, preferring channels that have the fewest bytes queued for
+         * sending so that small messages are not stuck behind large ones. Ties are broken in a round-robin fashion.
+         */
+        <T> T getChannel(List<T> channels, ToLongFunction<T> queuedBytes) {
+            if (length == 0) {
+                throw new IllegalStateException("can't select channel size is 0 for types: " + types);
+            }
+            assert channels.size() >= offset + length : "illegal size: " + channels.size() + " expected >= " + (offset + length);
+            final int start = counter.incrementAndGet();
+            T selected = null;
+            long selectedQueuedBytes = Long.MAX_VALUE;
+            for (int i = 0; i < length; i++) {
+                final T channel = channels.get(offset + Math.floorMod(start + i, length));
+                final long channelQueuedBytes = queuedBytes.applyAsLong(channel);
+                if (channelQueuedBytes < selectedQueuedBytes) {
+                    selected = channel;
+                    selectedQueuedBytes = channelQueuedBytes;
+                    if (channelQueuedBytes == 0) {
+                        break;
+                    }
+                }
+            }
+            return selected;
+        }
+
         /**
          * Returns all types for this handle
          */
@@ -46,6 +46,7 @@ import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.network.CloseableChannel;
 import org.elasticsearch.common.network.NetworkAddress;
@@ -147,6 +148,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
 
     private final MeanMetric readBytesMetric = new MeanMetric();
     private final MeanMetric transmittedBytesMetric = new MeanMetric();
+    private final CounterMetric inFlightBytesMetric = new CounterMetric();
     private volatile Map<String, RequestHandlerRegistry<? extends TransportRequest>> requestHandlers = Collections.emptyMap();
     private final ResponseHandlers responseHandlers = new ResponseHandlers();
     private final TransportLogger transportLogger;
@@ -255,7 +257,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             if (connectionTypeHandle == null) {
                 throw new IllegalArgumentException("no type channel for [" + type + "]");
             }
-            return connectionTypeHandle.getChannel(channels);
+            return connectionTypeHandle.getChannel(channels, channel -> channel.getChannelStats().inFlightBytes());
         }
 
         @Override
@@ -647,10 +649,11 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                 // We do not call internalSendMessage because we are not sending a message that is an
                 // elasticsearch binary message. We are just serializing an exception here. Not formatting it
                 // as an elasticsearch transport message.
+                final SendListener sendListener = new SendListener(channel, message.length(), listener);
                 try {
-                    channel.sendMessage(message, new SendListener(channel, message.length(), listener));
+                    channel.sendMessage(message, sendListener);
                 } catch (Exception ex) {
-                    listener.onFailure(ex);
+                    sendListener.onFailure(ex);
                 }
             }
         } else {
@@ -757,11 +760,12 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     private void internalSendMessage(TcpChannel channel, BytesReference message, ActionListener<Void> listener) {
         channel.getChannelStats().markAccessed(threadPool.relativeTimeInMillis());
         transportLogger.logOutboundMessage(channel, message);
+        final SendListener sendListener = new SendListener(channel, message.length(), listener);
         try {
-            channel.sendMessage(message, new SendListener(channel, message.length(), listener));
+            channel.sendMessage(message, sendListener);
         } catch (Exception ex) {
             // call listener to ensure that any resources are released
-            listener.onFailure(ex);
+            sendListener.onFailure(ex);
             onException(channel, ex);
         }
     }
@@ -1337,7 +1341,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     }
 
     /**
-     * This listener increments the transmitted bytes metric on success.
+     * This listener accounts for the message as in flight until it was sent, and increments the transmitted bytes metric on success.
      */
     private class SendListener extends NotifyOnceListener<Void> {
 
@@ -1349,19 +1353,28 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             this.channel = channel;
             this.messageSize = messageSize;
             this.delegateListener = delegateListener;
+            channel.getChannelStats().addInFlightBytes(messageSize);
+            inFlightBytesMetric.inc(messageSize);
         }
 
         @Override
         protected void innerOnResponse(Void v) {
+            onSendCompleted();
             transmittedBytesMetric.inc(messageSize);
             delegateListener.onResponse(v);
         }
 
         @Override
         protected void innerOnFailure(Exception e) {
+            onSendCompleted();
             logger.warn(() -> new ParameterizedMessage("send message failed [channel: {}]", channel), e);
             delegateListener.onFailure(e);
         }
+
+        private void onSendCompleted() {
+            channel.getChannelStats().addInFlightBytes(-messageSize);
+            inFlightBytesMetric.dec(messageSize);
+        }
     }
 
     private class ReleaseListener implements ActionListener<Void> {
@@ -1399,7 +1412,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     @Override
     public final TransportStats getStats() {
         return new TransportStats(acceptedChannels.size(), readBytesMetric.count(), readBytesMetric.sum(), transmittedBytesMetric.count(),
-            transmittedBytesMetric.sum());
+            transmittedBytesMetric.sum(), inFlightBytesMetric.count());
     }
 
     /**
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -36,13 +37,15 @@ public class TransportStats implements Writeable, ToXContentFragment {
     private final long rxSize;
     private final long txCount;
     private final long txSize;
+    private final long txInFlightSize;
 
-    public TransportStats(long serverOpen, long rxCount, long rxSize, long txCount, long txSize) {
+    public TransportStats(long serverOpen, long rxCount, long rxSize, long txCount, long txSize, long txInFlightSize) {
         this.serverOpen = serverOpen;
         this.rxCount = rxCount;
         this.rxSize = rxSize;
         this.txCount = txCount;
         this.txSize = txSize;
+        this.txInFlightSize = txInFlightSize;
     }
 
     public TransportStats(StreamInput in) throws IOException {
@@ -51,6 +54,11 @@ public class TransportStats implements Writeable, ToXContentFragment {
         rxSize = in.readVLong();
         txCount = in.readVLong();
         txSize = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_6_7_0)) {
+            txInFlightSize = in.readVLong();
+        } else {
+            txInFlightSize = 0;
+        }
     }
 
     @Override
@@ -60,6 +68,9 @@ public class TransportStats implements Writeable, ToXContentFragment {
         out.writeVLong(rxSize);
         out.writeVLong(txCount);
         out.writeVLong(txSize);
+        if (out.getVersion().onOrAfter(Version.V_6_7_0)) {
+            out.writeVLong(txInFlightSize);
+        }
     }
 
     public long serverOpen() {
@@ -102,6 +113,17 @@ public class TransportStats implements Writeable, ToXContentFragment {
         return txSize();
     }
 
+    /**
+     * Returns the size of the messages that were handed to the network layer for sending but were not fully sent yet.
+     */
+    public ByteSizeValue txInFlightSize() {
+        return new ByteSizeValue(txInFlightSize);
+    }
+
+    public ByteSizeValue getTxInFlightSize() {
+        return txInFlightSize();
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.TRANSPORT);
@@ -110,6 +132,7 @@ public class TransportStats implements Writeable, ToXContentFragment {
         builder.humanReadableField(Fields.RX_SIZE_IN_BYTES, Fields.RX_SIZE, new ByteSizeValue(rxSize));
         builder.field(Fields.TX_COUNT, txCount);
         builder.humanReadableField(Fields.TX_SIZE_IN_BYTES, Fields.TX_SIZE, new ByteSizeValue(txSize));
+        builder.humanReadableField(Fields.TX_IN_FLIGHT_SIZE_IN_BYTES, Fields.TX_IN_FLIGHT_SIZE, new ByteSizeValue(txInFlightSize));
         builder.endObject();
         return builder;
     }
@@ -123,5 +146,7 @@ public class TransportStats implements Writeable, ToXContentFragment {
         static final String TX_COUNT = "tx_count";
         static final String TX_SIZE = "tx_size";
         static final String TX_SIZE_IN_BYTES = "tx_size_in_bytes";
+        static final String TX_IN_FLIGHT_SIZE = "tx_in_flight_size";
+        static final String TX_IN_FLIGHT_SIZE_IN_BYTES = "tx_in_flight_size_in_bytes";
     }
 }
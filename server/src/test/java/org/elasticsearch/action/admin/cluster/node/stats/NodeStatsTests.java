@@ -20,6 +20,7 @@
 package org.elasticsearch.action.admin.cluster.node.stats;
 
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterStateUpdateStats;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.discovery.DiscoveryStats;
@@ -219,6 +220,7 @@ public class NodeStatsTests extends ESTestCase {
                     assertEquals(nodeStats.getTransport().getServerOpen(), deserializedNodeStats.getTransport().getServerOpen());
                     assertEquals(nodeStats.getTransport().getTxCount(), deserializedNodeStats.getTransport().getTxCount());
                     assertEquals(nodeStats.getTransport().getTxSize(), deserializedNodeStats.getTransport().getTxSize());
+                    assertEquals(nodeStats.getTransport().getTxInFlightSize(), deserializedNodeStats.getTransport().getTxInFlightSize());
                 }
                 if (nodeStats.getHttp() == null) {
                     assertNull(deserializedNodeStats.getHttp());
@@ -260,6 +262,39 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(queueStats.getTotal(), deserializedDiscoveryStats.getQueueStats().getTotal());
                         assertEquals(queueStats.getPending(), deserializedDiscoveryStats.getQueueStats().getPending());
                     }
+                    PublishClusterStateStats publishStats = discoveryStats.getPublishStats();
+                    if (publishStats == null) {
+                        assertNull(deserializedDiscoveryStats.getPublishStats());
+                    } else {
+                        PublishClusterStateStats deserializedPublishStats = deserializedDiscoveryStats.getPublishStats();
+                        assertEquals(publishStats.getPublishedCount(), deserializedPublishStats.getPublishedCount());
+                        assertEquals(publishStats.getSerializationTimeInMillis(),
+                            deserializedPublishStats.getSerializationTimeInMillis());
+                        assertEquals(publishStats.getSentCount(), deserializedPublishStats.getSentCount());
+                        assertEquals(publishStats.getSendTimeInMillis(), deserializedPublishStats.getSendTimeInMillis());
+                        assertEquals(publishStats.getCommitTimeInMillis(), deserializedPublishStats.getCommitTimeInMillis());
+                        assertEquals(publishStats.getAppliedCount(), deserializedPublishStats.getAppliedCount());
+                        assertEquals(publishStats.getApplyTimeInMillis(), deserializedPublishStats.getApplyTimeInMillis());
+                    }
+                    ClusterStateUpdateStats updateStats = discoveryStats.getClusterStateUpdateStats();
+                    if (updateStats == null) {
+                        assertNull(deserializedDiscoveryStats.getClusterStateUpdateStats());
+                    } else {
+                        Map<String, ClusterStateUpdateStats.ExecutorStats> deserializedExecutorStats =
+                            deserializedDiscoveryStats.getClusterStateUpdateStats().getExecutorStats();
+                        assertEquals(updateStats.getExecutorStats().keySet(), deserializedExecutorStats.keySet());
+                        for (Map.Entry<String, ClusterStateUpdateStats.ExecutorStats> entry : updateStats.getExecutorStats().entrySet()) {
+                            ClusterStateUpdateStats.ExecutorStats executorStats = entry.getValue();
+                            ClusterStateUpdateStats.ExecutorStats deserialized = deserializedExecutorStats.get(entry.getKey());
+                            assertEquals(executorStats.getBatchCount(), deserialized.getBatchCount());
+                            assertEquals(executorStats.getTaskCount(), deserialized.getTaskCount());
+                            assertEquals(executorStats.getMaxBatchSize(), deserialized.getMaxBatchSize());
+                            assertEquals(executorStats.getQueueTimeInMillis(), deserialized.getQueueTimeInMillis());
+                            assertEquals(executorStats.getComputeTimeInMillis(), deserialized.getComputeTimeInMillis());
+                            assertEquals(executorStats.getPublishedCount(), deserialized.getPublishedCount());
+                            assertEquals(executorStats.getPublishTimeInMillis(), deserialized.getPublishTimeInMillis());
+                        }
+                    }
                 }
                 IngestStats ingestStats = nodeStats.getIngestStats();
                 IngestStats deserializedIngestStats = deserializedNodeStats.getIngestStats();
@@ -414,7 +449,7 @@ public class NodeStatsTests extends ESTestCase {
             fsInfo = new FsInfo(randomNonNegativeLong(), ioStats, paths);
         }
         TransportStats transportStats = frequently() ? new TransportStats(randomNonNegativeLong(), randomNonNegativeLong(),
-                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()) : null;
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong()) : null;
         HttpStats httpStats = frequently() ? new HttpStats(randomNonNegativeLong(), randomNonNegativeLong()) : null;
         AllCircuitBreakerStats allCircuitBreakerStats = null;
         if (frequently()) {
@@ -434,9 +469,19 @@ public class NodeStatsTests extends ESTestCase {
                 : null,
                 randomBoolean()
                 ? new PublishClusterStateStats(
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
+                    randomNonNegativeLong(),
                     randomNonNegativeLong(),
                     randomNonNegativeLong(),
                     randomNonNegativeLong())
+                : null,
+                randomBoolean()
+                ? randomClusterStateUpdateStats()
                 : null)
             : null;
         IngestStats ingestStats = null;
@@ -493,4 +538,15 @@ public class NodeStatsTests extends ESTestCase {
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
+
+    private static ClusterStateUpdateStats randomClusterStateUpdateStats() {
+        Map<String, ClusterStateUpdateStats.ExecutorStats> executorStats = new HashMap<>();
+        int numExecutors = randomIntBetween(0, 5);
+        for (int i = 0; i < numExecutors; i++) {
+            executorStats.put(randomAlphaOfLengthBetween(3, 10), new ClusterStateUpdateStats.ExecutorStats(randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong()));
+        }
+        return new ClusterStateUpdateStats(executorStats);
+    }
 }
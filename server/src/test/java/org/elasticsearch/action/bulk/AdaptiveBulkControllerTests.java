@@ -0,0 +1,109 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.DocWriteRequest.OpType;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class AdaptiveBulkControllerTests extends ESTestCase {
+
+    public void testInvalidTargetTook() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> new AdaptiveBulkController(1, 100, 1024, TimeValue.ZERO));
+        assertThat(e.getMessage(), equalTo("target took time must be positive but was [0s]"));
+    }
+
+    public void testIncreasesUpToConfiguredLimits() {
+        final int maxConcurrentRequests = randomIntBetween(1, 8);
+        final AdaptiveBulkController controller = new AdaptiveBulkController(maxConcurrentRequests, 1000, 1 << 20,
+            TimeValue.timeValueSeconds(1));
+        assertThat(controller.concurrentRequests(), equalTo(1));
+        assertThat(controller.bulkActions(), equalTo(1000));
+        assertThat(controller.bulkSize(), equalTo(1L << 20));
+
+        for (int i = 1; i < maxConcurrentRequests; i++) {
+            assertThat(controller.onResponse(healthy()), equalTo(i + 1));
+        }
+        assertThat(controller.onResponse(healthy()), equalTo(maxConcurrentRequests));
+        assertThat(controller.bulkActions(), equalTo(1000));
+        assertThat(controller.bulkSize(), equalTo(1L << 20));
+    }
+
+    public void testRejectionsHalveConcurrency() {
+        final AdaptiveBulkController controller = new AdaptiveBulkController(8, 1000, 1 << 20, TimeValue.timeValueSeconds(1));
+        for (int i = 0; i < 7; i++) {
+            controller.onResponse(healthy());
+        }
+        assertThat(controller.concurrentRequests(), equalTo(8));
+        assertThat(controller.onResponse(rejected()), equalTo(4));
+        assertThat(controller.onFailure(new EsRejectedExecutionException("rejected")), equalTo(2));
+        // failures that are not caused by back pressure leave the controller alone
+        assertThat(controller.onFailure(new IllegalStateException("boom")), equalTo(2));
+        assertThat(controller.onResponse(rejected()), equalTo(1));
+        assertThat(controller.onResponse(rejected()), equalTo(1));
+        // the batch size is only driven by the took time
+        assertThat(controller.bulkActions(), equalTo(1000));
+    }
+
+    public void testSlowResponsesHalveBatchSize() {
+        final AdaptiveBulkController controller = new AdaptiveBulkController(4, 1000, -1, TimeValue.timeValueMillis(100));
+        assertThat(controller.onResponse(slow()), equalTo(1));
+        assertThat(controller.bulkActions(), equalTo(500));
+        assertThat(controller.bulkSize(), equalTo(-1L));
+        controller.onResponse(slow());
+        assertThat(controller.bulkActions(), equalTo(250));
+        for (int i = 0; i < 20; i++) {
+            controller.onResponse(slow());
+        }
+        assertThat(controller.bulkActions(), equalTo((int) Math.round(1000 * AdaptiveBulkController.MIN_BATCH_RATIO)));
+
+        controller.onResponse(healthy());
+        assertThat(controller.bulkActions(), equalTo((int) Math.round(1000 * (AdaptiveBulkController.MIN_BATCH_RATIO
+            + AdaptiveBulkController.BATCH_RATIO_STEP))));
+        assertThat(controller.concurrentRequests(), equalTo(2));
+    }
+
+    public void testSynchronousProcessorOnlyAdjustsBatchSize() {
+        final AdaptiveBulkController controller = new AdaptiveBulkController(0, 1000, 1 << 20, TimeValue.timeValueMillis(100));
+        assertThat(controller.concurrentRequests(), equalTo(0));
+        assertThat(controller.onResponse(healthy()), equalTo(0));
+        assertThat(controller.onResponse(rejected()), equalTo(0));
+        controller.onResponse(slow());
+        assertThat(controller.bulkActions(), equalTo(500));
+        assertThat(controller.bulkSize(), equalTo(1L << 19));
+    }
+
+    private static BulkResponse healthy() {
+        return new BulkResponse(new BulkItemResponse[0], randomIntBetween(0, 10));
+    }
+
+    private static BulkResponse slow() {
+        return new BulkResponse(new BulkItemResponse[0], randomIntBetween(101, 10_000));
+    }
+
+    private static BulkResponse rejected() {
+        BulkItemResponse.Failure failure = new BulkItemResponse.Failure("index", "type", "id",
+            new EsRejectedExecutionException("rejected"));
+        return new BulkResponse(new BulkItemResponse[] { new BulkItemResponse(0, OpType.INDEX, failure) }, randomIntBetween(0, 10));
+    }
+}
@@ -31,11 +31,15 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.After;
 import org.junit.Before;
 
+import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 
+import static org.hamcrest.Matchers.equalTo;
+
 public class BulkProcessorTests extends ESTestCase {
 
     private ThreadPool threadPool;
@@ -103,6 +107,24 @@ public class BulkProcessorTests extends ESTestCase {
         assertTrue(called.get());
     }
 
+    public void testBulkProcessorShrinksBatchesOnSlowResponses() throws Exception {
+        final AtomicInteger lastBatch = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(3);
+        BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer = (request, listener) -> {
+            lastBatch.set(request.numberOfActions());
+            listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1000));
+            latch.countDown();
+        };
+        BulkProcessor bulkProcessor = new BulkProcessor(consumer, BackoffPolicy.noBackoff(), emptyListener(), 0, 64,
+            new ByteSizeValue(-1), null, (delay, executor, command) -> null, () -> {}, BulkRequest::new, TimeValue.timeValueMillis(10));
+        for (int i = 0; i < 64 + 32 + 16; i++) {
+            bulkProcessor.add(new IndexRequest("index", "type", Integer.toString(i)).source(Collections.emptyMap()));
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(lastBatch.get(), equalTo(16));
+        bulkProcessor.close();
+    }
+
     private BulkProcessor.Listener emptyListener() {
         return new BulkProcessor.Listener() {
             @Override
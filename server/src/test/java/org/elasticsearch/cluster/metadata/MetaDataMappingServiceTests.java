@@ -33,8 +33,11 @@ import org.elasticsearch.index.mapper.MapperParsingException;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.test.VersionUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 
@@ -144,4 +147,55 @@ public class MetaDataMappingServiceTests extends ESSingleNodeTestCase {
         assertThat(result.resultingState.metaData().index("test").getMappingVersion(), equalTo(previousVersion));
     }
 
+    public void testIdenticalMappingUpdatesInBatch() throws Exception {
+        final IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test").addMapping("type"));
+        final long previousVersion = indexService.getMetaData().getMappingVersion();
+        final MetaDataMappingService mappingService = getInstanceFromNode(MetaDataMappingService.class);
+        final ClusterService clusterService = getInstanceFromNode(ClusterService.class);
+        final List<PutMappingClusterStateUpdateRequest> requests = new ArrayList<>();
+        final int numRequests = randomIntBetween(2, 5);
+        for (int i = 0; i < numRequests; i++) {
+            final PutMappingClusterStateUpdateRequest request = new PutMappingClusterStateUpdateRequest().type("type");
+            request.indices(new Index[] {indexService.index()});
+            request.source("{ \"properties\": { \"field\": { \"type\": \"text\" }}}");
+            requests.add(request);
+        }
+        final ClusterStateTaskExecutor.ClusterTasksResult<PutMappingClusterStateUpdateRequest> result =
+                mappingService.putMappingExecutor.execute(clusterService.state(), requests);
+        assertThat(result.executionResults.size(), equalTo(numRequests));
+        for (PutMappingClusterStateUpdateRequest request : requests) {
+            assertTrue(result.executionResults.get(request).isSuccess());
+        }
+        assertThat(result.resultingState.metaData().index("test").getMappingVersion(), equalTo(1 + previousVersion));
+    }
+
+    public void testDifferentMappingUpdatesInBatchAreMergedPerIndex() throws Exception {
+        final IndexService indexService = createIndex("test", client().admin().indices().prepareCreate("test").addMapping("type"));
+        final long previousVersion = indexService.getMetaData().getMappingVersion();
+        final long previousMetaDataVersion = indexService.getMetaData().getVersion();
+        final MetaDataMappingService mappingService = getInstanceFromNode(MetaDataMappingService.class);
+        final ClusterService clusterService = getInstanceFromNode(ClusterService.class);
+        final List<PutMappingClusterStateUpdateRequest> requests = new ArrayList<>();
+        final int numRequests = randomIntBetween(2, 5);
+        for (int i = 0; i < numRequests; i++) {
+            final PutMappingClusterStateUpdateRequest request = new PutMappingClusterStateUpdateRequest().type("type");
+            request.indices(new Index[] {indexService.index()});
+            request.source("{ \"properties\": { \"field" + i + "\": { \"type\": \"keyword\" }}}");
+            requests.add(request);
+        }
+        final ClusterStateTaskExecutor.ClusterTasksResult<PutMappingClusterStateUpdateRequest> result =
+                mappingService.putMappingExecutor.execute(clusterService.state(), requests);
+        for (PutMappingClusterStateUpdateRequest request : requests) {
+            assertTrue(result.executionResults.get(request).isSuccess());
+        }
+        final IndexMetaData indexMetaData = result.resultingState.metaData().index("test");
+        // all updates end up in the mapping, which is built only once
+        assertThat(indexMetaData.getMappingVersion(), equalTo(1 + previousVersion));
+        assertThat(indexMetaData.getVersion(), equalTo(1 + previousMetaDataVersion));
+        final String mapping = indexMetaData.mapping("type").source().string();
+        for (int i = 0; i < numRequests; i++) {
+            assertThat(mapping, containsString("field" + i));
+        }
+    }
+
 }
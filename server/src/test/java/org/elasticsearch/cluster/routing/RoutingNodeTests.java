@@ -0,0 +1,151 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+public class RoutingNodeTests extends ESTestCase {
+
+    private final DiscoveryNode discoveryNode =
+        new DiscoveryNode("node1", buildNewFakeTransportAddress(), emptyMap(), emptySet(), Version.CURRENT);
+
+    public void testShardStateTransitions() {
+        final ShardRouting initializing = TestShardRouting.newShardRouting("test", 0, "node1", true, ShardRoutingState.INITIALIZING);
+        final ShardRouting started = TestShardRouting.newShardRouting("test", 1, "node1", true, ShardRoutingState.STARTED);
+        final RoutingNode routingNode = new RoutingNode("node1", discoveryNode, initializing, started);
+        assertEquals(singletonList(initializing), routingNode.shardsWithState(ShardRoutingState.INITIALIZING));
+        assertEquals(1, routingNode.numberOfShardsWithState(ShardRoutingState.INITIALIZING));
+        assertEquals(emptyList(), routingNode.shardsWithState(ShardRoutingState.RELOCATING));
+        assertEquals(2, routingNode.numberOfOwningShards());
+
+        final ShardRouting startedAfterInitializing = initializing.moveToStarted();
+        routingNode.update(initializing, startedAfterInitializing);
+        assertEquals(emptyList(), routingNode.shardsWithState(ShardRoutingState.INITIALIZING));
+        assertEquals(0, routingNode.numberOfShardsWithState(ShardRoutingState.INITIALIZING));
+        assertThat(routingNode.shardsWithState(ShardRoutingState.STARTED), containsInAnyOrder(startedAfterInitializing, started));
+        assertEquals(2, routingNode.numberOfOwningShards());
+
+        final ShardRouting relocating = started.relocate("node2", 0);
+        routingNode.update(started, relocating);
+        assertEquals(singletonList(relocating), routingNode.shardsWithState(ShardRoutingState.RELOCATING));
+        assertEquals(1, routingNode.numberOfShardsWithState(ShardRoutingState.RELOCATING));
+        assertEquals(singletonList(relocating),
+            routingNode.shardsWithState(ShardRoutingState.INITIALIZING, ShardRoutingState.RELOCATING));
+        assertEquals(1, routingNode.numberOfOwningShards());
+
+        final ShardRouting relocationCancelled = relocating.cancelRelocation();
+        routingNode.update(relocating, relocationCancelled);
+        assertEquals(emptyList(), routingNode.shardsWithState(ShardRoutingState.RELOCATING));
+        assertEquals(0, routingNode.numberOfShardsWithState(ShardRoutingState.RELOCATING));
+        assertEquals(2, routingNode.numberOfOwningShards());
+
+        final ShardRouting added = TestShardRouting.newShardRouting("other", 0, "node1", false, ShardRoutingState.INITIALIZING);
+        routingNode.add(added);
+        assertEquals(singletonList(added), routingNode.shardsWithState(ShardRoutingState.INITIALIZING));
+        assertEquals(singletonList(added), routingNode.shardsWithState("other", ShardRoutingState.INITIALIZING));
+        assertEquals(3, routingNode.numberOfShardsWithState(ShardRoutingState.INITIALIZING, ShardRoutingState.STARTED));
+        assertEquals(3, routingNode.numberOfOwningShards());
+
+        routingNode.remove(added);
+        assertEquals(emptyList(), routingNode.shardsWithState(ShardRoutingState.INITIALIZING));
+        assertEquals(0, routingNode.numberOfShardsWithState(ShardRoutingState.INITIALIZING));
+        assertEquals(2, routingNode.numberOfOwningShards());
+    }
+
+    public void testRandomShardStateTransitions() {
+        final RoutingNode routingNode = new RoutingNode("node1", discoveryNode);
+        final int numShards = randomIntBetween(1, 20);
+        for (int i = 0; i < numShards; i++) {
+            routingNode.add(randomShard(i));
+        }
+        final int iterations = randomIntBetween(1, 200);
+        for (int i = 0; i < iterations; i++) {
+            final List<ShardRouting> shards = routingNode.copyShards();
+            if (shards.isEmpty() || rarely()) {
+                final int shardId = numShards + i;
+                routingNode.add(randomShard(shardId));
+            } else {
+                final ShardRouting shard = randomFrom(shards);
+                if (rarely()) {
+                    routingNode.remove(shard);
+                } else {
+                    switch (shard.state()) {
+                        case INITIALIZING:
+                            routingNode.update(shard, shard.moveToStarted());
+                            break;
+                        case STARTED:
+                            routingNode.update(shard, shard.relocate("node2", 0));
+                            break;
+                        case RELOCATING:
+                            routingNode.update(shard, shard.cancelRelocation());
+                            break;
+                        default:
+                            throw new AssertionError("unexpected state " + shard.state());
+                    }
+                }
+            }
+            assertShardsWithState(routingNode);
+        }
+    }
+
+    private static ShardRouting randomShard(int shardId) {
+        final ShardRoutingState state =
+            randomFrom(ShardRoutingState.INITIALIZING, ShardRoutingState.STARTED, ShardRoutingState.RELOCATING);
+        final String relocatingNodeId = state == ShardRoutingState.RELOCATING ? "node2" : null;
+        return TestShardRouting.newShardRouting("test", shardId, "node1", relocatingNodeId, randomBoolean(), state);
+    }
+
+    private static void assertShardsWithState(RoutingNode routingNode) {
+        for (List<ShardRoutingState> states : Arrays.asList(
+                singletonList(ShardRoutingState.INITIALIZING),
+                singletonList(ShardRoutingState.RELOCATING),
+                singletonList(ShardRoutingState.STARTED),
+                Arrays.asList(ShardRoutingState.INITIALIZING, ShardRoutingState.RELOCATING))) {
+            final List<ShardRouting> expected = new ArrayList<>();
+            for (ShardRouting shard : routingNode) {
+                if (states.contains(shard.state())) {
+                    expected.add(shard);
+                }
+            }
+            final ShardRoutingState[] statesArray = states.toArray(new ShardRoutingState[0]);
+            assertThat(routingNode.shardsWithState(statesArray), containsInAnyOrder(expected.toArray(new ShardRouting[0])));
+            assertEquals(expected.size(), routingNode.numberOfShardsWithState(statesArray));
+        }
+        int relocating = 0;
+        for (ShardRouting shard : routingNode) {
+            if (shard.relocating()) {
+                relocating++;
+            }
+        }
+        assertEquals(routingNode.size() - relocating, routingNode.numberOfOwningShards());
+    }
+}
@@ -80,6 +80,7 @@ import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class MasterServiceTests extends ESTestCase {
 
@@ -597,6 +598,138 @@ public class MasterServiceTests extends ESTestCase {
         }
     }
 
+    public void testBatchesAreLimitedToMaxBatchSize() throws InterruptedException {
+        final int maxBatchSize = randomIntBetween(1, 5);
+        final int numTasks = randomIntBetween(1, 30);
+        final BoundedBatchExecutor executor = new BoundedBatchExecutor(maxBatchSize);
+        final CountDownLatch latch = new CountDownLatch(numTasks);
+        final ClusterStateTaskListener listener = new ClusterStateTaskListener() {
+            @Override
+            public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+        // block the master service so that all tasks are queued before the first batch executes
+        final CountDownLatch block = new CountDownLatch(1);
+        masterService.submitStateUpdateTask("block", new ClusterStateUpdateTask() {
+            @Override
+            public ClusterState execute(ClusterState currentState) throws Exception {
+                block.await();
+                return currentState;
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        for (int i = 0; i < numTasks; i++) {
+            masterService.submitStateUpdateTask("testBatchesAreLimitedToMaxBatchSize", new Object(),
+                ClusterStateTaskConfig.build(Priority.NORMAL), executor, listener);
+        }
+        block.countDown();
+        latch.await();
+
+        assertEquals(numTasks, executor.executedTasks.get());
+        assertThat(executor.largestBatch.get(), lessThanOrEqualTo(maxBatchSize));
+        final int expectedBatches = (numTasks + maxBatchSize - 1) / maxBatchSize;
+        assertEquals(expectedBatches, executor.batches.get());
+
+        final ClusterStateUpdateStats.ExecutorStats stats =
+            masterService.stats().getExecutorStats().get("BoundedBatchExecutor");
+        assertNotNull(stats);
+        assertEquals(expectedBatches, stats.getBatchCount());
+        assertEquals(numTasks, stats.getTaskCount());
+        assertEquals(executor.largestBatch.get(), stats.getMaxBatchSize());
+        assertEquals(expectedBatches, stats.getPublishedCount());
+    }
+
+    public void testTasksSubmittedTogetherAreNotSplit() throws InterruptedException {
+        final int numTasks = randomIntBetween(2, 10);
+        final BoundedBatchExecutor executor = new BoundedBatchExecutor(1);
+        final CountDownLatch latch = new CountDownLatch(numTasks);
+        final Map<Object, ClusterStateTaskListener> tasks = new HashMap<>();
+        for (int i = 0; i < numTasks; i++) {
+            tasks.put(new Object(), new ClusterStateTaskListener() {
+                @Override
+                public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+
+        masterService.submitStateUpdateTasks("testTasksSubmittedTogetherAreNotSplit", tasks, ClusterStateTaskConfig.build(Priority.NORMAL),
+            executor);
+        latch.await();
+
+        assertEquals(1, executor.batches.get());
+        assertEquals(numTasks, executor.executedTasks.get());
+    }
+
+    public void testExecutorStatsNames() {
+        assertEquals("BoundedBatchExecutor", new BoundedBatchExecutor(1).statsName());
+        final ClusterStateUpdateTask anonymousTask = new ClusterStateUpdateTask() {
+            @Override
+            public ClusterState execute(ClusterState currentState) {
+                return currentState;
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+            }
+        };
+        assertEquals("MasterServiceTests", anonymousTask.statsName());
+        final ClusterStateTaskExecutor<Object> lambda =
+            (currentState, tasks) -> ClusterStateTaskExecutor.ClusterTasksResult.builder().build(currentState);
+        assertEquals("MasterServiceTests", lambda.statsName());
+        final ClusterStateTaskExecutor<Object> named = new ClusterStateTaskExecutor<Object>() {
+            @Override
+            public ClusterTasksResult<Object> execute(ClusterState currentState, List<Object> tasks) {
+                return ClusterTasksResult.builder().build(currentState);
+            }
+
+            @Override
+            public String statsName() {
+                return "named";
+            }
+        };
+        assertEquals("named", named.statsName());
+    }
+
+    private static class BoundedBatchExecutor implements ClusterStateTaskExecutor<Object> {
+        private final int maxBatchSize;
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger executedTasks = new AtomicInteger();
+        private final AtomicInteger largestBatch = new AtomicInteger();
+
+        BoundedBatchExecutor(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public ClusterTasksResult<Object> execute(ClusterState currentState, List<Object> tasks) {
+            batches.incrementAndGet();
+            executedTasks.addAndGet(tasks.size());
+            largestBatch.accumulateAndGet(tasks.size(), Math::max);
+            return ClusterTasksResult.builder().successes(tasks).build(ClusterState.builder(currentState).build());
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return maxBatchSize;
+        }
+    }
+
     public void testBlockingCallInClusterStateTaskListenerFails() throws InterruptedException {
         assumeTrue("assertions must be enabled for this test to work", BaseFuture.class.desiredAssertionStatus());
         final CountDownLatch latch = new CountDownLatch(1);
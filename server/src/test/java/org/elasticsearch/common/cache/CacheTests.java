@@ -914,6 +914,99 @@ public class CacheTests extends ESTestCase {
         assertEquals(500, cache.count());
     }
 
+    // buffered promotions must be applied before the LRU list is used to evict entries
+    public void testBufferedPromotionsBeforeEviction() {
+        final int maximumWeight = randomIntBetween(Cache.READ_BUFFER_SIZE, 4 * Cache.READ_BUFFER_SIZE);
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().setMaximumWeight(maximumWeight).build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        // reading the oldest entry makes it the most recently used one
+        assertEquals("0", cache.get(0));
+        cache.put(maximumWeight, Integer.toString(maximumWeight));
+        assertEquals(maximumWeight, cache.count());
+        assertEquals("0", cache.get(0));
+        assertNull(cache.get(1));
+        Iterator<Integer> keys = cache.keys().iterator();
+        assertEquals(Integer.valueOf(0), keys.next());
+    }
+
+    // cache hits evict expired entries even if they don't need to drain their read buffer
+    public void testHitEvictsExpiredEntries() {
+        AtomicLong now = new AtomicLong();
+        Cache<Integer, String> cache = new Cache<Integer, String>() {
+            @Override
+            protected long now() {
+                return now.get();
+            }
+        };
+        cache.setExpireAfterWriteNanos(2);
+        List<Integer> evictedKeys = new ArrayList<>();
+        cache.setRemovalListener(notification -> {
+            assertEquals(RemovalNotification.RemovalReason.EVICTED, notification.getRemovalReason());
+            evictedKeys.add(notification.getKey());
+        });
+        now.set(0);
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        now.set(1);
+        cache.put(numberOfEntries, Integer.toString(numberOfEntries));
+        now.set(3);
+        assertEquals(Integer.toString(numberOfEntries), cache.get(numberOfEntries));
+        assertEquals(1, cache.count());
+        assertEquals(numberOfEntries, evictedKeys.size());
+    }
+
+    public void testConcurrentReadsAndWrites() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(1000)
+                        .weigher((k, v) -> 2)
+                        .build();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        Integer key = random.nextInt(1000);
+                        if (random.nextInt(10) == 0) {
+                            cache.put(key, Integer.toString(key));
+                        } else {
+                            String value = cache.get(key);
+                            if (value != null) {
+                                assertEquals(Integer.toString(key), value);
+                            }
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        cache.refresh();
+        assertTrue(cache.count() <= 500);
+        assertEquals(2L * cache.count(), cache.weight());
+        int keys = 0;
+        for (Integer key : cache.keys()) {
+            assertEquals(Integer.toString(key), cache.get(key));
+            keys++;
+        }
+        assertEquals(cache.count(), keys);
+    }
+
     public void testRemoveUsingValuesIterator() {
         final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
         Cache<Integer, String> cache =
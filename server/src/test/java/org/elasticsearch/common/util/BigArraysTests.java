@@ -22,6 +22,8 @@ package org.elasticsearch.common.util;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
@@ -32,17 +34,21 @@ import org.junit.Before;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
 import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class BigArraysTests extends ESTestCase {
 
     private BigArrays randombigArrays() {
-        return new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        final Settings settings = Settings.builder().put(PageCacheRecycler.DIRECT_SETTING.getKey(), randomBoolean()).build();
+        return new MockBigArrays(new MockPageCacheRecycler(settings), new NoneCircuitBreakerService());
     }
 
     private BigArrays bigArrays;
@@ -377,6 +383,88 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testDirectPages() {
+        final long maxSize = 1 << 22;
+        final HierarchyCircuitBreakerService hcbs = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), maxSize, ByteSizeUnit.BYTES)
+                .build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final Settings settings = Settings.builder().put(PageCacheRecycler.DIRECT_SETTING.getKey(), true).build();
+        final BigArrays bigArrays = new BigArrays(new MockPageCacheRecycler(settings), hcbs, CircuitBreaker.REQUEST).withCircuitBreaking();
+        final CircuitBreaker breaker = hcbs.getBreaker(CircuitBreaker.REQUEST);
+        final int size = randomIntBetween(PageCacheRecycler.INT_PAGE_SIZE + 1, 1 << 16);
+
+        IntArray ints = bigArrays.newIntArray(size);
+        assertThat(ints, instanceOf(BigDirectIntArray.class));
+        LongArray longs = bigArrays.newLongArray(size);
+        assertThat(longs, instanceOf(BigDirectLongArray.class));
+        DoubleArray doubles = bigArrays.newDoubleArray(size);
+        assertThat(doubles, instanceOf(BigDirectDoubleArray.class));
+        assertEquals(ints.ramBytesUsed() + longs.ramBytesUsed() + doubles.ramBytesUsed(), breaker.getUsed());
+
+        for (int i = 0; i < size; ++i) {
+            assertEquals(0, ints.get(i));
+            assertEquals(0L, longs.get(i));
+            assertEquals(0d, doubles.get(i), 0d);
+            ints.set(i, i);
+            longs.increment(i, -i);
+            doubles.set(i, i / 2d);
+        }
+        ints = bigArrays.grow(ints, size * 2);
+        longs = bigArrays.grow(longs, size * 2);
+        doubles = bigArrays.grow(doubles, size * 2);
+        assertThat(ints, instanceOf(BigDirectIntArray.class));
+        assertEquals(ints.ramBytesUsed() + longs.ramBytesUsed() + doubles.ramBytesUsed(), breaker.getUsed());
+        for (int i = 0; i < size; ++i) {
+            assertEquals(i, ints.get(i));
+            assertEquals(-i, longs.get(i));
+            assertEquals(i / 2d, doubles.get(i), 0d);
+        }
+        for (long i = size; i < ints.size(); ++i) {
+            assertEquals(0, ints.get(i));
+        }
+        Releasables.close(ints, longs, doubles);
+        assertEquals(0, breaker.getUsed());
+    }
+
+    public void testDirectPagesBeyondLimitAreHeapPages() {
+        final Settings settings = Settings.builder()
+            .put(PageCacheRecycler.DIRECT_SETTING.getKey(), true)
+            .put(PageCacheRecycler.LIMIT_DIRECT_SETTING.getKey(), PageCacheRecycler.PAGE_SIZE_IN_BYTES, ByteSizeUnit.BYTES)
+            .build();
+        final PageCacheRecycler recycler = new PageCacheRecycler(settings);
+        final Recycler.V<ByteBuffer> first = recycler.directPage(true);
+        assertTrue(first.v().isDirect());
+        final ByteBuffer firstPage = first.v();
+        firstPage.putLong(0, randomValueOtherThan(0L, ESTestCase::randomLong));
+
+        final Recycler.V<ByteBuffer> second = recycler.directPage(true);
+        assertFalse(second.v().isDirect());
+        assertEquals(PageCacheRecycler.PAGE_SIZE_IN_BYTES, second.v().capacity());
+        assertEquals(ByteOrder.nativeOrder(), second.v().order());
+        Releasables.close(first, second);
+
+        final Recycler.V<ByteBuffer> recycled = recycler.directPage(true);
+        assertTrue(recycled.isRecycled());
+        assertSame(firstPage, recycled.v());
+        assertEquals(0L, recycled.v().getLong(0));
+        recycled.close();
+        recycler.close();
+    }
+
+    public void testNoneRecyclerNeverAllocatesDirectPages() {
+        final Settings settings = Settings.builder()
+            .put(PageCacheRecycler.DIRECT_SETTING.getKey(), true)
+            .put(PageCacheRecycler.TYPE_SETTING.getKey(), "none")
+            .build();
+        final PageCacheRecycler recycler = new PageCacheRecycler(settings);
+        try (Recycler.V<ByteBuffer> page = recycler.directPage(randomBoolean())) {
+            assertFalse(page.v().isDirect());
+        }
+        recycler.close();
+    }
+
     public void testEstimatedBytesSameAsActualBytes() throws Exception {
         final int maxSize = 1 << scaledRandomIntBetween(15, 22);
         final long size = randomIntBetween((1 << 14) + 1, maxSize);
@@ -240,6 +240,25 @@ public class BytesRefHashTests extends ESSingleNodeTestCase {
         hash.close();
     }
 
+    public void testFindReadOnly() {
+        BytesRefBuilder ref = new BytesRefBuilder();
+        int num = scaledRandomIntBetween(2, 20);
+        for (int j = 0; j < num; j++) {
+            for (int i = 0; i < 797; i++) {
+                String str;
+                do {
+                    str = TestUtil.randomRealisticUnicodeString(random(), 1000);
+                } while (str.length() == 0);
+                ref.copyChars(str);
+                assertEquals(hash.find(ref.get()), hash.findReadOnly(ref.get()));
+                final long key = hash.add(ref.get());
+                assertEquals(key < 0 ? -1 - key : key, hash.findReadOnly(ref.get()));
+            }
+            newHash();
+        }
+        hash.close();
+    }
+
     private void assertAllIn(Set<String> strings, BytesRefHash hash) {
         BytesRefBuilder ref = new BytesRefBuilder();
         BytesRef scratch = new BytesRef();
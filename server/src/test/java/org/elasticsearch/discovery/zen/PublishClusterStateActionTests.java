@@ -753,6 +753,13 @@ public class PublishClusterStateActionTests extends ESTestCase {
         assertPublishClusterStateStats("nodeA: after unsuccessful diff update", nodeA, 0, 0, 0);
         assertPublishClusterStateStats("nodeB: after unsuccessful diff update", nodeB, 2, 1, 1);
 
+        // all three publications were committed by node A
+        assertThat(nodeA.action.stats().getPublishedCount(), equalTo(3L));
+        // and every node received and applied them within the publish timeout
+        assertThat(nodeA.action.stats().getSentCount(), equalTo(3L));
+        assertThat(nodeA.action.stats().getAppliedCount(), equalTo(3L));
+        assertThat(nodeB.action.stats().getPublishedCount(), equalTo(0L));
+
         // node A steps down from being master
         nodeA.resetMasterId();
         nodeB.resetMasterId();
@@ -22,10 +22,15 @@ import org.apache.lucene.index.NoMergePolicy;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 import static org.elasticsearch.common.settings.Settings.Builder.EMPTY_SETTINGS;
 import static org.elasticsearch.index.IndexSettingsTests.newIndexMeta;
@@ -159,6 +164,99 @@ public class MergePolicySettingsTests extends ESTestCase {
             MergePolicyConfig.DEFAULT_DELETES_PCT_ALLOWED, 0);
     }
 
+    public void testTimeSeriesMergePolicySettings() throws IOException {
+        final Settings timeSeries = Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series")
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING.getKey(), "@timestamp")
+            .build();
+        IndexSettings indexSettings = indexSettings(timeSeries);
+        TimeSeriesMergePolicy mergePolicy = (TimeSeriesMergePolicy) indexSettings.getMergePolicy();
+        assertThat(mergePolicy.getTimestampField(), equalTo("@timestamp"));
+        assertThat(mergePolicy.getBucketMillis(), equalTo(TimeValue.timeValueHours(24).millis()));
+        assertThat(mergePolicy.getSegmentsPerBucket(), equalTo(MergePolicyConfig.DEFAULT_SEGMENTS_PER_TIER));
+
+        indexSettings.updateIndexMetaData(newIndexMeta("index", Settings.builder().put(timeSeries)
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TIME_SERIES_BUCKET_SETTING.getKey(), "1h")
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_SEGMENTS_PER_TIER_SETTING.getKey(), 4)
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_MAX_MERGE_AT_ONCE_SETTING.getKey(), 3)
+            .build()));
+        assertThat(mergePolicy.getBucketMillis(), equalTo(TimeValue.timeValueHours(1).millis()));
+        assertThat(mergePolicy.getSegmentsPerBucket(), equalTo(4.0d));
+        assertThat(mergePolicy.getMaxMergeAtOnce(), equalTo(3));
+
+        // the timestamp field defaults to the primary sort field
+        indexSettings = indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series")
+            .putList(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "date", "id")
+            .build());
+        mergePolicy = (TimeSeriesMergePolicy) indexSettings.getMergePolicy();
+        assertThat(mergePolicy.getTimestampField(), equalTo("date"));
+
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series").build()));
+        assertThat(e.getMessage(), containsString("the [time_series] merge policy requires [index.merge.policy.time_series" +
+            ".timestamp_field] or [index.sort.field] to be set"));
+        e = expectThrows(IllegalArgumentException.class, () -> indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "log_byte_size").build()));
+        assertThat(e.getMessage(), containsString("unknown merge policy type [log_byte_size]"));
+
+        assertTrue(indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "tiered").build())
+            .getMergePolicy() instanceof EsTieredMergePolicy);
+    }
+
+    public void testTimeSeriesTimestampFieldMustBeADate() {
+        final MappedFieldType dateType = new DateFieldMapper.Builder("date").fieldType();
+        final MappedFieldType longType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        final Function<String, MappedFieldType> fieldTypes = name -> {
+            switch (name) {
+                case "date":
+                    return dateType;
+                case "id":
+                    return longType;
+                default:
+                    return null;
+            }
+        };
+
+        final IndexSettings sortedByDate = indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series")
+            .putList(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "date", "id")
+            .build());
+        MergePolicyConfig.validateTimestampField(sortedByDate, fieldTypes);
+
+        final IndexSettings sortedById = indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series")
+            .putList(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "id", "date")
+            .build());
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> MergePolicyConfig.validateTimestampField(sortedById, fieldTypes));
+        assertThat(e.getMessage(), containsString("the [time_series] merge policy requires [index.merge.policy.time_series" +
+            ".timestamp_field] to be set since the first field of [index.sort.field] is not a date field: [id] is of type [long]"));
+
+        final IndexSettings explicitDate = indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series")
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING.getKey(), "date")
+            .putList(IndexSortConfig.INDEX_SORT_FIELD_SETTING.getKey(), "id")
+            .build());
+        MergePolicyConfig.validateTimestampField(explicitDate, fieldTypes);
+
+        // the timestamp field might be mapped later on
+        final IndexSettings explicitUnmapped = indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series")
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING.getKey(), "@timestamp")
+            .build());
+        MergePolicyConfig.validateTimestampField(explicitUnmapped, fieldTypes);
+
+        final IndexSettings explicitLong = indexSettings(Settings.builder()
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TYPE_SETTING.getKey(), "time_series")
+            .put(MergePolicyConfig.INDEX_MERGE_POLICY_TIME_SERIES_TIMESTAMP_FIELD_SETTING.getKey(), "id")
+            .build());
+        e = expectThrows(IllegalArgumentException.class, () -> MergePolicyConfig.validateTimestampField(explicitLong, fieldTypes));
+        assertThat(e.getMessage(), containsString("[index.merge.policy.time_series.timestamp_field] must be a date field but [id] is " +
+            "of type [long]"));
+    }
+
     public Settings build(String value) {
         return Settings.builder().put(MergePolicyConfig.INDEX_COMPOUND_FORMAT_SETTING.getKey(), value).build();
     }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.MergeTrigger;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.InfoStream;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TimeSeriesMergePolicyTests extends ESTestCase {
+
+    public void testReadTimeRange() throws IOException {
+        try (Directory dir = newDirectory()) {
+            final IndexWriterConfig iwc = new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+            iwc.setUseCompoundFile(randomBoolean());
+            try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+                addSegment(writer, 100, 200);
+                final Document doc = new Document();
+                doc.add(new StringField("id", "no_timestamp", Field.Store.NO));
+                writer.addDocument(doc);
+                writer.commit();
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            final TimeSeriesMergePolicy.TimeRange range = TimeSeriesMergePolicy.readTimeRange(infos.info(0).info, "@timestamp");
+            assertThat(range.min, equalTo(100L));
+            assertThat(range.max, equalTo(199L));
+            assertThat(TimeSeriesMergePolicy.readTimeRange(infos.info(0).info, "id"), nullValue());
+            assertThat(TimeSeriesMergePolicy.readTimeRange(infos.info(1).info, "@timestamp"), nullValue());
+        }
+    }
+
+    public void testOnlyMergeSegmentsOfTheSameBucket() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                addSegment(writer, 0, 100);
+                addSegment(writer, 2000, 2100);
+                addSegment(writer, 100, 200);
+                addSegment(writer, 2100, 2200);
+                addSegment(writer, 200, 300);
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            final TimeSeriesMergePolicy policy = new TimeSeriesMergePolicy("@timestamp", 1000);
+            policy.setSegmentsPerBucket(2);
+            final MergePolicy.MergeSpecification spec = policy.findMerges(MergeTrigger.EXPLICIT, infos, new MockMergeContext());
+            assertThat(spec.merges.size(), equalTo(1));
+            assertThat(names(spec.merges.get(0).segments), equalTo(names(infos.info(0), infos.info(2), infos.info(4))));
+
+            policy.setSegmentsPerBucket(3);
+            assertThat(policy.findMerges(MergeTrigger.EXPLICIT, infos, new MockMergeContext()), nullValue());
+
+            // a single bucket, segments are merged in time order
+            policy.setBucketMillis(10000);
+            policy.setMaxMergeAtOnce(2);
+            final MergePolicy.MergeSpecification adjacent = policy.findMerges(MergeTrigger.EXPLICIT, infos, new MockMergeContext());
+            assertThat(adjacent.merges.size(), equalTo(1));
+            final Set<String> merged = names(adjacent.merges.get(0).segments);
+            assertTrue(merged.toString(), Arrays.asList(names(infos.info(0), infos.info(2)), names(infos.info(2), infos.info(4)),
+                names(infos.info(4), infos.info(1)), names(infos.info(1), infos.info(3))).contains(merged));
+        }
+    }
+
+    public void testForcedMergesAreTimeOrdered() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                addSegment(writer, 300, 400);
+                addSegment(writer, 0, 100);
+                addSegment(writer, 200, 300);
+                addSegment(writer, 100, 200);
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            final Map<SegmentCommitInfo, Boolean> segmentsToMerge = new HashMap<>();
+            for (SegmentCommitInfo info : infos) {
+                segmentsToMerge.put(info, Boolean.TRUE);
+            }
+            final TimeSeriesMergePolicy policy = new TimeSeriesMergePolicy("@timestamp", 1);
+            final MergePolicy.MergeSpecification spec = policy.findForcedMerges(infos, 2, segmentsToMerge, new MockMergeContext());
+            assertThat(spec.merges.size(), equalTo(2));
+            assertThat(names(spec.merges.get(0).segments), equalTo(names(infos.info(1), infos.info(3))));
+            assertThat(names(spec.merges.get(1).segments), equalTo(names(infos.info(2), infos.info(0))));
+
+            final MergePolicy.MergeSpecification oneMerge = policy.findForcedMerges(infos, 3, segmentsToMerge, new MockMergeContext());
+            assertThat(oneMerge.merges.size(), equalTo(1));
+            assertThat(names(oneMerge.merges.get(0).segments), equalTo(names(infos.info(1), infos.info(3))));
+
+            assertThat(policy.findForcedMerges(infos, 4, segmentsToMerge, new MockMergeContext()), nullValue());
+        }
+    }
+
+    public void testReclaimDeletesOfTooLargeSegments() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+                addSegment(writer, 0, 100);
+                addSegment(writer, 100, 200);
+                writer.deleteDocuments(LongPoint.newRangeQuery("@timestamp", 0, 59));
+                writer.commit();
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            assertThat(infos.info(0).getDelCount(), equalTo(60));
+            final TimeSeriesMergePolicy policy = new TimeSeriesMergePolicy("@timestamp", 1000);
+            policy.setSegmentsPerBucket(2);
+            // both segments are too large to be merged with others
+            policy.setMaxMergedSegmentMB(1d / 1024 / 1024);
+            final MergePolicy.MergeSpecification spec = policy.findMerges(MergeTrigger.EXPLICIT, infos, new MockMergeContext());
+            assertThat(spec.merges.size(), equalTo(1));
+            assertThat(names(spec.merges.get(0).segments), equalTo(names(infos.info(0))));
+        }
+    }
+
+    public void testSegmentsDoNotOverlap() throws IOException {
+        final TimeSeriesMergePolicy policy = new TimeSeriesMergePolicy("@timestamp", randomIntBetween(100, 10000));
+        policy.setSegmentsPerBucket(randomIntBetween(2, 5));
+        policy.setMaxMergeAtOnce(randomIntBetween(2, 5));
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(policy))) {
+                long timestamp = 0;
+                final int numSegments = scaledRandomIntBetween(10, 50);
+                for (int i = 0; i < numSegments; i++) {
+                    final long next = timestamp + randomIntBetween(1, 500);
+                    addSegment(writer, timestamp, next);
+                    timestamp = next;
+                }
+                writer.forceMerge(randomIntBetween(1, 5));
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            final List<TimeSeriesMergePolicy.TimeRange> ranges = new ArrayList<>();
+            for (SegmentCommitInfo info : infos) {
+                ranges.add(TimeSeriesMergePolicy.readTimeRange(info.info, "@timestamp"));
+            }
+            ranges.sort((a, b) -> Long.compare(a.min, b.min));
+            for (int i = 1; i < ranges.size(); i++) {
+                assertTrue(ranges.get(i - 1).max < ranges.get(i).min);
+            }
+        }
+    }
+
+    private static void addSegment(IndexWriter writer, long fromTimestamp, long toTimestamp) throws IOException {
+        for (long timestamp = fromTimestamp; timestamp < toTimestamp; timestamp++) {
+            final Document doc = new Document();
+            doc.add(new LongPoint("@timestamp", timestamp));
+            writer.addDocument(doc);
+        }
+        writer.commit();
+    }
+
+    private static Set<String> names(Iterable<SegmentCommitInfo> infos) {
+        final Set<String> names = new HashSet<>();
+        for (SegmentCommitInfo info : infos) {
+            names.add(info.info.name);
+        }
+        return names;
+    }
+
+    private static Set<String> names(SegmentCommitInfo... infos) {
+        return names(Arrays.asList(infos));
+    }
+
+    private static final class MockMergeContext implements MergePolicy.MergeContext {
+        @Override
+        public int numDeletesToMerge(SegmentCommitInfo info) {
+            return info.getDelCount();
+        }
+
+        @Override
+        public int numDeletedDocs(SegmentCommitInfo info) {
+            return info.getDelCount();
+        }
+
+        @Override
+        public InfoStream getInfoStream() {
+            return InfoStream.NO_OUTPUT;
+        }
+
+        @Override
+        public Set<SegmentCommitInfo> getMergingSegments() {
+            return Collections.emptySet();
+        }
+    }
+}
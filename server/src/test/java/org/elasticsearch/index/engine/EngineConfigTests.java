@@ -40,7 +40,7 @@ public class EngineConfigTests extends ESTestCase {
             indexSettings, null, null, null, null,
             null, null, null, null, null,
             null, null, null, null, null, null,
-            null, null, null);
+            null, null, null, null);
 
         assertEquals(optimizeAutoGeneratedIds, config.isAutoGeneratedIDsOptimizationEnabled());
         assertSettingDeprecationsAndWarnings(new Setting<?>[]{EngineConfig.INDEX_OPTIMIZE_AUTO_GENERATED_IDS});
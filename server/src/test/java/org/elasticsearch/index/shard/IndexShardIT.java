@@ -645,7 +645,7 @@ public class IndexShardIT extends ESSingleNodeTestCase {
             shard.store(), indexService.getIndexSortSupplier(), indexService.cache(), indexService.mapperService(),
             indexService.similarityService(), shard.getEngineFactory(), indexService.getIndexEventListener(), wrapper,
             indexService.getThreadPool(), indexService.getBigArrays(), null, Collections.emptyList(), Arrays.asList(listeners),
-            () -> {}, cbs);
+            () -> {}, cbs, null);
         return newShard;
     }
 
@@ -429,7 +429,8 @@ public class CorruptedFileIT extends ESIntegTestCase {
                         BytesRef bytesRef = req.content().toBytesRef();
                         BytesArray array = new BytesArray(bytesRef.bytes, bytesRef.offset, (int) req.length() - 1);
                         request = new RecoveryFileChunkRequest(req.recoveryId(), req.shardId(), req.metadata(), req.position(),
-                            array, req.lastChunk(), req.totalTranslogOps(), req.sourceThrottleTimeInNanos());
+                            array, req.lastChunk(), req.totalTranslogOps(), req.sourceThrottleTimeInNanos(),
+                            req.roundTripTimeInNanos());
                     } else {
                         assert req.content().toBytesRef().bytes == req.content().toBytesRef().bytes : "no internal reference!!";
                         final byte[] array = req.content().toBytesRef().bytes;
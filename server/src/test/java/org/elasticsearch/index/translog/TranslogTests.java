@@ -485,7 +485,9 @@ public class TranslogTests extends ESTestCase {
                 builder.endObject();
                 assertThat(Strings.toString(builder), equalTo("{\"translog\":{\"operations\":4,\"size_in_bytes\":" + expectedSizeInBytes
                     + ",\"uncommitted_operations\":4,\"uncommitted_size_in_bytes\":" + expectedSizeInBytes
-                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge() + "}}"));
+                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge()
+                    + ",\"sync\":{\"total\":" + stats.getSyncCount() + ",\"total_time_in_millis\":" + stats.getSyncTimeInMillis()
+                    + ",\"locations\":" + stats.getSyncedLocations() + "}}}"));
             }
         }
 
@@ -532,7 +534,8 @@ public class TranslogTests extends ESTestCase {
         final List<TranslogStats> statsList = new ArrayList<>(n);
         for (int i = 0; i < n; i++) {
             final TranslogStats stats = new TranslogStats(randomIntBetween(1, 4096), randomIntBetween(1, 1 << 20),
-                randomIntBetween(1, 1 << 20), randomIntBetween(1, 4096), randomIntBetween(1, 1 << 20));
+                randomIntBetween(1, 1 << 20), randomIntBetween(1, 4096), randomIntBetween(1, 1 << 20),
+                randomIntBetween(0, 4096), randomIntBetween(0, 1 << 20), randomIntBetween(0, 1 << 20));
             statsList.add(stats);
             total.add(stats);
         }
@@ -552,6 +555,15 @@ public class TranslogTests extends ESTestCase {
         assertThat(
             total.getEarliestLastModifiedAge(),
             equalTo(1L));
+        assertThat(
+            total.getSyncCount(),
+            equalTo(statsList.stream().mapToLong(TranslogStats::getSyncCount).sum()));
+        assertThat(
+            total.getSyncTimeInMillis(),
+            equalTo(statsList.stream().mapToLong(TranslogStats::getSyncTimeInMillis).sum()));
+        assertThat(
+            total.getSyncedLocations(),
+            equalTo(statsList.stream().mapToLong(TranslogStats::getSyncedLocations).sum()));
     }
 
     public void testNegativeNumberOfOperations() {
@@ -579,6 +591,16 @@ public class TranslogTests extends ESTestCase {
         assertThat(e, hasToString(containsString("earliestLastModifiedAge must be >= 0")));
     }
 
+    public void testNegativeSyncStats() {
+        IllegalArgumentException e =
+            expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, -1, 1, 1));
+        assertThat(e, hasToString(containsString("syncCount must be >= 0")));
+        e = expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, 1, -1, 1));
+        assertThat(e, hasToString(containsString("syncTimeInMillis must be >= 0")));
+        e = expectThrows(IllegalArgumentException.class, () -> new TranslogStats(1, 1, 1, 1, 1, 1, 1, -1));
+        assertThat(e, hasToString(containsString("syncedLocations must be >= 0")));
+    }
+
     public void testSnapshot() throws IOException {
         ArrayList<Translog.Operation> ops = new ArrayList<>();
         try (Translog.Snapshot snapshot = translog.newSnapshot()) {
@@ -1202,6 +1224,34 @@ public class TranslogTests extends ESTestCase {
         }
     }
 
+    public void testSyncStats() throws IOException {
+        final TranslogStats initialStats = translog.stats();
+        final List<Location> locations = new ArrayList<>();
+        final int numOps = randomIntBetween(2, 100);
+        for (int op = 0; op < numOps; op++) {
+            locations.add(translog.add(new Translog.Index("test", "" + op, op, primaryTerm.get(),
+                Integer.toString(op).getBytes(Charset.forName("UTF-8")))));
+        }
+        Collections.shuffle(locations, random());
+        assertTrue(translog.ensureSynced(locations.stream()));
+        TranslogStats stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(initialStats.getSyncCount() + 1));
+        assertThat(stats.getSyncedLocations(), equalTo(initialStats.getSyncedLocations() + numOps));
+
+        // already synced locations neither cause another fsync nor count towards the group size
+        assertFalse(translog.ensureSynced(locations.get(0)));
+        assertFalse(translog.ensureSynced(locations.stream()));
+        stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(initialStats.getSyncCount() + 1));
+        assertThat(stats.getSyncedLocations(), equalTo(initialStats.getSyncedLocations() + numOps));
+
+        translog.add(new Translog.Index("test", "" + numOps, numOps, primaryTerm.get(), new byte[]{1}));
+        translog.sync();
+        stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(initialStats.getSyncCount() + 2));
+        assertThat(stats.getSyncTimeInMillis(), greaterThanOrEqualTo(initialStats.getSyncTimeInMillis()));
+    }
+
     public void testLocationComparison() throws IOException {
         List<Translog.Location> locations = new ArrayList<>();
         int translogOperations = randomIntBetween(10, 100);
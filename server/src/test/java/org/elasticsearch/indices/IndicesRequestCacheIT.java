@@ -29,6 +29,8 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram.Bucket;
+import org.elasticsearch.search.aggregations.metrics.sum.Sum;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.joda.time.DateTimeZone;
 
@@ -40,7 +42,10 @@ import java.util.List;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.dateRange;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.filter;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.histogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.sum;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
@@ -499,4 +504,118 @@ public class IndicesRequestCacheIT extends ESIntegTestCase {
             equalTo(2L));
     }
 
+    public void testCacheTopDocs() throws Exception {
+        Client client = client();
+        Settings settings = Settings.builder().put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build();
+        assertAcked(client.admin().indices().prepareCreate("index").addMapping("type", "s", "type=long")
+            .setSettings(settings).get());
+        indexRandom(true, client.prepareIndex("index", "type", "1").setSource("s", 1),
+            client.prepareIndex("index", "type", "2").setSource("s", 2),
+            client.prepareIndex("index", "type", "3").setSource("s", 3));
+        // field-sorted top docs are cached per segment
+        assertNoFailures(client.admin().indices().prepareForceMerge("index").setFlush(true).setMaxNumSegments(1).get());
+        refresh();
+        ensureSearchable("index");
+
+        // requests with hits are not cached by default
+        SearchResponse r1 = client.prepareSearch("index").setSearchType(SearchType.QUERY_THEN_FETCH).setSize(2)
+            .addSort("s", SortOrder.DESC).get();
+        assertSearchResponse(r1);
+        assertThat(client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache().getMissCount(),
+            equalTo(0L));
+
+        assertAcked(client.admin().indices().prepareUpdateSettings("index")
+            .setSettings(Settings.builder().put(IndicesRequestCache.INDEX_CACHE_REQUEST_TOP_DOCS_SETTING.getKey(), true)));
+        for (int i = 0; i < 3; i++) {
+            SearchResponse r = client.prepareSearch("index").setSearchType(SearchType.QUERY_THEN_FETCH).setSize(2)
+                .addSort("s", SortOrder.DESC).get();
+            assertSearchResponse(r);
+            assertThat(r.getHits().getTotalHits(), equalTo(3L));
+            assertThat(r.getHits().getHits().length, equalTo(2));
+            assertThat(r.getHits().getAt(0).getId(), equalTo("3"));
+            assertThat(r.getHits().getAt(1).getId(), equalTo("2"));
+            // the hits are fetched from the index and not from the cache
+            assertThat(r.getHits().getAt(0).getSourceAsMap().get("s"), equalTo(3));
+        }
+        assertThat(client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache().getHitCount(),
+            equalTo(2L));
+        assertThat(client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache().getMissCount(),
+            equalTo(1L));
+    }
+
+    public void testCachePerSegment() throws Exception {
+        Client client = client();
+        Settings settings = Settings.builder().put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
+            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_PER_SEGMENT_SETTING.getKey(), true)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build();
+        assertAcked(client.admin().indices().prepareCreate("index").addMapping("type", "s", "type=long")
+            .setSettings(settings).get());
+        indexRandom(true, false, client.prepareIndex("index", "type", "1").setSource("s", 1),
+            client.prepareIndex("index", "type", "2").setSource("s", 2));
+        ensureSearchable("index");
+
+        SearchResponse r1 = client.prepareSearch("index").setSearchType(SearchType.QUERY_THEN_FETCH).setSize(0)
+            .addAggregation(sum("sum").field("s")).addAggregation(histogram("histo").field("s").interval(1)).get();
+        assertSearchResponse(r1);
+        assertThat(r1.getHits().getTotalHits(), equalTo(2L));
+        assertThat(((Sum) r1.getAggregations().get("sum")).getValue(), equalTo(3d));
+        assertThat(((Histogram) r1.getAggregations().get("histo")).getBuckets().size(), equalTo(2));
+        final long hitCount = client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal()
+            .getRequestCache().getHitCount();
+        final long missCount = client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal()
+            .getRequestCache().getMissCount();
+        assertThat(missCount, greaterThan(0L));
+
+        // a refresh that adds a segment only computes the result of the new segment
+        indexRandom(true, false, client.prepareIndex("index", "type", "3").setSource("s", 3));
+        SearchResponse r2 = client.prepareSearch("index").setSearchType(SearchType.QUERY_THEN_FETCH).setSize(0)
+            .addAggregation(sum("sum").field("s")).addAggregation(histogram("histo").field("s").interval(1)).get();
+        assertSearchResponse(r2);
+        assertThat(r2.getHits().getTotalHits(), equalTo(3L));
+        assertThat(((Sum) r2.getAggregations().get("sum")).getValue(), equalTo(6d));
+        assertThat(((Histogram) r2.getAggregations().get("histo")).getBuckets().size(), equalTo(3));
+        assertThat(client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache().getHitCount(),
+            greaterThan(hitCount));
+        assertThat(client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache().getMissCount(),
+            equalTo(missCount + 1));
+    }
+
+    public void testCacheTopDocsPerSegment() throws Exception {
+        Client client = client();
+        Settings settings = Settings.builder().put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
+            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_TOP_DOCS_SETTING.getKey(), true)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build();
+        assertAcked(client.admin().indices().prepareCreate("index").addMapping("type", "s", "type=long")
+            .setSettings(settings).get());
+        indexRandom(true, false, client.prepareIndex("index", "type", "1").setSource("s", 1),
+            client.prepareIndex("index", "type", "2").setSource("s", 2));
+        ensureSearchable("index");
+
+        SearchResponse r1 = client.prepareSearch("index").setSearchType(SearchType.QUERY_THEN_FETCH).setSize(2)
+            .addSort("s", SortOrder.DESC).get();
+        assertSearchResponse(r1);
+        assertThat(r1.getHits().getTotalHits(), equalTo(2L));
+        assertThat(r1.getHits().getAt(0).getId(), equalTo("2"));
+        assertThat(r1.getHits().getAt(1).getId(), equalTo("1"));
+        final long hitCount = client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal()
+            .getRequestCache().getHitCount();
+        final long missCount = client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal()
+            .getRequestCache().getMissCount();
+        assertThat(missCount, greaterThan(0L));
+
+        // a refresh that adds a segment only computes the top docs of the new segment, which are merged with the cached ones
+        indexRandom(true, false, client.prepareIndex("index", "type", "3").setSource("s", 3));
+        SearchResponse r2 = client.prepareSearch("index").setSearchType(SearchType.QUERY_THEN_FETCH).setSize(2)
+            .addSort("s", SortOrder.DESC).get();
+        assertSearchResponse(r2);
+        assertThat(r2.getHits().getTotalHits(), equalTo(3L));
+        assertThat(r2.getHits().getAt(0).getId(), equalTo("3"));
+        assertThat(r2.getHits().getAt(1).getId(), equalTo("2"));
+        assertThat(r2.getHits().getAt(1).getSourceAsMap().get("s"), equalTo(2));
+        assertThat(client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache().getHitCount(),
+            greaterThan(hitCount));
+        assertThat(client.admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache().getMissCount(),
+            equalTo(missCount + 1));
+    }
 }
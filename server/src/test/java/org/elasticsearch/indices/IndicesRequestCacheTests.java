@@ -26,6 +26,8 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
@@ -33,6 +35,7 @@ import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -203,6 +206,67 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testCacheSegmentsAcrossRefreshes() throws Exception {
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+
+        writer.addDocument(newDoc(0, "foo"));
+        writer.addDocument(newDoc(2, "baz"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+
+        assertEquals(1, reader.leaves().size());
+        LeafReader firstSegment = reader.leaves().get(0).reader();
+        BytesReference value = cache.getOrCompute(entity, () -> new BytesArray("first"), firstSegment, termBytes);
+        assertEquals("first", value.utf8ToString());
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+        assertEquals(1, cache.count());
+
+        // a refresh that only adds a segment keeps the entry of the existing segment
+        writer.addDocument(newDoc(1, "bar"));
+        DirectoryReader secondReader = DirectoryReader.openIfChanged(reader);
+        assertNotNull(secondReader);
+        reader.close();
+        assertEquals(2, secondReader.leaves().size());
+        cache.cleanCache();
+        assertEquals(1, cache.count());
+        value = cache.getOrCompute(entity, () -> new BytesArray("unused"), secondReader.leaves().get(0).reader(), termBytes);
+        assertEquals("first", value.utf8ToString());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        value = cache.getOrCompute(entity, () -> new BytesArray("second"), secondReader.leaves().get(1).reader(), termBytes);
+        assertEquals("second", value.utf8ToString());
+        assertEquals(2, requestCacheStats.stats().getMissCount());
+        assertEquals(2, cache.count());
+        assertEquals(2, cache.numRegisteredCloseListeners());
+
+        // deletes change the reader of the segment, the stale entry goes away once the writer releases the old reader
+        writer.deleteDocuments(new Term("id", "0"));
+        DirectoryReader thirdReader = DirectoryReader.openIfChanged(secondReader);
+        assertNotNull(thirdReader);
+        secondReader.close();
+        value = cache.getOrCompute(entity, () -> new BytesArray("unused"), thirdReader.leaves().get(1).reader(), termBytes);
+        assertEquals("second", value.utf8ToString());
+        value = cache.getOrCompute(entity, () -> new BytesArray("deleted"), thirdReader.leaves().get(0).reader(), termBytes);
+        assertEquals("deleted", value.utf8ToString());
+        assertEquals(3, requestCacheStats.stats().getMissCount());
+        assertEquals(3, cache.count());
+        cache.invalidate(entity, thirdReader.leaves().get(0).reader(), termBytes);
+        assertEquals(2, cache.count());
+
+        IOUtils.close(thirdReader, writer, dir);
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0, requestCacheStats.stats().getMemorySize().bytesAsInt());
+        IOUtils.close(cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
     public void testEviction() throws Exception {
         final ByteSizeValue size;
         {
@@ -0,0 +1,166 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class MergeCoordinatorTests extends ESTestCase {
+
+    private static final TimeValue MAX_QUEUED_TIME = TimeValue.timeValueMinutes(1);
+
+    public void testQueuedMergesRunByPriority() throws Exception {
+        final MergeCoordinator.DataPathBudget budget = newBudget(1, () -> 0L);
+        final Releasable running = budget.acquire(randomNonNegativeLong(), randomBoolean(), () -> false);
+        assertThat(budget.getRunningMerges(), equalTo(1));
+
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        threads.add(queueMerge(budget, "inactive_small", 10, false, order));
+        threads.add(queueMerge(budget, "active_large", 1000, true, order));
+        threads.add(queueMerge(budget, "inactive_large", 1000, false, order));
+        threads.add(queueMerge(budget, "active_small", 10, true, order));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        assertBusy(() -> assertThat(budget.getQueuedMerges(), equalTo(threads.size())));
+        assertThat(order.size(), equalTo(0));
+
+        running.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(order, equalTo(Arrays.asList("active_small", "active_large", "inactive_small", "inactive_large")));
+        assertThat(budget.getQueuedMerges(), equalTo(0));
+        assertThat(budget.getRunningMerges(), equalTo(0));
+    }
+
+    public void testAbortedMergeLeavesQueue() throws Exception {
+        final MergeCoordinator.DataPathBudget budget = newBudget(1, () -> 0L);
+        final Releasable running = budget.acquire(randomNonNegativeLong(), randomBoolean(), () -> false);
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final Thread thread = new Thread(() -> {
+            try {
+                budget.acquire(randomNonNegativeLong(), randomBoolean(), aborted::get).close();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        thread.start();
+        assertBusy(() -> assertThat(budget.getQueuedMerges(), equalTo(1)));
+        aborted.set(true);
+        thread.join();
+        assertThat(budget.getQueuedMerges(), equalTo(0));
+        assertThat(budget.getRunningMerges(), equalTo(1));
+        running.close();
+        assertThat(budget.getRunningMerges(), equalTo(0));
+    }
+
+    public void testMergesQueuedForTooLongGoFirst() throws Exception {
+        final AtomicLong relativeNanos = new AtomicLong();
+        final MergeCoordinator.DataPathBudget budget = newBudget(1, relativeNanos::get);
+        final Releasable running = budget.acquire(randomNonNegativeLong(), randomBoolean(), () -> false);
+
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final Thread inactiveLarge = queueMerge(budget, "inactive_large", 1000, false, order);
+        inactiveLarge.start();
+        assertBusy(() -> assertThat(budget.getQueuedMerges(), equalTo(1)));
+        relativeNanos.addAndGet(MAX_QUEUED_TIME.nanos() - 1);
+        final Thread activeSmall = queueMerge(budget, "active_small", 10, true, order);
+        activeSmall.start();
+        assertBusy(() -> assertThat(budget.getQueuedMerges(), equalTo(2)));
+        // the large merge has now been queued for longer than the maximum, it goes ahead of the merge with the higher priority
+        relativeNanos.incrementAndGet();
+
+        running.close();
+        inactiveLarge.join();
+        activeSmall.join();
+        assertThat(order, equalTo(Arrays.asList("inactive_large", "active_small")));
+        assertThat(budget.getRunningMerges(), equalTo(0));
+    }
+
+    public void testAdjustBudget() {
+        final int maxConcurrentMerges = randomIntBetween(1, 16);
+        final MergeCoordinator.DataPathBudget budget = newBudget(maxConcurrentMerges, () -> 0L);
+        assertThat(budget.getConcurrentMerges(), equalTo(maxConcurrentMerges));
+
+        final long maxWriteRate = randomLongBetween(1, Long.MAX_VALUE);
+        budget.adjust(randomLongBetween(maxWriteRate, Long.MAX_VALUE), maxWriteRate);
+        assertThat(budget.getConcurrentMerges(), equalTo(Math.max(1, maxConcurrentMerges / 2)));
+        for (int i = 0; i < 32; i++) {
+            budget.adjust(randomLongBetween(maxWriteRate, Long.MAX_VALUE), maxWriteRate);
+        }
+        assertThat(budget.getConcurrentMerges(), equalTo(1));
+
+        budget.adjust(randomLongBetween(0, maxWriteRate - 1), maxWriteRate);
+        assertThat(budget.getConcurrentMerges(), equalTo(Math.min(2, maxConcurrentMerges)));
+        for (int i = 0; i < 32; i++) {
+            budget.adjust(randomLongBetween(0, maxWriteRate - 1), maxWriteRate);
+        }
+        assertThat(budget.getConcurrentMerges(), equalTo(maxConcurrentMerges));
+    }
+
+    public void testGrowingBudgetAdmitsQueuedMerge() throws Exception {
+        final MergeCoordinator.DataPathBudget budget = newBudget(2, () -> 0L);
+        budget.adjust(Long.MAX_VALUE, 1);
+        assertThat(budget.getConcurrentMerges(), equalTo(1));
+        final Releasable running = budget.acquire(randomNonNegativeLong(), randomBoolean(), () -> false);
+
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final Thread queued = queueMerge(budget, "queued", randomNonNegativeLong(), randomBoolean(), order);
+        queued.start();
+        assertBusy(() -> assertThat(budget.getQueuedMerges(), equalTo(1)));
+
+        // the slot that the budget gains is handed to the queued merge while the other merge is still running
+        budget.adjust(0, 1);
+        queued.join();
+        assertThat(order, equalTo(Arrays.asList("queued")));
+        assertThat(budget.getQueuedMerges(), equalTo(0));
+        assertThat(budget.getRunningMerges(), equalTo(1));
+        running.close();
+        assertThat(budget.getRunningMerges(), equalTo(0));
+    }
+
+    private MergeCoordinator.DataPathBudget newBudget(int maxConcurrentMerges, LongSupplier relativeNanos) {
+        return new MergeCoordinator.DataPathBudget(createTempDir(), -1, -1, maxConcurrentMerges, MAX_QUEUED_TIME, relativeNanos);
+    }
+
+    private static Thread queueMerge(MergeCoordinator.DataPathBudget budget, String name, long sizeInBytes, boolean activelyIndexing,
+                                     List<String> order) {
+        return new Thread(() -> {
+            try (Releasable ignored = budget.acquire(sizeInBytes, activelyIndexing, () -> false)) {
+                order.add(name);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+}
@@ -195,11 +195,15 @@ public abstract class AbstractIndicesClusterStateServiceTestCase extends ESTestC
         public synchronized MockIndexService createIndex(
                 IndexMetaData indexMetaData,
                 List<IndexEventListener> buildInIndexListener) throws IOException {
-            MockIndexService indexService = new MockIndexService(new IndexSettings(indexMetaData, Settings.EMPTY));
+            MockIndexService indexService = newIndexService(new IndexSettings(indexMetaData, Settings.EMPTY));
             indices = newMapBuilder(indices).put(indexMetaData.getIndexUUID(), indexService).immutableMap();
             return indexService;
         }
 
+        protected MockIndexService newIndexService(IndexSettings indexSettings) {
+            return new MockIndexService(indexSettings);
+        }
+
         @Override
         public IndexMetaData verifyIndexIsDeleted(Index index, ClusterState state) {
             return null;
@@ -38,9 +38,11 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.cluster.routing.TestShardRouting;
 import org.elasticsearch.cluster.routing.allocation.FailedShard;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.UUIDs;
@@ -48,6 +50,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.discovery.DiscoverySettings;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.PrimaryReplicaSyncer;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.recovery.PeerRecoveryTargetService;
@@ -68,7 +71,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
@@ -85,12 +90,15 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
 
     private ThreadPool threadPool;
     private ClusterStateChanges cluster;
+    private int indicesApplyThreads;
 
     @Override
     public void setUp() throws Exception {
         super.setUp();
-        threadPool = new TestThreadPool(getClass().getName());
+        threadPool = new TestThreadPool(getClass().getName(),
+            Settings.builder().put("thread_pool." + ThreadPool.Names.INDICES_CLUSTER_APPLY + ".max", 4).build());
         cluster = new ClusterStateChanges(xContentRegistry(), threadPool);
+        indicesApplyThreads = randomIntBetween(1, 4);
     }
 
     @Override
@@ -253,6 +261,65 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
 
     }
 
+    public void testIndicesAreCreatedAndUpdatedConcurrently() {
+        disableRandomFailures();
+        indicesApplyThreads = 4;
+        final int numIndices = randomIntBetween(2, indicesApplyThreads);
+        final String[] indices = new String[numIndices];
+        for (int i = 0; i < numIndices; i++) {
+            indices[i] = "index_" + i;
+        }
+        final ClusterState previousState = ClusterStateCreationUtils.state(1, new String[0], 1);
+        final String localNodeId = previousState.nodes().getLocalNodeId();
+        final MetaData.Builder metaData = MetaData.builder(previousState.metaData());
+        final RoutingTable.Builder routingTable = RoutingTable.builder();
+        for (String index : indices) {
+            final IndexMetaData indexMetaData = IndexMetaData.builder(index).settings(Settings.builder()
+                .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetaData.SETTING_INDEX_UUID, UUIDs.randomBase64UUID())
+                .put(SETTING_NUMBER_OF_SHARDS, 1)
+                .put(SETTING_NUMBER_OF_REPLICAS, 0)).build();
+            metaData.put(indexMetaData, false);
+            final ShardId shardId = new ShardId(indexMetaData.getIndex(), 0);
+            routingTable.add(IndexRoutingTable.builder(indexMetaData.getIndex()).addShard(
+                TestShardRouting.newShardRouting(shardId, localNodeId, true, ShardRoutingState.INITIALIZING)));
+        }
+        final ClusterState state = ClusterState.builder(previousState).metaData(metaData).routingTable(routingTable.build()).build();
+
+        // every mapping update waits for the ones of all other indices, so they only complete if they run at the same time
+        final CyclicBarrier barrier = new CyclicBarrier(numIndices);
+        final AtomicInteger runningUpdates = new AtomicInteger();
+        final AtomicInteger maxRunningUpdates = new AtomicInteger();
+        final IndicesClusterStateService indicesCSSvc = createIndicesClusterStateService(state.nodes().getLocalNode(),
+            () -> new MockIndicesService() {
+                @Override
+                protected MockIndexService newIndexService(IndexSettings indexSettings) {
+                    return new MockIndexService(indexSettings) {
+                        @Override
+                        public boolean updateMapping(IndexMetaData currentIndexMetaData, IndexMetaData newIndexMetaData) {
+                            maxRunningUpdates.accumulateAndGet(runningUpdates.incrementAndGet(), Math::max);
+                            try {
+                                barrier.await(10, TimeUnit.SECONDS);
+                            } catch (Exception e) {
+                                logger.warn("mapping updates did not run concurrently", e);
+                            } finally {
+                                runningUpdates.decrementAndGet();
+                            }
+                            return false;
+                        }
+                    };
+                }
+            });
+        indicesCSSvc.start();
+        indicesCSSvc.applyClusterState(new ClusterChangedEvent("cluster state change that adds indices", state, previousState));
+
+        assertThat(maxRunningUpdates.get(), equalTo(numIndices));
+        for (String index : indices) {
+            assertNotNull(indicesCSSvc.indicesService.indexService(state.metaData().index(index).getIndex()));
+        }
+        indicesCSSvc.close();
+    }
+
     public ClusterState randomInitialClusterState(Map<DiscoveryNode, IndicesClusterStateService> clusterStateServiceMap,
                                                   Supplier<MockIndicesService> indicesServiceSupplier) {
         List<DiscoveryNode> allNodes = new ArrayList<>();
@@ -452,9 +519,13 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
     private IndicesClusterStateService createIndicesClusterStateService(DiscoveryNode discoveryNode,
                                                                         final Supplier<MockIndicesService> indicesServiceSupplier) {
         final ThreadPool threadPool = mock(ThreadPool.class);
-        when(threadPool.generic()).thenReturn(mock(ExecutorService.class));
         final MockIndicesService indicesService = indicesServiceSupplier.get();
         final Settings settings = Settings.builder().put("node.name", discoveryNode.getName()).build();
+        when(threadPool.generic()).thenReturn(mock(ExecutorService.class));
+        when(threadPool.info(ThreadPool.Names.INDICES_CLUSTER_APPLY)).thenReturn(new ThreadPool.Info(
+            ThreadPool.Names.INDICES_CLUSTER_APPLY, ThreadPool.ThreadPoolType.SCALING, 1, indicesApplyThreads, null, null));
+        when(threadPool.executor(ThreadPool.Names.INDICES_CLUSTER_APPLY))
+            .thenReturn(this.threadPool.executor(ThreadPool.Names.INDICES_CLUSTER_APPLY));
         final TransportService transportService = new TransportService(settings, mock(Transport.class), threadPool,
             TransportService.NOOP_TRANSPORT_INTERCEPTOR,
             boundAddress -> DiscoveryNode.createLocal(settings, boundAddress.publishAddress(), UUIDs.randomBase64UUID()), null,
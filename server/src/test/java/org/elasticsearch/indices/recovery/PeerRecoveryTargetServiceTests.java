@@ -24,18 +24,47 @@ import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.indices.flush.FlushRequest;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.mapper.MapperException;
+import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
 
@@ -110,4 +139,176 @@ public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
             closeShards(replica);
         }
     }
+
+    public void testWriteFileChunksConcurrently() throws Exception {
+        IndexShard sourceShard = newStartedShard(true);
+        int numDocs = between(20, 100);
+        for (int i = 0; i < numDocs; i++) {
+            indexDoc(sourceShard, "_doc", Integer.toString(i));
+        }
+        sourceShard.flush(new FlushRequest());
+        Store.MetadataSnapshot sourceSnapshot = sourceShard.store().getMetadata(null);
+        List<StoreFileMetaData> mdFiles = new ArrayList<>();
+        for (StoreFileMetaData md : sourceSnapshot) {
+            mdFiles.add(md);
+        }
+        final IndexShard targetShard = newShard(false);
+        final DiscoveryNode pNode = getFakeDiscoNode(sourceShard.routingEntry().currentNodeId());
+        final DiscoveryNode rNode = getFakeDiscoNode(targetShard.routingEntry().currentNodeId());
+        targetShard.markAsRecovering("test-peer-recovery", new RecoveryState(targetShard.routingEntry(), rNode, pNode));
+        final RecoveryTarget recoveryTarget = new RecoveryTarget(targetShard, null, null, null);
+        recoveryTarget.receiveFileInfo(
+            mdFiles.stream().map(StoreFileMetaData::name).collect(Collectors.toList()),
+            mdFiles.stream().map(StoreFileMetaData::length).collect(Collectors.toList()),
+            Collections.emptyList(), Collections.emptyList(), 0);
+        List<RecoveryFileChunkRequest> requests = new ArrayList<>();
+        for (StoreFileMetaData md : mdFiles) {
+            try (IndexInput in = sourceShard.store().directory().openInput(md.name(), IOContext.READONCE)) {
+                int pos = 0;
+                while (pos < md.length()) {
+                    int length = between(1, Math.toIntExact(md.length() - pos));
+                    byte[] buffer = new byte[length];
+                    in.readBytes(buffer, 0, length);
+                    requests.add(new RecoveryFileChunkRequest(0, sourceShard.shardId(), md, pos, new BytesArray(buffer),
+                        pos + length == md.length(), 1, 1, RecoveryState.Index.UNKNOWN));
+                    pos += length;
+                }
+            }
+        }
+        // the chunks of a file may arrive in any order, but have to be written in order
+        Randomness.shuffle(requests);
+        BlockingQueue<RecoveryFileChunkRequest> queue = new ArrayBlockingQueue<>(requests.size());
+        queue.addAll(requests);
+        Thread[] senders = new Thread[between(1, 4)];
+        CyclicBarrier barrier = new CyclicBarrier(senders.length);
+        for (int i = 0; i < senders.length; i++) {
+            senders[i] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    RecoveryFileChunkRequest r;
+                    while ((r = queue.poll()) != null) {
+                        recoveryTarget.writeFileChunk(r.metadata(), r.position(), r.content(), r.lastChunk(), r.totalTranslogOps(),
+                            ActionListener.wrap(ignored -> {}, e -> {
+                                throw new AssertionError(e);
+                            }));
+                    }
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            senders[i].start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        recoveryTarget.renameAllTempFiles();
+        recoveryTarget.decRef();
+        Store.MetadataSnapshot targetSnapshot = targetShard.snapshotStoreMetadata();
+        Store.RecoveryDiff diff = sourceSnapshot.recoveryDiff(targetSnapshot);
+        assertThat(diff.different, empty());
+        assertThat(diff.missing, empty());
+        closeShards(sourceShard, targetShard);
+    }
+
+    public void testReplayTranslogOperationsConcurrently() throws Exception {
+        final IndexShard primary = newStartedShard(true);
+        final int numOps = between(50, 200);
+        final int numIds = between(5, 20);
+        for (int i = 0; i < numOps; i++) {
+            final String id = Integer.toString(randomInt(numIds));
+            if (rarely()) {
+                deleteDoc(primary, "_doc", id);
+            } else {
+                indexDoc(primary, "_doc", id);
+            }
+        }
+        final int concurrency = between(2, 8);
+        final IndexShard replica = newShard(false);
+        // the operations are not flushed on the primary, they are all replayed on the replica in phase 2
+        recoverReplica(replica, primary, (r, sourceNode) -> new RecoveryTarget(r, sourceNode, recoveryListener, version -> {}) {
+            @Override
+            public long indexTranslogOperations(List<Translog.Operation> operations, int totalTranslogOps,
+                                                long maxSeenAutoIdTimestampOnPrimary, long maxSeqNoOfUpdatesOrDeletesOnPrimary)
+                throws IOException {
+                return indexTranslogOperations(operations, totalTranslogOps, maxSeenAutoIdTimestampOnPrimary,
+                    maxSeqNoOfUpdatesOrDeletesOnPrimary, concurrency);
+            }
+        }, true, true);
+        assertThat(replica.getLocalCheckpoint(), equalTo(primary.getLocalCheckpoint()));
+        assertThat(getDocIdAndSeqNos(replica), equalTo(getDocIdAndSeqNos(primary)));
+        closeShards(primary, replica);
+    }
+
+    public void testPartitionTranslogOperationsById() {
+        final List<Translog.Operation> operations = new ArrayList<>();
+        final int numOps = between(1, 100);
+        for (int seqNo = 0; seqNo < numOps; seqNo++) {
+            final String id = Integer.toString(randomInt(10));
+            switch (between(0, 2)) {
+                case 0:
+                    operations.add(new Translog.Index("_doc", id, seqNo, 1, new byte[]{1}));
+                    break;
+                case 1:
+                    operations.add(new Translog.Delete("_doc", id, seqNo, 1, new Term("_id", Uid.encodeId(id))));
+                    break;
+                default:
+                    operations.add(new Translog.NoOp(seqNo, 1, "test"));
+                    break;
+            }
+        }
+        final int numPartitions = between(1, 8);
+        final List<List<Translog.Operation>> partitions = RecoveryTarget.partitionById(operations, numPartitions);
+        assertThat(partitions.size(), lessThanOrEqualTo(numPartitions));
+        final List<Translog.Operation> allOperations = new ArrayList<>();
+        final Map<String, Integer> partitionOfId = new HashMap<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            final List<Translog.Operation> partition = partitions.get(i);
+            assertThat(partition, not(empty()));
+            for (int j = 0; j < partition.size(); j++) {
+                final Translog.Operation operation = partition.get(j);
+                if (j > 0) {
+                    assertThat("operations must stay in order within a partition", operation.seqNo(),
+                        greaterThan(partition.get(j - 1).seqNo()));
+                }
+                final String id;
+                if (operation instanceof Translog.Index) {
+                    id = ((Translog.Index) operation).id();
+                } else if (operation instanceof Translog.Delete) {
+                    id = ((Translog.Delete) operation).id();
+                } else {
+                    continue;
+                }
+                final Integer previous = partitionOfId.putIfAbsent(id, i);
+                assertThat("operations on id [" + id + "] are in different partitions", previous, anyOf(nullValue(), equalTo(i)));
+            }
+            allOperations.addAll(partition);
+        }
+        assertThat(allOperations, containsInAnyOrder(operations.toArray()));
+    }
+
+    public void testMapperExceptionOfAPartitionIsRethrownFirst() {
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final List<Exception> otherFailures = new ArrayList<>();
+        final MapperException mapperException = new MapperException("mapping updates are not allowed");
+        final int numFailures = between(1, 5);
+        final int mapperExceptionIndex = randomInt(numFailures);
+        for (int i = 0; i <= numFailures; i++) {
+            if (i == mapperExceptionIndex) {
+                RecoveryTarget.onPartitionFailure(failure, mapperException);
+            } else {
+                final Exception e = new IOException("failure " + i);
+                otherFailures.add(e);
+                RecoveryTarget.onPartitionFailure(failure, e);
+            }
+        }
+        assertThat(failure.get(), sameInstance(mapperException));
+        final List<Throwable> suppressed = new ArrayList<>(Arrays.asList(mapperException.getSuppressed()));
+        if (mapperExceptionIndex > 0) {
+            // the failure that was recorded first suppresses the ones that followed it until the mapper exception came in
+            final Throwable first = suppressed.remove(0);
+            assertThat(first, sameInstance(otherFailures.get(0)));
+            suppressed.addAll(Arrays.asList(first.getSuppressed()));
+        }
+        assertThat(suppressed, containsInAnyOrder(otherFailures.subList(mapperExceptionIndex > 0 ? 1 : 0, otherFailures.size()).toArray()));
+    }
 }
@@ -32,6 +32,8 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
@@ -42,7 +44,6 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.lease.Releasable;
-import org.elasticsearch.common.lucene.store.IndexOutputOutputStream;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
@@ -57,6 +58,7 @@ import org.elasticsearch.index.mapper.ParsedDocument;
 import org.elasticsearch.index.mapper.SeqNoFieldMapper;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.mapper.UidFieldMapper;
+import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.SeqNoStats;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
@@ -70,6 +72,8 @@ import org.elasticsearch.test.CorruptionUtils;
 import org.elasticsearch.test.DummyShardLock;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.mockito.ArgumentCaptor;
 
 import java.io.IOException;
@@ -78,14 +82,22 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
@@ -107,8 +119,9 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         final RecoverySettings recoverySettings = new RecoverySettings(settings, service);
         final StartRecoveryRequest request = getStartRecoveryRequest();
         Store store = newStore(createTempDir());
-        RecoverySourceHandler handler = new RecoverySourceHandler(null, null, request,
-            recoverySettings.getChunkSize().bytesAsInt());
+        Store targetStore = newStore(createTempDir());
+        RecoverySourceHandler handler = new RecoverySourceHandler(newStartedShard(), new WritingRecoveryTargetHandler(targetStore),
+            request, recoverySettings.getChunkSize().bytesAsInt(), between(1, 8), 1);
         Directory dir = store.directory();
         RandomIndexWriter writer = new RandomIndexWriter(random(), dir, newIndexWriterConfig());
         int numDocs = randomIntBetween(10, 100);
@@ -126,20 +139,7 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         for (StoreFileMetaData md : metadata) {
             metas.add(md);
         }
-        Store targetStore = newStore(createTempDir());
-        handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), (md) -> {
-            try {
-                return new IndexOutputOutputStream(targetStore.createVerifyingOutput(md.name(), md, IOContext.DEFAULT)) {
-                    @Override
-                    public void close() throws IOException {
-                        super.close();
-                        targetStore.directory().sync(Collections.singleton(md.name())); // sync otherwise MDW will mess with it
-                    }
-                };
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), () -> 0);
         Store.MetadataSnapshot targetStoreMetadata = targetStore.getMetadata(null);
         Store.RecoveryDiff recoveryDiff = targetStoreMetadata.recoveryDiff(metadata);
         assertEquals(metas.size(), recoveryDiff.identical.size());
@@ -150,6 +150,72 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         IOUtils.close(reader, store, targetStore);
     }
 
+    public void testSendFilesLimitsConcurrentFileChunks() throws Exception {
+        final int maxConcurrentFileChunks = between(1, 8);
+        final StartRecoveryRequest request = getStartRecoveryRequest();
+        Store store = newStore(createTempDir());
+        Directory dir = store.directory();
+        RandomIndexWriter writer = new RandomIndexWriter(random(), dir, newIndexWriterConfig());
+        int numDocs = randomIntBetween(10, 100);
+        for (int i = 0; i < numDocs; i++) {
+            Document document = new Document();
+            document.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+            document.add(newField("field", randomUnicodeOfCodepointLengthBetween(1, 10), TextField.TYPE_STORED));
+            writer.addDocument(document);
+        }
+        writer.commit();
+        writer.close();
+
+        Store.MetadataSnapshot metadata = store.getMetadata(null);
+        List<StoreFileMetaData> metas = new ArrayList<>();
+        long totalLength = 0;
+        for (StoreFileMetaData md : metadata) {
+            metas.add(md);
+            totalLength += md.length();
+        }
+        final List<ActionListener<Void>> pendingChunks = new ArrayList<>();
+        final AtomicInteger maxPendingChunks = new AtomicInteger();
+        final AtomicLong sentBytes = new AtomicLong();
+        RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                sentBytes.addAndGet(content.length());
+                synchronized (pendingChunks) {
+                    pendingChunks.add(listener);
+                    maxPendingChunks.accumulateAndGet(pendingChunks.size(), Math::max);
+                }
+            }
+        };
+        RecoverySourceHandler handler = new RecoverySourceHandler(newStartedShard(), target, request, between(16, 512),
+            maxConcurrentFileChunks, 1);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread sender = new Thread(() -> {
+            try {
+                handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), () -> 0);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        sender.start();
+        // acknowledge the chunks in random order until all files are sent
+        while (sender.isAlive()) {
+            final ActionListener<Void> listener;
+            synchronized (pendingChunks) {
+                listener = pendingChunks.isEmpty() ? null : pendingChunks.remove(randomIntBetween(0, pendingChunks.size() - 1));
+            }
+            if (listener != null) {
+                listener.onResponse(null);
+            }
+        }
+        sender.join();
+        assertNull(failure.get());
+        assertEquals(totalLength, sentBytes.get());
+        assertThat(maxPendingChunks.get(), lessThanOrEqualTo(maxConcurrentFileChunks));
+        assertTrue(pendingChunks.isEmpty());
+        IOUtils.close(store);
+    }
+
     public StartRecoveryRequest getStartRecoveryRequest() throws IOException {
         Store.MetadataSnapshot metadataSnapshot = randomBoolean() ? Store.MetadataSnapshot.EMPTY :
             new Store.MetadataSnapshot(Collections.emptyMap(),
@@ -174,7 +240,7 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         when(shard.state()).thenReturn(IndexShardState.STARTED);
         final RecoveryTargetHandler recoveryTarget = mock(RecoveryTargetHandler.class);
         final RecoverySourceHandler handler =
-            new RecoverySourceHandler(shard, recoveryTarget, request, fileChunkSizeInBytes);
+            new RecoverySourceHandler(shard, recoveryTarget, request, fileChunkSizeInBytes, between(1, 8), 1);
         final List<Translog.Operation> operations = new ArrayList<>();
         final int initialNumberOfDocs = randomIntBetween(16, 64);
         for (int i = 0; i < initialNumberOfDocs; i++) {
@@ -255,6 +321,66 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         }
     }
 
+    public void testSendSnapshotSendsBatchesConcurrently() throws Exception {
+        final int maxConcurrentOperations = between(2, 4);
+        final StartRecoveryRequest request = getStartRecoveryRequest();
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final IndexShard shard = newStartedShard();
+            when(shard.getThreadPool()).thenReturn(threadPool);
+            final List<Translog.Operation> receivedOps = Collections.synchronizedList(new ArrayList<>());
+            final AtomicInteger inFlightBatches = new AtomicInteger();
+            final AtomicInteger maxInFlightBatches = new AtomicInteger();
+            final AtomicLong maxLocalCheckpoint = new AtomicLong(SequenceNumbers.UNASSIGNED_SEQ_NO);
+            final RecoveryTargetHandler recoveryTarget = new TestRecoveryTargetHandler() {
+                @Override
+                public long indexTranslogOperations(List<Translog.Operation> operations, int totalTranslogOps,
+                                                    long maxSeenAutoIdTimestampOnPrimary, long maxSeqNoOfUpdatesOrDeletesOnPrimary) {
+                    maxInFlightBatches.accumulateAndGet(inFlightBatches.incrementAndGet(), Math::max);
+                    try {
+                        receivedOps.addAll(operations);
+                        final long localCheckpoint = randomNonNegativeLong();
+                        maxLocalCheckpoint.accumulateAndGet(localCheckpoint, Math::max);
+                        return localCheckpoint;
+                    } finally {
+                        inFlightBatches.decrementAndGet();
+                    }
+                }
+            };
+            // a tiny chunk size so that every operation is sent in a batch of its own
+            final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, request, 1, 1,
+                maxConcurrentOperations);
+            final List<Translog.Operation> operations = new ArrayList<>();
+            final int numOps = randomIntBetween(16, 64);
+            for (int i = 0; i < numOps; i++) {
+                final Engine.Index index = getIndex(Integer.toString(i));
+                operations.add(new Translog.Index(index, new Engine.IndexResult(1, 1, i, true)));
+            }
+            final Iterator<Translog.Operation> iterator = operations.iterator();
+            RecoverySourceHandler.SendSnapshotResult result = handler.sendSnapshot(0, 0, numOps - 1, new Translog.Snapshot() {
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public int totalOperations() {
+                    return numOps;
+                }
+
+                @Override
+                public Translog.Operation next() {
+                    return iterator.hasNext() ? iterator.next() : null;
+                }
+            }, randomNonNegativeLong(), randomNonNegativeLong());
+            assertThat(result.totalOperations, equalTo(numOps));
+            assertThat(result.targetLocalCheckpoint, equalTo(maxLocalCheckpoint.get()));
+            assertThat(receivedOps, containsInAnyOrder(operations.toArray()));
+            assertThat(maxInFlightBatches.get(), lessThanOrEqualTo(maxConcurrentOperations));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
     private Engine.Index getIndex(final String id) {
         final String type = "test";
         final ParseContext.Document document = new ParseContext.Document();
@@ -280,9 +406,10 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         final StartRecoveryRequest request = getStartRecoveryRequest();
         Path tempDir = createTempDir();
         Store store = newStore(tempDir, false);
+        Store targetStore = newStore(createTempDir(), false);
         AtomicBoolean failedEngine = new AtomicBoolean(false);
-        RecoverySourceHandler handler = new RecoverySourceHandler(null, null, request,
-                recoverySettings.getChunkSize().bytesAsInt()) {
+        RecoverySourceHandler handler = new RecoverySourceHandler(newStartedShard(), new WritingRecoveryTargetHandler(targetStore),
+                request, recoverySettings.getChunkSize().bytesAsInt(), between(1, 8), 1) {
             @Override
             protected void failEngine(IOException cause) {
                 assertFalse(failedEngine.get());
@@ -310,21 +437,8 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         CorruptionUtils.corruptFile(random(), FileSystemUtils.files(tempDir, (p) ->
             (p.getFileName().toString().equals("write.lock") ||
                 p.getFileName().toString().startsWith("extra")) == false));
-        Store targetStore = newStore(createTempDir(), false);
         try {
-            handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), (md) -> {
-                try {
-                    return new IndexOutputOutputStream(targetStore.createVerifyingOutput(md.name(), md, IOContext.DEFAULT)) {
-                        @Override
-                        public void close() throws IOException {
-                            super.close();
-                            store.directory().sync(Collections.singleton(md.name())); // sync otherwise MDW will mess with it
-                        }
-                    };
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            });
+            handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), () -> 0);
             fail("corrupted index");
         } catch (IOException ex) {
             assertNotNull(ExceptionsHelper.unwrapCorruption(ex));
@@ -340,8 +454,20 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         Path tempDir = createTempDir();
         Store store = newStore(tempDir, false);
         AtomicBoolean failedEngine = new AtomicBoolean(false);
-        RecoverySourceHandler handler = new RecoverySourceHandler(null, null, request,
-                recoverySettings.getChunkSize().bytesAsInt()) {
+        final boolean throwCorruptedIndexException = randomBoolean();
+        RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                if (throwCorruptedIndexException) {
+                    listener.onFailure(new RuntimeException(new CorruptIndexException("foo", "bar")));
+                } else {
+                    listener.onFailure(new RuntimeException("boom"));
+                }
+            }
+        };
+        RecoverySourceHandler handler = new RecoverySourceHandler(newStartedShard(), target, request,
+                recoverySettings.getChunkSize().bytesAsInt(), between(1, 8), 1) {
             @Override
             protected void failEngine(IOException cause) {
                 assertFalse(failedEngine.get());
@@ -365,16 +491,8 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         for (StoreFileMetaData md : metadata) {
             metas.add(md);
         }
-        final boolean throwCorruptedIndexException = randomBoolean();
-        Store targetStore = newStore(createTempDir(), false);
         try {
-            handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), (md) -> {
-                if (throwCorruptedIndexException) {
-                    throw new RuntimeException(new CorruptIndexException("foo", "bar"));
-                } else {
-                    throw new RuntimeException("boom");
-                }
-            });
+            handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), () -> 0);
             fail("exception index");
         } catch (RuntimeException ex) {
             assertNull(ExceptionsHelper.unwrapCorruption(ex));
@@ -387,7 +505,7 @@ public class RecoverySourceHandlerTests extends ESTestCase {
             fail("not expected here");
         }
         assertFalse(failedEngine.get());
-        IOUtils.close(store, targetStore);
+        IOUtils.close(store);
     }
 
     public void testThrowExceptionOnPrimaryRelocatedBeforePhase1Started() throws IOException {
@@ -409,7 +527,8 @@ public class RecoverySourceHandlerTests extends ESTestCase {
                 shard,
                 mock(RecoveryTargetHandler.class),
                 request,
-                recoverySettings.getChunkSize().bytesAsInt()) {
+                recoverySettings.getChunkSize().bytesAsInt(),
+                between(1, 8), 1) {
 
             @Override
             public void phase1(final IndexCommit snapshot, final Supplier<Integer> translogOps) {
@@ -470,5 +589,84 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         return new Store(shardId,  INDEX_SETTINGS, baseDirectoryWrapper, new DummyShardLock(shardId));
     }
 
+    private static IndexShard newStartedShard() {
+        final IndexShard shard = mock(IndexShard.class);
+        when(shard.state()).thenReturn(IndexShardState.STARTED);
+        return shard;
+    }
 
+    static class TestRecoveryTargetHandler implements RecoveryTargetHandler {
+        @Override
+        public void prepareForTranslogOperations(boolean fileBasedRecovery, int totalTranslogOps) {
+        }
+
+        @Override
+        public void finalizeRecovery(long globalCheckpoint) {
+        }
+
+        @Override
+        public void ensureClusterStateVersion(long clusterStateVersion) {
+        }
+
+        @Override
+        public void handoffPrimaryContext(ReplicationTracker.PrimaryContext primaryContext) {
+        }
+
+        @Override
+        public long indexTranslogOperations(List<Translog.Operation> operations, int totalTranslogOps,
+                                            long maxSeenAutoIdTimestampOnPrimary, long maxSeqNoOfUpdatesOrDeletesOnPrimary) {
+            return SequenceNumbers.NO_OPS_PERFORMED;
+        }
+
+        @Override
+        public void receiveFileInfo(List<String> phase1FileNames, List<Long> phase1FileSizes, List<String> phase1ExistingFileNames,
+                                    List<Long> phase1ExistingFileSizes, int totalTranslogOps) {
+        }
+
+        @Override
+        public void cleanFiles(int totalTranslogOps, Store.MetadataSnapshot sourceMetaData) {
+        }
+
+        @Override
+        public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk,
+                                   int totalTranslogOps, ActionListener<Void> listener) {
+        }
+    }
+
+    /**
+     * Writes the file chunks it receives to the given store, expecting the chunks of a file to arrive in order.
+     */
+    static class WritingRecoveryTargetHandler extends TestRecoveryTargetHandler {
+        private final Store store;
+        private final Map<String, IndexOutput> outputs = new HashMap<>();
+
+        WritingRecoveryTargetHandler(Store store) {
+            this.store = store;
+        }
+
+        @Override
+        public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
+                                   int totalTranslogOps, ActionListener<Void> listener) {
+            try {
+                IndexOutput output = outputs.get(md.name());
+                if (output == null) {
+                    output = store.createVerifyingOutput(md.name(), md, IOContext.DEFAULT);
+                    outputs.put(md.name(), output);
+                }
+                assertEquals(position, output.getFilePointer());
+                final BytesRef bytes = content.toBytesRef();
+                output.writeBytes(bytes.bytes, bytes.offset, bytes.length);
+                if (lastChunk) {
+                    output.close();
+                    outputs.remove(md.name());
+                    store.directory().sync(Collections.singleton(md.name())); // sync otherwise MDW will mess with it
+                }
+                listener.onResponse(null);
+            } catch (IOException e) {
+                IOUtils.closeWhileHandlingException(outputs.values());
+                outputs.clear();
+                listener.onFailure(e);
+            }
+        }
+    }
 }
@@ -266,6 +266,8 @@ public class RecoveryTargetTests extends ESTestCase {
         long recoveredBytes = 0;
         long sourceThrottling = Index.UNKNOWN;
         long targetThrottling = Index.UNKNOWN;
+        long fileChunkRoundTripTime = 0;
+        int fileChunkRoundTrips = 0;
         while (bytesToRecover > 0) {
             File file = randomFrom(filesToRecover);
             final long toRecover = Math.min(bytesToRecover, randomIntBetween(1, (int) (file.length() - file.recovered())));
@@ -285,6 +287,12 @@ public class RecoveryTargetTests extends ESTestCase {
                 targetThrottling += throttledOnTarget;
             }
             index.addTargetThrottling(throttledOnTarget);
+            if (randomBoolean()) {
+                final long roundTripTime = randomIntBetween(1, 1000);
+                index.addFileChunkRoundTrip(roundTripTime);
+                fileChunkRoundTripTime += roundTripTime;
+                fileChunkRoundTrips++;
+            }
             bytesToRecover -= toRecover;
             recoveredBytes += toRecover;
             if (file.reused() || file.fullyRecovered()) {
@@ -312,6 +320,7 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(lastRead.stopTime(), equalTo(index.stopTime()));
         assertThat(lastRead.targetThrottling(), equalTo(index.targetThrottling()));
         assertThat(lastRead.sourceThrottling(), equalTo(index.sourceThrottling()));
+        assertThat(lastRead.fileChunkRoundTripTime(), equalTo(index.fileChunkRoundTripTime()));
 
         logger.info("testing post recovery");
         assertThat(index.totalBytes(), equalTo(totalFileBytes));
@@ -324,6 +333,11 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(index.recoveredBytes(), equalTo(recoveredBytes));
         assertThat(index.targetThrottling().nanos(), equalTo(targetThrottling));
         assertThat(index.sourceThrottling().nanos(), equalTo(sourceThrottling));
+        if (fileChunkRoundTrips == 0) {
+            assertThat(index.fileChunkRoundTripTime().nanos(), equalTo(Index.UNKNOWN));
+        } else {
+            assertThat(index.fileChunkRoundTripTime().nanos(), equalTo(fileChunkRoundTripTime / fileChunkRoundTrips));
+        }
         if (index.totalRecoverFiles() == 0) {
             assertThat((double) index.recoveredFilesPercent(), equalTo(100.0));
             assertThat((double) index.recoveredBytesPercent(), equalTo(100.0));
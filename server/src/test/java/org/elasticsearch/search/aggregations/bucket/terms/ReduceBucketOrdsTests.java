@@ -0,0 +1,152 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ReduceBucketOrdsTests extends ESTestCase {
+
+    public void testGroupsBucketsByKey() {
+        final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        final int numBuckets = randomIntBetween(1, 2000);
+        final Map<Long, Integer> expectedCounts = new HashMap<>();
+        final List<LongTerms.Bucket> longBuckets = new ArrayList<>();
+        final List<StringTerms.Bucket> stringBuckets = new ArrayList<>();
+        for (int i = 0; i < numBuckets; i++) {
+            final long key = randomIntBetween(0, 100);
+            expectedCounts.merge(key, 1, Integer::sum);
+            longBuckets.add(new LongTerms.Bucket(key, 1, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+            stringBuckets.add(new StringTerms.Bucket(new BytesRef(Long.toString(key)), 1, InternalAggregations.EMPTY, false, 0,
+                DocValueFormat.RAW));
+        }
+        try (ReduceBucketOrds<LongTerms.Bucket> longOrds = new ReduceBucketOrds.LongKeys<>(bigArrays, bucket -> bucket.term);
+             ReduceBucketOrds<LongTerms.Bucket> objectOrds = new ReduceBucketOrds.ObjectKeys<>(bigArrays);
+             ReduceBucketOrds<StringTerms.Bucket> bytesOrds = new ReduceBucketOrds.BytesRefKeys<>(bigArrays,
+                 bucket -> bucket.termBytes)) {
+            for (int i = 0; i < numBuckets; i++) {
+                longOrds.add(longBuckets.get(i));
+                objectOrds.add(longBuckets.get(i));
+                bytesOrds.add(stringBuckets.get(i));
+            }
+            assertGrouped(longOrds, expectedCounts);
+            assertGrouped(objectOrds, expectedCounts);
+            assertGrouped(bytesOrds, expectedCounts);
+        }
+    }
+
+    private static void assertGrouped(ReduceBucketOrds<?> ords, Map<Long, Integer> expectedCounts) {
+        assertThat(ords.size(), equalTo((long) expectedCounts.size()));
+        for (long ord = 0; ord < ords.size(); ord++) {
+            final List<? extends InternalTerms.Bucket<?>> buckets = ords.buckets(ord);
+            final long key = buckets.get(0).getKeyAsNumber().longValue();
+            for (InternalTerms.Bucket<?> bucket : buckets) {
+                assertThat(bucket.getKeyAsNumber().longValue(), equalTo(key));
+            }
+            assertThat(buckets.size(), equalTo(expectedCounts.get(key)));
+        }
+    }
+
+    public void testBucketsAndListsAreAccounted() {
+        final HierarchyCircuitBreakerService breakerService = new HierarchyCircuitBreakerService(Settings.EMPTY,
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.REQUEST);
+        final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), breakerService);
+        final int numKeys = randomIntBetween(1, 100);
+        final int numBuckets = randomIntBetween(numKeys, 1000);
+        try (ReduceBucketOrds<LongTerms.Bucket> ords = new ReduceBucketOrds.ObjectKeys<>(bigArrays)) {
+            final long usedByArrays = breaker.getUsed();
+            for (int i = 0; i < numBuckets; i++) {
+                ords.add(new LongTerms.Bucket(i % numKeys, 1, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+            }
+            ords.flush();
+            final long bucketBytes = RamUsageEstimator.shallowSizeOfInstance(LongTerms.Bucket.class);
+            final long listBytes = RamUsageEstimator.shallowSizeOfInstance(ArrayList.class);
+            assertThat(breaker.getUsed() - usedByArrays, greaterThanOrEqualTo(numBuckets * bucketBytes + numKeys * listBytes));
+        }
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+
+    public void testBucketsAreChargedInBlocks() {
+        final HierarchyCircuitBreakerService breakerService = new HierarchyCircuitBreakerService(Settings.EMPTY,
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.REQUEST);
+        final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), breakerService);
+        try (ReduceBucketOrds<LongTerms.Bucket> ords = new ReduceBucketOrds.ObjectKeys<>(bigArrays)) {
+            final long usedByArrays = breaker.getUsed();
+            ords.add(new LongTerms.Bucket(0, 1, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+            assertThat(breaker.getUsed(), equalTo(usedByArrays));
+            ords.flush();
+            assertThat(breaker.getUsed(), greaterThan(usedByArrays));
+            assertThat(breaker.getUsed() - usedByArrays, lessThan(ReduceBucketOrds.FLUSH_BYTES));
+        }
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+
+    public void testReduceIsAccountedOnTheRequestBreaker() {
+        final HierarchyCircuitBreakerService breakerService = new HierarchyCircuitBreakerService(
+            Settings.builder().put(REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), 1, ByteSizeUnit.KB).build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), breakerService);
+        final List<InternalAggregation> shardResults = new ArrayList<>();
+        for (int shard = 0; shard < 2; shard++) {
+            final List<StringTerms.Bucket> buckets = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                buckets.add(new StringTerms.Bucket(new BytesRef(randomAlphaOfLength(16)), 1, InternalAggregations.EMPTY, false, 0,
+                    DocValueFormat.RAW));
+            }
+            shardResults.add(new StringTerms("terms", BucketOrder.key(true), 10, 1, Collections.emptyList(), Collections.emptyMap(),
+                DocValueFormat.RAW, 1000, false, 0, buckets, 0));
+        }
+        final InternalAggregation.ReduceContext reduceContext = new InternalAggregation.ReduceContext(bigArrays, null, false);
+        CircuitBreakingException e = expectThrows(CircuitBreakingException.class,
+            () -> shardResults.get(0).doReduce(shardResults, reduceContext));
+        assertThat(e.getMessage(), containsString("[request]"));
+        // everything that was allocated before the breaker tripped has been released
+        assertThat(breakerService.getBreaker(CircuitBreaker.REQUEST).getUsed(), equalTo(0L));
+    }
+}
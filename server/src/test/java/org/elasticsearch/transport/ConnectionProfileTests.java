@@ -24,9 +24,12 @@ import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.equalTo;
 
@@ -139,6 +142,31 @@ public class ConnectionProfileTests extends ESTestCase {
         assertEquals(1, build.getNumConnectionsPerType(TransportRequestOptions.Type.BULK));
     }
 
+    public void testChannelSelectionPrefersLeastQueuedBytes() {
+        ConnectionProfile.Builder builder = new ConnectionProfile.Builder();
+        builder.addConnections(1, TransportRequestOptions.Type.BULK, TransportRequestOptions.Type.STATE,
+            TransportRequestOptions.Type.RECOVERY, TransportRequestOptions.Type.PING);
+        builder.addConnections(4, TransportRequestOptions.Type.REG);
+        ConnectionProfile build = builder.build();
+        List<Integer> list = Arrays.asList(0, 1, 2, 3, 4);
+        ConnectionProfile.ConnectionTypeHandle handle = build.getHandles().get(1);
+        assertEquals(EnumSet.of(TransportRequestOptions.Type.REG), handle.getTypes());
+
+        // without any queued bytes the channels are selected in a round-robin fashion
+        Set<Integer> selected = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            selected.add(handle.getChannel(list, channel -> 0L));
+        }
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 4)), selected);
+
+        final int leastQueued = randomIntBetween(1, 4);
+        final int numIters = randomIntBetween(5, 10);
+        for (int i = 0; i < numIters; i++) {
+            Integer channel = handle.getChannel(list, c -> c == leastQueued ? 1L : randomLongBetween(2, 1024));
+            assertEquals(leastQueued, channel.intValue());
+        }
+    }
+
     public void testNoChannels() {
         ConnectionProfile.Builder builder = new ConnectionProfile.Builder();
         builder.addConnections(1, TransportRequestOptions.Type.BULK,
@@ -60,6 +60,28 @@ public abstract class AbstractBytesReferenceTestCase extends ESTestCase {
         }
     }
 
+    public void testIndexOf() throws IOException {
+        final int length = randomIntBetween(1, PAGE_SIZE * 3);
+        BytesReference pbr = newBytesReference(length);
+        if (randomBoolean()) {
+            final int sliceOffset = randomIntBetween(0, length - 1);
+            pbr = pbr.slice(sliceOffset, randomIntBetween(1, length - sliceOffset));
+        }
+        final byte marker = pbr.get(randomIntBetween(0, pbr.length() - 1));
+        final int probes = randomIntBetween(20, 100);
+        for (int i = 0; i < probes; i++) {
+            final int from = randomIntBetween(0, pbr.length());
+            int expected = -1;
+            for (int j = from; j < pbr.length(); j++) {
+                if (pbr.get(j) == marker) {
+                    expected = j;
+                    break;
+                }
+            }
+            assertEquals(expected, pbr.indexOf(marker, from));
+        }
+    }
+
     public void testLength() throws IOException {
         int[] sizes = {0, randomInt(PAGE_SIZE), PAGE_SIZE, randomInt(PAGE_SIZE * 3)};
 
@@ -105,6 +105,11 @@ public class MockBigArrays extends BigArrays {
         return new MockBigArrays(this.recycler, this.breakerService, true);
     }
 
+    @Override
+    public BigArrays withoutBreakerAccounting() {
+        return new MockBigArrays(this.recycler, null);
+    }
+
     @Override
     public ByteArray newByteArray(long size, boolean clearOnResize) {
         final ByteArrayWrapper array = new ByteArrayWrapper(super.newByteArray(size, clearOnResize), clearOnResize);
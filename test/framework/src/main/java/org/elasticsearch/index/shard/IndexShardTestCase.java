@@ -360,7 +360,7 @@ public abstract class IndexShardTestCase extends ESTestCase {
             indexShard = new IndexShard(routing, indexSettings, shardPath, store, () -> null, indexCache, mapperService, similarityService,
                 engineFactory, indexEventListener, indexSearcherWrapper, threadPool,
                 BigArrays.NON_RECYCLING_INSTANCE, warmer, Collections.emptyList(), Arrays.asList(listeners), globalCheckpointSyncer,
-                breakerService);
+                breakerService, null);
             indexShard.addShardFailureCallback(DEFAULT_SHARD_FAILURE_HANDLER);
             success = true;
         } finally {
@@ -589,7 +589,9 @@ public abstract class IndexShardTestCase extends ESTestCase {
                 primary,
                 recoveryTarget,
                 request,
-                (int) ByteSizeUnit.MB.toBytes(1));
+                (int) ByteSizeUnit.MB.toBytes(1),
+                between(1, 8),
+                between(1, 4));
         primary.updateShardState(primary.routingEntry(), primary.getPendingPrimaryTerm(), null,
             currentClusterStateVersion.incrementAndGet(), inSyncIds, routingTable, Collections.emptySet());
         recovery.recoverToTarget();
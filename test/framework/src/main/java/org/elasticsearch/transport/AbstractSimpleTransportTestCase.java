@@ -2402,6 +2402,7 @@ public abstract class AbstractSimpleTransportTestCase extends ESTestCase {
             assertEquals(2, stats.getTxCount());
             assertEquals(46, stats.getRxSize().getBytes());
             assertEquals(105, stats.getTxSize().getBytes());
+            assertEquals(0, stats.getTxInFlightSize().getBytes());
         } finally {
             serviceC.close();
         }
@@ -273,7 +273,8 @@ public class FollowingEngineTests extends ESTestCase {
                 new NoneCircuitBreakerService(),
                 globalCheckpoint::longValue,
                 () -> primaryTerm.get(),
-                EngineTestCase.tombstoneDocSupplier()
+                EngineTestCase.tombstoneDocSupplier(),
+                null
         );
     }
 